@@ -0,0 +1,76 @@
+package ca.qc.ircm.rnapolymerasepauses;
+
+import ca.qc.ircm.rnapolymerasepauses.io.Compression;
+import ca.qc.ircm.rnapolymerasepauses.validation.FileExistsValidation;
+import com.beust.jcommander.Parameter;
+import com.beust.jcommander.Parameters;
+import com.beust.jcommander.converters.PathConverter;
+import com.beust.jcommander.validators.PositiveInteger;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+
+/**
+ * Runs many commands listed in a manifest file.
+ */
+@Parameters(
+    separators = " =",
+    commandNames = BatchCommand.COMMAND,
+    commandDescription = "Runs commands listed in a manifest file, one command per line with "
+        + "arguments separated by tabs")
+public class BatchCommand {
+  public static final String COMMAND = "batch";
+  private static final Charset CHARSET = StandardCharsets.UTF_8;
+
+  @Parameter(names = { "-h", "-help", "--h", "--help" }, description = "Show help", help = true)
+  public boolean help = false;
+  @Parameter(
+      names = { "-m", "--manifest" },
+      description = "Manifest file. Each line contains a command and its arguments separated by "
+          + "tabs. Empty lines and lines starting with # are ignored. Commands must set their "
+          + "input and output files, commands using system input or output fail",
+      required = true,
+      converter = PathConverter.class,
+      validateWith = FileExistsValidation.class)
+  public Path manifest;
+  @Parameter(
+      names = { "-t", "--threads" },
+      description = "Number of commands to run in parallel. Defaults to 1",
+      validateWith = PositiveInteger.class)
+  public int threads = 1;
+  @Parameter(
+      names = { "-o", "--output" },
+      description = "Report file. Defaults to system output for piping",
+      converter = PathConverter.class)
+  public Path output;
+
+  /**
+   * Returns manifest reader.
+   *
+   * @return manifest reader
+   * @throws IOException
+   *           could not created a reader for manifest
+   */
+  public BufferedReader reader() throws IOException {
+    return Compression.newBufferedReader(manifest);
+  }
+
+  /**
+   * Returns output writer, falls back to <code>System.out</code>.
+   *
+   * @return output writer
+   * @throws IOException
+   *           could not created a writer for output
+   */
+  public BufferedWriter writer() throws IOException {
+    if (output != null) {
+      return Compression.newBufferedWriter(output);
+    } else {
+      return new BufferedWriter(new OutputStreamWriter(System.out, CHARSET));
+    }
+  }
+}
@@ -0,0 +1,126 @@
+package ca.qc.ircm.rnapolymerasepauses;
+
+import ca.qc.ircm.rnapolymerasepauses.io.LineTokenizer;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Predicate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Runs commands of a manifest on a bounded pool of threads.
+ * <p>
+ * A failing command does not stop other commands. Commands that would read standard input or
+ * write to standard output fail, see {@link DetachedCommands}. The report lists, in manifest
+ * order, the line of each command, its status, its duration in milliseconds and its arguments.
+ * </p>
+ */
+class BatchRunner {
+  static final String SUCCESS = "OK";
+  static final String FAILURE = "FAILED";
+  private static final String SEPARATOR = "\t";
+  private static final String LINE_SEPARATOR = "\n";
+  private static final String COMMENT = "#";
+  private static final Logger logger = LoggerFactory.getLogger(BatchRunner.class);
+
+  private BatchRunner() {
+  }
+
+  /**
+   * Runs commands of manifest.
+   *
+   * @param parameters
+   *          parameters
+   * @param executor
+   *          executes a single command line, returns true if command completed
+   * @return true if all commands completed
+   * @throws IOException
+   *           could not read manifest or write report
+   */
+  static boolean run(BatchCommand parameters, Predicate<String[]> executor) throws IOException {
+    List<Job> jobs = jobs(parameters);
+    ExecutorService pool = Executors.newFixedThreadPool(parameters.threads);
+    try {
+      List<Future<Boolean>> results = new ArrayList<>();
+      for (Job job : jobs) {
+        results.add(pool.submit(() -> execute(job, executor)));
+      }
+      int failures = 0;
+      try (BufferedWriter writer = parameters.writer()) {
+        writer.write("line\tstatus\tmilliseconds\tcommand");
+        writer.write(LINE_SEPARATOR);
+        for (int i = 0; i < jobs.size(); i++) {
+          Job job = jobs.get(i);
+          boolean success = ParallelTrackConverter.waitFor(results.get(i));
+          if (!success) {
+            failures++;
+          }
+          writer.write(String.valueOf(job.line));
+          writer.write(SEPARATOR);
+          writer.write(success ? SUCCESS : FAILURE);
+          writer.write(SEPARATOR);
+          writer.write(String.valueOf(job.milliseconds));
+          writer.write(SEPARATOR);
+          writer.write(String.join(" ", job.arguments));
+          writer.write(LINE_SEPARATOR);
+          writer.flush();
+        }
+      }
+      logger.info("Ran {} commands, {} failed", jobs.size(), failures);
+      return failures == 0;
+    } finally {
+      pool.shutdownNow();
+    }
+  }
+
+  private static List<Job> jobs(BatchCommand parameters) throws IOException {
+    List<Job> jobs = new ArrayList<>();
+    try (LineTokenizer tokenizer = new LineTokenizer(parameters.reader(), LineTokenizer.TAB)) {
+      int line = 0;
+      while (tokenizer.nextLine()) {
+        line++;
+        if (tokenizer.isEmpty() || tokenizer.startsWith(COMMENT)) {
+          continue;
+        }
+        Job job = new Job();
+        job.line = line;
+        job.arguments = new String[tokenizer.columns()];
+        for (int i = 0; i < job.arguments.length; i++) {
+          job.arguments[i] = tokenizer.string(i);
+        }
+        jobs.add(job);
+      }
+    }
+    return jobs;
+  }
+
+  private static boolean execute(Job job, Predicate<String[]> executor) {
+    long start = System.nanoTime();
+    try {
+      if (job.arguments[0].equals(BatchCommand.COMMAND)
+          || job.arguments[0].equals(ServeCommand.COMMAND)) {
+        System.err.println(
+            "Line " + job.line + ": " + job.arguments[0] + " cannot be used inside a manifest");
+        return false;
+      }
+      return executor.test(job.arguments);
+    } catch (RuntimeException e) {
+      System.err.println("Line " + job.line + ": command failed");
+      e.printStackTrace();
+      return false;
+    } finally {
+      job.milliseconds = (System.nanoTime() - start) / 1000000;
+    }
+  }
+
+  private static class Job {
+    private int line;
+    private String[] arguments;
+    private volatile long milliseconds;
+  }
+}
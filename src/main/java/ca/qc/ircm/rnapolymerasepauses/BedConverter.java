@@ -1,11 +1,20 @@
 package ca.qc.ircm.rnapolymerasepauses;
 
+import ca.qc.ircm.rnapolymerasepauses.ParallelTrackConverter.Output;
 import ca.qc.ircm.rnapolymerasepauses.io.ChromosomeSizesParser;
+import ca.qc.ircm.rnapolymerasepauses.io.Compression;
+import ca.qc.ircm.rnapolymerasepauses.io.LineTokenizer;
+import ca.qc.ircm.rnapolymerasepauses.io.PauseWriter;
+import ca.qc.ircm.rnapolymerasepauses.io.TrackFormat;
+import ca.qc.ircm.rnapolymerasepauses.io.TrackWriter;
+import ca.qc.ircm.rnapolymerasepauses.io.TssParser;
 import java.io.BufferedReader;
-import java.io.BufferedWriter;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.nio.file.Path;
+import java.util.List;
 import java.util.Map;
-import java.util.regex.Pattern;
 import javax.inject.Inject;
 import org.springframework.stereotype.Component;
 
@@ -14,24 +23,35 @@ import org.springframework.stereotype.Component;
  */
 @Component
 public class BedConverter {
-  private static final String LINE_SEPARATOR = "\n";
-  private static final String COLUMN_SEPARATOR = "[\\t\\s]";
-  private static final String BROWSER_PATTERN = "^browser( .*)?$";
-  private static final String TRACK_PATTERN = "^track( .*)?$";
+  private static final String BROWSER = "browser";
+  private static final String TRACK = "track";
   private static final String COMMENT = "#";
-  private static final String CHROMOSOME_PATTERN = "chrom=%s";
+  private static final int NAME_COLUMN = 3;
+  private static final int SCORE_COLUMN = 4;
+  private static final int STRAND_COLUMN = 5;
+  private static final String SIZES_STAGE = "chromosome sizes";
+  private static final String CHROMOSOME_STAGE = "chromosome ";
+  private static final String TSS_STAGE = "tss";
+  private static final String CONVERT_STAGE = "convert";
   @Inject
   private ChromosomeSizesParser chromosomeSizesParser;
+  @Inject
+  private TssParser tssParser;
 
   protected BedConverter() {
   }
 
-  protected BedConverter(ChromosomeSizesParser chromosomeSizesParser) {
+  protected BedConverter(ChromosomeSizesParser chromosomeSizesParser, TssParser tssParser) {
     this.chromosomeSizesParser = chromosomeSizesParser;
+    this.tssParser = tssParser;
   }
 
   /**
    * Converts BED file to track file.
+   * <p>
+   * When {@link BedToTrackCommand#minusInput} is set, plus and minus strands are converted
+   * concurrently using the same chromosome sizes.
+   * </p>
    *
    * @param parameters
    *          parameters
@@ -39,64 +59,174 @@ public class BedConverter {
    *           could not read BED or write to output
    */
   public void bedToTrack(BedToTrackCommand parameters) throws IOException {
-    final Map<String, Long> sizes =
-        chromosomeSizesParser.chromosomeSizes(parameters.chromosomeSizes);
-    Pattern browserPattern = Pattern.compile(BROWSER_PATTERN);
-    Pattern trackPattern = Pattern.compile(TRACK_PATTERN);
-    try (BufferedReader reader = parameters.reader(); BufferedWriter writer = parameters.writer()) {
-      String chromosome = "not a valid chromosome";
-      long position = 0;
-      long size = 0;
-      String line;
-      while ((line = reader.readLine()) != null) {
-        if (browserPattern.matcher(line).matches() || trackPattern.matcher(line).matches()
-            || line.startsWith(COMMENT)) {
+    final Map<String, Long> sizes;
+    try (RunMetrics.Timer timer = RunMetrics.current().stage(SIZES_STAGE)) {
+      sizes = chromosomeSizesParser.chromosomeSizes(parameters.chromosomeSizes);
+    }
+    if (parameters.minusInput == null) {
+      bedToTrack(parameters.input, parameters.output, parameters.threads, parameters.format,
+          parameters::reader, parameters::writer, parameters::outputStream, sizes);
+      return;
+    }
+    if (parameters.minusOutput == null) {
+      throw new IOException("Minus strand output is required when minus strand input is set");
+    }
+    final int threads = Math.max(parameters.threads / 2, 1);
+    StrandPair.run(
+        () -> bedToTrack(parameters.input, parameters.output, threads, parameters.format,
+            parameters::reader, parameters::writer, parameters::outputStream, sizes),
+        () -> bedToTrack(parameters.minusInput, parameters.minusOutput, threads, parameters.format,
+            parameters::minusReader, parameters::minusWriter, parameters::minusOutputStream,
+            sizes));
+  }
+
+  private void bedToTrack(Path input, Path output, int threads, TrackFormat format,
+      Output<BufferedReader> reader, Output<? extends Writer> writer,
+      Output<? extends OutputStream> outputStream, Map<String, Long> sizes) throws IOException {
+    if (threads > 1 && input != null && !Compression.isCompressed(input)) {
+      ParallelTrackConverter.convert(input, ParallelTrackConverter.bedBlocks(input), output,
+          threads, format, writer, outputStream,
+          (blockReader, blockWriter) -> bedToTrack(blockReader, blockWriter, sizes));
+      return;
+    }
+    try (BufferedReader inputReader = reader.get();
+        TrackWriter trackWriter =
+            ParallelTrackConverter.trackWriter(format, writer, outputStream)) {
+      bedToTrack(inputReader, trackWriter, sizes);
+    }
+  }
+
+  private void bedToTrack(BufferedReader reader, TrackWriter writer, Map<String, Long> sizes)
+      throws IOException {
+    LineTokenizer tokenizer = new LineTokenizer(reader, LineTokenizer.WHITESPACE);
+    RunMetrics metrics = RunMetrics.current();
+    RunMetrics.Timer timer = null;
+    String chromosome = "not a valid chromosome";
+    long position = 0;
+    long size = 0;
+    while (tokenizer.nextLine()) {
+      if (tokenizer.columnEquals(0, BROWSER) || tokenizer.columnEquals(0, TRACK)
+          || tokenizer.startsWith(COMMENT)) {
+        continue;
+      }
+      if (tokenizer.columns() < 4) {
+        throw new IllegalStateException("BED file does not contain score for all lines");
+      }
+      if (!tokenizer.columnEquals(0, chromosome)) {
+        writer.write(0, size - position);
+        if (timer != null) {
+          timer.close();
+        }
+        chromosome = tokenizer.string(0);
+        timer = metrics.stage(CHROMOSOME_STAGE + chromosome);
+        position = 0;
+        writer.startChromosome(chromosome);
+        if (!sizes.containsKey(chromosome)) {
+          throw new IllegalStateException("Sizes file does not contain chromosome " + chromosome);
+        }
+        size = sizes.get(chromosome);
+      }
+
+      long start = Math.min(tokenizer.longValue(1), size);
+      long end = Math.min(tokenizer.longValue(2), size + 1);
+      double score;
+      if (tokenizer.columns() == 4) {
+        score = tokenizer.doubleValue(3);
+      } else {
+        score = tokenizer.doubleValue(4);
+      }
+      if (position < start) {
+        writer.write(0, start - position);
+        position = start;
+      }
+      if (position < end) {
+        writer.write(String.valueOf(score), score, end - position);
+        position = end;
+      }
+    }
+    writer.write(0, size - position);
+    if (timer != null) {
+      timer.close();
+    }
+  }
+
+  /**
+   * Converts BED file to pauses file.
+   * <p>
+   * Each BED line is a pause located at its start. A pause is written for every gene of the TSS
+   * file overlapping the start, on the same strand when BED file contains strands. If a BED line
+   * has a name matching one of the overlapping genes, only this gene is used, so BED files written
+   * by {@link PausesConverter#pausesToBed(PausesToBedCommand)} are converted back to the original
+   * pauses. Position of pause is relative to gene's start and BED score becomes folds above
+   * average.
+   * </p>
+   *
+   * @param parameters
+   *          parameters
+   * @throws IOException
+   *           could not read BED or TSS file or write to output
+   */
+  public void bedToPauses(BedToPausesCommand parameters) throws IOException {
+    List<Gene> genes;
+    GeneIndex index;
+    try (RunMetrics.Timer timer = RunMetrics.current().stage(TSS_STAGE)) {
+      genes = tssParser.genes(parameters.tss);
+      index = new GeneIndex(genes);
+    }
+    try (RunMetrics.Timer timer = RunMetrics.current().stage(CONVERT_STAGE);
+        LineTokenizer tokenizer = new LineTokenizer(parameters.reader(), LineTokenizer.WHITESPACE);
+        PauseWriter writer = new PauseWriter(parameters.writer())) {
+      int[] overlaps = new int[16];
+      Pause pause = new Pause();
+      while (tokenizer.nextLine()) {
+        if (tokenizer.columnEquals(0, BROWSER) || tokenizer.columnEquals(0, TRACK)
+            || tokenizer.startsWith(COMMENT) || tokenizer.isEmpty()) {
           continue;
         }
-        String[] columns = line.split(COLUMN_SEPARATOR, -1);
-        if (columns.length < 4) {
-          throw new IllegalStateException("BED file does not contain score for all lines");
+        if (tokenizer.columns() < 3) {
+          throw new IllegalStateException("BED file does not contain start and end for all lines");
         }
-        if (!chromosome.equals(columns[0])) {
-          while (position < size) {
-            writer.write("0");
-            writer.write(LINE_SEPARATOR);
-            position++;
-          }
-          chromosome = columns[0];
-          position = 0;
-          writer.write(String.format(CHROMOSOME_PATTERN, chromosome));
-          writer.write(LINE_SEPARATOR);
-          if (!sizes.containsKey(chromosome)) {
-            throw new IllegalStateException("Sizes file does not contain chromosome " + chromosome);
-          }
-          size = sizes.get(chromosome);
+        if (pause.chromosome == null || !tokenizer.columnEquals(0, pause.chromosome)) {
+          pause.chromosome = tokenizer.string(0);
         }
-
-        long start = Math.min(Long.parseLong(columns[1]), size);
-        long end = Math.min(Long.parseLong(columns[2]), size + 1);
-        double score;
-        if (columns.length == 4) {
-          score = Double.parseDouble(columns[3]);
-        } else {
-          score = Double.parseDouble(columns[4]);
+        long position = tokenizer.longValue(1);
+        String strand = parameters.ignoreStrand ? null : strand(tokenizer);
+        int count = index.overlaps(pause.chromosome, strand, position, overlaps);
+        if (count > overlaps.length) {
+          overlaps = new int[count];
+          index.overlaps(pause.chromosome, strand, position, overlaps);
         }
-        while (position < start) {
-          writer.write("0");
-          writer.write(LINE_SEPARATOR);
-          position++;
+        int named = -1;
+        if (tokenizer.columns() > NAME_COLUMN) {
+          for (int i = 0; i < count && named < 0; i++) {
+            if (tokenizer.columnEquals(NAME_COLUMN, genes.get(overlaps[i]).name)) {
+              named = overlaps[i];
+            }
+          }
         }
-        while (position < end) {
-          writer.write(String.valueOf(score));
-          writer.write(LINE_SEPARATOR);
-          position++;
+        pause.foldsAboveAverage =
+            tokenizer.columns() > SCORE_COLUMN ? tokenizer.doubleValue(SCORE_COLUMN) : 0;
+        for (int i = 0; i < count; i++) {
+          if (named < 0 || overlaps[i] == named) {
+            Gene gene = genes.get(overlaps[i]);
+            pause.name = gene.name;
+            pause.position = (int) (position - gene.start);
+            writer.writePause(pause);
+          }
         }
       }
-      while (position < size) {
-        writer.write("0");
-        writer.write(LINE_SEPARATOR);
-        position++;
-      }
+    }
+  }
+
+  private String strand(LineTokenizer tokenizer) {
+    if (tokenizer.columns() <= STRAND_COLUMN) {
+      return null;
+    } else if (tokenizer.columnEquals(STRAND_COLUMN, Gene.PLUS_STRAND)) {
+      return Gene.PLUS_STRAND;
+    } else if (tokenizer.columnEquals(STRAND_COLUMN, Gene.MINUS_STRAND)) {
+      return Gene.MINUS_STRAND;
+    } else {
+      return null;
     }
   }
 }
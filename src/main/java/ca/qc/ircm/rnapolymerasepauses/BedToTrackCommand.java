@@ -1,17 +1,20 @@
 package ca.qc.ircm.rnapolymerasepauses;
 
+import ca.qc.ircm.rnapolymerasepauses.io.Compression;
+import ca.qc.ircm.rnapolymerasepauses.io.TrackFormat;
 import ca.qc.ircm.rnapolymerasepauses.validation.FileExistsValidation;
 import com.beust.jcommander.Parameter;
 import com.beust.jcommander.Parameters;
 import com.beust.jcommander.converters.PathConverter;
+import com.beust.jcommander.validators.PositiveInteger;
+import java.io.BufferedOutputStream;
 import java.io.BufferedReader;
 import java.io.BufferedWriter;
 import java.io.IOException;
-import java.io.InputStreamReader;
+import java.io.OutputStream;
 import java.io.OutputStreamWriter;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
-import java.nio.file.Files;
 import java.nio.file.Path;
 
 /**
@@ -45,6 +48,30 @@ public class BedToTrackCommand {
       description = "Output file. Defaults to system output for piping",
       converter = PathConverter.class)
   public Path output;
+  @Parameter(
+      names = { "--minusInput" },
+      description = "Input file of minus strand. When set, input is the plus strand and both "
+          + "strands are converted concurrently, chromosome sizes are parsed once",
+      converter = PathConverter.class,
+      validateWith = FileExistsValidation.class)
+  public Path minusInput;
+  @Parameter(
+      names = { "--minusOutput" },
+      description = "Output file of minus strand. Required when minus strand input is set",
+      converter = PathConverter.class)
+  public Path minusOutput;
+  @Parameter(
+      names = { "-f", "--format" },
+      description = "Output track format, either text, rle or binary. RLE writes consecutive "
+          + "identical values once, binary tracks can be memory-mapped by other commands")
+  public TrackFormat format = TrackFormat.TEXT;
+  @Parameter(
+      names = { "-t", "--threads" },
+      description = "Number of threads used to convert chromosomes in parallel. "
+          + "Requires an uncompressed input file. Threads are divided between strands "
+          + "when minus strand input is set. Defaults to 1",
+      validateWith = PositiveInteger.class)
+  public int threads = 1;
 
   /**
    * Returns input reader, falls back to <code>System.in</code>.
@@ -55,9 +82,9 @@ public class BedToTrackCommand {
    */
   public BufferedReader reader() throws IOException {
     if (input != null) {
-      return Files.newBufferedReader(input);
+      return Compression.newBufferedReader(input);
     } else {
-      return new BufferedReader(new InputStreamReader(System.in, CHARSET));
+      return Compression.newBufferedReader(System.in);
     }
   }
 
@@ -70,9 +97,57 @@ public class BedToTrackCommand {
    */
   public BufferedWriter writer() throws IOException {
     if (output != null) {
-      return Files.newBufferedWriter(output);
+      return Compression.newBufferedWriter(output);
     } else {
       return new BufferedWriter(new OutputStreamWriter(System.out, CHARSET));
     }
   }
+
+  /**
+   * Returns output stream, falls back to <code>System.out</code>.
+   *
+   * @return output stream
+   * @throws IOException
+   *           could not created a stream for output, name ends with .gz or .bgz
+   */
+  public OutputStream outputStream() throws IOException {
+    if (output != null) {
+      return Compression.newMappedOutputStream(output);
+    } else {
+      return new BufferedOutputStream(System.out);
+    }
+  }
+
+  /**
+   * Returns minus strand input reader.
+   *
+   * @return minus strand input reader
+   * @throws IOException
+   *           could not created a reader for minus strand input
+   */
+  public BufferedReader minusReader() throws IOException {
+    return Compression.newBufferedReader(minusInput);
+  }
+
+  /**
+   * Returns minus strand output writer.
+   *
+   * @return minus strand output writer
+   * @throws IOException
+   *           could not created a writer for minus strand output
+   */
+  public BufferedWriter minusWriter() throws IOException {
+    return Compression.newBufferedWriter(minusOutput);
+  }
+
+  /**
+   * Returns minus strand output stream.
+   *
+   * @return minus strand output stream
+   * @throws IOException
+   *           could not created a stream for minus strand output, name ends with .gz or .bgz
+   */
+  public OutputStream minusOutputStream() throws IOException {
+    return Compression.newMappedOutputStream(minusOutput);
+  }
 }
@@ -0,0 +1,217 @@
+package ca.qc.ircm.rnapolymerasepauses;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Predicate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Runs commands received on a local port.
+ * <p>
+ * Each connection sends a line containing the server's token followed by a single line containing
+ * a command and its arguments separated by tabs and receives a single line containing
+ * {@link #SUCCESS} or {@link #FAILURE} once the command is done. The token is generated when the
+ * server starts and is written to a token file that only the owner can read, so only the owner can
+ * run commands on the server. Commands run on a bounded pool of threads and a failing command does
+ * not stop the server.
+ * Sending {@link ServeCommand#COMMAND} with {@link ServeCommand#STOP} stops the server.
+ * </p>
+ */
+class CommandServer implements Closeable {
+  static final String SUCCESS = "OK";
+  static final String FAILURE = "FAILED";
+  private static final String SEPARATOR = "\t";
+  private static final String LINE_SEPARATOR = "\n";
+  private static final Charset CHARSET = StandardCharsets.UTF_8;
+  private static final int BACKLOG = 50;
+  private static final int TOKEN_LENGTH = 32;
+  private static final String TOKEN_FILE_PERMISSIONS = "rw-------";
+  private static final Logger logger = LoggerFactory.getLogger(CommandServer.class);
+  private final ServerSocket serverSocket;
+  private final ExecutorService pool;
+  private final Path tokenFile;
+  private final byte[] token;
+  private final Predicate<String[]> executor;
+  private volatile boolean closed;
+
+  /**
+   * Creates server listening on port of loopback address.
+   *
+   * @param port
+   *          port, 0 to use any free port
+   * @param threads
+   *          number of commands to run in parallel
+   * @param tokenFile
+   *          file where to write token that clients must send, replaced if it exists
+   * @param executor
+   *          executes a single command line, returns true if command completed
+   * @throws IOException
+   *           could not listen on port or could not write token file
+   */
+  CommandServer(int port, int threads, Path tokenFile, Predicate<String[]> executor)
+      throws IOException {
+    this.serverSocket = new ServerSocket(port, BACKLOG, InetAddress.getLoopbackAddress());
+    this.tokenFile = tokenFile;
+    byte[] random = new byte[TOKEN_LENGTH];
+    new SecureRandom().nextBytes(random);
+    this.token = Base64.getUrlEncoder().withoutPadding().encode(random);
+    try {
+      writeToken();
+    } catch (IOException | RuntimeException e) {
+      serverSocket.close();
+      throw e;
+    }
+    this.pool = Executors.newFixedThreadPool(threads);
+    this.executor = executor;
+  }
+
+  private void writeToken() throws IOException {
+    Files.deleteIfExists(tokenFile);
+    try {
+      Files.createFile(tokenFile, PosixFilePermissions
+          .asFileAttribute(PosixFilePermissions.fromString(TOKEN_FILE_PERMISSIONS)));
+    } catch (UnsupportedOperationException e) {
+      logger.warn("Could not restrict permissions of token file {}", tokenFile);
+      Files.createFile(tokenFile);
+    }
+    Files.write(tokenFile, (new String(token, CHARSET) + LINE_SEPARATOR).getBytes(CHARSET));
+  }
+
+  /**
+   * Sends command to server listening on port of loopback address and waits for reply.
+   *
+   * @param port
+   *          port
+   * @param tokenFile
+   *          token file written by server
+   * @param args
+   *          command and its arguments
+   * @return true if command completed
+   * @throws IOException
+   *           could not read token file or could not communicate with server
+   */
+  static boolean send(int port, Path tokenFile, String... args) throws IOException {
+    List<String> token = Files.readAllLines(tokenFile, CHARSET);
+    try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), port);
+        Writer writer = new OutputStreamWriter(socket.getOutputStream(), CHARSET);
+        BufferedReader reader =
+            new BufferedReader(new InputStreamReader(socket.getInputStream(), CHARSET))) {
+      writer.write(token.isEmpty() ? "" : token.get(0));
+      writer.write(LINE_SEPARATOR);
+      writer.write(String.join(SEPARATOR, args));
+      writer.write(LINE_SEPARATOR);
+      writer.flush();
+      return SUCCESS.equals(reader.readLine());
+    }
+  }
+
+  /**
+   * Returns port on which server listens.
+   *
+   * @return port on which server listens
+   */
+  int port() {
+    return serverSocket.getLocalPort();
+  }
+
+  /**
+   * Accepts connections until server is closed.
+   *
+   * @throws IOException
+   *           could not accept connection
+   */
+  void run() throws IOException {
+    logger.info("Listening on port {}", port());
+    while (!closed) {
+      Socket socket;
+      try {
+        socket = serverSocket.accept();
+      } catch (SocketException e) {
+        if (closed) {
+          break;
+        }
+        throw e;
+      }
+      pool.execute(() -> handle(socket));
+    }
+    logger.info("Stopped listening on port {}", port());
+  }
+
+  private void handle(Socket socket) {
+    try (Socket closeable = socket;
+        BufferedReader reader =
+            new BufferedReader(new InputStreamReader(socket.getInputStream(), CHARSET));
+        Writer writer = new OutputStreamWriter(socket.getOutputStream(), CHARSET)) {
+      String clientToken = reader.readLine();
+      String line = reader.readLine();
+      boolean success = false;
+      if (clientToken == null || !MessageDigest.isEqual(token, clientToken.getBytes(CHARSET))) {
+        logger.warn("Rejected connection with an invalid token");
+      } else {
+        success = line != null && !line.isEmpty() && execute(line.split(SEPARATOR, -1));
+      }
+      writer.write(success ? SUCCESS : FAILURE);
+      writer.write(LINE_SEPARATOR);
+    } catch (IOException e) {
+      logger.warn("Could not communicate with client", e);
+    }
+  }
+
+  private boolean execute(String[] args) {
+    if (args[0].equals(ServeCommand.COMMAND)) {
+      if (args.length == 2 && args[1].equalsIgnoreCase(ServeCommand.STOP)) {
+        close();
+        return true;
+      }
+      System.err.println(ServeCommand.COMMAND + " can only be used with " + ServeCommand.STOP
+          + " when sent to server");
+      return false;
+    }
+    long start = System.nanoTime();
+    try {
+      return executor.test(args);
+    } catch (RuntimeException e) {
+      System.err.println("Command failed");
+      e.printStackTrace();
+      return false;
+    } finally {
+      logger.debug("Ran {} in {} milliseconds", args[0], (System.nanoTime() - start) / 1000000);
+    }
+  }
+
+  @Override
+  public void close() {
+    closed = true;
+    try {
+      serverSocket.close();
+    } catch (IOException e) {
+      logger.warn("Could not close server on port {}", port(), e);
+    }
+    try {
+      Files.deleteIfExists(tokenFile);
+    } catch (IOException e) {
+      logger.warn("Could not delete token file {}", tokenFile, e);
+    }
+    pool.shutdown();
+  }
+}
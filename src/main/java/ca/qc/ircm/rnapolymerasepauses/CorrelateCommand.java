@@ -0,0 +1,139 @@
+package ca.qc.ircm.rnapolymerasepauses;
+
+import ca.qc.ircm.rnapolymerasepauses.io.Compression;
+import ca.qc.ircm.rnapolymerasepauses.io.TrackFormat;
+import ca.qc.ircm.rnapolymerasepauses.validation.FileExistsValidation;
+import com.beust.jcommander.Parameter;
+import com.beust.jcommander.Parameters;
+import com.beust.jcommander.converters.PathConverter;
+import com.beust.jcommander.validators.PositiveInteger;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+
+/**
+ * Correlates reads of genes between two samples.
+ */
+@Parameters(
+    separators = " =",
+    commandNames = CorrelateCommand.COMMAND,
+    commandDescription = "Correlates reads of genes between two samples")
+public class CorrelateCommand {
+  public static final String COMMAND = "correlate";
+  private static final Charset CHARSET = StandardCharsets.UTF_8;
+
+  @Parameter(names = { "-h", "-help", "--h", "--help" }, description = "Show help", help = true)
+  public boolean help = false;
+  @Parameter(
+      names = { "--plus1" },
+      description = "Track file of plus strand of first sample",
+      required = true,
+      converter = PathConverter.class,
+      validateWith = FileExistsValidation.class)
+  public Path plus1;
+  @Parameter(
+      names = { "--minus1" },
+      description = "Track file of minus strand of first sample",
+      required = true,
+      converter = PathConverter.class,
+      validateWith = FileExistsValidation.class)
+  public Path minus1;
+  @Parameter(
+      names = { "--plus2" },
+      description = "Track file of plus strand of second sample",
+      required = true,
+      converter = PathConverter.class,
+      validateWith = FileExistsValidation.class)
+  public Path plus2;
+  @Parameter(
+      names = { "--minus2" },
+      description = "Track file of minus strand of second sample",
+      required = true,
+      converter = PathConverter.class,
+      validateWith = FileExistsValidation.class)
+  public Path minus2;
+  @Parameter(
+      names = { "--format" },
+      description = "Input track format, either text, rle or binary")
+  public TrackFormat format = TrackFormat.TEXT;
+  @Parameter(
+      names = { "-t", "--tss" },
+      description = "TSS file",
+      required = true,
+      converter = PathConverter.class,
+      validateWith = FileExistsValidation.class)
+  public Path tss;
+  @Parameter(
+      names = { "--threads" },
+      description = "Number of threads used to correlate genes in parallel. Defaults to 1",
+      validateWith = PositiveInteger.class)
+  public int threads = 1;
+  @Parameter(
+      names = { "-o", "--output" },
+      description = "Output file. Defaults to system output for piping",
+      converter = PathConverter.class)
+  public Path output;
+
+  /**
+   * Returns reader of plus strand of first sample.
+   *
+   * @return reader of plus strand of first sample
+   * @throws IOException
+   *           could not created a reader for plus strand of first sample
+   */
+  public BufferedReader plus1Reader() throws IOException {
+    return Compression.newBufferedReader(plus1);
+  }
+
+  /**
+   * Returns reader of minus strand of first sample.
+   *
+   * @return reader of minus strand of first sample
+   * @throws IOException
+   *           could not created a reader for minus strand of first sample
+   */
+  public BufferedReader minus1Reader() throws IOException {
+    return Compression.newBufferedReader(minus1);
+  }
+
+  /**
+   * Returns reader of plus strand of second sample.
+   *
+   * @return reader of plus strand of second sample
+   * @throws IOException
+   *           could not created a reader for plus strand of second sample
+   */
+  public BufferedReader plus2Reader() throws IOException {
+    return Compression.newBufferedReader(plus2);
+  }
+
+  /**
+   * Returns reader of minus strand of second sample.
+   *
+   * @return reader of minus strand of second sample
+   * @throws IOException
+   *           could not created a reader for minus strand of second sample
+   */
+  public BufferedReader minus2Reader() throws IOException {
+    return Compression.newBufferedReader(minus2);
+  }
+
+  /**
+   * Returns output writer, falls back to <code>System.out</code>.
+   *
+   * @return output writer
+   * @throws IOException
+   *           could not created a writer for output
+   */
+  public BufferedWriter writer() throws IOException {
+    if (output != null) {
+      return Compression.newBufferedWriter(output);
+    } else {
+      return new BufferedWriter(new OutputStreamWriter(System.out, CHARSET));
+    }
+  }
+}
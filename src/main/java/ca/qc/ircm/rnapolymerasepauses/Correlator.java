@@ -0,0 +1,371 @@
+package ca.qc.ircm.rnapolymerasepauses;
+
+import ca.qc.ircm.rnapolymerasepauses.ParallelTrackConverter.Output;
+import ca.qc.ircm.rnapolymerasepauses.io.DoubleFormatter;
+import ca.qc.ircm.rnapolymerasepauses.io.TrackFormat;
+import ca.qc.ircm.rnapolymerasepauses.io.TssParser;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+import javax.inject.Inject;
+import org.springframework.stereotype.Component;
+
+/**
+ * Correlates reads of genes between two samples.
+ * <p>
+ * This is a port of <code>getCorrelations</code> and <code>getSpearCorrelations</code> from
+ * Churchman et al. Reads of genes are read by {@link GeneReadsReader} from the plus strand tracks
+ * for genes on the plus strand and from the minus strand tracks for other genes. Reads of genes
+ * that are not on the plus strand are reversed so that reads always start at the TSS.
+ * </p>
+ * <p>
+ * The four tracks are read once and concurrently. Reads of a gene are kept until the gene is read
+ * in the other sample, then the gene is correlated on a pool of threads while tracks are still
+ * being read. A track that is read faster than the track of the same strand in the other sample
+ * waits once it has {@value #MAX_PENDING_GENES} genes waiting for the other sample. Pearson
+ * correlation is computed in a single pass using streaming moments and Spearman correlation is the
+ * Pearson correlation of ranks computed in primitive arrays.
+ * </p>
+ */
+@Component
+public class Correlator {
+  private static final int MIN_GENE_LENGTH = 500;
+  private static final int END_LENGTH = 500;
+  private static final int MAX_PENDING_GENES = 256;
+  private static final String SEPARATOR = "\t";
+  private static final String LINE_SEPARATOR = "\n";
+  private static final String NAN = "NaN";
+  private static final String TSS_STAGE = "tss";
+  private static final String WRITE_STAGE = "write";
+  @Inject
+  private TssParser tssParser;
+
+  protected Correlator() {
+  }
+
+  protected Correlator(TssParser tssParser) {
+    this.tssParser = tssParser;
+  }
+
+  /**
+   * Correlates reads of genes between two samples.
+   * <p>
+   * Only genes longer than 500 bases are correlated. Output contains one line per gene, in the
+   * order of TSS file, with the following columns: name, Pearson correlation, Spearman correlation,
+   * mean reads of the last 500 bases of gene in first sample and in second sample. Correlations
+   * are NaN when reads of gene are constant in one sample. Genes whose chromosome is missing from
+   * a track are not written.
+   * </p>
+   *
+   * @param parameters
+   *          parameters
+   * @throws IOException
+   *           could not read track or TSS file or write to output
+   */
+  public void correlate(CorrelateCommand parameters) throws IOException {
+    List<Gene> genes;
+    try (RunMetrics.Timer timer = RunMetrics.current().stage(TSS_STAGE)) {
+      genes = tssParser.genes(parameters.tss).stream()
+          .filter(gene -> gene.end - gene.start > MIN_GENE_LENGTH).collect(Collectors.toList());
+    }
+    Map<String, List<Gene>> plusGenes = GeneReadsReader.byChromosome(genes.stream()
+        .filter(gene -> gene.strand.equals(Gene.PLUS_STRAND)).collect(Collectors.toList()));
+    Map<String, List<Gene>> minusGenes = GeneReadsReader.byChromosome(genes.stream()
+        .filter(gene -> !gene.strand.equals(Gene.PLUS_STRAND)).collect(Collectors.toList()));
+    ExecutorService readers = Executors.newFixedThreadPool(3);
+    ForkJoinPool pool = new ForkJoinPool(parameters.threads);
+    Correlations correlations = new Correlations(genes, pool);
+    try {
+      List<Future<Void>> tasks = new ArrayList<>();
+      tasks.add(readers.submit(() -> read(plusGenes, true, parameters.plus2,
+          parameters::plus2Reader, parameters.format, false, correlations)));
+      tasks.add(readers.submit(() -> read(minusGenes, false, parameters.minus1,
+          parameters::minus1Reader, parameters.format, true, correlations)));
+      tasks.add(readers.submit(() -> read(minusGenes, false, parameters.minus2,
+          parameters::minus2Reader, parameters.format, false, correlations)));
+      read(plusGenes, true, parameters.plus1, parameters::plus1Reader, parameters.format, true,
+          correlations);
+      for (Future<Void> task : tasks) {
+        ParallelTrackConverter.waitFor(task);
+      }
+      correlations.waitForTasks();
+    } finally {
+      readers.shutdownNow();
+      pool.shutdownNow();
+    }
+    try (RunMetrics.Timer timer = RunMetrics.current().stage(WRITE_STAGE);
+        BufferedWriter writer = parameters.writer()) {
+      DoubleFormatter correlationFormat = new DoubleFormatter(16);
+      DoubleFormatter readsFormat = new DoubleFormatter(10);
+      for (int i = 0; i < genes.size(); i++) {
+        Correlation correlation = correlations.correlations[i];
+        if (correlation == null) {
+          continue;
+        }
+        writer.write(genes.get(i).name);
+        writer.write(SEPARATOR);
+        writer.write(format(correlationFormat, correlation.pearson));
+        writer.write(SEPARATOR);
+        writer.write(format(correlationFormat, correlation.spearman));
+        writer.write(SEPARATOR);
+        writer.write(readsFormat.format(correlation.reads1));
+        writer.write(SEPARATOR);
+        writer.write(readsFormat.format(correlation.reads2));
+        writer.write(LINE_SEPARATOR);
+      }
+    }
+  }
+
+  private Void read(Map<String, List<Gene>> genes, boolean plus, Path input,
+      Output<BufferedReader> reader, TrackFormat format, boolean first, Correlations correlations)
+      throws IOException {
+    try {
+      GeneReadsReader.read(genes, input, reader, format,
+          (gene, reads) -> correlations.add(gene, first, reads));
+    } finally {
+      correlations.done(plus, first);
+    }
+    return null;
+  }
+
+  private String format(DoubleFormatter formatter, double value) {
+    return Double.isNaN(value) ? NAN : formatter.format(value);
+  }
+
+  /**
+   * Correlates reads of a gene between two samples.
+   *
+   * @param reads1
+   *          reads of gene in first sample, starting at TSS
+   * @param reads2
+   *          reads of gene in second sample, starting at TSS
+   * @return correlation of reads
+   */
+  static Correlation correlation(double[] reads1, double[] reads2) {
+    int length = Math.min(reads1.length, reads2.length);
+    Correlation correlation = new Correlation();
+    correlation.pearson = pearson(reads1, reads2, length);
+    correlation.spearman = pearson(ranks(reads1, length), ranks(reads2, length), length);
+    correlation.reads1 = endReads(reads1);
+    correlation.reads2 = endReads(reads2);
+    return correlation;
+  }
+
+  /**
+   * Returns Pearson correlation of the first values of x and y, computed in a single pass.
+   *
+   * @param x
+   *          values
+   * @param y
+   *          values
+   * @param length
+   *          number of values to correlate
+   * @return Pearson correlation of the first values of x and y, NaN if x or y is constant
+   */
+  static double pearson(double[] x, double[] y, int length) {
+    double meanX = 0;
+    double meanY = 0;
+    double squaresX = 0;
+    double squaresY = 0;
+    double coMoment = 0;
+    for (int i = 0; i < length; i++) {
+      double deltaX = x[i] - meanX;
+      double deltaY = y[i] - meanY;
+      meanX += deltaX / (i + 1);
+      meanY += deltaY / (i + 1);
+      squaresX += deltaX * (x[i] - meanX);
+      squaresY += deltaY * (y[i] - meanY);
+      coMoment += deltaX * (y[i] - meanY);
+    }
+    return coMoment / Math.sqrt(squaresX * squaresY);
+  }
+
+  /**
+   * Returns ranks of the first values, starting at 1. Tied values get the average of their ranks,
+   * like <code>scipy.stats.rankdata</code>.
+   *
+   * @param values
+   *          values
+   * @param length
+   *          number of values to rank
+   * @return ranks of the first values
+   */
+  static double[] ranks(double[] values, int length) {
+    double[] sorted = Arrays.copyOf(values, length);
+    Arrays.sort(sorted);
+    double[] ranks = new double[length];
+    for (int i = 0; i < length; i++) {
+      int lower = bound(sorted, values[i], false);
+      int upper = bound(sorted, values[i], true);
+      ranks[i] = (lower + 1 + upper) / 2.0;
+    }
+    return ranks;
+  }
+
+  /**
+   * Returns index of first sorted value greater or equal to value, or greater than value if
+   * strict is true.
+   */
+  private static int bound(double[] sorted, double value, boolean strict) {
+    int low = 0;
+    int high = sorted.length;
+    while (low < high) {
+      int middle = (low + high) >>> 1;
+      int compare = Double.compare(sorted[middle], value);
+      if (compare < 0 || (strict && compare == 0)) {
+        low = middle + 1;
+      } else {
+        high = middle;
+      }
+    }
+    return low;
+  }
+
+  private static void reverse(double[] reads) {
+    for (int i = 0, j = reads.length - 1; i < j; i++, j--) {
+      double first = reads[i];
+      reads[i] = reads[j];
+      reads[j] = first;
+    }
+  }
+
+  private static double endReads(double[] reads) {
+    double sum = 0;
+    for (int i = Math.max(reads.length - END_LENGTH, 0); i < reads.length; i++) {
+      sum += reads[i];
+    }
+    return sum / END_LENGTH;
+  }
+
+  /**
+   * Correlation of reads of a gene between two samples.
+   */
+  static class Correlation {
+    double pearson;
+    double spearman;
+    double reads1;
+    double reads2;
+  }
+
+  /**
+   * Pairs reads of genes read from both samples and correlates them.
+   * <p>
+   * A track waits when it has too many genes waiting for the other sample, unless the track of the
+   * other sample also has genes waiting, in which case tracks contain chromosomes in a different
+   * order and waiting could block both tracks. Reads of a gene are dropped when the track of the
+   * other sample is done since the gene cannot be paired anymore.
+   * </p>
+   */
+  private static class Correlations {
+    private final Map<Gene, Integer> indexes = new IdentityHashMap<>();
+    private final List<Map<Gene, double[]>> pending =
+        Arrays.asList(new HashMap<>(), new HashMap<>());
+    private final int[][] pendingCounts = new int[2][2];
+    private final boolean[][] done = new boolean[2][2];
+    private final AtomicReference<Throwable> error = new AtomicReference<>();
+    private final Correlation[] correlations;
+    private final ForkJoinPool pool;
+
+    private Correlations(List<Gene> genes, ForkJoinPool pool) {
+      for (int i = 0; i < genes.size(); i++) {
+        indexes.put(genes.get(i), i);
+      }
+      this.correlations = new Correlation[genes.size()];
+      this.pool = pool;
+    }
+
+    private void add(Gene gene, boolean first, double[] reads) throws IOException {
+      int strand = gene.strand.equals(Gene.PLUS_STRAND) ? 0 : 1;
+      int sample = first ? 0 : 1;
+      int otherSample = 1 - sample;
+      double[] other;
+      synchronized (this) {
+        try {
+          while (pendingCounts[strand][sample] >= MAX_PENDING_GENES
+              && pendingCounts[strand][otherSample] == 0 && !done[strand][otherSample]) {
+            wait();
+          }
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          throw new IOException("Interrupted while waiting for other sample", e);
+        }
+        other = pending.get(otherSample).remove(gene);
+        if (other != null) {
+          pendingCounts[strand][otherSample]--;
+          notifyAll();
+        } else if (!done[strand][otherSample]) {
+          pending.get(sample).put(gene, reads);
+          pendingCounts[strand][sample]++;
+          notifyAll();
+        }
+      }
+      if (other != null) {
+        double[] reads1 = first ? reads : other;
+        double[] reads2 = first ? other : reads;
+        int index = indexes.get(gene);
+        pool.execute(() -> {
+          try {
+            if (!gene.strand.equals(Gene.PLUS_STRAND)) {
+              reverse(reads1);
+              reverse(reads2);
+            }
+            correlations[index] = correlation(reads1, reads2);
+          } catch (RuntimeException | Error e) {
+            error.compareAndSet(null, e);
+          }
+        });
+      }
+    }
+
+    /**
+     * Signals that a track is done, releasing reads of genes that can no longer be paired.
+     *
+     * @param plus
+     *          true if track is a plus strand track
+     * @param first
+     *          true if track is from the first sample
+     */
+    private synchronized void done(boolean plus, boolean first) {
+      int strand = plus ? 0 : 1;
+      int sample = first ? 0 : 1;
+      done[strand][sample] = true;
+      int otherSample = 1 - sample;
+      if (pendingCounts[strand][otherSample] > 0) {
+        pending.get(otherSample).keySet()
+            .removeIf(gene -> gene.strand.equals(Gene.PLUS_STRAND) == plus);
+        pendingCounts[strand][otherSample] = 0;
+      }
+      notifyAll();
+    }
+
+    /**
+     * Waits until all genes are correlated.
+     * <p>
+     * Tasks are not kept, so reads of a gene are released as soon as the gene is correlated.
+     * </p>
+     */
+    private void waitForTasks() {
+      pool.awaitQuiescence(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+      Throwable exception = error.get();
+      if (exception instanceof Error) {
+        throw (Error) exception;
+      } else if (exception != null) {
+        throw (RuntimeException) exception;
+      }
+    }
+  }
+}
@@ -0,0 +1,78 @@
+package ca.qc.ircm.rnapolymerasepauses;
+
+import com.beust.jcommander.Parameter;
+import com.beust.jcommander.ParameterException;
+import java.lang.reflect.Field;
+import java.nio.file.Path;
+
+/**
+ * Validates commands that run detached from the console, like commands of a batch manifest.
+ * <p>
+ * Commands fall back to standard input when their <code>input</code> parameter is not set and to
+ * standard output when their <code>output</code> parameter is not set. Detached commands share
+ * standard input and output with other commands and with the application, so these parameters
+ * must be set.
+ * </p>
+ * <p>
+ * Commands sent to a server are resolved in the server's working directory rather than the
+ * client's, so their files must be absolute paths.
+ * </p>
+ */
+class DetachedCommands {
+  /**
+   * Validation of commands of a batch manifest.
+   */
+  static final DetachedCommands BATCH = new DetachedCommands(false);
+  /**
+   * Validation of commands sent to a server.
+   */
+  static final DetachedCommands SERVER = new DetachedCommands(true);
+  private static final String INPUT = "input";
+  private static final String OUTPUT = "output";
+  private final boolean absolutePaths;
+
+  private DetachedCommands(boolean absolutePaths) {
+    this.absolutePaths = absolutePaths;
+  }
+
+  /**
+   * Validates that parameters do not make command use standard input or output and, if required,
+   * that files are absolute paths.
+   *
+   * @param parameters
+   *          parameters of command, including main parameters
+   * @throws ParameterException
+   *           command would use standard input or output or a file is not an absolute path
+   */
+  void validate(Object... parameters) throws ParameterException {
+    for (Object object : parameters) {
+      for (Field field : object.getClass().getFields()) {
+        Parameter parameter = field.getAnnotation(Parameter.class);
+        if (parameter == null || field.getType() != Path.class) {
+          continue;
+        }
+        Path value = value(field, object);
+        String name = parameter.names()[parameter.names().length - 1];
+        if (value == null && field.getName().equals(INPUT)) {
+          throw new ParameterException(
+              "Parameter " + name + " is required, standard input cannot be used");
+        }
+        if (value == null && field.getName().equals(OUTPUT)) {
+          throw new ParameterException(
+              "Parameter " + name + " is required, standard output cannot be used");
+        }
+        if (value != null && absolutePaths && !value.isAbsolute()) {
+          throw new ParameterException("Parameter " + name + " must be an absolute path");
+        }
+      }
+    }
+  }
+
+  private Path value(Field field, Object object) {
+    try {
+      return (Path) field.get(object);
+    } catch (IllegalAccessException e) {
+      throw new IllegalStateException("Could not get value of " + field, e);
+    }
+  }
+}
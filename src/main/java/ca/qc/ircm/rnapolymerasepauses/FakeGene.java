@@ -1,5 +1,6 @@
 package ca.qc.ircm.rnapolymerasepauses;
 
+import ca.qc.ircm.rnapolymerasepauses.io.LineTokenizer;
 import java.io.BufferedReader;
 import java.io.BufferedWriter;
 import java.io.IOException;
@@ -33,16 +34,15 @@ public class FakeGene {
   public void fakeGene(FakeGeneCommand parameters) throws IOException {
     try (BufferedReader reader = parameters.reader(); BufferedWriter writer = parameters.writer()) {
       int firstColumn = 585;
-      String line;
-      while ((line = reader.readLine()) != null) {
-        String[] columns = line.split(COLUMN_SEPARATOR, -1);
-        if (columns.length < 2) {
+      LineTokenizer tokenizer = new LineTokenizer(reader, COLUMN_SEPARATOR);
+      while (tokenizer.nextLine()) {
+        if (tokenizer.columns() < 2) {
           throw new IllegalStateException("chromosome sizes is invalid");
         }
-        writeFakeGene(writer, firstColumn, columns[0], Long.parseLong(columns[1]),
-            parameters.padding, true);
-        writeFakeGene(writer, firstColumn++, columns[0], Long.parseLong(columns[1]),
-            parameters.padding, false);
+        String chromosome = tokenizer.string(0);
+        long size = tokenizer.longValue(1);
+        writeFakeGene(writer, firstColumn, chromosome, size, parameters.padding, true);
+        writeFakeGene(writer, firstColumn++, chromosome, size, parameters.padding, false);
       }
     }
   }
@@ -1,5 +1,6 @@
 package ca.qc.ircm.rnapolymerasepauses;
 
+import ca.qc.ircm.rnapolymerasepauses.io.Compression;
 import ca.qc.ircm.rnapolymerasepauses.validation.FileExistsValidation;
 import com.beust.jcommander.Parameter;
 import com.beust.jcommander.Parameters;
@@ -8,11 +9,9 @@ import com.beust.jcommander.validators.PositiveInteger;
 import java.io.BufferedReader;
 import java.io.BufferedWriter;
 import java.io.IOException;
-import java.io.InputStreamReader;
 import java.io.OutputStreamWriter;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
-import java.nio.file.Files;
 import java.nio.file.Path;
 
 /**
@@ -54,9 +53,9 @@ public class FakeGeneCommand {
    */
   public BufferedReader reader() throws IOException {
     if (input != null) {
-      return Files.newBufferedReader(input);
+      return Compression.newBufferedReader(input);
     } else {
-      return new BufferedReader(new InputStreamReader(System.in, CHARSET));
+      return Compression.newBufferedReader(System.in);
     }
   }
 
@@ -69,7 +68,7 @@ public class FakeGeneCommand {
    */
   public BufferedWriter writer() throws IOException {
     if (output != null) {
-      return Files.newBufferedWriter(output);
+      return Compression.newBufferedWriter(output);
     } else {
       return new BufferedWriter(new OutputStreamWriter(System.out, CHARSET));
     }
@@ -0,0 +1,57 @@
+package ca.qc.ircm.rnapolymerasepauses;
+
+import ca.qc.ircm.rnapolymerasepauses.io.Compression;
+import ca.qc.ircm.rnapolymerasepauses.validation.FileExistsValidation;
+import com.beust.jcommander.Parameter;
+import com.beust.jcommander.Parameters;
+import com.beust.jcommander.converters.PathConverter;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+
+/**
+ * Indexes FASTA file like <code>samtools faidx</code>.
+ */
+@Parameters(
+    separators = " =",
+    commandNames = FastaIndexCommand.COMMAND,
+    commandDescription = "Indexes FASTA file like samtools faidx, the index is also a valid "
+        + "chromosome sizes file")
+public class FastaIndexCommand {
+  public static final String COMMAND = "fastaindex";
+  private static final Charset CHARSET = StandardCharsets.UTF_8;
+
+  @Parameter(names = { "-h", "-help", "--h", "--help" }, description = "Show help", help = true)
+  public boolean help = false;
+  @Parameter(
+      names = { "-i", "--input" },
+      description = "FASTA file, must not be compressed",
+      required = true,
+      converter = PathConverter.class,
+      validateWith = FileExistsValidation.class)
+  public Path input;
+  @Parameter(
+      names = { "-o", "--output" },
+      description = "Output file, usually FASTA file followed by .fai. "
+          + "Defaults to system output for piping",
+      converter = PathConverter.class)
+  public Path output;
+
+  /**
+   * Returns output writer, falls back to <code>System.out</code>.
+   *
+   * @return output writer
+   * @throws IOException
+   *           could not created a writer for output
+   */
+  public BufferedWriter writer() throws IOException {
+    if (output != null) {
+      return Compression.newBufferedWriter(output);
+    } else {
+      return new BufferedWriter(new OutputStreamWriter(System.out, CHARSET));
+    }
+  }
+}
@@ -0,0 +1,177 @@
+package ca.qc.ircm.rnapolymerasepauses;
+
+import ca.qc.ircm.rnapolymerasepauses.io.Compression;
+import java.io.BufferedWriter;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import org.springframework.stereotype.Component;
+
+/**
+ * Indexes FASTA files like <code>samtools faidx</code>.
+ * <p>
+ * The FASTA file is read once, in large blocks, and only the bytes of sequence names are kept, so
+ * indexing is limited by disk speed. Since the first two columns of the index are the name and
+ * length of sequences, the index is also a valid chromosome sizes file.
+ * </p>
+ */
+@Component
+public class FastaIndexer {
+  private static final String SEPARATOR = "\t";
+  private static final String LINE_SEPARATOR = "\n";
+  private static final int BUFFER_SIZE = 1 << 20;
+
+  protected FastaIndexer() {
+  }
+
+  /**
+   * Indexes FASTA file.
+   * <p>
+   * Output contains one line per sequence with the following columns: name, length, offset of
+   * first base, bases per line and bytes per line, including line separator. The name of a
+   * sequence is the first word of its header.
+   * </p>
+   *
+   * @param parameters
+   *          parameters
+   * @throws IOException
+   *           could not read FASTA file, FASTA file lines do not have the same length or could not
+   *           write to output
+   */
+  public void index(FastaIndexCommand parameters) throws IOException {
+    if (Compression.isCompressed(parameters.input)) {
+      throw new IOException(
+          "FASTA file " + parameters.input + " must not be compressed to be indexed");
+    }
+    try (FileChannel channel = FileChannel.open(parameters.input, StandardOpenOption.READ);
+        BufferedWriter writer = parameters.writer()) {
+      Sequence sequence = new Sequence(writer);
+      ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+      long offset = 0;
+      while (channel.read(buffer) != -1) {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+          sequence.next(buffer.get(), offset++);
+        }
+        buffer.clear();
+      }
+      sequence.end(offset);
+    }
+  }
+
+  /**
+   * Sequence being indexed.
+   */
+  private static class Sequence {
+    private final Writer writer;
+    private final ByteArrayOutputStream name = new ByteArrayOutputStream();
+    private boolean started;
+    private boolean header;
+    private boolean inName;
+    private boolean lineStart = true;
+    private boolean lastLine;
+    private long length;
+    private long offset;
+    private int lineBases;
+    private int lineWidth;
+    private int bases;
+    private int width;
+
+    private Sequence(Writer writer) {
+      this.writer = writer;
+    }
+
+    private void next(byte value, long position) throws IOException {
+      if (lineStart && value == '>') {
+        write();
+        started = true;
+        header = true;
+        inName = true;
+        lineStart = false;
+        return;
+      }
+      lineStart = value == '\n';
+      if (header) {
+        if (value == '\n') {
+          header = false;
+          offset = position + 1;
+        } else if (value == ' ' || value == '\t' || value == '\r') {
+          inName = false;
+        } else if (inName) {
+          name.write(value);
+        }
+      } else if (started) {
+        width++;
+        if (value == '\n') {
+          endLine(true);
+        } else if (value != '\r') {
+          bases++;
+        }
+      }
+    }
+
+    private void endLine(boolean separator) throws IOException {
+      if (bases == 0) {
+        lastLine = true;
+      } else {
+        if (lastLine || (lineBases > 0 && bases > lineBases)) {
+          throw new IOException("Different line length in sequence " + name());
+        }
+        if (lineBases == 0) {
+          lineBases = bases;
+          // Assumes a single line sequence without line separator ends with a new line.
+          lineWidth = separator ? width : width + 1;
+        } else if (bases < lineBases) {
+          lastLine = true;
+        } else if (separator && width != lineWidth) {
+          throw new IOException("Different line length in sequence " + name());
+        }
+        length += bases;
+      }
+      bases = 0;
+      width = 0;
+    }
+
+    private void end(long position) throws IOException {
+      if (header) {
+        header = false;
+        offset = position;
+      }
+      if (width > 0) {
+        endLine(false);
+      }
+      write();
+    }
+
+    private String name() {
+      return new String(name.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    private void write() throws IOException {
+      if (!started) {
+        return;
+      }
+      writer.write(name());
+      writer.write(SEPARATOR);
+      writer.write(String.valueOf(length));
+      writer.write(SEPARATOR);
+      writer.write(String.valueOf(offset));
+      writer.write(SEPARATOR);
+      writer.write(String.valueOf(lineBases));
+      writer.write(SEPARATOR);
+      writer.write(String.valueOf(lineWidth));
+      writer.write(LINE_SEPARATOR);
+      name.reset();
+      lastLine = false;
+      length = 0;
+      offset = 0;
+      lineBases = 0;
+      lineWidth = 0;
+    }
+  }
+}
@@ -0,0 +1,67 @@
+package ca.qc.ircm.rnapolymerasepauses;
+
+import ca.qc.ircm.rnapolymerasepauses.io.Compression;
+import ca.qc.ircm.rnapolymerasepauses.validation.FileExistsValidation;
+import com.beust.jcommander.Parameter;
+import com.beust.jcommander.Parameters;
+import com.beust.jcommander.converters.PathConverter;
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Path;
+
+/**
+ * Converts FASTA file to genome file.
+ */
+@Parameters(
+    separators = " =",
+    commandNames = FastaToGenomeCommand.COMMAND,
+    commandDescription = "Converts FASTA file to genome file for random access to sequences")
+public class FastaToGenomeCommand {
+  public static final String COMMAND = "fasta2genome";
+
+  @Parameter(names = { "-h", "-help", "--h", "--help" }, description = "Show help", help = true)
+  public boolean help = false;
+  @Parameter(
+      names = { "-i", "--input" },
+      description = "Input FASTA file. Defaults to system input for piping",
+      converter = PathConverter.class,
+      validateWith = FileExistsValidation.class)
+  public Path input;
+  @Parameter(
+      names = { "-o", "--output" },
+      description = "Output genome file. Defaults to system output for piping",
+      converter = PathConverter.class)
+  public Path output;
+
+  /**
+   * Returns input reader, falls back to <code>System.in</code>.
+   *
+   * @return input reader
+   * @throws IOException
+   *           could not created a reader for input
+   */
+  public BufferedReader reader() throws IOException {
+    if (input != null) {
+      return Compression.newBufferedReader(input);
+    } else {
+      return Compression.newBufferedReader(System.in);
+    }
+  }
+
+  /**
+   * Returns output stream, falls back to <code>System.out</code>.
+   *
+   * @return output stream
+   * @throws IOException
+   *           could not created a stream for output, name ends with .gz or .bgz
+   */
+  public OutputStream outputStream() throws IOException {
+    if (output != null) {
+      return Compression.newMappedOutputStream(output);
+    } else {
+      return new BufferedOutputStream(System.out);
+    }
+  }
+}
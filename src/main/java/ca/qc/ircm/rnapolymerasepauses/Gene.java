@@ -0,0 +1,20 @@
+package ca.qc.ircm.rnapolymerasepauses;
+
+/**
+ * A gene from TSS file.
+ */
+public class Gene {
+  public static final String PLUS_STRAND = "+";
+  public static final String MINUS_STRAND = "-";
+  public String name;
+  public String chromosome;
+  public long start;
+  public long end;
+  public String strand;
+
+  @Override
+  public String toString() {
+    return "Gene [name=" + name + ", chromosome=" + chromosome + ", start=" + start + ", end="
+        + end + ", strand=" + strand + "]";
+  }
+}
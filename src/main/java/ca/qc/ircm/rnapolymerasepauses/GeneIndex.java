@@ -0,0 +1,230 @@
+package ca.qc.ircm.rnapolymerasepauses;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+/**
+ * Finds genes overlapping a position of a chromosome.
+ * <p>
+ * Genes of each chromosome and strand are sorted by start in primitive arrays forming an implicit
+ * interval tree, like <code>cgranges</code> by Heng Li: the gene at index <code>i</code> is a node
+ * of level equal to the number of trailing one bits of <code>i</code> and each node also keeps
+ * the maximum end of its subtree. Queries only visit subtrees that can contain an overlapping
+ * gene, without following any pointer.
+ * </p>
+ * <p>
+ * A gene covers positions from its start to its end, both included.
+ * </p>
+ * <p>
+ * Queries reuse internal buffers, so this class is not thread-safe.
+ * </p>
+ */
+public class GeneIndex {
+  private static final int PLUS = 0;
+  private static final int MINUS = 1;
+  private static final int OTHER = 2;
+  private static final int LINEAR_SCAN_LEVEL = 3;
+  private final Map<String, Tree[]> chromosomes = new HashMap<>();
+  private final int size;
+
+  /**
+   * Creates index of genes.
+   *
+   * @param genes
+   *          genes, overlap queries return indexes in this list
+   */
+  public GeneIndex(List<Gene> genes) {
+    size = genes.size();
+    Map<String, List<List<Integer>>> groups = new HashMap<>();
+    for (int i = 0; i < genes.size(); i++) {
+      Gene gene = genes.get(i);
+      List<List<Integer>> strands = groups.computeIfAbsent(gene.chromosome, chromosome -> {
+        List<List<Integer>> lists = new ArrayList<>();
+        IntStream.range(0, OTHER + 1).forEach(strand -> lists.add(new ArrayList<>()));
+        return lists;
+      });
+      strands.get(strand(gene.strand)).add(i);
+    }
+    for (Map.Entry<String, List<List<Integer>>> entry : groups.entrySet()) {
+      Tree[] trees = new Tree[OTHER + 1];
+      for (int strand = 0; strand < trees.length; strand++) {
+        trees[strand] = new Tree(genes, entry.getValue().get(strand));
+      }
+      chromosomes.put(entry.getKey(), trees);
+    }
+  }
+
+  private static int strand(String strand) {
+    if (Gene.PLUS_STRAND.equals(strand)) {
+      return PLUS;
+    } else if (Gene.MINUS_STRAND.equals(strand)) {
+      return MINUS;
+    } else {
+      return OTHER;
+    }
+  }
+
+  /**
+   * Returns number of genes in index.
+   *
+   * @return number of genes in index
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Finds genes overlapping position.
+   * <p>
+   * Indexes of genes are copied into <code>genes</code> until it is full. If the returned count is
+   * greater than the length of <code>genes</code>, call this method again with a larger array.
+   * </p>
+   *
+   * @param chromosome
+   *          chromosome
+   * @param strand
+   *          strand, null to find genes on any strand
+   * @param position
+   *          position
+   * @param genes
+   *          receives indexes of overlapping genes, sorted by start for each strand
+   * @return number of overlapping genes
+   */
+  public int overlaps(String chromosome, String strand, long position, int[] genes) {
+    Tree[] trees = chromosomes.get(chromosome);
+    if (trees == null) {
+      return 0;
+    }
+    if (strand != null) {
+      return trees[strand(strand)].overlaps(position, genes, 0);
+    }
+    int count = 0;
+    for (Tree tree : trees) {
+      count = tree.overlaps(position, genes, count);
+    }
+    return count;
+  }
+
+  /**
+   * Implicit augmented interval tree over genes sorted by start.
+   */
+  private static class Tree {
+    private final int[] genes;
+    private final long[] starts;
+    private final long[] ends;
+    private final long[] maxEnds;
+    private final int maxLevel;
+    private final int[] stack;
+
+    private Tree(List<Gene> allGenes, List<Integer> indexes) {
+      indexes.sort(Comparator.comparingLong(index -> start(allGenes.get(index))));
+      int size = indexes.size();
+      genes = new int[size];
+      starts = new long[size];
+      ends = new long[size];
+      maxEnds = new long[size];
+      for (int i = 0; i < size; i++) {
+        Gene gene = allGenes.get(indexes.get(i));
+        genes[i] = indexes.get(i);
+        starts[i] = start(gene);
+        // Ends are exclusive in tree.
+        ends[i] = Math.max(gene.start, gene.end) + 1;
+      }
+      maxLevel = index();
+      // Each level holds at most two nodes of three values.
+      stack = new int[(maxLevel + 2) * 2 * 3];
+    }
+
+    private static long start(Gene gene) {
+      return Math.min(gene.start, gene.end);
+    }
+
+    /**
+     * Computes maximum end of subtrees.
+     *
+     * @return level of root
+     */
+    private int index() {
+      int size = starts.length;
+      if (size == 0) {
+        return -1;
+      }
+      int lastIndex = 0;
+      long last = 0;
+      for (int i = 0; i < size; i += 2) {
+        lastIndex = i;
+        last = maxEnds[i] = ends[i];
+      }
+      int level = 1;
+      for (; 1 << level <= size; level++) {
+        int half = 1 << (level - 1);
+        int step = half << 2;
+        for (int i = (half << 1) - 1; i < size; i += step) {
+          long leftEnd = maxEnds[i - half];
+          long rightEnd = i + half < size ? maxEnds[i + half] : last;
+          maxEnds[i] = Math.max(ends[i], Math.max(leftEnd, rightEnd));
+        }
+        lastIndex = ((lastIndex >> level) & 1) != 0 ? lastIndex - half : lastIndex + half;
+        if (lastIndex < size && maxEnds[lastIndex] > last) {
+          last = maxEnds[lastIndex];
+        }
+      }
+      return level - 1;
+    }
+
+    private int overlaps(long position, int[] results, int count) {
+      int size = starts.length;
+      if (size == 0) {
+        return count;
+      }
+      // Stack of nodes: index, level and whether left subtree was visited.
+      int top = 0;
+      stack[top++] = (1 << maxLevel) - 1;
+      stack[top++] = maxLevel;
+      stack[top++] = 0;
+      while (top > 0) {
+        int visited = stack[--top];
+        int level = stack[--top];
+        int node = stack[--top];
+        if (level <= LINEAR_SCAN_LEVEL) {
+          int first = node >> level << level;
+          int last = Math.min(first + (1 << (level + 1)) - 1, size);
+          for (int i = first; i < last && starts[i] <= position; i++) {
+            if (position < ends[i]) {
+              count = add(results, count, genes[i]);
+            }
+          }
+        } else if (visited == 0) {
+          stack[top++] = node;
+          stack[top++] = level;
+          stack[top++] = 1;
+          int left = node - (1 << (level - 1));
+          if (left >= size || maxEnds[left] > position) {
+            stack[top++] = left;
+            stack[top++] = level - 1;
+            stack[top++] = 0;
+          }
+        } else if (node < size && starts[node] <= position) {
+          if (position < ends[node]) {
+            count = add(results, count, genes[node]);
+          }
+          stack[top++] = node + (1 << (level - 1));
+          stack[top++] = level - 1;
+          stack[top++] = 0;
+        }
+      }
+      return count;
+    }
+
+    private static int add(int[] results, int count, int gene) {
+      if (count < results.length) {
+        results[count] = gene;
+      }
+      return count + 1;
+    }
+  }
+}
@@ -0,0 +1,181 @@
+package ca.qc.ircm.rnapolymerasepauses;
+
+import ca.qc.ircm.rnapolymerasepauses.ParallelTrackConverter.Output;
+import ca.qc.ircm.rnapolymerasepauses.io.BinaryTrack;
+import ca.qc.ircm.rnapolymerasepauses.io.TrackFormat;
+import ca.qc.ircm.rnapolymerasepauses.io.TrackReader;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.FloatBuffer;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Reads the reads of genes in a track.
+ * <p>
+ * Reads of a gene are the values of track from line <code>start</code> to line <code>end</code>,
+ * line 1 being the first value after the chromosome line. Reads are shorter when gene goes beyond
+ * chromosome's end.
+ * </p>
+ * <p>
+ * Text tracks are read once from start to end. Binary tracks are memory-mapped and only the reads
+ * of genes are read.
+ * </p>
+ */
+class GeneReadsReader {
+  private static final String CHROMOSOME_STAGE = "chromosome ";
+
+  /**
+   * Receives reads of a gene.
+   */
+  @FunctionalInterface
+  interface GeneReadsConsumer {
+    /**
+     * Receives reads of a gene.
+     *
+     * @param gene
+     *          gene
+     * @param reads
+     *          reads of gene
+     * @throws IOException
+     *           could not process reads
+     */
+    void accept(Gene gene, double[] reads) throws IOException;
+  }
+
+  private GeneReadsReader() {
+  }
+
+  /**
+   * Returns genes grouped by chromosome and sorted by start, as expected by
+   * {@link #read(Map, Path, Output, TrackFormat, GeneReadsConsumer)}.
+   *
+   * @param genes
+   *          genes
+   * @return genes grouped by chromosome and sorted by start
+   */
+  static Map<String, List<Gene>> byChromosome(Collection<Gene> genes) {
+    return genes.stream().sorted(Comparator.comparingLong(gene -> gene.start))
+        .collect(Collectors.groupingBy(gene -> gene.chromosome));
+  }
+
+  /**
+   * Reads the reads of genes in a track.
+   * <p>
+   * Genes are sent to consumer in the order of track's chromosomes. Genes of chromosomes that are
+   * not in track are ignored.
+   * </p>
+   *
+   * @param genes
+   *          genes grouped by chromosome and sorted by start, see
+   *          {@link #byChromosome(Collection)}
+   * @param input
+   *          track file, required for binary tracks
+   * @param trackReader
+   *          opens a reader of a text track
+   * @param format
+   *          track format, null for text
+   * @param consumer
+   *          receives reads of genes
+   * @throws IOException
+   *           could not read track or consumer failed
+   */
+  static void read(Map<String, List<Gene>> genes, Path input, Output<BufferedReader> trackReader,
+      TrackFormat format, GeneReadsConsumer consumer) throws IOException {
+    if (format == TrackFormat.BINARY) {
+      readBinaryTrack(genes, input, consumer);
+      return;
+    }
+    RunMetrics metrics = RunMetrics.current();
+    RunMetrics.Timer timer = null;
+    try (TrackReader reader = new TrackReader(trackReader.get())) {
+      String chromosome = null;
+      List<Gene> chromosomeGenes = Collections.emptyList();
+      int nextGene = 0;
+      List<GeneReads> activeGenes = new ArrayList<>();
+      while (reader.next()) {
+        if (!reader.chromosome().equals(chromosome)) {
+          for (GeneReads geneReads : activeGenes) {
+            // Gene goes beyond chromosome's end.
+            consumer.accept(geneReads.gene, Arrays.copyOf(geneReads.reads, geneReads.count));
+          }
+          activeGenes.clear();
+          if (timer != null) {
+            timer.close();
+          }
+          chromosome = reader.chromosome();
+          timer = metrics.stage(CHROMOSOME_STAGE + chromosome);
+          chromosomeGenes = genes.getOrDefault(chromosome, Collections.emptyList());
+          nextGene = 0;
+        }
+        long position = reader.position();
+        while (nextGene < chromosomeGenes.size()
+            && firstPosition(chromosomeGenes.get(nextGene)) <= position) {
+          activeGenes.add(new GeneReads(chromosomeGenes.get(nextGene++)));
+        }
+        Iterator<GeneReads> iterator = activeGenes.iterator();
+        while (iterator.hasNext()) {
+          GeneReads geneReads = iterator.next();
+          geneReads.reads[geneReads.count++] = reader.value();
+          if (geneReads.count == geneReads.reads.length) {
+            consumer.accept(geneReads.gene, geneReads.reads);
+            iterator.remove();
+          }
+        }
+      }
+      for (GeneReads geneReads : activeGenes) {
+        consumer.accept(geneReads.gene, Arrays.copyOf(geneReads.reads, geneReads.count));
+      }
+      if (timer != null) {
+        timer.close();
+      }
+    }
+  }
+
+  private static void readBinaryTrack(Map<String, List<Gene>> genes, Path input,
+      GeneReadsConsumer consumer) throws IOException {
+    if (input == null) {
+      throw new IOException("Binary track must be read from an input file");
+    }
+    RunMetrics metrics = RunMetrics.current();
+    try (BinaryTrack track = new BinaryTrack(input)) {
+      for (String chromosome : track.chromosomes()) {
+        try (RunMetrics.Timer timer = metrics.stage(CHROMOSOME_STAGE + chromosome)) {
+          for (Gene gene : genes.getOrDefault(chromosome, Collections.emptyList())) {
+            int start = (int) Math.min(firstPosition(gene), track.length(chromosome));
+            FloatBuffer values =
+                track.values(chromosome, start, (int) (start + gene.end - gene.start + 1));
+            double[] reads = new double[values.remaining()];
+            for (int i = 0; i < reads.length; i++) {
+              reads[i] = values.get(i);
+            }
+            consumer.accept(gene, reads);
+          }
+        }
+      }
+    }
+  }
+
+  private static long firstPosition(Gene gene) {
+    return Math.max(gene.start - 1, 0);
+  }
+
+  private static class GeneReads {
+    private final Gene gene;
+    private final double[] reads;
+    private int count;
+
+    private GeneReads(Gene gene) {
+      this.gene = gene;
+      this.reads = new double[(int) (gene.end - gene.start + 1)];
+    }
+  }
+}
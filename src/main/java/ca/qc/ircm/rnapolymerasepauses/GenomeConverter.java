@@ -0,0 +1,48 @@
+package ca.qc.ircm.rnapolymerasepauses;
+
+import ca.qc.ircm.rnapolymerasepauses.io.GenomeWriter;
+import ca.qc.ircm.rnapolymerasepauses.io.LineTokenizer;
+import java.io.IOException;
+import org.springframework.stereotype.Component;
+
+/**
+ * Converts FASTA files to genome files.
+ * <p>
+ * Sequences are packed while FASTA is read, one line at a time, so chromosomes are never built in
+ * memory like <code>loadGenome</code> from Churchman et al. does.
+ * </p>
+ */
+@Component
+public class GenomeConverter {
+  private static final String NAME_MARKER = ">";
+
+  protected GenomeConverter() {
+  }
+
+  /**
+   * Converts FASTA file to genome file.
+   * <p>
+   * The name of a chromosome is the first word of its FASTA header.
+   * </p>
+   *
+   * @param parameters
+   *          parameters
+   * @throws IOException
+   *           could not read FASTA file or write to output
+   */
+  public void fastaToGenome(FastaToGenomeCommand parameters) throws IOException {
+    try (LineTokenizer tokenizer = new LineTokenizer(parameters.reader(), LineTokenizer.WHITESPACE);
+        GenomeWriter writer = new GenomeWriter(parameters.outputStream())) {
+      StringBuilder bases = new StringBuilder();
+      while (tokenizer.nextLine()) {
+        if (tokenizer.startsWith(NAME_MARKER)) {
+          writer.startChromosome(tokenizer.string(0, NAME_MARKER.length()));
+        } else {
+          bases.setLength(0);
+          tokenizer.appendLine(bases);
+          writer.write(bases);
+        }
+      }
+    }
+  }
+}
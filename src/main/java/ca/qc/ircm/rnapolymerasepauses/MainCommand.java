@@ -2,6 +2,8 @@ package ca.qc.ircm.rnapolymerasepauses;
 
 import com.beust.jcommander.Parameter;
 import com.beust.jcommander.Parameters;
+import com.beust.jcommander.converters.PathConverter;
+import java.nio.file.Path;
 
 /**
  * Command line parameters.
@@ -10,4 +12,9 @@ import com.beust.jcommander.Parameters;
 public class MainCommand {
   @Parameter(names = { "-h", "-help", "--h", "--help" }, description = "Show help", help = true)
   public boolean help = false;
+  @Parameter(
+      names = { "--report" },
+      description = "JSON report of records, bytes, stage times, peak heap and GC time",
+      converter = PathConverter.class)
+  public Path report;
 }
@@ -3,6 +3,8 @@ package ca.qc.ircm.rnapolymerasepauses;
 import com.beust.jcommander.JCommander;
 import com.beust.jcommander.ParameterException;
 import java.io.IOException;
+import java.nio.file.Path;
+import java.util.function.BooleanSupplier;
 import javax.inject.Inject;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -28,6 +30,22 @@ public class MainService implements CommandLineRunner {
   private SgdGeneConverter sgdGeneConverter;
   @Inject
   private FakeGene fakeGene;
+  @Inject
+  private PauseCaller pauseCaller;
+  @Inject
+  private TrackIndexer trackIndexer;
+  @Inject
+  private Pipeline pipeline;
+  @Inject
+  private GenomeConverter genomeConverter;
+  @Inject
+  private FastaIndexer fastaIndexer;
+  @Inject
+  private Correlator correlator;
+  @Inject
+  private Metagene metagene;
+  @Inject
+  private TandemGenes tandemGenes;
   @Value("${spring.runner.enabled}")
   private boolean runnerEnabled;
 
@@ -36,13 +54,23 @@ public class MainService implements CommandLineRunner {
 
   protected MainService(BedConverter bedConverter, WigConverter wigConverter,
       PausesConverter pausesConverter, Maxima maxima, SgdGeneConverter sgdGeneConverter,
-      FakeGene fakeGene, boolean runnerEnabled) {
+      FakeGene fakeGene, PauseCaller pauseCaller, TrackIndexer trackIndexer, Pipeline pipeline,
+      GenomeConverter genomeConverter, FastaIndexer fastaIndexer, Correlator correlator,
+      Metagene metagene, TandemGenes tandemGenes, boolean runnerEnabled) {
     this.bedConverter = bedConverter;
     this.wigConverter = wigConverter;
     this.pausesConverter = pausesConverter;
     this.maxima = maxima;
     this.sgdGeneConverter = sgdGeneConverter;
     this.fakeGene = fakeGene;
+    this.pauseCaller = pauseCaller;
+    this.trackIndexer = trackIndexer;
+    this.pipeline = pipeline;
+    this.genomeConverter = genomeConverter;
+    this.fastaIndexer = fastaIndexer;
+    this.correlator = correlator;
+    this.metagene = metagene;
+    this.tandemGenes = tandemGenes;
     this.runnerEnabled = runnerEnabled;
   }
 
@@ -58,6 +86,35 @@ public class MainService implements CommandLineRunner {
       return;
     }
 
+    execute(args);
+  }
+
+  /**
+   * Executes sub-program.
+   *
+   * @param args
+   *          command line arguments
+   * @return true if sub-program completed, false if arguments are invalid or sub-program failed
+   */
+  boolean execute(String... args) {
+    return execute(null, args);
+  }
+
+  /**
+   * Executes sub-program.
+   * <p>
+   * When detached is not null, sub-program is validated using detached before it runs and usage
+   * is not printed.
+   * </p>
+   *
+   * @param detached
+   *          validation of sub-programs detached from the console, null if sub-program runs from
+   *          the console
+   * @param args
+   *          command line arguments
+   * @return true if sub-program completed, false if arguments are invalid or sub-program failed
+   */
+  boolean execute(DetachedCommands detached, String... args) {
     MainCommand mainCommand = new MainCommand();
     BedToTrackCommand bedToTrackCommand = new BedToTrackCommand();
     WigToTrackCommand wigToTrackCommand = new WigToTrackCommand();
@@ -66,68 +123,200 @@ public class MainService implements CommandLineRunner {
     MaximaCommand maximaCommand = new MaximaCommand();
     SgdGeneToTssCommand sgdGeneToTssCommand = new SgdGeneToTssCommand();
     FakeGeneCommand fakeGeneCommand = new FakeGeneCommand();
+    CallPausesCommand callPausesCommand = new CallPausesCommand();
+    TrackIndexCommand trackIndexCommand = new TrackIndexCommand();
+    BedToPausesCommand bedToPausesCommand = new BedToPausesCommand();
+    BatchCommand batchCommand = new BatchCommand();
+    ServeCommand serveCommand = new ServeCommand();
+    PipelineCommand pipelineCommand = new PipelineCommand();
+    FastaToGenomeCommand fastaToGenomeCommand = new FastaToGenomeCommand();
+    FastaIndexCommand fastaIndexCommand = new FastaIndexCommand();
+    CorrelateCommand correlateCommand = new CorrelateCommand();
+    MetageneCommand metageneCommand = new MetageneCommand();
+    TandemCommand tandemCommand = new TandemCommand();
     JCommander command = JCommander.newBuilder().addObject(mainCommand)
         .addCommand(bedToTrackCommand).addCommand(wigToTrackCommand).addCommand(pausesToBedCommand)
         .addCommand(pausesToTabsCommand).addCommand(maximaCommand).addCommand(sgdGeneToTssCommand)
-        .addCommand(fakeGeneCommand).build();
+        .addCommand(fakeGeneCommand).addCommand(callPausesCommand).addCommand(trackIndexCommand)
+        .addCommand(bedToPausesCommand).addCommand(batchCommand).addCommand(serveCommand)
+        .addCommand(pipelineCommand).addCommand(fastaToGenomeCommand)
+        .addCommand(fastaIndexCommand).addCommand(correlateCommand).addCommand(metageneCommand)
+        .addCommand(tandemCommand).build();
     command.setCaseSensitiveOptions(false);
     try {
       command.parse(args);
+      if (detached != null) {
+        if (command.getParsedCommand() == null) {
+          throw new ParameterException("No command specified");
+        }
+        detached.validate(mainCommand,
+            command.getCommands().get(command.getParsedCommand()).getObjects().get(0));
+      }
       if (command.getParsedCommand() == null || mainCommand.help) {
         command.usage();
       } else if (command.getParsedCommand().equals(BedToTrackCommand.COMMAND)) {
         if (bedToTrackCommand.help) {
           command.usage(BedToTrackCommand.COMMAND);
         } else {
-          bedToTrack(bedToTrackCommand);
+          return report(mainCommand.report, command.getParsedCommand(),
+              () -> bedToTrack(bedToTrackCommand));
         }
       } else if (command.getParsedCommand().equals(WigToTrackCommand.COMMAND)) {
         if (wigToTrackCommand.help) {
           command.usage(WigToTrackCommand.COMMAND);
         } else {
-          wigToTrack(wigToTrackCommand);
+          return report(mainCommand.report, command.getParsedCommand(),
+              () -> wigToTrack(wigToTrackCommand));
         }
       } else if (command.getParsedCommand().equals(PausesToBedCommand.COMMAND)) {
         if (pausesToBedCommand.help) {
           command.usage(PausesToBedCommand.COMMAND);
         } else {
-          pausesToBed(pausesToBedCommand);
+          return report(mainCommand.report, command.getParsedCommand(),
+              () -> pausesToBed(pausesToBedCommand));
         }
       } else if (command.getParsedCommand().equals(PausesToTabsCommand.COMMAND)) {
         if (pausesToTabsCommand.help) {
           command.usage(PausesToTabsCommand.COMMAND);
         } else {
-          pausesToTabs(pausesToTabsCommand);
+          return report(mainCommand.report, command.getParsedCommand(),
+              () -> pausesToTabs(pausesToTabsCommand));
         }
       } else if (command.getParsedCommand().equals(MaximaCommand.COMMAND)) {
         if (maximaCommand.help) {
           command.usage(MaximaCommand.COMMAND);
         } else {
-          maxima(maximaCommand);
+          return report(mainCommand.report, command.getParsedCommand(),
+              () -> maxima(maximaCommand));
         }
       } else if (command.getParsedCommand().equals(SgdGeneToTssCommand.COMMAND)) {
         if (sgdGeneToTssCommand.help) {
           command.usage(SgdGeneToTssCommand.COMMAND);
         } else {
-          sgdGeneToTss(sgdGeneToTssCommand);
+          return report(mainCommand.report, command.getParsedCommand(),
+              () -> sgdGeneToTss(sgdGeneToTssCommand));
         }
       } else if (command.getParsedCommand().equals(FakeGeneCommand.COMMAND)) {
         if (fakeGeneCommand.help) {
           command.usage(FakeGeneCommand.COMMAND);
         } else {
-          fakeGene(fakeGeneCommand);
+          return report(mainCommand.report, command.getParsedCommand(),
+              () -> fakeGene(fakeGeneCommand));
+        }
+      } else if (command.getParsedCommand().equals(CallPausesCommand.COMMAND)) {
+        if (callPausesCommand.help) {
+          command.usage(CallPausesCommand.COMMAND);
+        } else {
+          return report(mainCommand.report, command.getParsedCommand(),
+              () -> callPauses(callPausesCommand));
+        }
+      } else if (command.getParsedCommand().equals(TrackIndexCommand.COMMAND)) {
+        if (trackIndexCommand.help) {
+          command.usage(TrackIndexCommand.COMMAND);
+        } else {
+          return report(mainCommand.report, command.getParsedCommand(),
+              () -> trackIndex(trackIndexCommand));
+        }
+      } else if (command.getParsedCommand().equals(BedToPausesCommand.COMMAND)) {
+        if (bedToPausesCommand.help) {
+          command.usage(BedToPausesCommand.COMMAND);
+        } else {
+          return report(mainCommand.report, command.getParsedCommand(),
+              () -> bedToPauses(bedToPausesCommand));
+        }
+      } else if (command.getParsedCommand().equals(BatchCommand.COMMAND)) {
+        if (batchCommand.help) {
+          command.usage(BatchCommand.COMMAND);
+        } else {
+          return report(mainCommand.report, command.getParsedCommand(),
+              () -> batch(batchCommand));
+        }
+      } else if (command.getParsedCommand().equals(ServeCommand.COMMAND)) {
+        if (serveCommand.help) {
+          command.usage(ServeCommand.COMMAND);
+        } else {
+          return report(mainCommand.report, command.getParsedCommand(),
+              () -> serve(serveCommand));
+        }
+      } else if (command.getParsedCommand().equals(PipelineCommand.COMMAND)) {
+        if (pipelineCommand.help) {
+          command.usage(PipelineCommand.COMMAND);
+        } else {
+          return report(mainCommand.report, command.getParsedCommand(),
+              () -> pipeline(pipelineCommand));
+        }
+      } else if (command.getParsedCommand().equals(FastaToGenomeCommand.COMMAND)) {
+        if (fastaToGenomeCommand.help) {
+          command.usage(FastaToGenomeCommand.COMMAND);
+        } else {
+          return report(mainCommand.report, command.getParsedCommand(),
+              () -> fastaToGenome(fastaToGenomeCommand));
+        }
+      } else if (command.getParsedCommand().equals(FastaIndexCommand.COMMAND)) {
+        if (fastaIndexCommand.help) {
+          command.usage(FastaIndexCommand.COMMAND);
+        } else {
+          return report(mainCommand.report, command.getParsedCommand(),
+              () -> fastaIndex(fastaIndexCommand));
+        }
+      } else if (command.getParsedCommand().equals(CorrelateCommand.COMMAND)) {
+        if (correlateCommand.help) {
+          command.usage(CorrelateCommand.COMMAND);
+        } else {
+          return report(mainCommand.report, command.getParsedCommand(),
+              () -> correlate(correlateCommand));
+        }
+      } else if (command.getParsedCommand().equals(MetageneCommand.COMMAND)) {
+        if (metageneCommand.help) {
+          command.usage(MetageneCommand.COMMAND);
+        } else {
+          return report(mainCommand.report, command.getParsedCommand(),
+              () -> metagene(metageneCommand));
+        }
+      } else if (command.getParsedCommand().equals(TandemCommand.COMMAND)) {
+        if (tandemCommand.help) {
+          command.usage(TandemCommand.COMMAND);
+        } else {
+          return report(mainCommand.report, command.getParsedCommand(),
+              () -> tandem(tandemCommand));
         }
       }
     } catch (ParameterException e) {
       System.err.println(e.getMessage() + "\n");
-      command.usage();
+      if (detached == null) {
+        command.usage();
+      }
+      return false;
     }
+    return true;
   }
 
-  private void bedToTrack(BedToTrackCommand command) {
+  private boolean report(Path report, String name, BooleanSupplier subProgram) {
+    if (report == null) {
+      return subProgram.getAsBoolean();
+    }
+    RunMetrics metrics = RunMetrics.start(name);
+    boolean success = false;
+    try {
+      success = subProgram.getAsBoolean();
+    } finally {
+      metrics.stop();
+    }
+    try {
+      metrics.write(report, success);
+    } catch (IOException e) {
+      System.err.println("Could not write run report");
+      e.printStackTrace();
+      return false;
+    }
+    return success;
+  }
+
+  private boolean bedToTrack(BedToTrackCommand command) {
     logger.debug("Converts BED to track");
     try {
       bedConverter.bedToTrack(command);
+      return true;
     } catch (NumberFormatException e) {
       System.err.println("Could not parse BED file");
       e.printStackTrace();
@@ -135,12 +324,14 @@ public class MainService implements CommandLineRunner {
       System.err.println("Could not read input or write to output");
       e.printStackTrace();
     }
+    return false;
   }
 
-  private void wigToTrack(WigToTrackCommand command) {
+  private boolean wigToTrack(WigToTrackCommand command) {
     logger.debug("Converts WIG to track");
     try {
       wigConverter.wigToTrack(command);
+      return true;
     } catch (NumberFormatException e) {
       System.err.println("Could not parse WIG file");
       e.printStackTrace();
@@ -148,12 +339,14 @@ public class MainService implements CommandLineRunner {
       System.err.println("Could not read input or write to output");
       e.printStackTrace();
     }
+    return false;
   }
 
-  private void pausesToBed(PausesToBedCommand command) {
+  private boolean pausesToBed(PausesToBedCommand command) {
     logger.debug("Converts pauses to BED");
     try {
       pausesConverter.pausesToBed(command);
+      return true;
     } catch (NumberFormatException e) {
       System.err.println("Could not parse pauses file");
       e.printStackTrace();
@@ -161,12 +354,14 @@ public class MainService implements CommandLineRunner {
       System.err.println("Could not read input or write to output");
       e.printStackTrace();
     }
+    return false;
   }
 
-  private void pausesToTabs(PausesToTabsCommand command) {
+  private boolean pausesToTabs(PausesToTabsCommand command) {
     logger.debug("Converts pauses to tab delimited");
     try {
       pausesConverter.pausesToTabs(command);
+      return true;
     } catch (NumberFormatException e) {
       System.err.println("Could not parse pauses file");
       e.printStackTrace();
@@ -174,12 +369,14 @@ public class MainService implements CommandLineRunner {
       System.err.println("Could not read input or write to output");
       e.printStackTrace();
     }
+    return false;
   }
 
-  private void maxima(MaximaCommand command) {
+  private boolean maxima(MaximaCommand command) {
     logger.debug("Find pauses maximas");
     try {
       maxima.maxima(command);
+      return true;
     } catch (NumberFormatException e) {
       System.err.println("Could not parse pauses file");
       e.printStackTrace();
@@ -187,12 +384,14 @@ public class MainService implements CommandLineRunner {
       System.err.println("Could not read input or write to output");
       e.printStackTrace();
     }
+    return false;
   }
 
-  private void sgdGeneToTss(SgdGeneToTssCommand command) {
+  private boolean sgdGeneToTss(SgdGeneToTssCommand command) {
     logger.debug("Converts SGD gene to TSS");
     try {
       sgdGeneConverter.sgdGeneToTss(command);
+      return true;
     } catch (NumberFormatException e) {
       System.err.println("Could not parse SGD gene file");
       e.printStackTrace();
@@ -200,12 +399,14 @@ public class MainService implements CommandLineRunner {
       System.err.println("Could not read input or write to output");
       e.printStackTrace();
     }
+    return false;
   }
 
-  private void fakeGene(FakeGeneCommand command) {
+  private boolean fakeGene(FakeGeneCommand command) {
     logger.debug("Generates a fake gene file covering all chromosomes");
     try {
       fakeGene.fakeGene(command);
+      return true;
     } catch (NumberFormatException e) {
       System.err.println("Could not parse chromosome sizes file");
       e.printStackTrace();
@@ -213,5 +414,156 @@ public class MainService implements CommandLineRunner {
       System.err.println("Could not read input or write to output");
       e.printStackTrace();
     }
+    return false;
+  }
+
+  private boolean callPauses(CallPausesCommand command) {
+    logger.debug("Finds pauses in track file");
+    try {
+      pauseCaller.callPauses(command);
+      return true;
+    } catch (NumberFormatException e) {
+      System.err.println("Could not parse track or TSS file");
+      e.printStackTrace();
+    } catch (IOException e) {
+      System.err.println("Could not read input or write to output");
+      e.printStackTrace();
+    }
+    return false;
+  }
+
+  private boolean trackIndex(TrackIndexCommand command) {
+    logger.debug("Indexes genes' TSS in track files");
+    try {
+      trackIndexer.index(command);
+      return true;
+    } catch (NumberFormatException e) {
+      System.err.println("Could not parse TSS file");
+      e.printStackTrace();
+    } catch (IOException e) {
+      System.err.println("Could not read input or write to output");
+      e.printStackTrace();
+    }
+    return false;
+  }
+
+  private boolean bedToPauses(BedToPausesCommand command) {
+    logger.debug("Converts BED to pauses");
+    try {
+      bedConverter.bedToPauses(command);
+      return true;
+    } catch (NumberFormatException e) {
+      System.err.println("Could not parse BED or TSS file");
+      e.printStackTrace();
+    } catch (IOException e) {
+      System.err.println("Could not read input or write to output");
+      e.printStackTrace();
+    }
+    return false;
+  }
+
+  private boolean batch(BatchCommand command) {
+    logger.debug("Runs commands of manifest");
+    try {
+      return BatchRunner.run(command, args -> execute(DetachedCommands.BATCH, args));
+    } catch (IOException e) {
+      System.err.println("Could not read manifest or write to output");
+      e.printStackTrace();
+    }
+    return false;
+  }
+
+  private boolean serve(ServeCommand command) {
+    logger.debug("Serves commands");
+    try {
+      if (command.stop) {
+        return CommandServer.send(command.port, command.tokenFile(), ServeCommand.COMMAND,
+            ServeCommand.STOP);
+      }
+      try (CommandServer server = new CommandServer(command.port, command.threads,
+          command.tokenFile(), args -> execute(DetachedCommands.SERVER, args))) {
+        server.run();
+      }
+      return true;
+    } catch (IOException e) {
+      System.err.println("Could not communicate on port " + command.port);
+      e.printStackTrace();
+    }
+    return false;
+  }
+
+  private boolean pipeline(PipelineCommand command) {
+    logger.debug("Runs pipeline");
+    try {
+      pipeline.run(command);
+      return true;
+    } catch (NumberFormatException e) {
+      System.err.println("Could not parse track or TSS file");
+      e.printStackTrace();
+    } catch (IOException e) {
+      System.err.println("Could not read input or write to output");
+      e.printStackTrace();
+    }
+    return false;
+  }
+
+  private boolean fastaToGenome(FastaToGenomeCommand command) {
+    logger.debug("Converts FASTA to genome");
+    try {
+      genomeConverter.fastaToGenome(command);
+      return true;
+    } catch (IOException e) {
+      System.err.println("Could not read input or write to output");
+      e.printStackTrace();
+    }
+    return false;
+  }
+
+  private boolean fastaIndex(FastaIndexCommand command) {
+    logger.debug("Indexes FASTA");
+    try {
+      fastaIndexer.index(command);
+      return true;
+    } catch (IOException e) {
+      System.err.println("Could not read input or write to output");
+      e.printStackTrace();
+    }
+    return false;
+  }
+
+  private boolean correlate(CorrelateCommand command) {
+    logger.debug("Correlates samples");
+    try {
+      correlator.correlate(command);
+      return true;
+    } catch (IOException e) {
+      System.err.println("Could not read input or write to output");
+      e.printStackTrace();
+    }
+    return false;
+  }
+
+  private boolean metagene(MetageneCommand command) {
+    logger.debug("Averages reads of genes");
+    try {
+      metagene.metagene(command);
+      return true;
+    } catch (IOException e) {
+      System.err.println("Could not read input or write to output");
+      e.printStackTrace();
+    }
+    return false;
+  }
+
+  private boolean tandem(TandemCommand command) {
+    logger.debug("Compares sense and antisense reads of tandem genes");
+    try {
+      tandemGenes.tandem(command);
+      return true;
+    } catch (IOException e) {
+      System.err.println("Could not read input or write to output");
+      e.printStackTrace();
+    }
+    return false;
   }
 }
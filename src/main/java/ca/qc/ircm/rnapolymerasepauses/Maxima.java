@@ -4,8 +4,8 @@ import ca.qc.ircm.rnapolymerasepauses.io.PauseReader;
 import ca.qc.ircm.rnapolymerasepauses.io.PauseWriter;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
-import java.util.stream.Stream;
 import org.springframework.stereotype.Component;
 
 /**
@@ -24,46 +24,117 @@ public class Maxima {
   public void maxima(MaximaCommand parameters) throws IOException {
     try (PauseReader reader = new PauseReader(parameters.reader());
         PauseWriter writer = new PauseWriter(parameters.writer())) {
+      PauseTable pauses = new PauseTable();
+      Pause pause = new Pause();
       String gene = null;
-      List<Pause> pauses = new ArrayList<>();
-      Pause pause;
-      while ((pause = reader.readPause()) != null) {
-        if (gene == null) {
-          gene = pause.name;
-        }
-        if (pause.name.equals(gene)) {
-          pauses.add(pause);
-        } else {
-          pauses = maxima(pauses, parameters.windowSize);
-          for (Pause pa : pauses) {
-            writer.writePause(pa);
-          }
-          gene = pause.name;
+      while (reader.next(pause)) {
+        if (gene != null && !pause.name.equals(gene)) {
+          writeMaxima(pauses, parameters.windowSize, writer);
           pauses.clear();
-          pauses.add(pause);
         }
+        gene = pause.name;
+        pauses.add(pause, reader.sequence());
       }
-      pauses = maxima(pauses, parameters.windowSize);
-      for (Pause pa : pauses) {
-        writer.writePause(pa);
+      writeMaxima(pauses, parameters.windowSize, writer);
+    }
+  }
+
+  private void writeMaxima(PauseTable pauses, int window, PauseWriter writer)
+      throws IOException {
+    final int size = pauses.size();
+    int[] positions = new int[size];
+    double[] folds = new double[size];
+    for (int i = 0; i < size; i++) {
+      positions[i] = pauses.position(i);
+      folds[i] = pauses.foldsAboveAverage(i);
+    }
+    boolean[] keep = maxima(positions, folds, window);
+    for (int i = 0; i < size; i++) {
+      if (keep[i]) {
+        writer.writePause(pauses, i);
       }
     }
   }
 
-  private List<Pause> maxima(List<Pause> pauses, int window) {
+  /**
+   * Returns pauses that have no pause with a greater folds above average within window.
+   * <p>
+   * Pauses are sorted by position and a monotonic deque keeps the best candidates of the sliding
+   * window, so the cost is linear once pauses are sorted. Pauses are returned in input order.
+   * </p>
+   *
+   * @param pauses
+   *          pauses of a gene
+   * @param window
+   *          window size on each side of pause
+   * @return pauses that have no pause with a greater folds above average within window
+   */
+  List<Pause> maxima(List<Pause> pauses, int window) {
+    final int size = pauses.size();
+    int[] positions = new int[size];
+    double[] folds = new double[size];
+    for (int i = 0; i < size; i++) {
+      positions[i] = pauses.get(i).position;
+      folds[i] = pauses.get(i).foldsAboveAverage;
+    }
+    boolean[] keep = maxima(positions, folds, window);
     List<Pause> maxima = new ArrayList<>();
-    for (Pause pause : pauses) {
-      if (window(pauses, pause.position, window)
-          .filter(pa -> pa.foldsAboveAverage > pause.foldsAboveAverage).count() == 0) {
-        maxima.add(pause);
+    for (int i = 0; i < size; i++) {
+      if (keep[i]) {
+        maxima.add(pauses.get(i));
       }
     }
     return maxima;
   }
 
-  private Stream<Pause> window(List<Pause> pauses, int position, int window) {
-    int start = position - window;
-    int end = position + window;
-    return pauses.stream().filter(pause -> pause.position >= start && pause.position <= end);
+  /**
+   * Returns true for pauses that have no pause with a greater folds above average within window.
+   *
+   * @param positions
+   *          positions of pauses of a gene
+   * @param foldsAboveAverage
+   *          folds above average of pauses, in the same order as positions
+   * @param window
+   *          window size on each side of pause
+   * @return true for pauses that have no pause with a greater folds above average within window
+   */
+  private boolean[] maxima(int[] positions, double[] foldsAboveAverage, int window) {
+    final int size = positions.length;
+    long[] keys = new long[size];
+    for (int i = 0; i < size; i++) {
+      keys[i] = ((long) positions[i] << 32) | i;
+    }
+    Arrays.sort(keys);
+    int[] indexes = new int[size];
+    int[] sortedPositions = new int[size];
+    double[] folds = new double[size];
+    for (int i = 0; i < size; i++) {
+      indexes[i] = (int) keys[i];
+      sortedPositions[i] = positions[indexes[i]];
+      double fold = foldsAboveAverage[indexes[i]];
+      // NaN is never greater than another value.
+      folds[i] = Double.isNaN(fold) ? Double.NEGATIVE_INFINITY : fold;
+    }
+    boolean[] keep = new boolean[size];
+    int[] deque = new int[size];
+    int head = 0;
+    int tail = 0;
+    int next = 0;
+    for (int i = 0; i < size; i++) {
+      long end = (long) sortedPositions[i] + window;
+      while (next < size && sortedPositions[next] <= end) {
+        while (tail > head && folds[deque[tail - 1]] <= folds[next]) {
+          tail--;
+        }
+        deque[tail++] = next++;
+      }
+      long start = (long) sortedPositions[i] - window;
+      while (sortedPositions[deque[head]] < start) {
+        head++;
+      }
+      double fold = foldsAboveAverage[indexes[i]];
+      keep[indexes[i]] = Double.isNaN(fold) || !(folds[deque[head]] > fold);
+    }
+    return keep;
   }
 }
@@ -0,0 +1,263 @@
+package ca.qc.ircm.rnapolymerasepauses;
+
+import ca.qc.ircm.rnapolymerasepauses.MetageneCommand.Anchor;
+import ca.qc.ircm.rnapolymerasepauses.io.DoubleFormatter;
+import ca.qc.ircm.rnapolymerasepauses.io.TssParser;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+import javax.inject.Inject;
+import org.springframework.stereotype.Component;
+
+/**
+ * Averages reads of genes by position.
+ * <p>
+ * This is a port of <code>getAverageGene</code> from Churchman et al. Reads of genes are read by
+ * {@link GeneReadsReader} from the plus strand track for genes on the plus strand and from the
+ * minus strand track for other genes, then put in the direction of transcription. Reads of a gene
+ * are divided by the mean reads of its last 500 bases, its expression.
+ * </p>
+ * <p>
+ * Both tracks are read concurrently and genes are added to the profile on a pool of threads while
+ * tracks are still being read. Tracks wait when twice as many genes as threads are waiting to be
+ * added, so reads of genes do not pile up when tracks are read faster than genes are added. Each
+ * thread sums reads in its own primitive arrays and these arrays
+ * are merged once all genes are added.
+ * </p>
+ */
+@Component
+public class Metagene {
+  private static final int EXPRESSION_LENGTH = 500;
+  private static final String SEPARATOR = "\t";
+  private static final String LINE_SEPARATOR = "\n";
+  private static final String TSS_STAGE = "tss";
+  private static final String WRITE_STAGE = "write";
+  @Inject
+  private TssParser tssParser;
+
+  protected Metagene() {
+  }
+
+  protected Metagene(TssParser tssParser) {
+    this.tssParser = tssParser;
+  }
+
+  /**
+   * Averages reads of genes by position.
+   * <p>
+   * Only genes at least {@link MetageneCommand#minLength} long and whose expression is between
+   * {@link MetageneCommand#lower} and {@link MetageneCommand#upper}, exclusively, are used. Output
+   * contains one line per position with the following columns: position, mean reads of genes at
+   * this position and number of genes covering this position. Positions covered by no gene are
+   * not written.
+   * </p>
+   * <p>
+   * When genes are anchored at TSS, position 0 is the TSS. When genes are anchored at TES,
+   * position 0 is the TES and positions before TES are negative. When genes are scaled, positions
+   * are bins and the reads of a bin are the mean reads of the bases of gene in the bin.
+   * </p>
+   *
+   * @param parameters
+   *          parameters
+   * @throws IOException
+   *           could not read track or TSS file or write to output
+   */
+  public void metagene(MetageneCommand parameters) throws IOException {
+    List<Gene> genes;
+    try (RunMetrics.Timer timer = RunMetrics.current().stage(TSS_STAGE)) {
+      genes = tssParser.genes(parameters.tss).stream()
+          .filter(gene -> gene.end - gene.start >= parameters.minLength)
+          .collect(Collectors.toList());
+    }
+    Map<String, List<Gene>> plusGenes = GeneReadsReader.byChromosome(genes.stream()
+        .filter(gene -> gene.strand.equals(Gene.PLUS_STRAND)).collect(Collectors.toList()));
+    Map<String, List<Gene>> minusGenes = GeneReadsReader.byChromosome(genes.stream()
+        .filter(gene -> !gene.strand.equals(Gene.PLUS_STRAND)).collect(Collectors.toList()));
+    ForkJoinPool pool = new ForkJoinPool(parameters.threads);
+    Profiles profiles = new Profiles(parameters, pool);
+    try {
+      StrandPair.run(
+          () -> GeneReadsReader.read(plusGenes, parameters.plus, parameters::plusReader,
+              parameters.format, profiles::add),
+          () -> GeneReadsReader.read(minusGenes, parameters.minus, parameters::minusReader,
+              parameters.format, profiles::add));
+      profiles.waitForTasks();
+    } finally {
+      pool.shutdownNow();
+    }
+    Profile profile = profiles.merge();
+    try (RunMetrics.Timer timer = RunMetrics.current().stage(WRITE_STAGE);
+        BufferedWriter writer = parameters.writer()) {
+      DoubleFormatter readsFormat = new DoubleFormatter(10);
+      for (int i = 0; i < parameters.length; i++) {
+        int index = parameters.anchor == Anchor.TES ? parameters.length - 1 - i : i;
+        if (profile.counts[index] == 0) {
+          continue;
+        }
+        writer.write(String.valueOf(parameters.anchor == Anchor.TES ? -index : index));
+        writer.write(SEPARATOR);
+        writer.write(readsFormat.format(profile.sums[index] / profile.counts[index]));
+        writer.write(SEPARATOR);
+        writer.write(String.valueOf(profile.counts[index]));
+        writer.write(LINE_SEPARATOR);
+      }
+    }
+  }
+
+  /**
+   * Adds reads of gene to profile.
+   *
+   * @param gene
+   *          gene
+   * @param reads
+   *          reads of gene, reversed if gene is not on plus strand
+   * @param parameters
+   *          parameters
+   * @param profile
+   *          profile
+   */
+  static void add(Gene gene, double[] reads, MetageneCommand parameters, Profile profile) {
+    if (!gene.strand.equals(Gene.PLUS_STRAND)) {
+      for (int i = 0, j = reads.length - 1; i < j; i++, j--) {
+        double first = reads[i];
+        reads[i] = reads[j];
+        reads[j] = first;
+      }
+    }
+    double expression = 0;
+    for (int i = Math.max(reads.length - EXPRESSION_LENGTH, 0); i < reads.length; i++) {
+      expression += reads[i];
+    }
+    expression /= EXPRESSION_LENGTH;
+    if (!(expression > parameters.lower && expression < parameters.upper)
+        || reads.length == 0) {
+      return;
+    }
+    double norm = parameters.raw ? 1 : expression;
+    final int length = parameters.length;
+    switch (parameters.anchor) {
+      case TES:
+        for (int i = 0; i < length && i < reads.length; i++) {
+          profile.sums[i] += reads[reads.length - 1 - i] / norm;
+          profile.counts[i]++;
+        }
+        break;
+      case SCALED:
+        for (int i = 0; i < length; i++) {
+          int start = (int) ((long) i * reads.length / length);
+          int end = Math.max((int) ((long) (i + 1) * reads.length / length), start + 1);
+          double sum = 0;
+          for (int j = start; j < end; j++) {
+            sum += reads[j];
+          }
+          profile.sums[i] += sum / (end - start) / norm;
+          profile.counts[i]++;
+        }
+        break;
+      default:
+        for (int i = 0; i < length && i < reads.length; i++) {
+          profile.sums[i] += reads[i] / norm;
+          profile.counts[i]++;
+        }
+        break;
+    }
+  }
+
+  /**
+   * Sums of reads of genes by position.
+   */
+  static class Profile {
+    final double[] sums;
+    final long[] counts;
+
+    Profile(int length) {
+      sums = new double[length];
+      counts = new long[length];
+    }
+
+    private void add(Profile other) {
+      for (int i = 0; i < sums.length; i++) {
+        sums[i] += other.sums[i];
+        counts[i] += other.counts[i];
+      }
+    }
+  }
+
+  /**
+   * Adds genes to profiles of the threads of a pool.
+   */
+  private static class Profiles {
+    private final MetageneCommand parameters;
+    private final ForkJoinPool pool;
+    private final List<Profile> profiles = Collections.synchronizedList(new ArrayList<>());
+    private final ThreadLocal<Profile> threadProfile;
+    private final AtomicReference<Throwable> error = new AtomicReference<>();
+    private final Semaphore permits;
+
+    private Profiles(MetageneCommand parameters, ForkJoinPool pool) {
+      this.parameters = parameters;
+      this.pool = pool;
+      this.permits = new Semaphore(pool.getParallelism() * 2);
+      threadProfile = ThreadLocal.withInitial(() -> {
+        Profile profile = new Profile(parameters.length);
+        profiles.add(profile);
+        return profile;
+      });
+    }
+
+    private void add(Gene gene, double[] reads) throws IOException {
+      try {
+        permits.acquire();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new IOException("Interrupted while waiting for genes to be added", e);
+      }
+      try {
+        pool.execute(() -> {
+          try {
+            Metagene.add(gene, reads, parameters, threadProfile.get());
+          } catch (RuntimeException | Error e) {
+            error.compareAndSet(null, e);
+          } finally {
+            permits.release();
+          }
+        });
+      } catch (RuntimeException e) {
+        permits.release();
+        throw e;
+      }
+    }
+
+    /**
+     * Waits until all genes are added to profiles.
+     * <p>
+     * Tasks are not kept, so reads of a gene are released as soon as the gene is added.
+     * </p>
+     */
+    private void waitForTasks() {
+      pool.awaitQuiescence(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+      Throwable exception = error.get();
+      if (exception instanceof Error) {
+        throw (Error) exception;
+      } else if (exception != null) {
+        throw (RuntimeException) exception;
+      }
+    }
+
+    private Profile merge() {
+      Profile profile = new Profile(parameters.length);
+      for (Profile threadProfile : profiles) {
+        profile.add(threadProfile);
+      }
+      return profile;
+    }
+  }
+}
@@ -0,0 +1,149 @@
+package ca.qc.ircm.rnapolymerasepauses;
+
+import ca.qc.ircm.rnapolymerasepauses.io.Compression;
+import ca.qc.ircm.rnapolymerasepauses.io.TrackFormat;
+import ca.qc.ircm.rnapolymerasepauses.validation.FileExistsValidation;
+import com.beust.jcommander.Parameter;
+import com.beust.jcommander.Parameters;
+import com.beust.jcommander.converters.PathConverter;
+import com.beust.jcommander.validators.PositiveInteger;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+
+/**
+ * Averages reads of genes by position.
+ */
+@Parameters(
+    separators = " =",
+    commandNames = MetageneCommand.COMMAND,
+    commandDescription = "Averages reads of genes by position")
+public class MetageneCommand {
+  public static final String COMMAND = "metagene";
+  private static final Charset CHARSET = StandardCharsets.UTF_8;
+
+  /**
+   * How positions of genes are aligned.
+   */
+  public enum Anchor {
+    /**
+     * Positions are distances from TSS.
+     */
+    TSS,
+    /**
+     * Positions are distances from TES.
+     */
+    TES,
+    /**
+     * Genes are scaled to the same number of bins.
+     */
+    SCALED
+  }
+
+  @Parameter(names = { "-h", "-help", "--h", "--help" }, description = "Show help", help = true)
+  public boolean help = false;
+  @Parameter(
+      names = { "-p", "--plus" },
+      description = "Track file of plus strand",
+      required = true,
+      converter = PathConverter.class,
+      validateWith = FileExistsValidation.class)
+  public Path plus;
+  @Parameter(
+      names = { "-m", "--minus" },
+      description = "Track file of minus strand",
+      required = true,
+      converter = PathConverter.class,
+      validateWith = FileExistsValidation.class)
+  public Path minus;
+  @Parameter(
+      names = { "--format" },
+      description = "Input track format, either text, rle or binary")
+  public TrackFormat format = TrackFormat.TEXT;
+  @Parameter(
+      names = { "-t", "--tss" },
+      description = "TSS file",
+      required = true,
+      converter = PathConverter.class,
+      validateWith = FileExistsValidation.class)
+  public Path tss;
+  @Parameter(
+      names = { "-a", "--anchor" },
+      description = "Alignment of genes, either tss, tes or scaled. Defaults to tss")
+  public Anchor anchor = Anchor.TSS;
+  @Parameter(
+      names = { "-l", "--length" },
+      description = "Number of positions from anchor, or number of bins when genes are scaled. "
+          + "Defaults to 1000",
+      validateWith = PositiveInteger.class)
+  public int length = 1000;
+  @Parameter(
+      names = { "--minLength" },
+      description = "Minimal length of genes. Defaults to 500")
+  public int minLength = 500;
+  @Parameter(
+      names = { "--lower" },
+      description = "Mean reads of the last 500 bases of gene above which gene is used. "
+          + "Defaults to 0")
+  public double lower = 0;
+  @Parameter(
+      names = { "--upper" },
+      description = "Mean reads of the last 500 bases of gene below which gene is used. "
+          + "Defaults to 100000")
+  public double upper = 100000;
+  @Parameter(
+      names = { "--raw" },
+      description = "Do not divide reads of genes by their mean reads of the last 500 bases")
+  public boolean raw = false;
+  @Parameter(
+      names = { "--threads" },
+      description = "Number of threads used to process genes in parallel. Defaults to 1",
+      validateWith = PositiveInteger.class)
+  public int threads = 1;
+  @Parameter(
+      names = { "-o", "--output" },
+      description = "Output file. Defaults to system output for piping",
+      converter = PathConverter.class)
+  public Path output;
+
+  /**
+   * Returns reader of plus strand.
+   *
+   * @return reader of plus strand
+   * @throws IOException
+   *           could not created a reader for plus strand
+   */
+  public BufferedReader plusReader() throws IOException {
+    return Compression.newBufferedReader(plus);
+  }
+
+  /**
+   * Returns reader of minus strand.
+   *
+   * @return reader of minus strand
+   * @throws IOException
+   *           could not created a reader for minus strand
+   */
+  public BufferedReader minusReader() throws IOException {
+    return Compression.newBufferedReader(minus);
+  }
+
+  /**
+   * Returns output writer, falls back to <code>System.out</code>.
+   *
+   * @return output writer
+   * @throws IOException
+   *           could not created a writer for output
+   */
+  public BufferedWriter writer() throws IOException {
+    if (output != null) {
+      return Compression.newBufferedWriter(output);
+    } else {
+      return new BufferedWriter(new OutputStreamWriter(System.out, CHARSET));
+    }
+  }
+}
@@ -0,0 +1,221 @@
+package ca.qc.ircm.rnapolymerasepauses;
+
+import java.util.Arrays;
+
+/**
+ * Nucleotide sequences packed using 2 bits per base.
+ * <p>
+ * Sequences are appended one after the other and are accessed using their offset in the
+ * concatenation of all sequences. A, C, G and T are packed as 0, 1, 2 and 3, 32 bases per long.
+ * Like the 2bit format of UCSC, lower case bases are kept as runs of a mask and other characters,
+ * like N, are kept as runs of exceptions, so any sequence is decoded exactly.
+ * </p>
+ * <p>
+ * The static methods expose the packing of bases in longs so that other stores, like genome files,
+ * use the same encoding.
+ * </p>
+ */
+public class PackedSequences {
+  private static final int BASES_PER_LONG_BITS = 5;
+  /**
+   * Number of bases packed in a long.
+   */
+  public static final int BASES_PER_LONG = 1 << BASES_PER_LONG_BITS;
+  private static final char[] BASES = { 'A', 'C', 'G', 'T' };
+  private static final byte[] CODES = new byte[128];
+  private static final char LOWER_CASE = 'a';
+
+  static {
+    Arrays.fill(CODES, (byte) -1);
+    for (int i = 0; i < BASES.length; i++) {
+      CODES[BASES[i]] = (byte) i;
+      CODES[Character.toLowerCase(BASES[i])] = (byte) i;
+    }
+  }
+
+  private long[] bases = new long[16];
+  private long length;
+  private final Runs lowerCase = new Runs();
+  private final Runs exceptions = new Runs();
+
+  /**
+   * Appends sequence.
+   *
+   * @param sequence
+   *          sequence
+   * @return offset of sequence
+   */
+  public long append(CharSequence sequence) {
+    long start = length;
+    int sequenceLength = sequence.length();
+    long capacity = (length + sequenceLength + BASES_PER_LONG - 1) >>> BASES_PER_LONG_BITS;
+    if (capacity > bases.length) {
+      bases = Arrays.copyOf(bases, (int) Math.max(capacity, bases.length + (bases.length >> 1)));
+    }
+    for (int i = 0; i < sequenceLength; i++) {
+      char character = sequence.charAt(i);
+      int code = code(character);
+      if (code < 0) {
+        exceptions.add(length, character);
+        code = 0;
+      } else if (character >= 'a') {
+        lowerCase.add(length, LOWER_CASE);
+      }
+      bases[index(length)] |= pack(code, length);
+      length++;
+    }
+    return start;
+  }
+
+  /**
+   * Returns 2-bit code of base, or -1 if base is not A, C, G or T, ignoring case.
+   *
+   * @param base
+   *          base
+   * @return 2-bit code of base, or -1 if base is not A, C, G or T, ignoring case
+   */
+  public static int code(char base) {
+    return base < CODES.length ? CODES[base] : -1;
+  }
+
+  /**
+   * Returns index of the long containing base at offset.
+   *
+   * @param offset
+   *          offset of base
+   * @return index of the long containing base at offset
+   */
+  public static int index(long offset) {
+    return (int) (offset >>> BASES_PER_LONG_BITS);
+  }
+
+  /**
+   * Returns code shifted to the bits of base at offset inside its long.
+   *
+   * @param code
+   *          2-bit code of base
+   * @param offset
+   *          offset of base
+   * @return code shifted to the bits of base at offset inside its long
+   */
+  public static long pack(int code, long offset) {
+    return (long) code << shift(offset);
+  }
+
+  /**
+   * Returns upper case base at offset inside its long.
+   *
+   * @param packed
+   *          long containing base
+   * @param offset
+   *          offset of base
+   * @return upper case base at offset inside its long
+   */
+  public static char base(long packed, long offset) {
+    return BASES[(int) (packed >>> shift(offset)) & 3];
+  }
+
+  private static int shift(long offset) {
+    return (int) (offset & (BASES_PER_LONG - 1)) << 1;
+  }
+
+  /**
+   * Returns total length of all sequences.
+   *
+   * @return total length of all sequences
+   */
+  public long length() {
+    return length;
+  }
+
+  /**
+   * Decodes bases into destination.
+   *
+   * @param start
+   *          offset of first base to decode
+   * @param end
+   *          offset after last base to decode
+   * @param destination
+   *          destination
+   * @param offset
+   *          index of destination where to copy first base
+   */
+  public void get(long start, long end, char[] destination, int offset) {
+    if (start < 0 || end > length || start > end) {
+      throw new IndexOutOfBoundsException(
+          "Bases " + start + "-" + end + " are not inside sequences of length " + length);
+    }
+    int position = offset;
+    for (long base = start; base < end; base++) {
+      destination[position++] = base(bases[index(base)], base);
+    }
+    for (int run = lowerCase.first(start); run < lowerCase.count
+        && lowerCase.starts[run] < end; run++) {
+      long runEnd = Math.min(lowerCase.ends[run], end);
+      for (long base = Math.max(lowerCase.starts[run], start); base < runEnd; base++) {
+        int index = offset + (int) (base - start);
+        destination[index] = Character.toLowerCase(destination[index]);
+      }
+    }
+    for (int run = exceptions.first(start); run < exceptions.count
+        && exceptions.starts[run] < end; run++) {
+      long runEnd = Math.min(exceptions.ends[run], end);
+      for (long base = Math.max(exceptions.starts[run], start); base < runEnd; base++) {
+        destination[offset + (int) (base - start)] = exceptions.values[run];
+      }
+    }
+  }
+
+  /**
+   * Removes all sequences. Allocated memory is kept.
+   */
+  public void clear() {
+    Arrays.fill(bases, 0, (int) ((length + BASES_PER_LONG - 1) >>> BASES_PER_LONG_BITS), 0);
+    length = 0;
+    lowerCase.count = 0;
+    exceptions.count = 0;
+  }
+
+  /**
+   * Runs of consecutive bases sharing the same character, sorted by offset.
+   */
+  private static class Runs {
+    private long[] starts = new long[16];
+    private long[] ends = new long[16];
+    private char[] values = new char[16];
+    private int count;
+
+    private void add(long offset, char value) {
+      if (count > 0 && ends[count - 1] == offset && values[count - 1] == value) {
+        ends[count - 1]++;
+        return;
+      }
+      if (count == starts.length) {
+        int capacity = count + (count >> 1);
+        starts = Arrays.copyOf(starts, capacity);
+        ends = Arrays.copyOf(ends, capacity);
+        values = Arrays.copyOf(values, capacity);
+      }
+      starts[count] = offset;
+      ends[count] = offset + 1;
+      values[count++] = value;
+    }
+
+    /**
+     * Returns index of first run that ends after offset.
+     */
+    private int first(long offset) {
+      int low = 0;
+      int high = count;
+      while (low < high) {
+        int middle = (low + high) >>> 1;
+        if (ends[middle] <= offset) {
+          low = middle + 1;
+        } else {
+          high = middle;
+        }
+      }
+      return low;
+    }
+  }
+}
@@ -0,0 +1,393 @@
+package ca.qc.ircm.rnapolymerasepauses;
+
+import ca.qc.ircm.rnapolymerasepauses.io.BinaryTrack;
+import ca.qc.ircm.rnapolymerasepauses.io.BinaryTrackWriter;
+import ca.qc.ircm.rnapolymerasepauses.io.Compression;
+import ca.qc.ircm.rnapolymerasepauses.io.RleTrackWriter;
+import ca.qc.ircm.rnapolymerasepauses.io.TextTrackWriter;
+import ca.qc.ircm.rnapolymerasepauses.io.TrackFormat;
+import ca.qc.ircm.rnapolymerasepauses.io.TrackWriter;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Converts blocks of chromosomes in parallel.
+ * <p>
+ * The input is first indexed to find the byte offset of each block. Each block is converted in
+ * its own temporary segment and segments are concatenated in input order, so output is identical
+ * to a conversion on a single thread.
+ * </p>
+ * <p>
+ * Blocks are submitted at most one per thread ahead of the segment being concatenated and each
+ * segment is created when its block is converted, so only a few segments exist at the same time.
+ * Segments are created in the directory of the output file, which has room for the output, rather
+ * than in the temporary directory. When conversion stops early, each block still running deletes
+ * its own segment.
+ * </p>
+ */
+class ParallelTrackConverter {
+  private static final Charset CHARSET = StandardCharsets.UTF_8;
+  private static final int BUFFER_SIZE = 65536;
+  private static final String[] BED_HEADERS = { "browser", "track" };
+  private static final String COMMENT = "#";
+  private static final String VARIABLE_STEP = "variableStep";
+
+  @FunctionalInterface
+  interface BlockConverter {
+    void convert(BufferedReader reader, TrackWriter writer) throws IOException;
+  }
+
+  @FunctionalInterface
+  interface Output<T> {
+    T get() throws IOException;
+  }
+
+  @FunctionalInterface
+  private interface SegmentAppender {
+    void append(Path segment) throws IOException;
+  }
+
+  private ParallelTrackConverter() {
+  }
+
+  /**
+   * Returns track writer for format.
+   *
+   * @param format
+   *          track format, null for text
+   * @param writer
+   *          output writer used for text formats
+   * @param outputStream
+   *          output stream used for binary format
+   * @return track writer for format
+   * @throws IOException
+   *           could not open output
+   */
+  static TrackWriter trackWriter(TrackFormat format, Output<? extends Writer> writer,
+      Output<? extends OutputStream> outputStream) throws IOException {
+    if (format == TrackFormat.BINARY) {
+      return new BinaryTrackWriter(outputStream.get());
+    } else if (format == TrackFormat.RLE) {
+      return new RleTrackWriter(writer.get());
+    } else {
+      return new TextTrackWriter(writer.get());
+    }
+  }
+
+  /**
+   * Returns byte offsets of chromosome blocks in BED file. A block starts when chromosome differs
+   * from the previous line.
+   *
+   * @param file
+   *          BED file
+   * @return byte offsets of chromosome blocks in BED file, first offset is always 0
+   * @throws IOException
+   *           could not read file
+   */
+  static List<Long> bedBlocks(Path file) throws IOException {
+    List<Long> blocks = new ArrayList<>();
+    blocks.add(0L);
+    String[] chromosome = new String[1];
+    scanLines(file, (offset, firstColumn) -> {
+      if (startsWith(firstColumn, COMMENT)) {
+        return;
+      }
+      for (String header : BED_HEADERS) {
+        if (header.contentEquals(firstColumn)) {
+          return;
+        }
+      }
+      if (chromosome[0] == null || !chromosome[0].contentEquals(firstColumn)) {
+        if (chromosome[0] != null) {
+          blocks.add(offset);
+        }
+        chromosome[0] = firstColumn.toString();
+      }
+    });
+    return blocks;
+  }
+
+  /**
+   * Returns byte offsets of chromosome blocks in WIG file. A block starts on each
+   * <code>variableStep</code> line.
+   *
+   * @param file
+   *          WIG file
+   * @return byte offsets of chromosome blocks in WIG file, first offset is always 0
+   * @throws IOException
+   *           could not read file
+   */
+  static List<Long> wigBlocks(Path file) throws IOException {
+    List<Long> blocks = new ArrayList<>();
+    blocks.add(0L);
+    scanLines(file, (offset, firstColumn) -> {
+      if (offset > 0 && VARIABLE_STEP.contentEquals(firstColumn)) {
+        blocks.add(offset);
+      }
+    });
+    return blocks;
+  }
+
+  private static boolean startsWith(CharSequence value, String prefix) {
+    return value.length() >= prefix.length()
+        && prefix.contentEquals(value.subSequence(0, prefix.length()));
+  }
+
+  @FunctionalInterface
+  private interface LineHandler {
+    /**
+     * Handles a line.
+     *
+     * @param offset
+     *          byte offset of line
+     * @param firstColumn
+     *          first column of line, only valid during the call
+     */
+    void line(long offset, CharSequence firstColumn);
+  }
+
+  private static void scanLines(Path file, LineHandler handler) throws IOException {
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+      byte[] bytes = buffer.array();
+      StringBuilder firstColumn = new StringBuilder();
+      boolean inFirstColumn = true;
+      long lineStart = 0;
+      long offset = 0;
+      int read;
+      while ((read = channel.read(buffer)) != -1) {
+        for (int i = 0; i < read; i++) {
+          byte next = bytes[i];
+          offset++;
+          if (next == '\n') {
+            handler.line(lineStart, firstColumn);
+            firstColumn.setLength(0);
+            inFirstColumn = true;
+            lineStart = offset;
+          } else if (inFirstColumn) {
+            if (next == '\t' || next == ' ' || next == '\r') {
+              inFirstColumn = false;
+            } else {
+              firstColumn.append((char) next);
+            }
+          }
+        }
+        buffer.clear();
+      }
+      if (offset > lineStart) {
+        handler.line(lineStart, firstColumn);
+      }
+    }
+  }
+
+  /**
+   * Converts blocks of input in parallel.
+   *
+   * @param input
+   *          input file
+   * @param blocks
+   *          byte offsets of blocks in input
+   * @param output
+   *          output file, segments are created in its directory, null to create segments in the
+   *          temporary directory
+   * @param threads
+   *          number of threads
+   * @param format
+   *          output track format, null for text
+   * @param writer
+   *          output writer used for text formats
+   * @param outputStream
+   *          output stream used for binary format
+   * @param converter
+   *          converts a single block
+   * @throws IOException
+   *           could not read input or write to output
+   */
+  static void convert(Path input, List<Long> blocks, Path output, int threads,
+      TrackFormat format, Output<? extends Writer> writer,
+      Output<? extends OutputStream> outputStream, BlockConverter converter) throws IOException {
+    Path directory = output != null ? output.toAbsolutePath().getParent() : null;
+    if (format == TrackFormat.BINARY) {
+      try (BinaryTrackWriter trackWriter = new BinaryTrackWriter(outputStream.get())) {
+        convert(input, blocks, directory, threads, format, converter, segment -> {
+          try (BinaryTrack track = new BinaryTrack(segment)) {
+            for (String chromosome : track.chromosomes()) {
+              trackWriter.startChromosome(chromosome);
+              trackWriter.write(track.values(chromosome));
+            }
+          }
+        });
+      }
+    } else {
+      try (Writer outputWriter = writer.get()) {
+        char[] buffer = new char[BUFFER_SIZE];
+        convert(input, blocks, directory, threads, format, converter, segment -> {
+          try (Reader reader = Files.newBufferedReader(segment, CHARSET)) {
+            int read;
+            while ((read = reader.read(buffer)) != -1) {
+              outputWriter.write(buffer, 0, read);
+            }
+          }
+        });
+      }
+    }
+  }
+
+  private static void convert(Path input, List<Long> blocks, Path directory, int threads,
+      TrackFormat format, BlockConverter converter, SegmentAppender appender)
+      throws IOException {
+    long inputSize = Files.size(input);
+    List<Path> segments = Collections.synchronizedList(new ArrayList<>());
+    ForkJoinPool pool = new ForkJoinPool(threads);
+    try {
+      List<Future<Path>> tasks = new ArrayList<>();
+      for (int i = 0; i < blocks.size(); i++) {
+        while (tasks.size() < blocks.size() && tasks.size() <= i + threads) {
+          final long start = blocks.get(tasks.size());
+          final long end =
+              tasks.size() + 1 < blocks.size() ? blocks.get(tasks.size() + 1) : inputSize;
+          tasks.add(pool.submit(() -> {
+            if (pool.isShutdown()) {
+              return null;
+            }
+            Path segment = directory != null ? Files.createTempFile(directory, "track", ".segment")
+                : Files.createTempFile("track", ".segment");
+            segments.add(segment);
+            try (BufferedReader reader = blockReader(input, start, end);
+                TrackWriter segmentWriter = trackWriter(format,
+                    () -> Files.newBufferedWriter(segment, CHARSET),
+                    () -> Files.newOutputStream(segment))) {
+              converter.convert(reader, segmentWriter);
+            } finally {
+              if (pool.isShutdown()) {
+                // Conversion stopped and segments may already be deleted.
+                Files.deleteIfExists(segment);
+              }
+            }
+            return segment;
+          }));
+        }
+        Path segment = waitFor(tasks.get(i));
+        tasks.set(i, null);
+        appender.append(segment);
+        Files.delete(segment);
+      }
+    } finally {
+      pool.shutdownNow();
+      try {
+        pool.awaitTermination(1, TimeUnit.MINUTES);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      synchronized (segments) {
+        for (Path segment : segments) {
+          Files.deleteIfExists(segment);
+        }
+      }
+    }
+  }
+
+  private static BufferedReader blockReader(Path input, long start, long end)
+      throws IOException {
+    FileChannel channel = FileChannel.open(input, StandardOpenOption.READ);
+    channel.position(start);
+    InputStream block =
+        new BlockInputStream(Compression.metered(Channels.newInputStream(channel)), end - start);
+    return new BufferedReader(new InputStreamReader(block, CHARSET), BUFFER_SIZE);
+  }
+
+  /**
+   * Waits for task to complete and returns its result.
+   *
+   * @param task
+   *          task
+   * @return result of task
+   * @throws IOException
+   *           task failed with an {@link IOException} or thread was interrupted
+   */
+  static <T> T waitFor(Future<T> task) throws IOException {
+    try {
+      return task.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IOException("Interrupted while waiting for parallel task", e);
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      // Fork-join tasks wrap checked exceptions, sometimes twice, in RuntimeException.
+      while (cause.getClass() == RuntimeException.class && cause.getCause() != null) {
+        cause = cause.getCause();
+      }
+      if (cause instanceof IOException) {
+        throw (IOException) cause;
+      } else if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      } else if (cause instanceof Error) {
+        throw (Error) cause;
+      } else {
+        throw new IOException(cause);
+      }
+    }
+  }
+
+  /**
+   * Input stream that stops after a number of bytes.
+   */
+  private static class BlockInputStream extends InputStream {
+    private final InputStream input;
+    private long remaining;
+
+    private BlockInputStream(InputStream input, long length) {
+      this.input = input;
+      this.remaining = length;
+    }
+
+    @Override
+    public int read() throws IOException {
+      if (remaining <= 0) {
+        return -1;
+      }
+      int read = input.read();
+      if (read != -1) {
+        remaining--;
+      }
+      return read;
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int length) throws IOException {
+      if (remaining <= 0) {
+        return -1;
+      }
+      int read = input.read(buffer, offset, (int) Math.min(length, remaining));
+      if (read > 0) {
+        remaining -= read;
+      }
+      return read;
+    }
+
+    @Override
+    public void close() throws IOException {
+      input.close();
+    }
+  }
+}
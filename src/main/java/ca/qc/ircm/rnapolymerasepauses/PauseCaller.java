@@ -0,0 +1,295 @@
+package ca.qc.ircm.rnapolymerasepauses;
+
+import ca.qc.ircm.rnapolymerasepauses.ParallelTrackConverter.Output;
+import ca.qc.ircm.rnapolymerasepauses.io.Genome;
+import ca.qc.ircm.rnapolymerasepauses.io.PauseWriter;
+import ca.qc.ircm.rnapolymerasepauses.io.TssParser;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import javax.inject.Inject;
+import org.springframework.stereotype.Component;
+
+/**
+ * Finds pauses in a track file.
+ * <p>
+ * This is a port of <code>getGenePeaks</code> and <code>getPeakSeqs</code> from Churchman et al.
+ * Reads of genes are read by {@link GeneReadsReader}. When a genome is set, the sequence of pauses
+ * is extracted using {@link Genome#flank(String, long, String, int)}.
+ * </p>
+ */
+@Component
+public class PauseCaller {
+  private static final int MIN_GENE_LENGTH = 500;
+  private static final int BEGINNING_START = 99;
+  private static final int BEGINNING_END = 500;
+  private static final double BEGINNING_LENGTH = 400;
+  private static final String TSS_STAGE = "tss";
+  @Inject
+  private TssParser tssParser;
+
+  protected PauseCaller() {
+  }
+
+  protected PauseCaller(TssParser tssParser) {
+    this.tssParser = tssParser;
+  }
+
+  /**
+   * Receives pauses found in a gene.
+   */
+  @FunctionalInterface
+  public interface GenePausesConsumer {
+    /**
+     * Receives pauses found in a gene.
+     *
+     * @param pauses
+     *          pauses found in a gene, never empty
+     * @throws IOException
+     *           could not process pauses
+     */
+    void accept(List<Pause> pauses) throws IOException;
+  }
+
+  /**
+   * Finds pauses in a track file.
+   *
+   * @param parameters
+   *          parameters
+   * @throws IOException
+   *           could not read track or TSS file or write to output
+   */
+  public void callPauses(CallPausesCommand parameters) throws IOException {
+    try (PauseWriter writer = new PauseWriter(parameters.writer())) {
+      callPauses(parameters, pauses -> writePauses(pauses, writer));
+    }
+  }
+
+  /**
+   * Finds pauses in a track file and sends them to consumer, one gene at a time.
+   * <p>
+   * {@link CallPausesCommand#writer()} is not used.
+   * </p>
+   * <p>
+   * When {@link CallPausesCommand#minusInput} is set, pauses are called concurrently in plus and
+   * minus strand tracks using the same TSS file. Pauses of minus strand genes are kept until all
+   * pauses of plus strand genes are sent to consumer.
+   * </p>
+   * <p>
+   * When {@link CallPausesCommand#genome} is set, the sequence of pauses contains the
+   * {@link CallPausesCommand#sequenceLength} bases upstream and downstream of pause.
+   * </p>
+   *
+   * @param parameters
+   *          parameters
+   * @param consumer
+   *          receives pauses of genes that have pauses
+   * @throws IOException
+   *           could not read track, TSS or genome file or consumer failed
+   */
+  public void callPauses(CallPausesCommand parameters, GenePausesConsumer consumer)
+      throws IOException {
+    List<Gene> allGenes;
+    try (RunMetrics.Timer timer = RunMetrics.current().stage(TSS_STAGE)) {
+      allGenes = tssParser.genes(parameters.tss);
+    }
+    try (Genome genome = parameters.genome != null ? new Genome(parameters.genome) : null) {
+      if (parameters.minusInput == null) {
+        callPauses(genes(allGenes, parameters.strand), parameters.input, parameters::reader,
+            genome, parameters, consumer);
+        return;
+      }
+      List<List<Pause>> minusPauses = new ArrayList<>();
+      StrandPair.run(
+          () -> callPauses(genes(allGenes, Gene.PLUS_STRAND), parameters.input,
+              parameters::reader, genome, parameters, consumer),
+          () -> callPauses(genes(allGenes, Gene.MINUS_STRAND), parameters.minusInput,
+              parameters::minusReader, genome, parameters, minusPauses::add));
+      for (List<Pause> pauses : minusPauses) {
+        consumer.accept(pauses);
+      }
+    }
+  }
+
+  private Map<String, List<Gene>> genes(List<Gene> genes, String strand) {
+    return GeneReadsReader.byChromosome(genes.stream()
+        .filter(gene -> gene.strand.equals(strand))
+        .filter(gene -> gene.end - gene.start > MIN_GENE_LENGTH).collect(Collectors.toList()));
+  }
+
+  private void callPauses(Map<String, List<Gene>> genes, Path input,
+      Output<BufferedReader> trackReader, Genome genome, CallPausesCommand parameters,
+      GenePausesConsumer consumer) throws IOException {
+    GeneReadsReader.read(genes, input, trackReader, parameters.format, (gene, reads) -> {
+      List<Pause> pauses = callPauses(gene, reads, parameters);
+      if (genome != null) {
+        sequences(gene, pauses, genome, parameters.sequenceLength);
+      }
+      accept(pauses, consumer);
+    });
+  }
+
+  /**
+   * Sets sequence of pauses to the bases flanking pauses, like <code>findFlankSeq</code> from
+   * Churchman et al.
+   */
+  private void sequences(Gene gene, List<Pause> pauses, Genome genome, int length)
+      throws IOException {
+    if (!pauses.isEmpty() && !genome.contains(gene.chromosome)) {
+      throw new IOException("Genome does not contain chromosome " + gene.chromosome);
+    }
+    for (Pause pause : pauses) {
+      pause.sequence =
+          genome.flank(gene.chromosome, gene.start + pause.position, gene.strand, length);
+    }
+  }
+
+  private void accept(List<Pause> pauses, GenePausesConsumer consumer) throws IOException {
+    if (!pauses.isEmpty()) {
+      consumer.accept(pauses);
+    }
+  }
+
+  private void writePauses(List<Pause> pauses, PauseWriter writer) throws IOException {
+    for (Pause pause : pauses) {
+      writer.writePause(pause);
+    }
+  }
+
+  /**
+   * Finds pauses in gene.
+   *
+   * @param gene
+   *          gene
+   * @param reads
+   *          reads of gene
+   * @param parameters
+   *          parameters
+   * @return pauses found in gene
+   */
+  List<Pause> callPauses(Gene gene, double[] reads, CallPausesCommand parameters) {
+    if (reads.length < BEGINNING_END) {
+      return Collections.emptyList();
+    }
+    int beginningStart = BEGINNING_START;
+    int beginningEnd = BEGINNING_END;
+    if (!gene.strand.equals(Gene.PLUS_STRAND)) {
+      beginningStart = reads.length - BEGINNING_END;
+      beginningEnd = reads.length - BEGINNING_START;
+    }
+    double beginningReads = 0;
+    for (int i = beginningStart; i < beginningEnd; i++) {
+      beginningReads += reads[i];
+    }
+    beginningReads /= BEGINNING_LENGTH;
+    if (!(beginningReads > parameters.cutoff)) {
+      return Collections.emptyList();
+    }
+    Peaks peaks = peaks(reads, parameters);
+    List<Pause> pauses = new ArrayList<>();
+    for (int i = 0; i < peaks.size; i++) {
+      int position = peaks.positions[i];
+      double strength = peaks.values[i] / peaks.tnorm[position];
+      if (strength > parameters.peakStrengthMin) {
+        Pause pause = new Pause();
+        pause.name = gene.name;
+        pause.chromosome = gene.chromosome;
+        pause.position = position;
+        pause.normalizedReads = peaks.values[i];
+        pause.foldsAboveAverage = strength;
+        pause.beginningReads = beginningReads;
+        pauses.add(pause);
+      }
+    }
+    return pauses;
+  }
+
+  /**
+   * Finds peaks in reads.
+   * <p>
+   * Mean and standard deviation of positive reads inside window are updated incrementally using
+   * the sum and sum of squares of reads entering and leaving the window, so each round is linear
+   * in gene length.
+   * </p>
+   */
+  private Peaks peaks(double[] reads, CallPausesCommand parameters) {
+    final int length = reads.length;
+    final int window = parameters.windowSize;
+    final int half = window / 2;
+    final int maxStart = Math.max(length - window, 0);
+    double[] geneReads = reads.clone();
+    Peaks peaks = new Peaks(length);
+    int previousSize = -1;
+    for (int round = 0; round < parameters.rounds && peaks.size > previousSize; round++) {
+      previousSize = peaks.size;
+      for (int i = 0; i < peaks.size; i++) {
+        geneReads[peaks.positions[i]] = peaks.tnorm[peaks.positions[i]];
+      }
+      int start = 0;
+      int stop = 0;
+      int count = 0;
+      double sum = 0;
+      double sumOfSquares = 0;
+      for (int i = 0; i < length; i++) {
+        int windowStart = Math.min(Math.max(i - half, 0), maxStart);
+        int windowStop = Math.min(windowStart + window, length);
+        while (stop < windowStop) {
+          double value = geneReads[stop++];
+          if (value > 0) {
+            count++;
+            sum += value;
+            sumOfSquares += value * value;
+          }
+        }
+        while (start < windowStart) {
+          double value = geneReads[start++];
+          if (value > 0) {
+            count--;
+            sum -= value;
+            sumOfSquares -= value * value;
+          }
+        }
+        if (count == 0) {
+          // Prevents rounding errors from accumulating.
+          sum = 0;
+          sumOfSquares = 0;
+        }
+        double mean = sum / count;
+        double standardDeviation = Math.sqrt(Math.max(sumOfSquares / count - mean * mean, 0));
+        peaks.tnorm[i] = mean;
+        double value = geneReads[i];
+        if (value > mean + parameters.fold * standardDeviation
+            && (mean > parameters.tnormThreshold || value > parameters.peakMin)) {
+          peaks.add(i, value);
+        }
+      }
+    }
+    return peaks;
+  }
+
+  private static class Peaks {
+    private int[] positions = new int[16];
+    private double[] values = new double[16];
+    private int size;
+    private final double[] tnorm;
+
+    private Peaks(int length) {
+      tnorm = new double[length];
+    }
+
+    private void add(int position, double value) {
+      if (size == positions.length) {
+        positions = Arrays.copyOf(positions, size * 2);
+        values = Arrays.copyOf(values, size * 2);
+      }
+      positions[size] = position;
+      values[size++] = value;
+    }
+  }
+}
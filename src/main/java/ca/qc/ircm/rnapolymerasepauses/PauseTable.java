@@ -0,0 +1,296 @@
+package ca.qc.ircm.rnapolymerasepauses;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Pauses stored by columns.
+ * <p>
+ * Positions and scores are kept in primitive arrays. Gene names and chromosomes are replaced by
+ * ids of a dictionary shared by both columns. Sequences are packed using 2 bits per base by
+ * {@link PackedSequences}, so a pause costs about 44 bytes plus a quarter byte per base instead of
+ * a {@link Pause} object and its strings.
+ * </p>
+ */
+public class PauseTable {
+  private static final int INITIAL_CAPACITY = 1024;
+  private final Map<String, Integer> ids = new HashMap<>();
+  private final List<String> values = new ArrayList<>();
+  private String lastValue;
+  private int lastId;
+  private int size;
+  private int[] names = new int[INITIAL_CAPACITY];
+  private int[] chromosomes = new int[INITIAL_CAPACITY];
+  private int[] positions = new int[INITIAL_CAPACITY];
+  private double[] normalizedReads = new double[INITIAL_CAPACITY];
+  private double[] foldsAboveAverage = new double[INITIAL_CAPACITY];
+  private double[] beginningReads = new double[INITIAL_CAPACITY];
+  private long[] sequenceEnds = new long[INITIAL_CAPACITY];
+  private final PackedSequences sequences = new PackedSequences();
+
+  /**
+   * Adds pause at the end of table.
+   *
+   * @param pause
+   *          pause
+   */
+  public void add(Pause pause) {
+    add(pause, pause.sequence);
+  }
+
+  /**
+   * Adds pause at the end of table, using sequence instead of {@link Pause#sequence}.
+   *
+   * @param pause
+   *          pause
+   * @param sequence
+   *          sequence of pause, null is the same as an empty sequence
+   */
+  public void add(Pause pause, CharSequence sequence) {
+    if (size == positions.length) {
+      grow();
+    }
+    names[size] = id(pause.name);
+    chromosomes[size] = id(pause.chromosome);
+    positions[size] = pause.position;
+    normalizedReads[size] = pause.normalizedReads;
+    foldsAboveAverage[size] = pause.foldsAboveAverage;
+    beginningReads[size] = pause.beginningReads;
+    if (sequence != null) {
+      sequences.append(sequence);
+    }
+    sequenceEnds[size] = sequences.length();
+    size++;
+  }
+
+  /**
+   * Removes all pauses from table. Allocated memory and dictionary are kept.
+   */
+  public void clear() {
+    size = 0;
+    sequences.clear();
+  }
+
+  private void grow() {
+    int capacity = positions.length + (positions.length >> 1);
+    names = Arrays.copyOf(names, capacity);
+    chromosomes = Arrays.copyOf(chromosomes, capacity);
+    positions = Arrays.copyOf(positions, capacity);
+    normalizedReads = Arrays.copyOf(normalizedReads, capacity);
+    foldsAboveAverage = Arrays.copyOf(foldsAboveAverage, capacity);
+    beginningReads = Arrays.copyOf(beginningReads, capacity);
+    sequenceEnds = Arrays.copyOf(sequenceEnds, capacity);
+  }
+
+  private int id(String value) {
+    // Readers usually reuse the same string for consecutive pauses.
+    if (value == lastValue && value != null) {
+      return lastId;
+    }
+    Integer id = ids.get(value);
+    if (id == null) {
+      id = values.size();
+      ids.put(value, id);
+      values.add(value);
+    }
+    lastValue = value;
+    lastId = id;
+    return id;
+  }
+
+  private void checkIndex(int index) {
+    if (index < 0 || index >= size) {
+      throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+    }
+  }
+
+  /**
+   * Returns number of pauses in table.
+   *
+   * @return number of pauses in table
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Returns value of dictionary id.
+   *
+   * @param id
+   *          dictionary id
+   * @return value of dictionary id
+   */
+  public String value(int id) {
+    return values.get(id);
+  }
+
+  /**
+   * Returns dictionary id of pause's gene name.
+   *
+   * @param index
+   *          pause index
+   * @return dictionary id of pause's gene name
+   */
+  public int nameId(int index) {
+    checkIndex(index);
+    return names[index];
+  }
+
+  /**
+   * Returns pause's gene name.
+   *
+   * @param index
+   *          pause index
+   * @return pause's gene name
+   */
+  public String name(int index) {
+    return values.get(nameId(index));
+  }
+
+  /**
+   * Returns dictionary id of pause's chromosome.
+   *
+   * @param index
+   *          pause index
+   * @return dictionary id of pause's chromosome
+   */
+  public int chromosomeId(int index) {
+    checkIndex(index);
+    return chromosomes[index];
+  }
+
+  /**
+   * Returns pause's chromosome.
+   *
+   * @param index
+   *          pause index
+   * @return pause's chromosome
+   */
+  public String chromosome(int index) {
+    return values.get(chromosomeId(index));
+  }
+
+  /**
+   * Returns pause's position.
+   *
+   * @param index
+   *          pause index
+   * @return pause's position
+   */
+  public int position(int index) {
+    checkIndex(index);
+    return positions[index];
+  }
+
+  /**
+   * Returns pause's normalized reads.
+   *
+   * @param index
+   *          pause index
+   * @return pause's normalized reads
+   */
+  public double normalizedReads(int index) {
+    checkIndex(index);
+    return normalizedReads[index];
+  }
+
+  /**
+   * Returns pause's folds above average.
+   *
+   * @param index
+   *          pause index
+   * @return pause's folds above average
+   */
+  public double foldsAboveAverage(int index) {
+    checkIndex(index);
+    return foldsAboveAverage[index];
+  }
+
+  /**
+   * Returns pause's beginning reads.
+   *
+   * @param index
+   *          pause index
+   * @return pause's beginning reads
+   */
+  public double beginningReads(int index) {
+    checkIndex(index);
+    return beginningReads[index];
+  }
+
+  private long sequenceStart(int index) {
+    return index == 0 ? 0 : sequenceEnds[index - 1];
+  }
+
+  /**
+   * Returns length of pause's sequence.
+   *
+   * @param index
+   *          pause index
+   * @return length of pause's sequence
+   */
+  public int sequenceLength(int index) {
+    checkIndex(index);
+    return (int) (sequenceEnds[index] - sequenceStart(index));
+  }
+
+  /**
+   * Copies part of pause's sequence into destination.
+   *
+   * @param index
+   *          pause index
+   * @param start
+   *          first base to copy, starting at 0
+   * @param end
+   *          base after last base to copy
+   * @param destination
+   *          destination
+   * @param offset
+   *          index of destination where to copy first base
+   */
+  public void sequence(int index, int start, int end, char[] destination, int offset) {
+    int length = sequenceLength(index);
+    if (start < 0 || end > length || start > end) {
+      throw new IndexOutOfBoundsException(
+          "Bases " + start + "-" + end + " are not inside sequence of length " + length);
+    }
+    long sequenceStart = sequenceStart(index);
+    sequences.get(sequenceStart + start, sequenceStart + end, destination, offset);
+  }
+
+  /**
+   * Returns pause's sequence.
+   *
+   * @param index
+   *          pause index
+   * @return pause's sequence
+   */
+  public String sequence(int index) {
+    int length = sequenceLength(index);
+    char[] sequence = new char[length];
+    sequence(index, 0, length, sequence, 0);
+    return new String(sequence);
+  }
+
+  /**
+   * Returns pause at index.
+   *
+   * @param index
+   *          pause index
+   * @return pause at index
+   */
+  public Pause get(int index) {
+    Pause pause = new Pause();
+    pause.name = name(index);
+    pause.chromosome = chromosome(index);
+    pause.position = positions[index];
+    pause.normalizedReads = normalizedReads[index];
+    pause.foldsAboveAverage = foldsAboveAverage[index];
+    pause.beginningReads = beginningReads[index];
+    pause.sequence = sequence(index);
+    return pause;
+  }
+}
@@ -1,15 +1,12 @@
 package ca.qc.ircm.rnapolymerasepauses;
 
+import ca.qc.ircm.rnapolymerasepauses.io.GeneStarts;
 import ca.qc.ircm.rnapolymerasepauses.io.PauseReader;
-import java.io.BufferedReader;
+import ca.qc.ircm.rnapolymerasepauses.io.TssCache;
 import java.io.BufferedWriter;
 import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Map;
-import java.util.stream.Collectors;
+import java.io.Writer;
+import javax.inject.Inject;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
@@ -22,12 +19,22 @@ public class PausesConverter {
   private static final String LINE_SEPARATOR = "\n";
   private static final String SEPARATOR = "\t";
   private static final Logger logger = LoggerFactory.getLogger(PausesConverter.class);
+  @Inject
+  private TssCache tssCache;
 
   protected PausesConverter() {
   }
 
+  protected PausesConverter(TssCache tssCache) {
+    this.tssCache = tssCache;
+  }
+
   /**
    * Converts pauses file to BED file.
+   * <p>
+   * When a cache directory is set, starts of genes are loaded from {@link TssCache}, so the TSS
+   * file is only parsed once for all runs.
+   * </p>
    *
    * @param parameters
    *          parameters
@@ -35,47 +42,53 @@ public class PausesConverter {
    *           could not read pauses file or write to output
    */
   public void pausesToBed(PausesToBedCommand parameters) throws IOException {
-    Map<String, Gene> genes = parseTss(parameters.tss).stream()
-        .collect(Collectors.toMap(gene -> gene.name, gene -> gene));
+    GeneStarts genes =
+        tssCache.geneStarts(parameters.tss, parameters.noCache ? null : parameters.cache);
     try (PauseReader reader = new PauseReader(parameters.reader());
         BufferedWriter writer = parameters.writer()) {
-      Pause pause;
-      while ((pause = reader.readPause()) != null) {
-        Gene gene = genes.get(pause.name);
-        if (gene == null) {
+      Pause pause = new Pause();
+      String name = null;
+      int gene = -1;
+      while (reader.next(pause)) {
+        // Reader reuses name when consecutive pauses are on the same gene.
+        if (pause.name != name) {
+          name = pause.name;
+          gene = genes.indexOf(name);
+        }
+        if (gene < 0) {
           logger.warn("Gene {} could not be found in TSS file", pause.name);
         } else {
-          writer.write(pause.chromosome);
-          writer.write(SEPARATOR);
-          long distance = pause.position;
-          long start = gene.start + distance;
-          writer.write(String.valueOf(start));
-          writer.write(SEPARATOR);
-          writer.write(String.valueOf(start + 1));
-          writer.write(SEPARATOR);
-          writer.write(pause.name);
-          writer.write(SEPARATOR);
-          writer.write(String.valueOf(pause.foldsAboveAverage));
-          writer.write(LINE_SEPARATOR);
+          writeBed(pause, genes.start(gene), writer);
         }
       }
     }
   }
 
-  private List<Gene> parseTss(Path tss) throws IOException {
-    List<Gene> genes = new ArrayList<>();
-    try (BufferedReader reader = Files.newBufferedReader(tss)) {
-      String line;
-      reader.readLine(); // Skip header.
-      while ((line = reader.readLine()) != null) {
-        String[] columns = line.split(SEPARATOR, -1);
-        Gene gene = new Gene();
-        gene.start = Long.parseLong(columns[1]);
-        gene.name = columns[4];
-        genes.add(gene);
-      }
-    }
-    return genes;
+  /**
+   * Writes pause as a BED line.
+   *
+   * @param pause
+   *          pause
+   * @param geneStart
+   *          start of pause's gene
+   * @param writer
+   *          writer
+   * @throws IOException
+   *           could not write to writer
+   */
+  void writeBed(Pause pause, long geneStart, Writer writer) throws IOException {
+    writer.write(pause.chromosome);
+    writer.write(SEPARATOR);
+    long distance = pause.position;
+    long start = geneStart + distance;
+    writer.write(String.valueOf(start));
+    writer.write(SEPARATOR);
+    writer.write(String.valueOf(start + 1));
+    writer.write(SEPARATOR);
+    writer.write(pause.name);
+    writer.write(SEPARATOR);
+    writer.write(String.valueOf(pause.foldsAboveAverage));
+    writer.write(LINE_SEPARATOR);
   }
 
   /**
@@ -89,8 +102,8 @@ public class PausesConverter {
   public void pausesToTabs(PausesToTabsCommand parameters) throws IOException {
     try (PauseReader reader = new PauseReader(parameters.reader());
         BufferedWriter writer = parameters.writer()) {
-      Pause pause;
-      while ((pause = reader.readPause()) != null) {
+      Pause pause = new Pause();
+      while (reader.next(pause)) {
         writer.write(pause.name);
         writer.write(SEPARATOR);
         writer.write(pause.chromosome);
@@ -103,14 +116,9 @@ public class PausesConverter {
         writer.write(SEPARATOR);
         writer.write(String.valueOf(pause.beginningReads));
         writer.write(SEPARATOR);
-        writer.write(String.valueOf(pause.sequence));
+        writer.append(reader.sequence());
         writer.write(LINE_SEPARATOR);
       }
     }
   }
-
-  private static class Gene {
-    String name;
-    long start;
-  }
 }
@@ -0,0 +1,205 @@
+package ca.qc.ircm.rnapolymerasepauses;
+
+import ca.qc.ircm.rnapolymerasepauses.io.GeneStarts;
+import ca.qc.ircm.rnapolymerasepauses.io.PauseWriter;
+import ca.qc.ircm.rnapolymerasepauses.io.TssCache;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import javax.inject.Inject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+/**
+ * Finds pauses in a track file, keeps maxima and converts pauses to BED in a single command.
+ * <p>
+ * Each stage runs on its own thread. Stages pass pauses of one gene at a time to the next stage
+ * through bounded queues, so pauses are never written to intermediate files and a fast stage
+ * waits for a slower one instead of accumulating pauses in memory. If a stage fails, all other
+ * stages are interrupted.
+ * </p>
+ */
+@Component
+public class Pipeline {
+  private static final int QUEUE_CAPACITY = 1024;
+  private static final String CALL_PAUSES_STAGE = "call pauses";
+  private static final String MAXIMA_STAGE = "maxima";
+  private static final String WRITE_STAGE = "write";
+  /**
+   * Marks the end of a queue, compared by identity.
+   */
+  private static final List<Pause> END = new ArrayList<>(0);
+  private static final Logger logger = LoggerFactory.getLogger(Pipeline.class);
+  @Inject
+  private PauseCaller pauseCaller;
+  @Inject
+  private Maxima maxima;
+  @Inject
+  private PausesConverter pausesConverter;
+  @Inject
+  private TssCache tssCache;
+
+  protected Pipeline() {
+  }
+
+  protected Pipeline(PauseCaller pauseCaller, Maxima maxima, PausesConverter pausesConverter,
+      TssCache tssCache) {
+    this.pauseCaller = pauseCaller;
+    this.maxima = maxima;
+    this.pausesConverter = pausesConverter;
+    this.tssCache = tssCache;
+  }
+
+  /**
+   * Finds pauses in a track file, keeps maxima and converts pauses to BED.
+   *
+   * @param parameters
+   *          parameters
+   * @throws IOException
+   *           could not read track or TSS file or write to output
+   */
+  public void run(PipelineCommand parameters) throws IOException {
+    Map<String, Stage> stages = new LinkedHashMap<>();
+    BlockingQueue<List<Pause>> calls = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+    stages.put(CALL_PAUSES_STAGE, () -> {
+      pauseCaller.callPauses(callPausesCommand(parameters), pauses -> put(calls, pauses));
+      put(calls, END);
+    });
+    BlockingQueue<List<Pause>> output = calls;
+    if (parameters.maxima != null) {
+      BlockingQueue<List<Pause>> maximaQueue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+      int window = parameters.maxima;
+      stages.put(MAXIMA_STAGE, () -> {
+        List<Pause> pauses;
+        while ((pauses = take(calls)) != END) {
+          put(maximaQueue, maxima.maxima(pauses, window));
+        }
+        put(maximaQueue, END);
+      });
+      output = maximaQueue;
+    }
+    BlockingQueue<List<Pause>> input = output;
+    if (parameters.bed) {
+      stages.put(WRITE_STAGE, () -> writeBed(input, parameters));
+    } else {
+      stages.put(WRITE_STAGE, () -> writePauses(input, parameters));
+    }
+    run(stages);
+  }
+
+  private CallPausesCommand callPausesCommand(PipelineCommand parameters) {
+    CallPausesCommand command = new CallPausesCommand() {
+      @Override
+      public BufferedReader reader() throws IOException {
+        return parameters.reader();
+      }
+    };
+    command.input = parameters.input;
+    command.format = parameters.format;
+    command.tss = parameters.tss;
+    command.strand = parameters.strand;
+    command.windowSize = parameters.windowSize;
+    command.fold = parameters.fold;
+    command.peakMin = parameters.peakMin;
+    command.tnormThreshold = parameters.tnormThreshold;
+    command.rounds = parameters.rounds;
+    command.cutoff = parameters.cutoff;
+    command.peakStrengthMin = parameters.peakStrengthMin;
+    return command;
+  }
+
+  private void writePauses(BlockingQueue<List<Pause>> input, PipelineCommand parameters)
+      throws IOException {
+    try (PauseWriter writer = new PauseWriter(parameters.writer())) {
+      List<Pause> pauses;
+      while ((pauses = take(input)) != END) {
+        for (Pause pause : pauses) {
+          writer.writePause(pause);
+        }
+      }
+    }
+  }
+
+  private void writeBed(BlockingQueue<List<Pause>> input, PipelineCommand parameters)
+      throws IOException {
+    GeneStarts genes =
+        tssCache.geneStarts(parameters.tss, parameters.noCache ? null : parameters.cache);
+    try (BufferedWriter writer = parameters.writer()) {
+      List<Pause> pauses;
+      while ((pauses = take(input)) != END) {
+        String name = pauses.get(0).name;
+        int gene = genes.indexOf(name);
+        if (gene < 0) {
+          logger.warn("Gene {} could not be found in TSS file", name);
+          continue;
+        }
+        long start = genes.start(gene);
+        for (Pause pause : pauses) {
+          pausesConverter.writeBed(pause, start, writer);
+        }
+      }
+    }
+  }
+
+  private void run(Map<String, Stage> stages) throws IOException {
+    RunMetrics metrics = RunMetrics.current();
+    ExecutorService pool = Executors.newFixedThreadPool(stages.size());
+    try {
+      CompletionService<Void> completion = new ExecutorCompletionService<>(pool);
+      for (Map.Entry<String, Stage> stage : stages.entrySet()) {
+        completion.submit(() -> {
+          try (RunMetrics.Timer timer = metrics.stage(stage.getKey())) {
+            stage.getValue().run();
+          }
+          return null;
+        });
+      }
+      for (int i = 0; i < stages.size(); i++) {
+        try {
+          ParallelTrackConverter.waitFor(completion.take());
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          throw new IOException("Interrupted while waiting for pipeline", e);
+        }
+      }
+    } finally {
+      // Interrupts other stages if a stage failed.
+      pool.shutdownNow();
+    }
+  }
+
+  private static void put(BlockingQueue<List<Pause>> queue, List<Pause> pauses)
+      throws IOException {
+    try {
+      queue.put(pauses);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IOException("Interrupted while waiting for next stage", e);
+    }
+  }
+
+  private static List<Pause> take(BlockingQueue<List<Pause>> queue) throws IOException {
+    try {
+      return queue.take();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IOException("Interrupted while waiting for previous stage", e);
+    }
+  }
+
+  @FunctionalInterface
+  private interface Stage {
+    void run() throws IOException;
+  }
+}
@@ -0,0 +1,147 @@
+package ca.qc.ircm.rnapolymerasepauses;
+
+import ca.qc.ircm.rnapolymerasepauses.io.Compression;
+import ca.qc.ircm.rnapolymerasepauses.io.TrackFormat;
+import ca.qc.ircm.rnapolymerasepauses.validation.FileExistsValidation;
+import ca.qc.ircm.rnapolymerasepauses.validation.StrandValidation;
+import ca.qc.ircm.rnapolymerasepauses.validation.WindowValidation;
+import com.beust.jcommander.Parameter;
+import com.beust.jcommander.Parameters;
+import com.beust.jcommander.converters.PathConverter;
+import com.beust.jcommander.validators.PositiveInteger;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+
+/**
+ * Finds pauses in a track file, keeps maxima and converts pauses to BED in a single command.
+ */
+@Parameters(
+    separators = " =",
+    commandNames = PipelineCommand.COMMAND,
+    commandDescription = "Finds pauses in track file, optionally keeps only best pause inside "
+        + "a window and converts pauses to BED, without writing intermediate files")
+public class PipelineCommand {
+  public static final String COMMAND = "pipeline";
+  private static final Charset CHARSET = StandardCharsets.UTF_8;
+
+  @Parameter(names = { "-h", "-help", "--h", "--help" }, description = "Show help", help = true)
+  public boolean help = false;
+  @Parameter(
+      names = { "-i", "--input" },
+      description = "Track file. Defaults to system input for piping",
+      converter = PathConverter.class,
+      validateWith = FileExistsValidation.class)
+  public Path input;
+  @Parameter(
+      names = { "--format" },
+      description = "Input track format, either text, rle or binary. Binary tracks must be "
+          + "read from an input file")
+  public TrackFormat format = TrackFormat.TEXT;
+  @Parameter(
+      names = { "-t", "--tss" },
+      description = "TSS file",
+      required = true,
+      converter = PathConverter.class,
+      validateWith = FileExistsValidation.class)
+  public Path tss;
+  @Parameter(
+      names = { "--strand" },
+      description = "Strand of track file, either + or -. Only genes on that strand are used. "
+          + "Defaults to +",
+      validateWith = StrandValidation.class)
+  public String strand = Gene.PLUS_STRAND;
+  @Parameter(
+      names = { "-w", "--window" },
+      description = "Size of window used to compute mean and standard deviation. Defaults to 200",
+      validateWith = WindowValidation.class)
+  public int windowSize = 200;
+  @Parameter(
+      names = { "-f", "--fold" },
+      description = "Number of standard deviations above mean for a pause. Defaults to 4")
+  public double fold = 4;
+  @Parameter(
+      names = { "-p", "--peakMin" },
+      description = "Reads above which a pause is kept even if window mean is below "
+          + "tnorm threshold. Defaults to 3")
+  public double peakMin = 3;
+  @Parameter(
+      names = { "--tnormThreshold" },
+      description = "Window mean above which a pause is kept even if reads are below "
+          + "peak minimum. Defaults to 2")
+  public double tnormThreshold = 2;
+  @Parameter(
+      names = { "-r", "--rounds" },
+      description = "Maximum number of rounds. Pauses found in a round are replaced by "
+          + "window mean for the next round. Defaults to 10",
+      validateWith = PositiveInteger.class)
+  public int rounds = 10;
+  @Parameter(
+      names = { "-c", "--cutoff" },
+      description = "Minimal mean reads at the beginning of gene. Defaults to 0")
+  public double cutoff = 0;
+  @Parameter(
+      names = { "--peakStrengthMin" },
+      description = "Minimal folds above window mean for a pause. Defaults to 0")
+  public double peakStrengthMin = 0;
+  @Parameter(
+      names = { "-m", "--maxima" },
+      description = "Keeps only best pause inside a window of this size, like the "
+          + MaximaCommand.COMMAND + " command. Defaults to keep all pauses",
+      validateWith = WindowValidation.class)
+  public Integer maxima;
+  @Parameter(
+      names = { "--bed" },
+      description = "Converts pauses to BED, like the " + PausesToBedCommand.COMMAND
+          + " command")
+  public boolean bed = false;
+  @Parameter(
+      names = { "--cache" },
+      description = "Directory where compiled TSS files are cached, so later runs do not parse "
+          + "the TSS file. Defaults to no cache",
+      converter = PathConverter.class)
+  public Path cache;
+  @Parameter(
+      names = { "--noCache" },
+      description = "Parse TSS file without using cache")
+  public boolean noCache = false;
+  @Parameter(
+      names = { "-o", "--output" },
+      description = "Output file. Defaults to system output for piping",
+      converter = PathConverter.class)
+  public Path output;
+
+  /**
+   * Returns input reader, falls back to <code>System.in</code>.
+   *
+   * @return input reader
+   * @throws IOException
+   *           could not created a reader for input
+   */
+  public BufferedReader reader() throws IOException {
+    if (input != null) {
+      return Compression.newBufferedReader(input);
+    } else {
+      return Compression.newBufferedReader(System.in);
+    }
+  }
+
+  /**
+   * Returns output writer, falls back to <code>System.out</code>.
+   *
+   * @return output writer
+   * @throws IOException
+   *           could not created a writer for output
+   */
+  public BufferedWriter writer() throws IOException {
+    if (output != null) {
+      return Compression.newBufferedWriter(output);
+    } else {
+      return new BufferedWriter(new OutputStreamWriter(System.out, CHARSET));
+    }
+  }
+}
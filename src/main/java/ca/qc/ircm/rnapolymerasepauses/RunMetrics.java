@@ -0,0 +1,336 @@
+package ca.qc.ircm.rnapolymerasepauses;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Metrics of a command run, written as a JSON run report.
+ * <p>
+ * Metrics are bound to the thread running the command and are inherited by threads it creates, so
+ * commands running concurrently in batch or server mode have their own metrics. When no command
+ * is measured, {@link #current()} returns metrics that ignore everything, so instrumented code
+ * costs almost nothing.
+ * </p>
+ * <p>
+ * Records are lines read by {@link ca.qc.ircm.rnapolymerasepauses.io.LineTokenizer} and lines
+ * written to output files. Bytes are counted for input files, system input and output files, not
+ * for system output or memory-mapped tracks. Peak heap is the sum of the peak usage of heap memory
+ * pools and GC time is the time spent by all collectors while the command ran.
+ * </p>
+ * <p>
+ * Heap and GC can only be measured for the whole JVM, so they are only reported for a command
+ * that ran while no other command was measured. They are null in the report of commands that
+ * overlapped another measured command, like commands running concurrently in batch or server mode
+ * or a batch command whose commands are also measured.
+ * </p>
+ */
+public class RunMetrics {
+  private static final InheritableThreadLocal<RunMetrics> CURRENT = new InheritableThreadLocal<>();
+  private static final RunMetrics DISABLED = new RunMetrics(null);
+  private static final Timer DISABLED_TIMER = new Timer(null, null);
+  private static final List<RunMetrics> RUNNING = new ArrayList<>();
+  private final String command;
+  private final LongAdder recordsIn = new LongAdder();
+  private final LongAdder recordsOut = new LongAdder();
+  private final LongAdder bytesRead = new LongAdder();
+  private final LongAdder bytesWritten = new LongAdder();
+  private final Map<String, StageMetrics> stages = new LinkedHashMap<>();
+  private RunMetrics previous;
+  private long start;
+  private long elapsed;
+  private boolean alone;
+  private Long gcCount;
+  private Long gcTime;
+  private Long peakHeap;
+
+  private RunMetrics(String command) {
+    this.command = command;
+  }
+
+  /**
+   * Returns metrics of the command running in current thread.
+   *
+   * @return metrics of the command running in current thread, never null
+   */
+  public static RunMetrics current() {
+    RunMetrics metrics = CURRENT.get();
+    return metrics != null ? metrics : DISABLED;
+  }
+
+  /**
+   * Starts measuring command in current thread.
+   *
+   * @param command
+   *          command name
+   * @return metrics of command
+   */
+  public static RunMetrics start(String command) {
+    RunMetrics metrics = new RunMetrics(command);
+    metrics.previous = CURRENT.get();
+    synchronized (RUNNING) {
+      metrics.alone = RUNNING.isEmpty();
+      for (RunMetrics running : RUNNING) {
+        running.alone = false;
+      }
+      RUNNING.add(metrics);
+      if (metrics.alone) {
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+          if (pool.getType() == MemoryType.HEAP && pool.isValid()) {
+            pool.resetPeakUsage();
+          }
+        }
+        metrics.gcCount = -gcCount();
+        metrics.gcTime = -gcTime();
+      }
+    }
+    metrics.start = System.nanoTime();
+    CURRENT.set(metrics);
+    return metrics;
+  }
+
+  /**
+   * Stops measuring command and restores metrics that were active when command started.
+   */
+  public void stop() {
+    elapsed = System.nanoTime() - start;
+    synchronized (RUNNING) {
+      RUNNING.remove(this);
+      if (alone) {
+        gcCount += gcCount();
+        gcTime += gcTime();
+        long peakHeap = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+          if (pool.getType() == MemoryType.HEAP && pool.isValid()) {
+            peakHeap += pool.getPeakUsage().getUsed();
+          }
+        }
+        this.peakHeap = peakHeap;
+      } else {
+        gcCount = null;
+        gcTime = null;
+        peakHeap = null;
+      }
+    }
+    if (previous != null) {
+      CURRENT.set(previous);
+    } else {
+      CURRENT.remove();
+    }
+  }
+
+  private static long gcCount() {
+    long count = 0;
+    for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+      count += Math.max(collector.getCollectionCount(), 0);
+    }
+    return count;
+  }
+
+  private static long gcTime() {
+    long time = 0;
+    for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+      time += Math.max(collector.getCollectionTime(), 0);
+    }
+    return time;
+  }
+
+  /**
+   * Returns true if command is measured.
+   *
+   * @return true if command is measured
+   */
+  public boolean enabled() {
+    return this != DISABLED;
+  }
+
+  /**
+   * Adds records read.
+   *
+   * @param count
+   *          number of records read
+   */
+  public void recordsIn(long count) {
+    if (enabled()) {
+      recordsIn.add(count);
+    }
+  }
+
+  /**
+   * Adds records written.
+   *
+   * @param count
+   *          number of records written
+   */
+  public void recordsOut(long count) {
+    if (enabled()) {
+      recordsOut.add(count);
+    }
+  }
+
+  /**
+   * Adds bytes read.
+   *
+   * @param count
+   *          number of bytes read
+   */
+  public void bytesRead(long count) {
+    if (enabled()) {
+      bytesRead.add(count);
+    }
+  }
+
+  /**
+   * Adds bytes written.
+   *
+   * @param count
+   *          number of bytes written
+   */
+  public void bytesWritten(long count) {
+    if (enabled()) {
+      bytesWritten.add(count);
+    }
+  }
+
+  /**
+   * Starts timing a stage. Time is added to stage when timer is closed.
+   * <p>
+   * A stage can be timed many times, even concurrently, for example a chromosome converted by
+   * many threads.
+   * </p>
+   *
+   * @param name
+   *          stage name
+   * @return timer to close at the end of stage
+   */
+  public Timer stage(String name) {
+    if (!enabled()) {
+      return DISABLED_TIMER;
+    }
+    return new Timer(this, name);
+  }
+
+  private void addStage(String name, long time) {
+    synchronized (stages) {
+      StageMetrics stage = stages.computeIfAbsent(name, key -> new StageMetrics());
+      stage.count++;
+      stage.time += time;
+    }
+  }
+
+  /**
+   * Writes JSON run report.
+   *
+   * @param file
+   *          report file
+   * @param success
+   *          true if command completed
+   * @throws IOException
+   *           could not write report
+   */
+  public void write(Path file, boolean success) throws IOException {
+    try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+      writer.write(toJson(success));
+    }
+  }
+
+  /**
+   * Returns JSON run report.
+   *
+   * @param success
+   *          true if command completed
+   * @return JSON run report
+   */
+  public String toJson(boolean success) {
+    StringBuilder builder = new StringBuilder();
+    builder.append("{\n");
+    builder.append("  \"command\": ").append(string(command)).append(",\n");
+    builder.append("  \"success\": ").append(success).append(",\n");
+    builder.append("  \"elapsedMilliseconds\": ").append(TimeUnit.NANOSECONDS.toMillis(elapsed))
+        .append(",\n");
+    builder.append("  \"recordsIn\": ").append(recordsIn.sum()).append(",\n");
+    builder.append("  \"recordsOut\": ").append(recordsOut.sum()).append(",\n");
+    builder.append("  \"bytesRead\": ").append(bytesRead.sum()).append(",\n");
+    builder.append("  \"bytesWritten\": ").append(bytesWritten.sum()).append(",\n");
+    builder.append("  \"peakHeapBytes\": ").append(peakHeap).append(",\n");
+    builder.append("  \"gcCount\": ").append(gcCount).append(",\n");
+    builder.append("  \"gcMilliseconds\": ").append(gcTime).append(",\n");
+    builder.append("  \"stages\": [");
+    List<Map.Entry<String, StageMetrics>> entries;
+    synchronized (stages) {
+      entries = new ArrayList<>(stages.entrySet());
+    }
+    for (int i = 0; i < entries.size(); i++) {
+      StageMetrics stage = entries.get(i).getValue();
+      builder.append(i == 0 ? "\n" : ",\n");
+      builder.append("    { \"name\": ").append(string(entries.get(i).getKey()));
+      builder.append(", \"count\": ").append(stage.count);
+      builder.append(", \"nanoseconds\": ").append(stage.time).append(" }");
+    }
+    builder.append(entries.isEmpty() ? "]\n" : "\n  ]\n");
+    builder.append("}\n");
+    return builder.toString();
+  }
+
+  private static String string(String value) {
+    if (value == null) {
+      return "null";
+    }
+    StringBuilder builder = new StringBuilder("\"");
+    for (int i = 0; i < value.length(); i++) {
+      char character = value.charAt(i);
+      if (character == '"' || character == '\\') {
+        builder.append('\\').append(character);
+      } else if (character < 0x20) {
+        builder.append(String.format("\\u%04x", (int) character));
+      } else {
+        builder.append(character);
+      }
+    }
+    return builder.append('"').toString();
+  }
+
+  private static class StageMetrics {
+    private long count;
+    private long time;
+  }
+
+  /**
+   * Times a stage.
+   */
+  public static class Timer implements AutoCloseable {
+    private final RunMetrics metrics;
+    private final String name;
+    private final long start;
+    private boolean closed;
+
+    private Timer(RunMetrics metrics, String name) {
+      this.metrics = metrics;
+      this.name = name;
+      this.start = metrics != null ? System.nanoTime() : 0;
+    }
+
+    /**
+     * Adds time elapsed since timer was created to stage. Only the first call has an effect.
+     */
+    @Override
+    public void close() {
+      if (metrics != null && !closed) {
+        closed = true;
+        metrics.addStage(name, System.nanoTime() - start);
+      }
+    }
+  }
+}
@@ -0,0 +1,58 @@
+package ca.qc.ircm.rnapolymerasepauses;
+
+import com.beust.jcommander.Parameter;
+import com.beust.jcommander.Parameters;
+import com.beust.jcommander.converters.PathConverter;
+import com.beust.jcommander.validators.PositiveInteger;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Keeps application running and runs commands received on a local port.
+ */
+@Parameters(
+    separators = " =",
+    commandNames = ServeCommand.COMMAND,
+    commandDescription = "Keeps application running and runs commands received on a local port. "
+        + "Each request is a line containing the token written in the token file followed by a "
+        + "single line containing a command and its arguments separated by tabs, the reply is a "
+        + "single line containing " + CommandServer.SUCCESS + " or "
+        + CommandServer.FAILURE)
+public class ServeCommand {
+  public static final String COMMAND = "serve";
+  public static final String STOP = "--stop";
+  public static final int DEFAULT_PORT = 7415;
+
+  @Parameter(names = { "-h", "-help", "--h", "--help" }, description = "Show help", help = true)
+  public boolean help = false;
+  @Parameter(
+      names = { "-p", "--port" },
+      description = "Port to listen to, only local connections are accepted. Defaults to "
+          + DEFAULT_PORT,
+      validateWith = PositiveInteger.class)
+  public int port = DEFAULT_PORT;
+  @Parameter(
+      names = { "-t", "--threads" },
+      description = "Number of commands to run in parallel. Defaults to 1",
+      validateWith = PositiveInteger.class)
+  public int threads = 1;
+  @Parameter(
+      names = { "--tokenFile" },
+      description = "File where the server writes the token that requests must contain, only "
+          + "readable by the owner. Defaults to .rna-polymerase-pauses-<port>.token in the home "
+          + "directory",
+      converter = PathConverter.class)
+  public Path tokenFile;
+  @Parameter(names = { STOP }, description = "Stops application listening on port")
+  public boolean stop = false;
+
+  /**
+   * Returns token file of server.
+   *
+   * @return token file of server
+   */
+  public Path tokenFile() {
+    return tokenFile != null ? tokenFile
+        : Paths.get(System.getProperty("user.home"), ".rna-polymerase-pauses-" + port + ".token");
+  }
+}
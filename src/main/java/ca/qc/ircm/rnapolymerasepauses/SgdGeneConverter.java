@@ -1,6 +1,6 @@
 package ca.qc.ircm.rnapolymerasepauses;
 
-import java.io.BufferedReader;
+import ca.qc.ircm.rnapolymerasepauses.io.LineTokenizer;
 import java.io.BufferedWriter;
 import java.io.IOException;
 import java.util.ArrayList;
@@ -29,16 +29,14 @@ public class SgdGeneConverter {
    */
   public void sgdGeneToTss(SgdGeneToTssCommand parameters) throws IOException {
     List<Gene> genes = new ArrayList<>();
-    try (BufferedReader reader = parameters.reader()) {
-      String line;
-      while ((line = reader.readLine()) != null) {
-        String[] columns = line.split(COLUMN_SEPARATOR, -1);
+    try (LineTokenizer tokenizer = new LineTokenizer(parameters.reader(), COLUMN_SEPARATOR)) {
+      while (tokenizer.nextLine()) {
         Gene gene = new Gene();
-        gene.name = columns[1];
-        gene.chromosome = columns[2];
-        gene.strand = columns[3];
-        gene.start = Long.parseLong(columns[4]);
-        gene.end = Long.parseLong(columns[5]);
+        gene.name = tokenizer.string(1);
+        gene.chromosome = tokenizer.string(2);
+        gene.strand = tokenizer.string(3);
+        gene.start = tokenizer.longValue(4);
+        gene.end = tokenizer.longValue(5);
         genes.add(gene);
       }
     }
@@ -0,0 +1,47 @@
+package ca.qc.ircm.rnapolymerasepauses;
+
+import java.io.IOException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Processes plus and minus strands of NET-seq data concurrently.
+ * <p>
+ * Plus strand is processed by the calling thread while minus strand is processed by another
+ * thread. If plus strand fails, minus strand is interrupted.
+ * </p>
+ */
+class StrandPair {
+  @FunctionalInterface
+  interface StrandTask {
+    void run() throws IOException;
+  }
+
+  private StrandPair() {
+  }
+
+  /**
+   * Runs plus and minus strand tasks concurrently and waits for both to complete.
+   *
+   * @param plus
+   *          plus strand task
+   * @param minus
+   *          minus strand task
+   * @throws IOException
+   *           one of the tasks failed
+   */
+  static void run(StrandTask plus, StrandTask minus) throws IOException {
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    try {
+      Future<Void> minusTask = executor.submit(() -> {
+        minus.run();
+        return null;
+      });
+      plus.run();
+      ParallelTrackConverter.waitFor(minusTask);
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+}
@@ -0,0 +1,127 @@
+package ca.qc.ircm.rnapolymerasepauses;
+
+import ca.qc.ircm.rnapolymerasepauses.io.Compression;
+import ca.qc.ircm.rnapolymerasepauses.io.TrackFormat;
+import ca.qc.ircm.rnapolymerasepauses.validation.FileExistsValidation;
+import com.beust.jcommander.Parameter;
+import com.beust.jcommander.Parameters;
+import com.beust.jcommander.converters.PathConverter;
+import com.beust.jcommander.validators.PositiveInteger;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+
+/**
+ * Compares sense and antisense reads at the promoter of tandem genes.
+ */
+@Parameters(
+    separators = " =",
+    commandNames = TandemCommand.COMMAND,
+    commandDescription = "Compares sense and antisense reads at the promoter of tandem genes")
+public class TandemCommand {
+  public static final String COMMAND = "tandem";
+  private static final Charset CHARSET = StandardCharsets.UTF_8;
+
+  @Parameter(names = { "-h", "-help", "--h", "--help" }, description = "Show help", help = true)
+  public boolean help = false;
+  @Parameter(
+      names = { "-p", "--plus" },
+      description = "Track file of plus strand",
+      required = true,
+      converter = PathConverter.class,
+      validateWith = FileExistsValidation.class)
+  public Path plus;
+  @Parameter(
+      names = { "-m", "--minus" },
+      description = "Track file of minus strand",
+      required = true,
+      converter = PathConverter.class,
+      validateWith = FileExistsValidation.class)
+  public Path minus;
+  @Parameter(
+      names = { "--format" },
+      description = "Input track format, either text, rle or binary")
+  public TrackFormat format = TrackFormat.TEXT;
+  @Parameter(
+      names = { "-t", "--tss" },
+      description = "TSS file",
+      required = true,
+      converter = PathConverter.class,
+      validateWith = FileExistsValidation.class)
+  public Path tss;
+  @Parameter(
+      names = { "--senseWindow" },
+      description = "Size of sense window. Defaults to 200",
+      validateWith = PositiveInteger.class)
+  public int senseWindow = 200;
+  @Parameter(
+      names = { "--antisenseWindow" },
+      description = "Size of antisense window. Defaults to 200",
+      validateWith = PositiveInteger.class)
+  public int antisenseWindow = 200;
+  @Parameter(
+      names = { "--delta" },
+      description = "Distance between TSS and the first antisense window. Defaults to 0")
+  public int delta = 0;
+  @Parameter(
+      names = { "--senseSlide" },
+      description = "Distance over which the sense window slides. Defaults to 100",
+      validateWith = PositiveInteger.class)
+  public int senseSlide = 100;
+  @Parameter(
+      names = { "--antisenseSlide" },
+      description = "Distance over which the antisense window slides. Defaults to 100",
+      validateWith = PositiveInteger.class)
+  public int antisenseSlide = 100;
+  @Parameter(
+      names = { "--step" },
+      description = "Distance between two positions of sliding windows. Defaults to 10",
+      validateWith = PositiveInteger.class)
+  public int step = 10;
+  @Parameter(
+      names = { "-o", "--output" },
+      description = "Output file. Defaults to system output for piping",
+      converter = PathConverter.class)
+  public Path output;
+
+  /**
+   * Returns reader of plus strand.
+   *
+   * @return reader of plus strand
+   * @throws IOException
+   *           could not created a reader for plus strand
+   */
+  public BufferedReader plusReader() throws IOException {
+    return Compression.newBufferedReader(plus);
+  }
+
+  /**
+   * Returns reader of minus strand.
+   *
+   * @return reader of minus strand
+   * @throws IOException
+   *           could not created a reader for minus strand
+   */
+  public BufferedReader minusReader() throws IOException {
+    return Compression.newBufferedReader(minus);
+  }
+
+  /**
+   * Returns output writer, falls back to <code>System.out</code>.
+   *
+   * @return output writer
+   * @throws IOException
+   *           could not created a writer for output
+   */
+  public BufferedWriter writer() throws IOException {
+    if (output != null) {
+      return Compression.newBufferedWriter(output);
+    } else {
+      return new BufferedWriter(new OutputStreamWriter(System.out, CHARSET));
+    }
+  }
+}
@@ -0,0 +1,267 @@
+package ca.qc.ircm.rnapolymerasepauses;
+
+import ca.qc.ircm.rnapolymerasepauses.io.DoubleFormatter;
+import ca.qc.ircm.rnapolymerasepauses.io.TssParser;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import javax.inject.Inject;
+import org.springframework.stereotype.Component;
+
+/**
+ * Compares sense and antisense reads at the promoter of tandem genes.
+ * <p>
+ * This is a port of <code>getSATandemSlide</code> from Churchman et al. Tandem genes are two
+ * consecutive genes of a chromosome on the same strand. The second gene in the direction of
+ * transcription has its promoter between the two genes. Sense reads are the reads of a window
+ * starting at its TSS and sliding downstream. Antisense reads are the reads of a window on the
+ * other strand, ending upstream of its TSS and sliding upstream. For genes on the minus strand,
+ * windows are mirrored so that distances are measured from TSS in the direction of transcription.
+ * </p>
+ * <p>
+ * Genes are sorted once and tandem genes are found in a single sweep. Reads of each pair of
+ * tandem genes are read once from each strand track by {@link GeneReadsReader} and replaced by
+ * their prefix sums, so the reads of any window are a subtraction.
+ * </p>
+ */
+@Component
+public class TandemGenes {
+  private static final String SEPARATOR = "\t";
+  private static final String LINE_SEPARATOR = "\n";
+  private static final String TSS_STAGE = "tss";
+  private static final String WRITE_STAGE = "write";
+  @Inject
+  private TssParser tssParser;
+
+  protected TandemGenes() {
+  }
+
+  protected TandemGenes(TssParser tssParser) {
+    this.tssParser = tssParser;
+  }
+
+  /**
+   * Compares sense and antisense reads at the promoter of tandem genes.
+   * <p>
+   * Output contains one line per pair of tandem genes, sorted by chromosome and position, with
+   * the following columns: name of the gene whose promoter is between the two genes, maximal sense
+   * reads, maximal antisense reads, ratio of antisense over sense reads (-1 if there are no sense
+   * reads), distance from TSS of the sense window with maximal reads and distance from TSS of the
+   * antisense window with maximal reads.
+   * </p>
+   *
+   * @param parameters
+   *          parameters
+   * @throws IOException
+   *           could not read track or TSS file or write to output
+   */
+  public void tandem(TandemCommand parameters) throws IOException {
+    List<Gene> genes;
+    try (RunMetrics.Timer timer = RunMetrics.current().stage(TSS_STAGE)) {
+      genes = tssParser.genes(parameters.tss);
+    }
+    List<Pair> pairs = pairs(genes, parameters);
+    Map<Gene, Pair> regions = new IdentityHashMap<>();
+    for (Pair pair : pairs) {
+      regions.put(pair.region, pair);
+    }
+    Map<String, List<Gene>> regionsByChromosome = GeneReadsReader.byChromosome(regions.keySet());
+    StrandPair.run(
+        () -> GeneReadsReader.read(regionsByChromosome, parameters.plus, parameters::plusReader,
+            parameters.format, (region, reads) -> regions.get(region).add(true, reads, parameters)),
+        () -> GeneReadsReader.read(regionsByChromosome, parameters.minus,
+            parameters::minusReader, parameters.format,
+            (region, reads) -> regions.get(region).add(false, reads, parameters)));
+    try (RunMetrics.Timer timer = RunMetrics.current().stage(WRITE_STAGE);
+        BufferedWriter writer = parameters.writer()) {
+      DoubleFormatter readsFormat = new DoubleFormatter(10);
+      DoubleFormatter ratioFormat = new DoubleFormatter(16);
+      for (Pair pair : pairs) {
+        if (!pair.done) {
+          continue;
+        }
+        writer.write(pair.promoterGene().name);
+        writer.write(SEPARATOR);
+        writer.write(readsFormat.format(pair.sense));
+        writer.write(SEPARATOR);
+        writer.write(readsFormat.format(pair.antisense));
+        writer.write(SEPARATOR);
+        writer.write(pair.sense > 0 ? ratioFormat.format(pair.antisense / pair.sense) : "-1");
+        writer.write(SEPARATOR);
+        writer.write(String.valueOf(pair.senseDelta));
+        writer.write(SEPARATOR);
+        writer.write(String.valueOf(pair.antisenseDelta));
+        writer.write(LINE_SEPARATOR);
+      }
+    }
+  }
+
+  /**
+   * Returns pairs of tandem genes that are long enough for sliding windows.
+   * <p>
+   * Genes are sorted by chromosome, in the order chromosomes first appear, and by start. Two
+   * consecutive genes are tandem genes if they are on the same strand and no gene overlaps the
+   * region between them.
+   * </p>
+   *
+   * @param genes
+   *          genes
+   * @param parameters
+   *          parameters
+   * @return pairs of tandem genes sorted by chromosome and position
+   */
+  static List<Pair> pairs(List<Gene> genes, TandemCommand parameters) {
+    Map<String, Integer> chromosomes = new HashMap<>();
+    for (Gene gene : genes) {
+      chromosomes.putIfAbsent(gene.chromosome, chromosomes.size());
+    }
+    List<Gene> sorted = genes.stream()
+        .sorted(Comparator.<Gene>comparingInt(gene -> chromosomes.get(gene.chromosome))
+            .thenComparingLong(gene -> gene.start).thenComparingLong(gene -> gene.end))
+        .collect(Collectors.toList());
+    final long minRegionLength = (long) parameters.senseWindow + parameters.antisenseWindow
+        + parameters.delta + parameters.senseSlide + parameters.antisenseSlide;
+    final long minGeneLength = (long) parameters.senseWindow + parameters.senseSlide;
+    List<Pair> pairs = new ArrayList<>();
+    long maxEnd = Long.MIN_VALUE;
+    for (int i = 1; i < sorted.size(); i++) {
+      Gene upstream = sorted.get(i - 1);
+      Gene downstream = sorted.get(i);
+      if (!upstream.chromosome.equals(downstream.chromosome)) {
+        maxEnd = Long.MIN_VALUE;
+        continue;
+      }
+      boolean overlapped = maxEnd > upstream.end;
+      maxEnd = Math.max(maxEnd, upstream.end);
+      if (overlapped || upstream.end >= downstream.start
+          || !upstream.strand.equals(downstream.strand)) {
+        continue;
+      }
+      if (downstream.end - upstream.start > minRegionLength
+          && upstream.end - upstream.start > minGeneLength
+          && downstream.end - downstream.start > minGeneLength) {
+        pairs.add(new Pair(upstream, downstream));
+      }
+    }
+    return pairs;
+  }
+
+  /**
+   * Returns prefix sums of reads: sum <code>i</code> is the sum of the first <code>i</code>
+   * reads.
+   *
+   * @param reads
+   *          reads
+   * @return prefix sums of reads
+   */
+  static double[] prefixSums(double[] reads) {
+    double[] sums = new double[reads.length + 1];
+    for (int i = 0; i < reads.length; i++) {
+      sums[i + 1] = sums[i] + reads[i];
+    }
+    return sums;
+  }
+
+  /**
+   * Pair of tandem genes.
+   */
+  static class Pair {
+    final Gene upstream;
+    final Gene downstream;
+    final Gene region;
+    final boolean reverse;
+    private double[] plusSums;
+    private double[] minusSums;
+    boolean done;
+    double sense;
+    double antisense;
+    int senseDelta;
+    int antisenseDelta;
+
+    Pair(Gene upstream, Gene downstream) {
+      this.upstream = upstream;
+      this.downstream = downstream;
+      this.reverse = !upstream.strand.equals(Gene.PLUS_STRAND);
+      region = new Gene();
+      region.name = promoterGene().name;
+      region.chromosome = upstream.chromosome;
+      region.start = upstream.start;
+      region.end = downstream.end;
+      region.strand = upstream.strand;
+    }
+
+    /**
+     * Returns gene whose promoter is between the two genes.
+     *
+     * @return gene whose promoter is between the two genes
+     */
+    Gene promoterGene() {
+      return reverse ? upstream : downstream;
+    }
+
+    private synchronized void add(boolean plus, double[] reads, TandemCommand parameters) {
+      if (plus) {
+        plusSums = prefixSums(reads);
+      } else {
+        minusSums = prefixSums(reads);
+      }
+      if (plusSums != null && minusSums != null) {
+        slide(parameters);
+        plusSums = null;
+        minusSums = null;
+      }
+    }
+
+    /**
+     * Slides windows over the reads of the region. Positions are relative to the start of region,
+     * or to the end of region when genes are on the minus strand.
+     */
+    private void slide(TandemCommand parameters) {
+      double[] senseSums = reverse ? minusSums : plusSums;
+      double[] antisenseSums = reverse ? plusSums : minusSums;
+      int tss = (int) (reverse ? region.end - upstream.end : downstream.start - region.start);
+      sense = Double.NEGATIVE_INFINITY;
+      for (int delta = 0; delta < parameters.senseSlide; delta += parameters.step) {
+        double reads = sum(senseSums, tss + delta, tss + delta + parameters.senseWindow);
+        if (reads > sense) {
+          sense = reads;
+          senseDelta = delta;
+        }
+      }
+      antisense = Double.NEGATIVE_INFINITY;
+      for (int delta = parameters.delta; delta < parameters.delta + parameters.antisenseSlide;
+          delta += parameters.step) {
+        double reads =
+            sum(antisenseSums, tss - delta - parameters.antisenseWindow, tss - delta);
+        if (reads > antisense) {
+          antisense = reads;
+          antisenseDelta = delta;
+        }
+      }
+      done = true;
+    }
+
+    /**
+     * Returns sum of reads from start, inclusively, to end, exclusively. Reads outside of region
+     * count as 0.
+     */
+    private double sum(double[] sums, long start, long end) {
+      if (reverse) {
+        long length = region.end - region.start + 1;
+        long reverseStart = length - end;
+        end = length - start;
+        start = reverseStart;
+      }
+      int last = sums.length - 1;
+      int from = (int) Math.min(Math.max(start, 0), last);
+      int to = (int) Math.min(Math.max(end, 0), last);
+      return to > from ? sums[to] - sums[from] : 0;
+    }
+  }
+}
@@ -0,0 +1,179 @@
+package ca.qc.ircm.rnapolymerasepauses;
+
+import ca.qc.ircm.rnapolymerasepauses.io.Compression;
+import ca.qc.ircm.rnapolymerasepauses.io.TssParser;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import javax.inject.Inject;
+import org.springframework.stereotype.Component;
+
+/**
+ * Indexes byte offset of genes' TSS in plus and minus track files.
+ * <p>
+ * This is a port of <code>TSS_index.py</code> from Churchman et al. The offset of a gene is the
+ * offset of line <code>start</code> of its chromosome, line 1 being the first value after the
+ * chromosome line, so reads of a gene can be read by seeking to offset. Only uncompressed text
+ * tracks can be indexed: a track that does not start with a chromosome line, like a binary track,
+ * or that contains a run of values, like a run-length encoded track, is rejected.
+ * </p>
+ * <p>
+ * Genes are sorted by start, so each track is read once from start to end, no matter the order
+ * of the TSS file. Plus and minus tracks are read in parallel.
+ * </p>
+ */
+@Component
+public class TrackIndexer {
+  private static final String SEPARATOR = "\t";
+  private static final String LINE_SEPARATOR = "\n";
+  private static final String CHROMOSOME_MARKER = "chrom=";
+  private static final int BUFFER_SIZE = 65536;
+  @Inject
+  private TssParser tssParser;
+
+  protected TrackIndexer() {
+  }
+
+  protected TrackIndexer(TssParser tssParser) {
+    this.tssParser = tssParser;
+  }
+
+  /**
+   * Indexes byte offset of genes' TSS in plus and minus track files.
+   * <p>
+   * Output contains one line per gene of TSS file, in the same order, with the following columns:
+   * name, chromosome, start, end, strand, offset in plus track and offset in minus track. Offset is
+   * -1 if track does not contain gene's chromosome.
+   * </p>
+   *
+   * @param parameters
+   *          parameters
+   * @throws IOException
+   *           could not read track or TSS file or write to output
+   */
+  public void index(TrackIndexCommand parameters) throws IOException {
+    List<Gene> genes = tssParser.genes(parameters.tss);
+    long[] plusOffsets;
+    long[] minusOffsets;
+    ForkJoinPool pool = new ForkJoinPool(1);
+    try {
+      Future<long[]> plus = pool.submit(() -> offsets(parameters.plus, genes));
+      minusOffsets = offsets(parameters.minus, genes);
+      plusOffsets = ParallelTrackConverter.waitFor(plus);
+    } finally {
+      pool.shutdownNow();
+    }
+    try (BufferedWriter writer = parameters.writer()) {
+      for (int i = 0; i < genes.size(); i++) {
+        Gene gene = genes.get(i);
+        writer.write(gene.name);
+        writer.write(SEPARATOR);
+        writer.write(gene.chromosome);
+        writer.write(SEPARATOR);
+        writer.write(String.valueOf(gene.start));
+        writer.write(SEPARATOR);
+        writer.write(String.valueOf(gene.end));
+        writer.write(SEPARATOR);
+        writer.write(gene.strand);
+        writer.write(SEPARATOR);
+        writer.write(String.valueOf(plusOffsets[i]));
+        writer.write(SEPARATOR);
+        writer.write(String.valueOf(minusOffsets[i]));
+        writer.write(LINE_SEPARATOR);
+      }
+    }
+  }
+
+  /**
+   * Returns byte offset of genes' TSS in track.
+   *
+   * @param track
+   *          text track file
+   * @param genes
+   *          genes
+   * @return byte offset of genes' TSS in track, in the same order as genes
+   * @throws IOException
+   *           could not read track or track is not a text track
+   */
+  private long[] offsets(Path track, List<Gene> genes) throws IOException {
+    if (Compression.isCompressed(track)) {
+      throw new IOException("Track " + track + " must not be compressed to be indexed");
+    }
+    long[] offsets = new long[genes.size()];
+    Arrays.fill(offsets, -1);
+    Map<String, List<Integer>> chromosomeGenes = IntStream.range(0, genes.size()).boxed()
+        .sorted(Comparator.comparingLong(i -> skippedLines(genes.get(i))))
+        .collect(Collectors.groupingBy(i -> genes.get(i).chromosome));
+    try (InputStream input = Files.newInputStream(track)) {
+      byte[] buffer = new byte[BUFFER_SIZE];
+      StringBuilder chromosome = new StringBuilder();
+      List<Integer> pending = Collections.emptyList();
+      int nextGene = 0;
+      long lines = 0;
+      long offset = 0;
+      int column = 0;
+      boolean firstLine = true;
+      boolean chromosomeLine = true;
+      int read;
+      while ((read = input.read(buffer)) != -1) {
+        for (int i = 0; i < read; i++, offset++) {
+          byte next = buffer[i];
+          if (column == 0) {
+            while (nextGene < pending.size()
+                && skippedLines(genes.get(pending.get(nextGene))) <= lines) {
+              offsets[pending.get(nextGene++)] = offset;
+            }
+          }
+          if (next == '\n') {
+            if (chromosomeLine && column >= CHROMOSOME_MARKER.length()) {
+              // Genes after chromosome's end.
+              while (nextGene < pending.size()) {
+                offsets[pending.get(nextGene++)] = offset - column;
+              }
+              pending = chromosomeGenes.remove(chromosome.toString());
+              pending = pending != null ? pending : Collections.emptyList();
+              nextGene = 0;
+              lines = 0;
+            } else {
+              lines++;
+            }
+            chromosome.setLength(0);
+            firstLine = false;
+            chromosomeLine = true;
+            column = 0;
+          } else {
+            if (column < CHROMOSOME_MARKER.length()) {
+              chromosomeLine &= next == CHROMOSOME_MARKER.charAt(column);
+            } else if (chromosomeLine && next != '\r') {
+              chromosome.append((char) next);
+            }
+            if (!chromosomeLine && (firstLine || next == '\t' || next == ' ')) {
+              throw new IOException("Track " + track
+                  + " must be a text track with one value per line to be indexed");
+            }
+            column++;
+          }
+        }
+      }
+      while (nextGene < pending.size()) {
+        offsets[pending.get(nextGene++)] = offset;
+      }
+    }
+    return offsets;
+  }
+
+  private static long skippedLines(Gene gene) {
+    return Math.max(gene.start - 1, 0);
+  }
+}
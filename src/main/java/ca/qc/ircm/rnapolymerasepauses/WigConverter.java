@@ -1,10 +1,18 @@
 package ca.qc.ircm.rnapolymerasepauses;
 
+import ca.qc.ircm.rnapolymerasepauses.ParallelTrackConverter.Output;
 import ca.qc.ircm.rnapolymerasepauses.io.ChromosomeSizesParser;
+import ca.qc.ircm.rnapolymerasepauses.io.Compression;
+import ca.qc.ircm.rnapolymerasepauses.io.LineTokenizer;
+import ca.qc.ircm.rnapolymerasepauses.io.TrackFormat;
+import ca.qc.ircm.rnapolymerasepauses.io.TrackWriter;
 import java.io.BufferedReader;
-import java.io.BufferedWriter;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.nio.file.Path;
 import java.util.Map;
+import java.util.Objects;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import javax.inject.Inject;
@@ -15,13 +23,13 @@ import org.springframework.stereotype.Component;
  */
 @Component
 public class WigConverter {
-  private static final String LINE_SEPARATOR = "\n";
-  private static final String COLUMN_SEPARATOR = "[\\t\\s]";
-  private static final String BROWSER_PATTERN = "^browser( .*)?$";
-  private static final String TRACK_PATTERN = "^track( .*)?$";
-  private static final String VARIABLE_STEP_PATTERN = "^variableStep( .*)?$";
+  private static final String BROWSER = "browser";
+  private static final String TRACK = "track";
+  private static final String VARIABLE_STEP = "variableStep";
   private static final String CHROMOSOME_PATTERN = "chrom=(chr)?([\\w\\d]+)";
   private static final String COMMENT = "#";
+  private static final String SIZES_STAGE = "chromosome sizes";
+  private static final String CHROMOSOME_STAGE = "chromosome ";
   @Inject
   private ChromosomeSizesParser chromosomeSizesParser;
 
@@ -34,6 +42,10 @@ public class WigConverter {
 
   /**
    * Converts WIG file to track file.
+   * <p>
+   * When {@link WigToTrackCommand#minusInput} is set, plus and minus strands are converted
+   * concurrently using the same chromosome sizes.
+   * </p>
    *
    * @param parameters
    *          parameters
@@ -41,60 +53,90 @@ public class WigConverter {
    *           could not read WIG or write to output
    */
   public void wigToTrack(WigToTrackCommand parameters) throws IOException {
-    final Map<String, Long> sizes =
-        chromosomeSizesParser.chromosomeSizes(parameters.chromosomeSizes);
-    Pattern browserPattern = Pattern.compile(BROWSER_PATTERN);
-    Pattern trackPattern = Pattern.compile(TRACK_PATTERN);
-    Pattern variableStepPattern = Pattern.compile(VARIABLE_STEP_PATTERN);
+    final Map<String, Long> sizes;
+    try (RunMetrics.Timer timer = RunMetrics.current().stage(SIZES_STAGE)) {
+      sizes = chromosomeSizesParser.chromosomeSizes(parameters.chromosomeSizes);
+    }
+    if (parameters.minusInput == null) {
+      wigToTrack(parameters.input, parameters.output, parameters.threads, parameters.format,
+          parameters::reader, parameters::writer, parameters::outputStream, sizes);
+      return;
+    }
+    if (parameters.minusOutput == null) {
+      throw new IOException("Minus strand output is required when minus strand input is set");
+    }
+    final int threads = Math.max(parameters.threads / 2, 1);
+    StrandPair.run(
+        () -> wigToTrack(parameters.input, parameters.output, threads, parameters.format,
+            parameters::reader, parameters::writer, parameters::outputStream, sizes),
+        () -> wigToTrack(parameters.minusInput, parameters.minusOutput, threads, parameters.format,
+            parameters::minusReader, parameters::minusWriter, parameters::minusOutputStream,
+            sizes));
+  }
+
+  private void wigToTrack(Path input, Path output, int threads, TrackFormat format,
+      Output<BufferedReader> reader, Output<? extends Writer> writer,
+      Output<? extends OutputStream> outputStream, Map<String, Long> sizes) throws IOException {
+    if (threads > 1 && input != null && !Compression.isCompressed(input)) {
+      ParallelTrackConverter.convert(input, ParallelTrackConverter.wigBlocks(input), output,
+          threads, format, writer, outputStream,
+          (blockReader, blockWriter) -> wigToTrack(blockReader, blockWriter, sizes));
+      return;
+    }
+    try (BufferedReader inputReader = reader.get();
+        TrackWriter trackWriter =
+            ParallelTrackConverter.trackWriter(format, writer, outputStream)) {
+      wigToTrack(inputReader, trackWriter, sizes);
+    }
+  }
+
+  private void wigToTrack(BufferedReader reader, TrackWriter writer, Map<String, Long> sizes)
+      throws IOException {
     Pattern chromosomePattern = Pattern.compile(CHROMOSOME_PATTERN);
-    try (BufferedReader reader = parameters.reader(); BufferedWriter writer = parameters.writer()) {
-      String chromosome;
-      long position = 0;
-      long size = 0;
-      String line;
-      while ((line = reader.readLine()) != null) {
-        if (browserPattern.matcher(line).matches() || trackPattern.matcher(line).matches()
-            || line.startsWith(COMMENT)) {
-          continue;
-        } else if (variableStepPattern.matcher(line).matches()) {
-          while (position < size) {
-            writer.write("0");
-            writer.write(LINE_SEPARATOR);
-            position++;
-          }
-          Matcher matcher = chromosomePattern.matcher(line);
-          if (matcher.find()) {
-            writer.write(matcher.group(0));
-            writer.write(LINE_SEPARATOR);
-            chromosome = matcher.group(1) + matcher.group(2);
-            if (!sizes.containsKey(chromosome)) {
-              throw new IllegalStateException(
-                  "Sizes file does not contain chromosome " + chromosome);
-            }
-            size = sizes.get(chromosome);
-          }
-          position = 0;
-        } else {
-          String[] columns = line.split(COLUMN_SEPARATOR, -1);
-          if (columns.length != 2) {
-            throw new IOException("WIG file does not contain 2 columns in line " + line);
-          }
-          long wigPosition = Long.parseLong(columns[0]);
-          while (position < wigPosition) {
-            writer.write("0");
-            writer.write(LINE_SEPARATOR);
-            position++;
+    LineTokenizer tokenizer = new LineTokenizer(reader, LineTokenizer.WHITESPACE);
+    RunMetrics metrics = RunMetrics.current();
+    RunMetrics.Timer timer = null;
+    String chromosome;
+    long position = 0;
+    long size = 0;
+    while (tokenizer.nextLine()) {
+      if (tokenizer.columnEquals(0, BROWSER) || tokenizer.columnEquals(0, TRACK)
+          || tokenizer.startsWith(COMMENT)) {
+        continue;
+      } else if (tokenizer.columnEquals(0, VARIABLE_STEP)) {
+        writer.write(0, size - position);
+        if (timer != null) {
+          timer.close();
+        }
+        Matcher matcher = chromosomePattern.matcher(tokenizer.line());
+        if (matcher.find()) {
+          chromosome = Objects.toString(matcher.group(1), "") + matcher.group(2);
+          timer = metrics.stage(CHROMOSOME_STAGE + chromosome);
+          writer.startChromosome(chromosome);
+          if (!sizes.containsKey(chromosome)) {
+            throw new IllegalStateException(
+                "Sizes file does not contain chromosome " + chromosome);
           }
-          writer.write(columns[1]);
-          writer.write(LINE_SEPARATOR);
-          position++;
+          size = sizes.get(chromosome);
         }
-      }
-      while (position < size) {
-        writer.write("0");
-        writer.write(LINE_SEPARATOR);
+        position = 0;
+      } else {
+        if (tokenizer.columns() != 2) {
+          throw new IOException(
+              "WIG file does not contain 2 columns in line " + tokenizer.line());
+        }
+        long wigPosition = tokenizer.longValue(0);
+        if (position < wigPosition) {
+          writer.write(0, wigPosition - position);
+          position = wigPosition;
+        }
+        writer.write(tokenizer.string(1), tokenizer.doubleValue(1), 1);
         position++;
       }
     }
+    writer.write(0, size - position);
+    if (timer != null) {
+      timer.close();
+    }
   }
 }
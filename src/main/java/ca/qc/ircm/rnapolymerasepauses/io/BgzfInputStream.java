@@ -0,0 +1,262 @@
+package ca.qc.ircm.rnapolymerasepauses.io;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+import java.util.zip.ZipException;
+
+/**
+ * Reads BGZF compressed data.
+ * <p>
+ * Blocks are read one after the other using the size stored in their header. When more than one
+ * thread is used, the next blocks are inflated in parallel while the current block is read.
+ * </p>
+ */
+public class BgzfInputStream extends InputStream {
+  private static final int GZIP_MAGIC = 0x8b1f;
+  private static final int FEXTRA = 4;
+  private static final int BGZF_SUBFIELD = 0x4342;
+  private final InputStream input;
+  private final ExecutorService pool;
+  private final int maxPending;
+  private final Queue<Future<byte[]>> pending = new ArrayDeque<>();
+  private final byte[] header = new byte[BgzfOutputStream.HEADER_LENGTH];
+  private byte[] data = new byte[0];
+  private int position;
+  private boolean end;
+  private boolean closed;
+
+  /**
+   * Creates BGZF input stream.
+   *
+   * @param input
+   *          underling input
+   * @param threads
+   *          number of threads used to inflate blocks
+   */
+  public BgzfInputStream(InputStream input, int threads) {
+    this.input = input;
+    if (threads > 1) {
+      pool = Executors.newFixedThreadPool(threads, runnable -> {
+        Thread thread = new Thread(runnable, "bgzf-inflater");
+        thread.setDaemon(true);
+        return thread;
+      });
+      maxPending = threads * 2;
+    } else {
+      pool = null;
+      maxPending = 0;
+    }
+  }
+
+  /**
+   * Returns true if header is the header of a BGZF block.
+   *
+   * @param header
+   *          first bytes of data
+   * @param length
+   *          number of bytes in header
+   * @return true if header is the header of a BGZF block
+   */
+  static boolean isBgzf(byte[] header, int length) {
+    return length >= BgzfOutputStream.HEADER_LENGTH && readShort(header, 0) == GZIP_MAGIC
+        && header[2] == 8 && (header[3] & FEXTRA) != 0 && readShort(header, 10) == 6
+        && readShort(header, 12) == BGZF_SUBFIELD && readShort(header, 14) == 2;
+  }
+
+  private static int readShort(byte[] bytes, int offset) {
+    return (bytes[offset] & 0xff) | (bytes[offset + 1] & 0xff) << 8;
+  }
+
+  private static int readInt(byte[] bytes, int offset) {
+    return readShort(bytes, offset) | readShort(bytes, offset + 2) << 16;
+  }
+
+  @Override
+  public int read() throws IOException {
+    if (!fill()) {
+      return -1;
+    }
+    return data[position++] & 0xff;
+  }
+
+  @Override
+  public int read(byte[] bytes, int offset, int length) throws IOException {
+    if (length == 0) {
+      return 0;
+    }
+    if (!fill()) {
+      return -1;
+    }
+    int copy = Math.min(length, data.length - position);
+    System.arraycopy(data, position, bytes, offset, copy);
+    position += copy;
+    return copy;
+  }
+
+  @Override
+  public int available() throws IOException {
+    return closed ? 0 : data.length - position;
+  }
+
+  /**
+   * Makes sure current block has data to read.
+   *
+   * @return false if end of input was reached
+   */
+  private boolean fill() throws IOException {
+    if (closed) {
+      throw new IOException("Stream closed");
+    }
+    while (position == data.length) {
+      if (pool == null) {
+        byte[] block = readBlock();
+        if (block == null) {
+          return false;
+        }
+        data = inflate(block);
+      } else {
+        while (pending.size() <= maxPending) {
+          byte[] block = readBlock();
+          if (block == null) {
+            break;
+          }
+          pending.add(pool.submit(() -> inflate(block)));
+        }
+        if (pending.isEmpty()) {
+          return false;
+        }
+        data = waitFor(pending.remove());
+      }
+      position = 0;
+    }
+    return true;
+  }
+
+  /**
+   * Reads next block.
+   *
+   * @return next block, null if end of input was reached
+   */
+  private byte[] readBlock() throws IOException {
+    if (end) {
+      return null;
+    }
+    int read = readFully(header, 0, header.length);
+    if (read == 0) {
+      end = true;
+      return null;
+    }
+    if (!isBgzf(header, read)) {
+      throw new ZipException("Not a BGZF block");
+    }
+    int blockSize = readShort(header, 16) + 1;
+    if (blockSize < BgzfOutputStream.HEADER_LENGTH + BgzfOutputStream.FOOTER_LENGTH) {
+      throw new ZipException("Invalid BGZF block size " + blockSize);
+    }
+    byte[] block = new byte[blockSize];
+    System.arraycopy(header, 0, block, 0, header.length);
+    if (readFully(block, header.length, blockSize - header.length) != blockSize
+        - header.length) {
+      throw new EOFException("Truncated BGZF block");
+    }
+    return block;
+  }
+
+  private int readFully(byte[] bytes, int offset, int length) throws IOException {
+    int total = 0;
+    while (total < length) {
+      int read = input.read(bytes, offset + total, length - total);
+      if (read == -1) {
+        break;
+      }
+      total += read;
+    }
+    return total;
+  }
+
+  /**
+   * Returns data of block.
+   *
+   * @param block
+   *          BGZF block
+   * @return data of block
+   * @throws IOException
+   *           block is corrupted
+   */
+  static byte[] inflate(byte[] block) throws IOException {
+    int footer = block.length - BgzfOutputStream.FOOTER_LENGTH;
+    int size = readInt(block, footer + 4);
+    if (size < 0 || size > BgzfOutputStream.MAX_BLOCK_SIZE) {
+      throw new ZipException("Invalid BGZF data size " + size);
+    }
+    byte[] data = new byte[size];
+    Inflater inflater = new Inflater(true);
+    try {
+      int headerLength = BgzfOutputStream.HEADER_LENGTH;
+      inflater.setInput(block, headerLength, footer - headerLength);
+      int length = 0;
+      while (!inflater.finished()) {
+        int inflated = inflater.inflate(data, length, size - length);
+        if (inflated == 0
+            && (length == size || inflater.needsInput() || inflater.needsDictionary())) {
+          break;
+        }
+        length += inflated;
+      }
+      if (length != size) {
+        throw new ZipException("Corrupted BGZF block, expected " + size + " bytes but found "
+            + length);
+      }
+      if (!inflater.finished()) {
+        throw new ZipException("Corrupted BGZF block, data does not end after " + size + " bytes");
+      }
+    } catch (DataFormatException e) {
+      throw new ZipException("Corrupted BGZF block: " + e.getMessage());
+    } finally {
+      inflater.end();
+    }
+    CRC32 crc = new CRC32();
+    crc.update(data);
+    if ((int) crc.getValue() != readInt(block, footer)) {
+      throw new ZipException("Corrupted BGZF block, CRC does not match");
+    }
+    return data;
+  }
+
+  private static byte[] waitFor(Future<byte[]> block) throws IOException {
+    try {
+      return block.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IOException("Interrupted while inflating block", e);
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof IOException) {
+        throw (IOException) cause;
+      }
+      throw new IOException("Could not inflate block", cause);
+    }
+  }
+
+  @Override
+  public void close() throws IOException {
+    if (closed) {
+      return;
+    }
+    closed = true;
+    if (pool != null) {
+      pool.shutdownNow();
+    }
+    input.close();
+  }
+}
@@ -0,0 +1,227 @@
+package ca.qc.ircm.rnapolymerasepauses.io;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * Writes BGZF compressed data.
+ * <p>
+ * BGZF, used by <code>samtools</code> and <code>tabix</code>, is a series of gzip members of at
+ * most 64 KiB that each store their own size in a <code>BC</code> extra field. Any gzip reader can
+ * decompress the data and blocks can be located without decompressing previous blocks. Blocks are
+ * deflated in parallel when more than one thread is used, but are written in order.
+ * </p>
+ */
+public class BgzfOutputStream extends OutputStream {
+  static final int MAX_BLOCK_SIZE = 65536;
+  static final int MAX_DATA_SIZE = 65280;
+  static final int HEADER_LENGTH = 18;
+  static final int FOOTER_LENGTH = 8;
+  /**
+   * Empty block that marks the end of a BGZF file.
+   */
+  static final byte[] EOF = { 0x1f, (byte) 0x8b, 0x08, 0x04, 0x00, 0x00, 0x00, 0x00, 0x00,
+      (byte) 0xff, 0x06, 0x00, 0x42, 0x43, 0x02, 0x00, 0x1b, 0x00, 0x03, 0x00, 0x00, 0x00, 0x00,
+      0x00, 0x00, 0x00, 0x00, 0x00 };
+  private final OutputStream output;
+  private final int level;
+  private final ExecutorService pool;
+  private final int maxPending;
+  private final Queue<Future<byte[]>> pending = new ArrayDeque<>();
+  private byte[] data = new byte[MAX_DATA_SIZE];
+  private int size;
+  private boolean closed;
+
+  /**
+   * Creates BGZF output stream.
+   *
+   * @param output
+   *          underling output
+   * @param threads
+   *          number of threads used to deflate blocks
+   */
+  public BgzfOutputStream(OutputStream output, int threads) {
+    this(output, threads, Deflater.DEFAULT_COMPRESSION);
+  }
+
+  /**
+   * Creates BGZF output stream.
+   *
+   * @param output
+   *          underling output
+   * @param threads
+   *          number of threads used to deflate blocks
+   * @param level
+   *          compression level, see {@link Deflater}
+   */
+  public BgzfOutputStream(OutputStream output, int threads, int level) {
+    this.output = output;
+    this.level = level;
+    if (threads > 1) {
+      pool = Executors.newFixedThreadPool(threads, runnable -> {
+        Thread thread = new Thread(runnable, "bgzf-deflater");
+        thread.setDaemon(true);
+        return thread;
+      });
+      maxPending = threads * 2;
+    } else {
+      pool = null;
+      maxPending = 0;
+    }
+  }
+
+  @Override
+  public void write(int value) throws IOException {
+    if (size == data.length) {
+      writeBlock();
+    }
+    data[size++] = (byte) value;
+  }
+
+  @Override
+  public void write(byte[] bytes, int offset, int length) throws IOException {
+    while (length > 0) {
+      if (size == data.length) {
+        writeBlock();
+      }
+      int copy = Math.min(length, data.length - size);
+      System.arraycopy(bytes, offset, data, size, copy);
+      size += copy;
+      offset += copy;
+      length -= copy;
+    }
+  }
+
+  private void writeBlock() throws IOException {
+    if (closed) {
+      throw new IOException("Stream closed");
+    }
+    if (size == 0) {
+      return;
+    }
+    byte[] blockData = data;
+    int blockSize = size;
+    if (pool == null) {
+      output.write(block(blockData, blockSize, level));
+    } else {
+      pending.add(pool.submit(() -> block(blockData, blockSize, level)));
+      data = new byte[MAX_DATA_SIZE];
+      while (pending.size() > maxPending) {
+        output.write(waitFor(pending.remove()));
+      }
+    }
+    size = 0;
+  }
+
+  private void writePending() throws IOException {
+    while (!pending.isEmpty()) {
+      output.write(waitFor(pending.remove()));
+    }
+  }
+
+  private static byte[] waitFor(Future<byte[]> block) throws IOException {
+    try {
+      return block.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IOException("Interrupted while compressing block", e);
+    } catch (ExecutionException e) {
+      throw new IOException("Could not compress block", e.getCause());
+    }
+  }
+
+  /**
+   * Returns BGZF block containing data.
+   *
+   * @param data
+   *          data
+   * @param size
+   *          size of data, at most {@link #MAX_DATA_SIZE}
+   * @param level
+   *          compression level
+   * @return BGZF block containing data
+   */
+  static byte[] block(byte[] data, int size, int level) {
+    byte[] compressed = deflate(data, size, level);
+    if (compressed == null) {
+      // Data could not be compressed enough, store it as is.
+      compressed = deflate(data, size, Deflater.NO_COMPRESSION);
+    }
+    int blockSize = HEADER_LENGTH + compressed.length + FOOTER_LENGTH;
+    byte[] block = new byte[blockSize];
+    System.arraycopy(EOF, 0, block, 0, HEADER_LENGTH);
+    writeShort(block, 16, blockSize - 1);
+    System.arraycopy(compressed, 0, block, HEADER_LENGTH, compressed.length);
+    CRC32 crc = new CRC32();
+    crc.update(data, 0, size);
+    writeInt(block, blockSize - FOOTER_LENGTH, (int) crc.getValue());
+    writeInt(block, blockSize - 4, size);
+    return block;
+  }
+
+  private static byte[] deflate(byte[] data, int size, int level) {
+    Deflater deflater = new Deflater(level, true);
+    try {
+      deflater.setInput(data, 0, size);
+      deflater.finish();
+      byte[] buffer = new byte[MAX_BLOCK_SIZE - HEADER_LENGTH - FOOTER_LENGTH];
+      int length = 0;
+      while (!deflater.finished()) {
+        if (length == buffer.length) {
+          return null;
+        }
+        length += deflater.deflate(buffer, length, buffer.length - length);
+      }
+      byte[] compressed = new byte[length];
+      System.arraycopy(buffer, 0, compressed, 0, length);
+      return compressed;
+    } finally {
+      deflater.end();
+    }
+  }
+
+  private static void writeShort(byte[] bytes, int offset, int value) {
+    bytes[offset] = (byte) value;
+    bytes[offset + 1] = (byte) (value >>> 8);
+  }
+
+  private static void writeInt(byte[] bytes, int offset, int value) {
+    writeShort(bytes, offset, value);
+    writeShort(bytes, offset + 2, value >>> 16);
+  }
+
+  /**
+   * Compresses buffered data in a block and writes all blocks to underling output.
+   */
+  @Override
+  public void flush() throws IOException {
+    writeBlock();
+    writePending();
+    output.flush();
+  }
+
+  @Override
+  public void close() throws IOException {
+    if (closed) {
+      return;
+    }
+    try {
+      flush();
+      output.write(EOF);
+    } finally {
+      closed = true;
+      if (pool != null) {
+        pool.shutdownNow();
+      }
+      output.close();
+    }
+  }
+}
@@ -0,0 +1,182 @@
+package ca.qc.ircm.rnapolymerasepauses.io;
+
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Binary track file, see {@link BinaryTrackWriter} for format.
+ * <p>
+ * Values of chromosomes are memory-mapped when first requested and returned as views without
+ * copying.
+ * </p>
+ */
+public class BinaryTrack implements Closeable {
+  private final FileChannel channel;
+  private final Map<String, Chromosome> chromosomes = new LinkedHashMap<>();
+  private final Map<String, FloatBuffer> mapped = new HashMap<>();
+
+  /**
+   * Opens binary track.
+   *
+   * @param file
+   *          binary track file
+   * @throws IOException
+   *           could not read file or file is not a binary track
+   */
+  public BinaryTrack(Path file) throws IOException {
+    channel = FileChannel.open(file, StandardOpenOption.READ);
+    try {
+      long size = channel.size();
+      if (size < BinaryTrackWriter.HEADER_LENGTH + BinaryTrackWriter.TRAILER_LENGTH) {
+        throw new IOException(file + " is not a binary track");
+      }
+      ByteBuffer header = read(0, BinaryTrackWriter.HEADER_LENGTH);
+      ByteBuffer trailer =
+          read(size - BinaryTrackWriter.TRAILER_LENGTH, BinaryTrackWriter.TRAILER_LENGTH);
+      long directoryOffset = trailer.getLong();
+      if (header.getInt() != BinaryTrackWriter.MAGIC
+          || trailer.getInt() != BinaryTrackWriter.MAGIC) {
+        throw new IOException(file + " is not a binary track");
+      }
+      int version = header.getInt();
+      if (version != BinaryTrackWriter.VERSION) {
+        throw new IOException("Unsupported binary track version " + version + " in " + file);
+      }
+      ByteBuffer directoryBuffer = read(directoryOffset,
+          (int) (size - BinaryTrackWriter.TRAILER_LENGTH - directoryOffset));
+      DataInputStream directory = new DataInputStream(new ByteArrayInputStream(
+          directoryBuffer.array(), 0, directoryBuffer.limit()));
+      int count = directory.readInt();
+      for (int i = 0; i < count; i++) {
+        Chromosome chromosome = new Chromosome();
+        String name = directory.readUTF();
+        chromosome.offset = directory.readLong();
+        chromosome.length = directory.readLong();
+        if (chromosomes.putIfAbsent(name, chromosome) != null) {
+          throw new IOException("Chromosome " + name + " is present more than once in " + file);
+        }
+      }
+    } catch (IOException | RuntimeException e) {
+      channel.close();
+      throw e;
+    }
+  }
+
+  private ByteBuffer read(long position, int length) throws IOException {
+    ByteBuffer buffer = ByteBuffer.allocate(length);
+    while (buffer.hasRemaining()) {
+      if (channel.read(buffer, position + buffer.position()) < 0) {
+        throw new IOException("Unexpected end of binary track");
+      }
+    }
+    buffer.flip();
+    return buffer;
+  }
+
+  /**
+   * Returns chromosomes in the order they appear in track.
+   *
+   * @return chromosomes in the order they appear in track
+   */
+  public List<String> chromosomes() {
+    return new ArrayList<>(chromosomes.keySet());
+  }
+
+  /**
+   * Returns true if track contains chromosome.
+   *
+   * @param chromosome
+   *          chromosome
+   * @return true if track contains chromosome
+   */
+  public boolean contains(String chromosome) {
+    return chromosomes.containsKey(chromosome);
+  }
+
+  /**
+   * Returns number of values of chromosome.
+   *
+   * @param chromosome
+   *          chromosome
+   * @return number of values of chromosome
+   */
+  public long length(String chromosome) {
+    return chromosome(chromosome).length;
+  }
+
+  /**
+   * Returns all values of chromosome.
+   *
+   * @param chromosome
+   *          chromosome
+   * @return all values of chromosome, backed by the file
+   * @throws IOException
+   *           could not map chromosome's values
+   */
+  public FloatBuffer values(String chromosome) throws IOException {
+    FloatBuffer values = mapped.get(chromosome);
+    if (values == null) {
+      Chromosome directory = chromosome(chromosome);
+      if (directory.length > Integer.MAX_VALUE / Float.BYTES) {
+        throw new IOException("Chromosome " + chromosome + " is too long to be mapped");
+      }
+      MappedByteBuffer buffer =
+          channel.map(MapMode.READ_ONLY, directory.offset, directory.length * Float.BYTES);
+      values = buffer.asFloatBuffer();
+      mapped.put(chromosome, values);
+    }
+    return values.duplicate();
+  }
+
+  /**
+   * Returns values of chromosome from start, inclusively, to end, exclusively.
+   *
+   * @param chromosome
+   *          chromosome
+   * @param start
+   *          first position, starting at 0
+   * @param end
+   *          last position, exclusive; truncated to the number of values of chromosome
+   * @return values of chromosome from start to end, backed by the file
+   * @throws IOException
+   *           could not map chromosome's values
+   */
+  public FloatBuffer values(String chromosome, int start, int end) throws IOException {
+    FloatBuffer values = values(chromosome);
+    values.limit(Math.max(Math.min(end, values.capacity()), start));
+    values.position(start);
+    return values.slice();
+  }
+
+  private Chromosome chromosome(String chromosome) {
+    Chromosome directory = chromosomes.get(chromosome);
+    if (directory == null) {
+      throw new IllegalArgumentException("Track does not contain chromosome " + chromosome);
+    }
+    return directory;
+  }
+
+  @Override
+  public void close() throws IOException {
+    channel.close();
+  }
+
+  private static class Chromosome {
+    private long offset;
+    private long length;
+  }
+}
@@ -0,0 +1,142 @@
+package ca.qc.ircm.rnapolymerasepauses.io;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Writes binary track files.
+ * <p>
+ * A binary track starts with magic number <code>RPPT</code> and format version. Values of each
+ * chromosome follow as big-endian 32 bits floats, one per position. The chromosome directory
+ * comes after the values: the number of chromosomes then, for each chromosome, its name (as
+ * {@link DataOutputStream#writeUTF(String)}), the offset of its first value and its number of
+ * values. The file ends with the offset of the directory and the magic number. Having the
+ * directory at the end allows to write binary tracks to system output. A chromosome can only be
+ * written once.
+ * </p>
+ */
+public class BinaryTrackWriter implements TrackWriter {
+  static final int MAGIC = 0x52505054;
+  static final int VERSION = 1;
+  static final int HEADER_LENGTH = 8;
+  static final int TRAILER_LENGTH = 12;
+  private static final int BUFFER_SIZE = 65536;
+  private final OutputStream output;
+  private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+  private final List<String> chromosomes = new ArrayList<>();
+  private final Set<String> names = new HashSet<>();
+  private final List<Long> offsets = new ArrayList<>();
+  private final List<Long> lengths = new ArrayList<>();
+  private long offset;
+  private long length;
+
+  /**
+   * Create binary track writer.
+   *
+   * @param output
+   *          underling output
+   * @throws IOException
+   *           could not write header to output
+   */
+  public BinaryTrackWriter(OutputStream output) throws IOException {
+    this.output = output;
+    buffer.putInt(MAGIC);
+    buffer.putInt(VERSION);
+  }
+
+  private void endChromosome() {
+    if (!chromosomes.isEmpty()) {
+      lengths.add(length);
+    }
+  }
+
+  @Override
+  public void startChromosome(String chromosome) throws IOException {
+    if (!names.add(chromosome)) {
+      throw new IOException("Chromosome " + chromosome + " is written more than once");
+    }
+    endChromosome();
+    chromosomes.add(chromosome);
+    offsets.add(offset + buffer.position());
+    length = 0;
+  }
+
+  @Override
+  public void write(double value, long count) throws IOException {
+    if (count <= 0) {
+      return;
+    }
+    if (chromosomes.isEmpty()) {
+      throw new IOException("Value written before first chromosome");
+    }
+    float floatValue = (float) value;
+    for (long i = 0; i < count; i++) {
+      if (buffer.remaining() < Float.BYTES) {
+        flushBuffer();
+      }
+      buffer.putFloat(floatValue);
+    }
+    length += count;
+  }
+
+  /**
+   * Writes values for the next positions.
+   *
+   * @param values
+   *          values, from current position to limit
+   * @throws IOException
+   *           could not write to output
+   */
+  public void write(FloatBuffer values) throws IOException {
+    if (chromosomes.isEmpty()) {
+      throw new IOException("Value written before first chromosome");
+    }
+    length += values.remaining();
+    while (values.hasRemaining()) {
+      if (buffer.remaining() < Float.BYTES) {
+        flushBuffer();
+      }
+      FloatBuffer floatBuffer = buffer.asFloatBuffer();
+      int count = Math.min(floatBuffer.remaining(), values.remaining());
+      FloatBuffer source = values.duplicate();
+      source.limit(source.position() + count);
+      floatBuffer.put(source);
+      values.position(values.position() + count);
+      buffer.position(buffer.position() + count * Float.BYTES);
+    }
+  }
+
+  private void flushBuffer() throws IOException {
+    output.write(buffer.array(), 0, buffer.position());
+    offset += buffer.position();
+    buffer.clear();
+  }
+
+  @Override
+  public void close() throws IOException {
+    try {
+      endChromosome();
+      flushBuffer();
+      long directoryOffset = offset;
+      DataOutputStream directory = new DataOutputStream(output);
+      directory.writeInt(chromosomes.size());
+      for (int i = 0; i < chromosomes.size(); i++) {
+        directory.writeUTF(chromosomes.get(i));
+        directory.writeLong(offsets.get(i));
+        directory.writeLong(lengths.get(i));
+      }
+      directory.writeLong(directoryOffset);
+      directory.writeInt(MAGIC);
+      directory.flush();
+    } finally {
+      output.close();
+    }
+  }
+}
@@ -1,8 +1,6 @@
 package ca.qc.ircm.rnapolymerasepauses.io;
 
-import java.io.BufferedReader;
 import java.io.IOException;
-import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.HashMap;
 import java.util.Map;
@@ -10,6 +8,10 @@ import org.springframework.stereotype.Component;
 
 /**
  * Chromosome sizes parser.
+ * <p>
+ * Only the first two columns, chromosome and size, are used, so a FASTA index created by
+ * <code>samtools faidx</code> or by the <code>fastaindex</code> command is also accepted.
+ * </p>
  */
 @Component
 public class ChromosomeSizesParser {
@@ -19,22 +21,21 @@ public class ChromosomeSizesParser {
    * Parsers chromosome sizes from file.
    *
    * @param file
-   *          file
+   *          chromosome sizes file or FASTA index
    * @return chromosome sizes
    * @throws IOException
    *           could not read file
    */
   public Map<String, Long> chromosomeSizes(Path file) throws IOException {
     Map<String, Long> sizes = new HashMap<>();
-    try (BufferedReader reader = Files.newBufferedReader(file)) {
-      String line;
-      while ((line = reader.readLine()) != null) {
-        String[] columns = line.split(SEPARATOR, -1);
-        if (columns.length < 2) {
-          throw new IOException("Line " + line + " does not contain 2 columns");
+    try (LineTokenizer tokenizer =
+        new LineTokenizer(Compression.newBufferedReader(file), SEPARATOR)) {
+      while (tokenizer.nextLine()) {
+        if (tokenizer.columns() < 2) {
+          throw new IOException("Line " + tokenizer.line() + " does not contain 2 columns");
         }
-        String chromosome = columns[0];
-        Long size = Long.valueOf(columns[1]);
+        String chromosome = tokenizer.string(0);
+        Long size = tokenizer.longValue(1);
         sizes.put(chromosome, size);
       }
     }
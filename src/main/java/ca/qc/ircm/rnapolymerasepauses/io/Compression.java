@@ -0,0 +1,328 @@
+package ca.qc.ircm.rnapolymerasepauses.io;
+
+import ca.qc.ircm.rnapolymerasepauses.RunMetrics;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.FilterInputStream;
+import java.io.FilterOutputStream;
+import java.io.FilterWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Opens files that may be compressed.
+ * <p>
+ * Inputs compressed with gzip are detected using their first bytes and are decompressed
+ * transparently, BGZF inputs are inflated in parallel. Outputs are compressed with BGZF when their
+ * name ends with <code>.gz</code> or <code>.bgz</code>.
+ * </p>
+ * <p>
+ * When the current command is measured, bytes and lines of opened files are added to its
+ * {@link RunMetrics}.
+ * </p>
+ */
+public class Compression {
+  private static final Charset CHARSET = StandardCharsets.UTF_8;
+  private static final int BUFFER_SIZE = 65536;
+  private static final int GZIP_MAGIC_LENGTH = 2;
+  private static final String[] COMPRESSED_EXTENSIONS = { ".gz", ".bgz" };
+  /**
+   * Number of threads used to compress or decompress a file.
+   */
+  private static final int THREADS = Math.min(Runtime.getRuntime().availableProcessors(), 4);
+
+  private Compression() {
+  }
+
+  /**
+   * Returns true if file is compressed with gzip.
+   *
+   * @param file
+   *          file
+   * @return true if file is compressed with gzip
+   * @throws IOException
+   *           could not read file
+   */
+  public static boolean isCompressed(Path file) throws IOException {
+    try (InputStream input = Files.newInputStream(file)) {
+      byte[] magic = new byte[GZIP_MAGIC_LENGTH];
+      return input.read(magic) == magic.length && isGzip(magic);
+    }
+  }
+
+  private static boolean isGzip(byte[] magic) {
+    return magic[0] == (byte) 0x1f && magic[1] == (byte) 0x8b;
+  }
+
+  /**
+   * Returns true if output file should be compressed, based on its name.
+   *
+   * @param file
+   *          output file
+   * @return true if output file should be compressed
+   */
+  public static boolean isCompressedName(Path file) {
+    Path fileName = file.getFileName();
+    String name = fileName != null ? fileName.toString().toLowerCase() : "";
+    for (String extension : COMPRESSED_EXTENSIONS) {
+      if (name.endsWith(extension)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Returns input that decompresses data if needed.
+   *
+   * @param input
+   *          input
+   * @return input that decompresses data if needed
+   * @throws IOException
+   *           could not read input
+   */
+  public static InputStream decompress(InputStream input) throws IOException {
+    BufferedInputStream buffered = new BufferedInputStream(input, BUFFER_SIZE);
+    byte[] header = new byte[BgzfOutputStream.HEADER_LENGTH];
+    buffered.mark(header.length);
+    int length = 0;
+    int read;
+    while (length < header.length
+        && (read = buffered.read(header, length, header.length - length)) != -1) {
+      length += read;
+    }
+    buffered.reset();
+    if (BgzfInputStream.isBgzf(header, length)) {
+      return new BufferedInputStream(new BgzfInputStream(buffered, THREADS), BUFFER_SIZE);
+    } else if (length >= GZIP_MAGIC_LENGTH && isGzip(header)) {
+      return new BufferedInputStream(new GZIPInputStream(buffered, BUFFER_SIZE), BUFFER_SIZE);
+    } else {
+      return buffered;
+    }
+  }
+
+  /**
+   * Returns output that compresses data with BGZF.
+   *
+   * @param output
+   *          output
+   * @return output that compresses data with BGZF
+   */
+  public static OutputStream compress(OutputStream output) {
+    return new BgzfOutputStream(new BufferedOutputStream(output, BUFFER_SIZE), THREADS);
+  }
+
+  /**
+   * Returns reader for file, decompresses file if needed.
+   *
+   * @param file
+   *          file
+   * @return reader for file
+   * @throws IOException
+   *           could not open file
+   */
+  public static BufferedReader newBufferedReader(Path file) throws IOException {
+    return newBufferedReader(Files.newInputStream(file));
+  }
+
+  /**
+   * Returns reader for input, decompresses input if needed.
+   *
+   * @param input
+   *          input
+   * @return reader for input
+   * @throws IOException
+   *           could not read input
+   */
+  public static BufferedReader newBufferedReader(InputStream input) throws IOException {
+    return new BufferedReader(new InputStreamReader(decompress(metered(input)), CHARSET));
+  }
+
+  /**
+   * Returns output stream for file, compresses data if file's name ends with <code>.gz</code> or
+   * <code>.bgz</code>.
+   *
+   * @param file
+   *          file
+   * @return output stream for file
+   * @throws IOException
+   *           could not open file
+   */
+  public static OutputStream newOutputStream(Path file) throws IOException {
+    OutputStream output = metered(Files.newOutputStream(file));
+    if (isCompressedName(file)) {
+      return compress(output);
+    } else {
+      return new BufferedOutputStream(output);
+    }
+  }
+
+  /**
+   * Returns output stream for a file that is memory-mapped when read, like a binary track or a
+   * genome. Such files are never compressed.
+   *
+   * @param file
+   *          file
+   * @return output stream for file
+   * @throws IOException
+   *           file's name ends with <code>.gz</code> or <code>.bgz</code> or could not open file
+   */
+  public static OutputStream newMappedOutputStream(Path file) throws IOException {
+    if (isCompressedName(file)) {
+      throw new IOException("File " + file
+          + " is memory-mapped when read and cannot be compressed, remove .gz or .bgz extension");
+    }
+    return new BufferedOutputStream(metered(Files.newOutputStream(file)));
+  }
+
+  /**
+   * Returns writer for file, compresses data if file's name ends with <code>.gz</code> or
+   * <code>.bgz</code>.
+   *
+   * @param file
+   *          file
+   * @return writer for file
+   * @throws IOException
+   *           could not open file
+   */
+  public static BufferedWriter newBufferedWriter(Path file) throws IOException {
+    OutputStream output = metered(Files.newOutputStream(file));
+    if (isCompressedName(file)) {
+      output = compress(output);
+    }
+    Writer writer = new OutputStreamWriter(output, CHARSET);
+    RunMetrics metrics = RunMetrics.current();
+    if (metrics.enabled()) {
+      writer = new LineCountingWriter(writer, metrics);
+    }
+    return new BufferedWriter(writer);
+  }
+
+  /**
+   * Returns input that counts bytes read in metrics of current command.
+   *
+   * @param input
+   *          input
+   * @return input that counts bytes read, input itself if current command is not measured
+   * @see RunMetrics#current()
+   */
+  public static InputStream metered(InputStream input) {
+    RunMetrics metrics = RunMetrics.current();
+    return metrics.enabled() ? new MeteredInputStream(input, metrics) : input;
+  }
+
+  private static OutputStream metered(OutputStream output) {
+    RunMetrics metrics = RunMetrics.current();
+    return metrics.enabled() ? new MeteredOutputStream(output, metrics) : output;
+  }
+
+  private static class MeteredInputStream extends FilterInputStream {
+    private final RunMetrics metrics;
+
+    private MeteredInputStream(InputStream input, RunMetrics metrics) {
+      super(input);
+      this.metrics = metrics;
+    }
+
+    @Override
+    public int read() throws IOException {
+      int read = super.read();
+      if (read != -1) {
+        metrics.bytesRead(1);
+      }
+      return read;
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int length) throws IOException {
+      int read = super.read(buffer, offset, length);
+      if (read > 0) {
+        metrics.bytesRead(read);
+      }
+      return read;
+    }
+
+    @Override
+    public long skip(long count) throws IOException {
+      long skipped = super.skip(count);
+      metrics.bytesRead(skipped);
+      return skipped;
+    }
+  }
+
+  private static class MeteredOutputStream extends FilterOutputStream {
+    private final RunMetrics metrics;
+
+    private MeteredOutputStream(OutputStream output, RunMetrics metrics) {
+      super(output);
+      this.metrics = metrics;
+    }
+
+    @Override
+    public void write(int value) throws IOException {
+      out.write(value);
+      metrics.bytesWritten(1);
+    }
+
+    @Override
+    public void write(byte[] buffer, int offset, int length) throws IOException {
+      out.write(buffer, offset, length);
+      metrics.bytesWritten(length);
+    }
+  }
+
+  /**
+   * Counts lines written as records written.
+   */
+  private static class LineCountingWriter extends FilterWriter {
+    private final RunMetrics metrics;
+
+    private LineCountingWriter(Writer writer, RunMetrics metrics) {
+      super(writer);
+      this.metrics = metrics;
+    }
+
+    @Override
+    public void write(int character) throws IOException {
+      out.write(character);
+      if (character == '\n') {
+        metrics.recordsOut(1);
+      }
+    }
+
+    @Override
+    public void write(char[] buffer, int offset, int length) throws IOException {
+      out.write(buffer, offset, length);
+      int lines = 0;
+      for (int i = offset; i < offset + length; i++) {
+        if (buffer[i] == '\n') {
+          lines++;
+        }
+      }
+      metrics.recordsOut(lines);
+    }
+
+    @Override
+    public void write(String value, int offset, int length) throws IOException {
+      out.write(value, offset, length);
+      int lines = 0;
+      for (int i = offset; i < offset + length; i++) {
+        if (value.charAt(i) == '\n') {
+          lines++;
+        }
+      }
+      metrics.recordsOut(lines);
+    }
+  }
+}
@@ -0,0 +1,315 @@
+package ca.qc.ircm.rnapolymerasepauses.io;
+
+import java.text.DecimalFormat;
+import java.text.DecimalFormatSymbols;
+
+/**
+ * Formats doubles like {@link DecimalFormat} with pattern <code>0.###</code>, without creating
+ * objects.
+ * <p>
+ * Output is the same as {@link DecimalFormat}: at least one integer digit, at most the maximum
+ * number of fraction digits, no trailing zeros in fraction, no grouping, half even rounding and
+ * symbols of the default locale.
+ * </p>
+ * <p>
+ * {@link DecimalFormat} rounds the digits of {@link Double#toString(double)}. These digits are
+ * within half the spacing between adjacent doubles of the value, so unless the value is that close
+ * to a tie, they round to the same decimal as the value itself, which is computed exactly using
+ * integers. Other values are rounded from {@link Double#toString(double)}'s digits. Ties of these
+ * digits, negative values, infinity and NaN are delegated to a {@link DecimalFormat} created once
+ * per formatter.
+ * </p>
+ * <p>
+ * This class is thread safe, values delegated to {@link DecimalFormat} are formatted one at a
+ * time.
+ * </p>
+ */
+public class DoubleFormatter {
+  private static final int MAX_FRACTION_DIGITS = 18;
+  private static final int MAX_INTEGER_DIGITS = 309;
+  private static final long MANTISSA_MASK = 0xFFFFFFFFFFFFFL;
+  private static final long IMPLICIT_BIT = 1L << 52;
+  private static final int EXPONENT_BIAS = 1075;
+  private final int maximumFractionDigits;
+  private final DecimalFormat decimalFormat;
+  private final long fivePower;
+  private final long tenPower;
+  private final int fivePowerBits;
+  private final char zeroDigit;
+  private final char decimalSeparator;
+
+  /**
+   * Creates double formatter.
+   *
+   * @param maximumFractionDigits
+   *          maximum number of fraction digits, between 0 and 18
+   */
+  public DoubleFormatter(int maximumFractionDigits) {
+    if (maximumFractionDigits < 0 || maximumFractionDigits > MAX_FRACTION_DIGITS) {
+      throw new IllegalArgumentException(
+          "maximumFractionDigits must be between 0 and " + MAX_FRACTION_DIGITS);
+    }
+    this.maximumFractionDigits = maximumFractionDigits;
+    StringBuilder pattern = new StringBuilder("0");
+    if (maximumFractionDigits > 0) {
+      pattern.append(".");
+      for (int i = 0; i < maximumFractionDigits; i++) {
+        pattern.append("#");
+      }
+    }
+    this.decimalFormat = new DecimalFormat(pattern.toString());
+    long fivePower = 1;
+    for (int i = 0; i < maximumFractionDigits; i++) {
+      fivePower *= 5;
+    }
+    this.fivePower = fivePower;
+    this.tenPower = fivePower << maximumFractionDigits;
+    this.fivePowerBits = 64 - Long.numberOfLeadingZeros(fivePower);
+    DecimalFormatSymbols symbols = DecimalFormatSymbols.getInstance();
+    zeroDigit = symbols.getZeroDigit();
+    decimalSeparator = symbols.getDecimalSeparator();
+  }
+
+  /**
+   * Returns maximum length of a formatted double.
+   *
+   * @return maximum length of a formatted double
+   */
+  public int maximumLength() {
+    return 1 + MAX_INTEGER_DIGITS + 1 + maximumFractionDigits;
+  }
+
+  /**
+   * Formats value.
+   *
+   * @param value
+   *          value
+   * @return formatted value
+   */
+  public String format(double value) {
+    char[] buffer = new char[maximumLength()];
+    int end = format(value, buffer, 0);
+    return new String(buffer, 0, end);
+  }
+
+  /**
+   * Formats value into buffer.
+   *
+   * @param value
+   *          value
+   * @param buffer
+   *          buffer, must have at least {@link #maximumLength()} characters after offset
+   * @param offset
+   *          index of buffer where to write first character
+   * @return index of buffer after last written character
+   */
+  public int format(double value, char[] buffer, int offset) {
+    if (value == 0 && Double.doubleToRawLongBits(value) == 0) {
+      buffer[offset] = zeroDigit;
+      return offset + 1;
+    }
+    if (value > 0 && value < Double.POSITIVE_INFINITY) {
+      int end = formatFixed(value, buffer, offset);
+      if (end < 0) {
+        end = formatDigits(value, buffer, offset);
+      }
+      if (end >= 0) {
+        return end;
+      }
+    }
+    String formatted;
+    synchronized (decimalFormat) {
+      formatted = decimalFormat.format(value);
+    }
+    formatted.getChars(0, formatted.length(), buffer, offset);
+    return offset + formatted.length();
+  }
+
+  /**
+   * Formats value by rounding its exact binary value to the closest decimal, when value is not
+   * close to a tie.
+   *
+   * @return index of buffer after last written character or -1 if value cannot be formatted
+   */
+  private int formatFixed(double value, char[] buffer, int offset) {
+    long bits = Double.doubleToRawLongBits(value);
+    int biasedExponent = (int) (bits >>> 52);
+    if (biasedExponent == 0) {
+      return -1;
+    }
+    long mantissa = (bits & MANTISSA_MASK) | IMPLICIT_BIT;
+    // value * 10^digits = mantissa * 5^digits / 2^shift
+    int shift = EXPONENT_BIAS - biasedExponent - maximumFractionDigits;
+    // Spacing between doubles, 5^digits / 2^shift, must be less than half of the last digit.
+    if (shift <= fivePowerBits || shift >= 128) {
+      return -1;
+    }
+    long productLow = mantissa * fivePower;
+    long productHigh = multiplyHigh(mantissa, fivePower);
+    long scaled;
+    long remainderLow;
+    long remainderHigh;
+    long halfLow;
+    long halfHigh;
+    if (shift < 64) {
+      scaled = (productHigh << (64 - shift)) | (productLow >>> shift);
+      remainderLow = productLow & ((1L << shift) - 1);
+      remainderHigh = 0;
+      halfLow = 1L << (shift - 1);
+      halfHigh = 0;
+    } else {
+      scaled = productHigh >>> (shift - 64);
+      remainderLow = productLow;
+      remainderHigh = productHigh & ((1L << (shift - 64)) - 1);
+      halfLow = shift == 64 ? 1L << 63 : 0;
+      halfHigh = shift == 64 ? 0 : 1L << (shift - 65);
+    }
+    // Digits of Double.toString are within half the spacing between doubles of value.
+    // They round like value unless a tie between two decimals is that close to value.
+    boolean aboveHalf = remainderHigh != halfHigh ? remainderHigh > halfHigh
+        : Long.compareUnsigned(remainderLow, halfLow) > 0;
+    long distanceLow = aboveHalf ? remainderLow - halfLow : halfLow - remainderLow;
+    long distanceHigh = aboveHalf
+        ? remainderHigh - halfHigh - (Long.compareUnsigned(remainderLow, halfLow) < 0 ? 1 : 0)
+        : halfHigh - remainderHigh - (Long.compareUnsigned(halfLow, remainderLow) < 0 ? 1 : 0);
+    if (distanceHigh == 0 && distanceLow >= 0 && distanceLow <= fivePower
+        && distanceLow * 2 <= fivePower) {
+      return -1;
+    }
+    if (aboveHalf) {
+      scaled++;
+    }
+    if (scaled == 0) {
+      buffer[offset] = zeroDigit;
+      return offset + 1;
+    }
+    long integer = scaled / tenPower;
+    long fraction = scaled % tenPower;
+    int fractionDigits = maximumFractionDigits;
+    while (fractionDigits > 0 && fraction % 10 == 0) {
+      fraction /= 10;
+      fractionDigits--;
+    }
+    int position = offset + stringSize(integer);
+    int end = position;
+    do {
+      buffer[--position] = digit((int) (integer % 10));
+      integer /= 10;
+    } while (integer > 0);
+    if (fractionDigits > 0) {
+      buffer[end] = decimalSeparator;
+      end += 1 + fractionDigits;
+      position = end;
+      for (int i = 0; i < fractionDigits; i++) {
+        buffer[--position] = digit((int) (fraction % 10));
+        fraction /= 10;
+      }
+    }
+    return end;
+  }
+
+  /**
+   * Formats value by rounding digits of {@link Double#toString(double)}, like
+   * {@link DecimalFormat}.
+   *
+   * @return index of buffer after last written character or -1 if value cannot be formatted
+   */
+  private int formatDigits(double value, char[] buffer, int offset) {
+    String string = Double.toString(value);
+    int exponentIndex = string.indexOf('E');
+    int mantissaEnd = exponentIndex >= 0 ? exponentIndex : string.length();
+    int decimalAt = string.indexOf('.');
+    if (exponentIndex >= 0) {
+      decimalAt += Integer.parseInt(string.substring(exponentIndex + 1));
+    }
+    char[] digits = new char[mantissaEnd];
+    int count = 0;
+    for (int i = 0; i < mantissaEnd; i++) {
+      char character = string.charAt(i);
+      if (character == '.') {
+        continue;
+      }
+      if (count == 0 && character == '0') {
+        decimalAt--;
+        continue;
+      }
+      digits[count++] = character;
+    }
+    while (count > 1 && digits[count - 1] == '0') {
+      count--;
+    }
+    int maximumDigits = decimalAt + maximumFractionDigits;
+    if (maximumDigits < 0) {
+      count = 0;
+    } else if (maximumDigits < count) {
+      char roundingDigit = digits[maximumDigits];
+      if (roundingDigit == '5' && maximumDigits == count - 1) {
+        // Tie, depends on how Double.toString rounded digits.
+        return -1;
+      }
+      count = maximumDigits;
+      if (roundingDigit >= '5') {
+        while (true) {
+          if (count == 0) {
+            digits[0] = '1';
+            count = 1;
+            decimalAt++;
+            break;
+          }
+          if (digits[count - 1] < '9') {
+            digits[count - 1]++;
+            break;
+          }
+          count--;
+        }
+      }
+      while (count > 0 && digits[count - 1] == '0') {
+        count--;
+      }
+    }
+    if (count == 0) {
+      buffer[offset] = zeroDigit;
+      return offset + 1;
+    }
+    int position = offset;
+    if (decimalAt <= 0) {
+      buffer[position++] = zeroDigit;
+    }
+    for (int i = 0; i < decimalAt; i++) {
+      buffer[position++] = i < count ? digit(digits[i] - '0') : zeroDigit;
+    }
+    if (count > decimalAt) {
+      buffer[position++] = decimalSeparator;
+      for (int i = decimalAt; i < count; i++) {
+        buffer[position++] = i < 0 ? zeroDigit : digit(digits[i] - '0');
+      }
+    }
+    return position;
+  }
+
+  private char digit(int digit) {
+    return (char) (zeroDigit + digit);
+  }
+
+  private static int stringSize(long value) {
+    int size = 1;
+    for (long limit = 10; size < 19 && value >= limit; limit *= 10) {
+      size++;
+    }
+    return size;
+  }
+
+  /**
+   * Returns the 64 most significant bits of the 128 bits product of two positive longs.
+   */
+  private static long multiplyHigh(long first, long second) {
+    long firstHigh = first >>> 32;
+    long firstLow = first & 0xFFFFFFFFL;
+    long secondHigh = second >>> 32;
+    long secondLow = second & 0xFFFFFFFFL;
+    long lowProduct = firstLow * secondLow;
+    long middle = firstHigh * secondLow + (lowProduct >>> 32);
+    long middleLow = (middle & 0xFFFFFFFFL) + firstLow * secondHigh;
+    return firstHigh * secondHigh + (middle >>> 32) + (middleLow >>> 32);
+  }
+}
@@ -0,0 +1,197 @@
+package ca.qc.ircm.rnapolymerasepauses.io;
+
+import ca.qc.ircm.rnapolymerasepauses.Gene;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.List;
+
+/**
+ * Start of genes, searchable by name, stored in a single buffer.
+ * <p>
+ * The buffer contains the number of genes, the capacity of an open addressing hash table, the
+ * table itself, starts of genes, ends of names and names as UTF-16 characters. The buffer can be
+ * written to a file and memory-mapped later without parsing, see {@link TssCache}.
+ * </p>
+ */
+public class GeneStarts {
+  private static final int HEADER_LENGTH = Integer.BYTES * 2;
+  private final ByteBuffer buffer;
+  private final int size;
+  private final int capacity;
+  private final int startsOffset;
+  private final int nameEndsOffset;
+  private final int namesOffset;
+
+  /**
+   * Creates gene starts.
+   *
+   * @param genes
+   *          genes
+   * @throws IOException
+   *           a gene name is present more than once
+   */
+  public GeneStarts(List<Gene> genes) throws IOException {
+    size = genes.size();
+    capacity = capacity(size);
+    startsOffset = HEADER_LENGTH + capacity * Integer.BYTES;
+    nameEndsOffset = startsOffset + size * Long.BYTES;
+    namesOffset = nameEndsOffset + size * Integer.BYTES;
+    long namesLength = genes.stream().mapToLong(gene -> gene.name.length()).sum();
+    long length = namesOffset + namesLength * Character.BYTES;
+    if (length > Integer.MAX_VALUE) {
+      throw new IOException("Too many genes");
+    }
+    buffer = ByteBuffer.allocate((int) length);
+    buffer.putInt(0, size);
+    buffer.putInt(Integer.BYTES, capacity);
+    int nameEnd = 0;
+    for (int i = 0; i < size; i++) {
+      Gene gene = genes.get(i);
+      buffer.putLong(startsOffset + i * Long.BYTES, gene.start);
+      for (int c = 0; c < gene.name.length(); c++) {
+        buffer.putChar(namesOffset + (nameEnd + c) * Character.BYTES, gene.name.charAt(c));
+      }
+      nameEnd += gene.name.length();
+      buffer.putInt(nameEndsOffset + i * Integer.BYTES, nameEnd);
+      int slot = slot(gene.name);
+      while (buffer.getInt(slotOffset(slot)) != 0) {
+        if (nameEquals(buffer.getInt(slotOffset(slot)) - 1, gene.name)) {
+          throw new IOException("Gene " + gene.name + " is present more than once in TSS file");
+        }
+        slot = (slot + 1) & (capacity - 1);
+      }
+      buffer.putInt(slotOffset(slot), i + 1);
+    }
+  }
+
+  /**
+   * Creates gene starts from a buffer previously returned by {@link #buffer()}.
+   *
+   * @param buffer
+   *          buffer, starting at its position
+   * @throws IOException
+   *           buffer does not contain gene starts
+   */
+  public GeneStarts(ByteBuffer buffer) throws IOException {
+    this.buffer = buffer.slice();
+    if (this.buffer.limit() < HEADER_LENGTH) {
+      throw new IOException("Buffer does not contain gene starts");
+    }
+    size = this.buffer.getInt(0);
+    capacity = this.buffer.getInt(Integer.BYTES);
+    if (size < 0 || capacity != capacity(size) || HEADER_LENGTH + (long) capacity * Integer.BYTES
+        + (long) size * (Long.BYTES + Integer.BYTES) > this.buffer.limit()) {
+      throw new IOException("Buffer does not contain gene starts");
+    }
+    startsOffset = HEADER_LENGTH + capacity * Integer.BYTES;
+    nameEndsOffset = startsOffset + size * Long.BYTES;
+    namesOffset = nameEndsOffset + size * Integer.BYTES;
+    if (namesOffset + (long) nameStart(size) * Character.BYTES != this.buffer.limit()) {
+      throw new IOException("Buffer does not contain gene starts");
+    }
+  }
+
+  private static int capacity(int size) {
+    return Integer.highestOneBit(Math.max(size, 1) * 2 - 1) * 2;
+  }
+
+  private int slot(String name) {
+    int hash = name.hashCode();
+    return (hash ^ (hash >>> 16)) & (capacity - 1);
+  }
+
+  private int slotOffset(int slot) {
+    return HEADER_LENGTH + slot * Integer.BYTES;
+  }
+
+  private int nameStart(int index) {
+    return index == 0 ? 0 : buffer.getInt(nameEndsOffset + (index - 1) * Integer.BYTES);
+  }
+
+  private boolean nameEquals(int index, String name) {
+    int start = nameStart(index);
+    int end = buffer.getInt(nameEndsOffset + index * Integer.BYTES);
+    if (end - start != name.length()) {
+      return false;
+    }
+    for (int i = 0; i < name.length(); i++) {
+      if (buffer.getChar(namesOffset + (start + i) * Character.BYTES) != name.charAt(i)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Returns content of gene starts, see {@link #GeneStarts(ByteBuffer)}.
+   *
+   * @return content of gene starts
+   */
+  public ByteBuffer buffer() {
+    return buffer.duplicate();
+  }
+
+  /**
+   * Returns number of genes.
+   *
+   * @return number of genes
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Returns index of gene.
+   *
+   * @param name
+   *          gene name
+   * @return index of gene, -1 if gene is not found
+   */
+  public int indexOf(String name) {
+    int slot = slot(name);
+    int index;
+    while ((index = buffer.getInt(slotOffset(slot)) - 1) >= 0) {
+      if (nameEquals(index, name)) {
+        return index;
+      }
+      slot = (slot + 1) & (capacity - 1);
+    }
+    return -1;
+  }
+
+  /**
+   * Returns gene's name.
+   *
+   * @param index
+   *          gene index
+   * @return gene's name
+   */
+  public String name(int index) {
+    checkIndex(index);
+    int start = nameStart(index);
+    int end = buffer.getInt(nameEndsOffset + index * Integer.BYTES);
+    char[] name = new char[end - start];
+    for (int i = 0; i < name.length; i++) {
+      name[i] = buffer.getChar(namesOffset + (start + i) * Character.BYTES);
+    }
+    return new String(name);
+  }
+
+  /**
+   * Returns gene's start.
+   *
+   * @param index
+   *          gene index
+   * @return gene's start
+   */
+  public long start(int index) {
+    checkIndex(index);
+    return buffer.getLong(startsOffset + index * Long.BYTES);
+  }
+
+  private void checkIndex(int index) {
+    if (index < 0 || index >= size) {
+      throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+    }
+  }
+}
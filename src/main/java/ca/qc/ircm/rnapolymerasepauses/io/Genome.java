@@ -0,0 +1,274 @@
+package ca.qc.ircm.rnapolymerasepauses.io;
+
+import ca.qc.ircm.rnapolymerasepauses.Gene;
+import ca.qc.ircm.rnapolymerasepauses.PackedSequences;
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Genome file, see {@link GenomeWriter} for format.
+ * <p>
+ * Bases of chromosomes are memory-mapped when first requested and only the requested bases are
+ * decoded, so sequences around millions of pauses are extracted without loading chromosomes in
+ * memory. A genome can be shared by threads.
+ * </p>
+ */
+public class Genome implements Closeable {
+  private static final char[] COMPLEMENTS = new char[128];
+
+  static {
+    for (int i = 0; i < COMPLEMENTS.length; i++) {
+      COMPLEMENTS[i] = (char) i;
+    }
+    COMPLEMENTS['A'] = 'T';
+    COMPLEMENTS['C'] = 'G';
+    COMPLEMENTS['G'] = 'C';
+    COMPLEMENTS['T'] = 'A';
+  }
+
+  private final FileChannel channel;
+  private final Map<String, Chromosome> chromosomes = new LinkedHashMap<>();
+
+  /**
+   * Opens genome.
+   *
+   * @param file
+   *          genome file
+   * @throws IOException
+   *           could not read file or file is not a genome
+   */
+  public Genome(Path file) throws IOException {
+    channel = FileChannel.open(file, StandardOpenOption.READ);
+    try {
+      long size = channel.size();
+      if (size < GenomeWriter.HEADER_LENGTH + GenomeWriter.TRAILER_LENGTH) {
+        throw new IOException(file + " is not a genome");
+      }
+      ByteBuffer header = read(0, GenomeWriter.HEADER_LENGTH);
+      ByteBuffer trailer = read(size - GenomeWriter.TRAILER_LENGTH, GenomeWriter.TRAILER_LENGTH);
+      long directoryOffset = trailer.getLong();
+      if (header.getInt() != GenomeWriter.MAGIC || trailer.getInt() != GenomeWriter.MAGIC) {
+        throw new IOException(file + " is not a genome");
+      }
+      int version = header.getInt();
+      if (version != GenomeWriter.VERSION) {
+        throw new IOException("Unsupported genome version " + version + " in " + file);
+      }
+      ByteBuffer directoryBuffer =
+          read(directoryOffset, (int) (size - GenomeWriter.TRAILER_LENGTH - directoryOffset));
+      DataInputStream directory = new DataInputStream(new ByteArrayInputStream(
+          directoryBuffer.array(), 0, directoryBuffer.limit()));
+      int count = directory.readInt();
+      for (int i = 0; i < count; i++) {
+        Chromosome chromosome = new Chromosome();
+        String name = directory.readUTF();
+        chromosome.offset = directory.readLong();
+        chromosome.length = directory.readLong();
+        int others = directory.readInt();
+        chromosome.otherStarts = new long[others];
+        chromosome.otherEnds = new long[others];
+        chromosome.otherValues = new char[others];
+        for (int j = 0; j < others; j++) {
+          chromosome.otherStarts[j] = directory.readLong();
+          chromosome.otherEnds[j] = directory.readLong();
+          chromosome.otherValues[j] = directory.readChar();
+        }
+        chromosomes.putIfAbsent(name, chromosome);
+      }
+    } catch (IOException | RuntimeException e) {
+      channel.close();
+      throw e;
+    }
+  }
+
+  private ByteBuffer read(long position, int length) throws IOException {
+    ByteBuffer buffer = ByteBuffer.allocate(length);
+    while (buffer.hasRemaining()) {
+      if (channel.read(buffer, position + buffer.position()) < 0) {
+        throw new IOException("Unexpected end of genome");
+      }
+    }
+    buffer.flip();
+    return buffer;
+  }
+
+  /**
+   * Returns chromosomes in the order they appear in genome.
+   *
+   * @return chromosomes in the order they appear in genome
+   */
+  public List<String> chromosomes() {
+    return new ArrayList<>(chromosomes.keySet());
+  }
+
+  /**
+   * Returns true if genome contains chromosome.
+   *
+   * @param chromosome
+   *          chromosome
+   * @return true if genome contains chromosome
+   */
+  public boolean contains(String chromosome) {
+    return chromosomes.containsKey(chromosome);
+  }
+
+  /**
+   * Returns number of bases of chromosome.
+   *
+   * @param chromosome
+   *          chromosome
+   * @return number of bases of chromosome
+   */
+  public long length(String chromosome) {
+    return chromosome(chromosome).length;
+  }
+
+  /**
+   * Returns bases of chromosome from start, inclusively, to end, exclusively.
+   *
+   * @param chromosome
+   *          chromosome
+   * @param start
+   *          first position, starting at 0; truncated to 0
+   * @param end
+   *          last position, exclusive; truncated to the number of bases of chromosome
+   * @return bases of chromosome from start to end
+   * @throws IOException
+   *           could not map chromosome's bases
+   */
+  public String sequence(String chromosome, long start, long end) throws IOException {
+    return sequence(chromosome, start, end, false);
+  }
+
+  /**
+   * Returns bases flanking a position, in the direction of transcription.
+   * <p>
+   * Like <code>findFlankSeq</code> from Churchman et al., the sequence contains the
+   * <code>length</code> bases upstream of position followed by the <code>length</code> bases
+   * downstream of position. On the plus strand, these are the bases from
+   * <code>position - length</code> to <code>position + length</code>, exclusively. On the minus
+   * strand, these are the reverse complement of the bases from
+   * <code>position - length - 1</code> to <code>position + length - 1</code>, exclusively.
+   * The sequence is shorter when it reaches the start or end of chromosome.
+   * </p>
+   *
+   * @param chromosome
+   *          chromosome
+   * @param position
+   *          position, starting at 0
+   * @param strand
+   *          strand, {@link Gene#MINUS_STRAND} for minus strand, plus strand otherwise
+   * @param length
+   *          number of bases on each side of position
+   * @return bases flanking position, in the direction of transcription
+   * @throws IOException
+   *           could not map chromosome's bases
+   */
+  public String flank(String chromosome, long position, String strand, int length)
+      throws IOException {
+    if (Gene.MINUS_STRAND.equals(strand)) {
+      return sequence(chromosome, position - length - 1, position + length - 1, true);
+    } else {
+      return sequence(chromosome, position - length, position + length, false);
+    }
+  }
+
+  private String sequence(String name, long start, long end, boolean reverseComplement)
+      throws IOException {
+    Chromosome chromosome = chromosome(name);
+    start = Math.max(start, 0);
+    end = Math.min(end, chromosome.length);
+    if (start >= end) {
+      return "";
+    }
+    LongBuffer bases = bases(chromosome, name);
+    int length = (int) (end - start);
+    char[] sequence = new char[length];
+    for (long base = start; base < end; base++) {
+      sequence[(int) (base - start)] =
+          PackedSequences.base(bases.get(PackedSequences.index(base)), base);
+    }
+    for (int run = chromosome.firstOther(start); run < chromosome.otherStarts.length
+        && chromosome.otherStarts[run] < end; run++) {
+      long runEnd = Math.min(chromosome.otherEnds[run], end);
+      for (long base = Math.max(chromosome.otherStarts[run], start); base < runEnd; base++) {
+        sequence[(int) (base - start)] = chromosome.otherValues[run];
+      }
+    }
+    if (reverseComplement) {
+      for (int i = 0, j = length - 1; i <= j; i++, j--) {
+        char first = sequence[i];
+        sequence[i] = complement(sequence[j]);
+        sequence[j] = complement(first);
+      }
+    }
+    return new String(sequence);
+  }
+
+  private static char complement(char base) {
+    return base < COMPLEMENTS.length ? COMPLEMENTS[base] : base;
+  }
+
+  private synchronized LongBuffer bases(Chromosome chromosome, String name) throws IOException {
+    if (chromosome.bases == null) {
+      long size = (chromosome.length + PackedSequences.BASES_PER_LONG - 1)
+          / PackedSequences.BASES_PER_LONG * Long.BYTES;
+      if (size > Integer.MAX_VALUE) {
+        throw new IOException("Chromosome " + name + " is too long to be mapped");
+      }
+      chromosome.bases = channel.map(MapMode.READ_ONLY, chromosome.offset, size).asLongBuffer();
+    }
+    return chromosome.bases;
+  }
+
+  private Chromosome chromosome(String chromosome) {
+    Chromosome directory = chromosomes.get(chromosome);
+    if (directory == null) {
+      throw new IllegalArgumentException("Genome does not contain chromosome " + chromosome);
+    }
+    return directory;
+  }
+
+  @Override
+  public void close() throws IOException {
+    channel.close();
+  }
+
+  private static class Chromosome {
+    private long offset;
+    private long length;
+    private long[] otherStarts;
+    private long[] otherEnds;
+    private char[] otherValues;
+    private LongBuffer bases;
+
+    /**
+     * Returns index of first run of other characters that ends after position.
+     */
+    private int firstOther(long position) {
+      int low = 0;
+      int high = otherEnds.length;
+      while (low < high) {
+        int middle = (low + high) >>> 1;
+        if (otherEnds[middle] <= position) {
+          low = middle + 1;
+        } else {
+          high = middle;
+        }
+      }
+      return low;
+    }
+  }
+}
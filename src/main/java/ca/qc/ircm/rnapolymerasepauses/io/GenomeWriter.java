@@ -0,0 +1,175 @@
+package ca.qc.ircm.rnapolymerasepauses.io;
+
+import ca.qc.ircm.rnapolymerasepauses.PackedSequences;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Writes genome files.
+ * <p>
+ * A genome file starts with magic number <code>RPPG</code> and format version. Bases of each
+ * chromosome follow, packed in longs like {@link PackedSequences}, 32 bases per long, and the bases
+ * of each chromosome start on a new long. The chromosome directory comes after the bases: the
+ * number of chromosomes then, for each chromosome, its name (as
+ * {@link DataOutputStream#writeUTF(String)}), the offset of its first byte, its number of bases
+ * and its runs of other characters, like N, as the number of runs then the start, end and
+ * character of each run. The file ends with the offset of the directory and the
+ * magic number, like {@link BinaryTrackWriter}.
+ * </p>
+ * <p>
+ * Bases are written in upper case, soft-masking is not kept.
+ * </p>
+ */
+public class GenomeWriter implements Closeable {
+  static final int MAGIC = 0x52505047;
+  static final int VERSION = 1;
+  static final int HEADER_LENGTH = 8;
+  static final int TRAILER_LENGTH = 12;
+  private static final int BUFFER_SIZE = 65536;
+
+  private final OutputStream output;
+  private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+  private final List<Chromosome> chromosomes = new ArrayList<>();
+  private Chromosome chromosome;
+  private long offset;
+  private long packed;
+
+  /**
+   * Create genome writer.
+   *
+   * @param output
+   *          underling output
+   */
+  public GenomeWriter(OutputStream output) {
+    this.output = output;
+    buffer.putInt(MAGIC);
+    buffer.putInt(VERSION);
+  }
+
+  private void endChromosome() throws IOException {
+    if (chromosome != null && chromosome.length % PackedSequences.BASES_PER_LONG != 0) {
+      putLong(packed);
+    }
+    packed = 0;
+  }
+
+  /**
+   * Starts a new chromosome.
+   *
+   * @param name
+   *          chromosome name
+   * @throws IOException
+   *           could not write to output
+   */
+  public void startChromosome(String name) throws IOException {
+    endChromosome();
+    chromosome = new Chromosome(name, offset + buffer.position());
+    chromosomes.add(chromosome);
+  }
+
+  /**
+   * Writes bases following the last bases written.
+   *
+   * @param bases
+   *          bases
+   * @throws IOException
+   *           could not write to output
+   */
+  public void write(CharSequence bases) throws IOException {
+    if (chromosome == null) {
+      throw new IOException("Bases written before first chromosome");
+    }
+    int length = bases.length();
+    for (int i = 0; i < length; i++) {
+      char base = bases.charAt(i);
+      int code = PackedSequences.code(base);
+      if (code < 0) {
+        chromosome.addOther(chromosome.length, Character.toUpperCase(base));
+        code = 0;
+      }
+      packed |= PackedSequences.pack(code, chromosome.length);
+      chromosome.length++;
+      if (chromosome.length % PackedSequences.BASES_PER_LONG == 0) {
+        putLong(packed);
+        packed = 0;
+      }
+    }
+  }
+
+  private void putLong(long value) throws IOException {
+    if (buffer.remaining() < Long.BYTES) {
+      flushBuffer();
+    }
+    buffer.putLong(value);
+  }
+
+  private void flushBuffer() throws IOException {
+    output.write(buffer.array(), 0, buffer.position());
+    offset += buffer.position();
+    buffer.clear();
+  }
+
+  @Override
+  public void close() throws IOException {
+    try {
+      endChromosome();
+      flushBuffer();
+      long directoryOffset = offset;
+      DataOutputStream directory = new DataOutputStream(output);
+      directory.writeInt(chromosomes.size());
+      for (Chromosome chromosome : chromosomes) {
+        directory.writeUTF(chromosome.name);
+        directory.writeLong(chromosome.offset);
+        directory.writeLong(chromosome.length);
+        directory.writeInt(chromosome.others);
+        for (int i = 0; i < chromosome.others; i++) {
+          directory.writeLong(chromosome.otherStarts[i]);
+          directory.writeLong(chromosome.otherEnds[i]);
+          directory.writeChar(chromosome.otherValues[i]);
+        }
+      }
+      directory.writeLong(directoryOffset);
+      directory.writeInt(MAGIC);
+      directory.flush();
+    } finally {
+      output.close();
+    }
+  }
+
+  private static class Chromosome {
+    private final String name;
+    private final long offset;
+    private long length;
+    private long[] otherStarts = new long[4];
+    private long[] otherEnds = new long[4];
+    private char[] otherValues = new char[4];
+    private int others;
+
+    private Chromosome(String name, long offset) {
+      this.name = name;
+      this.offset = offset;
+    }
+
+    private void addOther(long position, char value) {
+      if (others > 0 && otherEnds[others - 1] == position && otherValues[others - 1] == value) {
+        otherEnds[others - 1]++;
+        return;
+      }
+      if (others == otherStarts.length) {
+        int capacity = others * 2;
+        otherStarts = Arrays.copyOf(otherStarts, capacity);
+        otherEnds = Arrays.copyOf(otherEnds, capacity);
+        otherValues = Arrays.copyOf(otherValues, capacity);
+      }
+      otherStarts[others] = position;
+      otherEnds[others] = position + 1;
+      otherValues[others++] = value;
+    }
+  }
+}
@@ -0,0 +1,455 @@
+package ca.qc.ircm.rnapolymerasepauses.io;
+
+import ca.qc.ircm.rnapolymerasepauses.RunMetrics;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Arrays;
+
+/**
+ * Splits lines into columns without creating strings.
+ * <p>
+ * Lines are read into a reusable buffer and columns are kept as offsets inside the buffer.
+ * Numbers are parsed directly from the buffer. Like {@link String#split(String, int)} with a
+ * negative limit, consecutive separators produce empty columns and an empty line has one empty
+ * column.
+ * </p>
+ * <p>
+ * Lines end with <code>\n</code>, <code>\r</code> or <code>\r\n</code>, like
+ * {@link java.io.BufferedReader#readLine()}.
+ * </p>
+ */
+public class LineTokenizer implements Closeable {
+  /**
+   * Tab separator.
+   */
+  public static final String TAB = "\t";
+  /**
+   * Any whitespace, same as <code>\s</code> in regular expressions.
+   */
+  public static final String WHITESPACE = " \t\u000B\f";
+  private static final int BUFFER_SIZE = 65536;
+  private static final int MAX_FAST_DIGITS = 18;
+  private static final long MAX_EXACT_DOUBLE = 1L << 53;
+  private static final int SIGNIFICAND_BITS = 53;
+  private static final double[] POWERS_OF_TEN = { 1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8,
+      1e9, 1e10, 1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22 };
+  private static final long[] POWERS_OF_FIVE = new long[POWERS_OF_TEN.length];
+
+  static {
+    POWERS_OF_FIVE[0] = 1;
+    for (int i = 1; i < POWERS_OF_FIVE.length; i++) {
+      POWERS_OF_FIVE[i] = POWERS_OF_FIVE[i - 1] * 5;
+    }
+  }
+  private final Reader reader;
+  private final String separators;
+  private final char singleSeparator;
+  private char[] buffer = new char[BUFFER_SIZE];
+  private int bufferLength;
+  private int lineStart;
+  private int lineEnd;
+  private int next;
+  private boolean skipLineFeed;
+  private int[] starts = new int[16];
+  private int[] ends = new int[16];
+  private int columns;
+  private long lineCount;
+  private final RunMetrics metrics = RunMetrics.current();
+
+  /**
+   * Creates line tokenizer.
+   *
+   * @param reader
+   *          underling reader
+   * @param separators
+   *          characters that separate columns, see {@link #TAB} and {@link #WHITESPACE}
+   */
+  public LineTokenizer(Reader reader, String separators) {
+    this.reader = reader;
+    this.separators = separators;
+    this.singleSeparator = separators.length() == 1 ? separators.charAt(0) : 0;
+  }
+
+  /**
+   * Moves to next line.
+   *
+   * @return true if a line was read, false if end of reader was reached
+   * @throws IOException
+   *           could not read reader
+   */
+  public boolean nextLine() throws IOException {
+    int position = next;
+    while (true) {
+      if (position == bufferLength) {
+        int shift = next;
+        boolean filled = fill();
+        position -= shift;
+        if (!filled) {
+          if (next == bufferLength) {
+            columns = 0;
+            return false;
+          }
+          // Last line without line separator.
+          setLine(next, bufferLength, bufferLength);
+          return true;
+        }
+      }
+      char character = buffer[position];
+      if (skipLineFeed) {
+        // Previous line ended with \r, skip \n of \r\n.
+        skipLineFeed = false;
+        if (character == '\n') {
+          next = ++position;
+          continue;
+        }
+      }
+      if (character == '\n' || character == '\r') {
+        skipLineFeed = character == '\r';
+        setLine(next, position, position + 1);
+        return true;
+      }
+      position++;
+    }
+  }
+
+  /**
+   * Moves unread characters to the start of buffer and reads more characters.
+   */
+  private boolean fill() throws IOException {
+    if (next > 0) {
+      System.arraycopy(buffer, next, buffer, 0, bufferLength - next);
+      bufferLength -= next;
+      next = 0;
+    }
+    if (bufferLength == buffer.length) {
+      buffer = Arrays.copyOf(buffer, buffer.length * 2);
+    }
+    int read = reader.read(buffer, bufferLength, buffer.length - bufferLength);
+    if (read <= 0) {
+      return false;
+    }
+    bufferLength += read;
+    return true;
+  }
+
+  private void setLine(int start, int end, int nextLine) {
+    lineCount++;
+    lineStart = start;
+    lineEnd = end;
+    next = nextLine;
+    columns = 0;
+    int columnStart = start;
+    for (int i = start; i < end; i++) {
+      char character = buffer[i];
+      if (singleSeparator != 0 ? character == singleSeparator
+          : separators.indexOf(character) >= 0) {
+        addColumn(columnStart, i);
+        columnStart = i + 1;
+      }
+    }
+    addColumn(columnStart, end);
+  }
+
+  private void addColumn(int start, int end) {
+    if (columns == starts.length) {
+      starts = Arrays.copyOf(starts, columns * 2);
+      ends = Arrays.copyOf(ends, columns * 2);
+    }
+    starts[columns] = start;
+    ends[columns++] = end;
+  }
+
+  /**
+   * Returns current line.
+   *
+   * @return current line
+   */
+  public String line() {
+    return new String(buffer, lineStart, lineEnd - lineStart);
+  }
+
+  /**
+   * Appends current line to builder.
+   *
+   * @param builder
+   *          builder
+   */
+  public void appendLine(StringBuilder builder) {
+    builder.append(buffer, lineStart, lineEnd - lineStart);
+  }
+
+  /**
+   * Returns true if current line is empty.
+   *
+   * @return true if current line is empty
+   */
+  public boolean isEmpty() {
+    return lineEnd == lineStart;
+  }
+
+  /**
+   * Returns true if current line starts with prefix.
+   *
+   * @param prefix
+   *          prefix
+   * @return true if current line starts with prefix
+   */
+  public boolean startsWith(String prefix) {
+    return regionMatches(lineStart, lineEnd, prefix, false);
+  }
+
+  /**
+   * Returns true if current line is equal to value.
+   *
+   * @param value
+   *          value
+   * @return true if current line is equal to value
+   */
+  public boolean lineEquals(String value) {
+    return regionMatches(lineStart, lineEnd, value, true);
+  }
+
+  private boolean regionMatches(int start, int end, CharSequence value, boolean whole) {
+    int length = value.length();
+    if (whole ? end - start != length : end - start < length) {
+      return false;
+    }
+    for (int i = 0; i < length; i++) {
+      if (buffer[start + i] != value.charAt(i)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Returns number of columns in current line.
+   *
+   * @return number of columns in current line
+   */
+  public int columns() {
+    return columns;
+  }
+
+  private void checkColumn(int column) {
+    if (column < 0 || column >= columns) {
+      throw new IndexOutOfBoundsException(
+          "Column " + column + " does not exists in line " + line());
+    }
+  }
+
+  /**
+   * Returns true if column is equal to value.
+   *
+   * @param column
+   *          column index, starting at 0
+   * @param value
+   *          value
+   * @return true if column is equal to value
+   */
+  public boolean columnEquals(int column, CharSequence value) {
+    return columnEquals(column, 0, value);
+  }
+
+  /**
+   * Returns true if column, ignoring its first characters, is equal to value.
+   *
+   * @param column
+   *          column index, starting at 0
+   * @param start
+   *          number of characters to ignore at the start of column
+   * @param value
+   *          value
+   * @return true if column, ignoring its first characters, is equal to value
+   */
+  public boolean columnEquals(int column, int start, CharSequence value) {
+    checkColumn(column);
+    return regionMatches(columnStart(column, start), ends[column], value, true);
+  }
+
+  /**
+   * Returns column as a string.
+   *
+   * @param column
+   *          column index, starting at 0
+   * @return column as a string
+   */
+  public String string(int column) {
+    return string(column, 0);
+  }
+
+  /**
+   * Returns column as a string, ignoring its first characters.
+   *
+   * @param column
+   *          column index, starting at 0
+   * @param start
+   *          number of characters to ignore at the start of column
+   * @return column as a string, ignoring its first characters
+   */
+  public String string(int column, int start) {
+    checkColumn(column);
+    int columnStart = columnStart(column, start);
+    return new String(buffer, columnStart, ends[column] - columnStart);
+  }
+
+  private int columnStart(int column, int start) {
+    if (start < 0 || start > ends[column] - starts[column]) {
+      throw new IndexOutOfBoundsException(
+          "Column " + column + " is shorter than " + start + " in line " + line());
+    }
+    return starts[column] + start;
+  }
+
+  /**
+   * Parses column as an int.
+   *
+   * @param column
+   *          column index, starting at 0
+   * @return column as an int
+   * @throws NumberFormatException
+   *           column is not an int
+   */
+  public int intValue(int column) {
+    long value = longValue(column);
+    if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) {
+      throw new NumberFormatException("For input string: \"" + string(column) + "\"");
+    }
+    return (int) value;
+  }
+
+  /**
+   * Parses column as a long, like {@link Long#parseLong(String)}.
+   *
+   * @param column
+   *          column index, starting at 0
+   * @return column as a long
+   * @throws NumberFormatException
+   *           column is not a long
+   */
+  public long longValue(int column) {
+    checkColumn(column);
+    int start = starts[column];
+    int end = ends[column];
+    boolean negative = false;
+    if (start < end && (buffer[start] == '-' || buffer[start] == '+')) {
+      negative = buffer[start] == '-';
+      start++;
+    }
+    if (start == end) {
+      throw new NumberFormatException("For input string: \"" + string(column) + "\"");
+    }
+    // Accumulates negatively to handle Long.MIN_VALUE.
+    long limit = negative ? Long.MIN_VALUE : -Long.MAX_VALUE;
+    long multiplicationLimit = limit / 10;
+    long value = 0;
+    for (int i = start; i < end; i++) {
+      int digit = buffer[i] - '0';
+      if (digit < 0 || digit > 9 || value < multiplicationLimit) {
+        throw new NumberFormatException("For input string: \"" + string(column) + "\"");
+      }
+      value *= 10;
+      if (value < limit + digit) {
+        throw new NumberFormatException("For input string: \"" + string(column) + "\"");
+      }
+      value -= digit;
+    }
+    return negative ? value : -value;
+  }
+
+  /**
+   * Parses column as a double, like {@link Double#parseDouble(String)}.
+   * <p>
+   * Decimal numbers with at most 18 significant digits and no exponent are parsed directly. When
+   * digits are less than 2<sup>53</sup>, the result is exact because both the digits and the power
+   * of ten are exactly represented as doubles. Larger digits are divided by the power of ten using
+   * integers. Other numbers are parsed by {@link Double#parseDouble(String)}.
+   * </p>
+   *
+   * @param column
+   *          column index, starting at 0
+   * @return column as a double
+   * @throws NumberFormatException
+   *           column is not a double
+   */
+  public double doubleValue(int column) {
+    checkColumn(column);
+    int start = starts[column];
+    int end = ends[column];
+    int position = start;
+    boolean negative = false;
+    if (position < end && (buffer[position] == '-' || buffer[position] == '+')) {
+      negative = buffer[position] == '-';
+      position++;
+    }
+    long digits = 0;
+    int digitCount = 0;
+    int significantDigits = 0;
+    int decimals = 0;
+    boolean decimalPoint = false;
+    for (; position < end; position++) {
+      char character = buffer[position];
+      if (character >= '0' && character <= '9') {
+        digitCount++;
+        if (digits != 0 || character != '0') {
+          significantDigits++;
+        }
+        digits = digits * 10 + (character - '0');
+        if (decimalPoint) {
+          decimals++;
+        }
+        if (significantDigits > MAX_FAST_DIGITS) {
+          break;
+        }
+      } else if (character == '.' && !decimalPoint) {
+        decimalPoint = true;
+      } else {
+        break;
+      }
+    }
+    if (position < end || digitCount == 0 || decimals >= POWERS_OF_TEN.length) {
+      return Double.parseDouble(string(column));
+    }
+    double value = decimals == 0 ? digits
+        : digits < MAX_EXACT_DOUBLE ? digits / POWERS_OF_TEN[decimals] : divide(digits, decimals);
+    return negative ? -value : value;
+  }
+
+  /**
+   * Returns digits / 10<sup>decimals</sup>, correctly rounded.
+   * <p>
+   * Digits are divided by 5<sup>decimals</sup> using long division until the quotient has enough
+   * bits to be rounded half even, then the quotient is scaled by 2<sup>-decimals</sup>.
+   * </p>
+   */
+  private static double divide(long digits, int decimals) {
+    long divisor = POWERS_OF_FIVE[decimals];
+    long quotient = digits / divisor;
+    long remainder = digits % divisor;
+    int exponent = -decimals;
+    // Remainder is less than 2^52, so it can be shifted by 11 bits.
+    while (quotient < 1L << (SIGNIFICAND_BITS + 1)) {
+      int shift = Math.min(11, Long.numberOfLeadingZeros(quotient) - (63 - SIGNIFICAND_BITS - 1));
+      remainder <<= shift;
+      quotient = (quotient << shift) | (remainder / divisor);
+      remainder %= divisor;
+      exponent -= shift;
+    }
+    int extraBits = 64 - Long.numberOfLeadingZeros(quotient) - SIGNIFICAND_BITS;
+    long significand = quotient >>> extraBits;
+    long roundBit = (quotient >>> (extraBits - 1)) & 1;
+    boolean sticky = remainder != 0 || (quotient & ((1L << (extraBits - 1)) - 1)) != 0;
+    if (roundBit == 1 && (sticky || (significand & 1) == 1)) {
+      significand++;
+    }
+    return Math.scalb((double) significand, exponent + extraBits);
+  }
+
+  @Override
+  public void close() throws IOException {
+    metrics.recordsIn(lineCount);
+    lineCount = 0;
+    reader.close();
+  }
+}
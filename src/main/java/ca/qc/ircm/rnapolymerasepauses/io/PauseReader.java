@@ -1,18 +1,25 @@
 package ca.qc.ircm.rnapolymerasepauses.io;
 
 import ca.qc.ircm.rnapolymerasepauses.Pause;
+import ca.qc.ircm.rnapolymerasepauses.PauseTable;
 import java.io.BufferedReader;
 import java.io.Closeable;
 import java.io.IOException;
 
 /**
  * Pause reader.
+ * <p>
+ * {@link #readPause()} creates a new pause for every record. To scan large files,
+ * {@link #next(Pause)} fills the same pause again and again: fields are parsed in place and names
+ * and chromosomes are only copied when they change.
+ * </p>
  */
 public class PauseReader implements Closeable {
   private static final String MARKER = ">";
   private static final String SEPARATOR = "_";
-  private final BufferedReader reader;
-  private String line = null;
+  private final LineTokenizer tokenizer;
+  private final StringBuilder sequence = new StringBuilder();
+  private boolean header = false;
 
   /**
    * Create pause reader.
@@ -21,7 +28,7 @@ public class PauseReader implements Closeable {
    *          underling reader
    */
   public PauseReader(BufferedReader reader) {
-    this.reader = reader;
+    this.tokenizer = new LineTokenizer(reader, SEPARATOR);
   }
 
   /**
@@ -32,36 +39,88 @@ public class PauseReader implements Closeable {
    *           could not read reader
    */
   public Pause readPause() throws IOException {
-    if (line == null) {
-      line = reader.readLine();
+    Pause pause = new Pause();
+    if (!next(pause)) {
+      return null;
     }
-    while (line != null && !line.startsWith(MARKER)) {
+    pause.sequence = sequence.toString();
+    return pause;
+  }
+
+  /**
+   * Reads next pause into reuse.
+   * <p>
+   * The sequence is not copied into pause, {@link Pause#sequence} is set to null. Use
+   * {@link #sequence()} to get the sequence of the pause.
+   * </p>
+   *
+   * @param reuse
+   *          pause to fill, name and chromosome are kept if they are the same as the next pause
+   * @return true if a pause was read, false if end of reader was reached
+   * @throws IOException
+   *           could not read reader
+   */
+  public boolean next(Pause reuse) throws IOException {
+    while (!header) {
+      if (!tokenizer.nextLine()) {
+        return false;
+      }
       // Skip potential comments.
-      line = reader.readLine();
+      header = tokenizer.startsWith(MARKER);
     }
-    if (line == null) {
-      return null;
+    reuse.name = string(0, MARKER.length(), reuse.name);
+    reuse.chromosome = string(1, 0, reuse.chromosome);
+    reuse.position = tokenizer.intValue(2);
+    reuse.normalizedReads = tokenizer.doubleValue(3);
+    reuse.foldsAboveAverage = tokenizer.doubleValue(4);
+    reuse.beginningReads = tokenizer.doubleValue(5);
+    reuse.sequence = null;
+    sequence.setLength(0);
+    header = false;
+    while (!header && tokenizer.nextLine()) {
+      header = tokenizer.startsWith(MARKER);
+      if (!header) {
+        tokenizer.appendLine(sequence);
+      }
     }
-    String[] columns = line.substring(MARKER.length(), line.length()).split(SEPARATOR);
+    return true;
+  }
+
+  /**
+   * Reads all remaining pauses into a table.
+   *
+   * @return all remaining pauses
+   * @throws IOException
+   *           could not read reader
+   */
+  public PauseTable readTable() throws IOException {
+    PauseTable table = new PauseTable();
     Pause pause = new Pause();
-    pause.name = columns[0];
-    pause.chromosome = columns[1];
-    pause.position = Integer.parseInt(columns[2]);
-    pause.normalizedReads = Double.parseDouble(columns[3]);
-    pause.foldsAboveAverage = Double.parseDouble(columns[4]);
-    pause.beginningReads = Double.parseDouble(columns[5]);
-    StringBuilder builder = new StringBuilder();
-    line = reader.readLine();
-    while (line != null && !line.startsWith(MARKER)) {
-      builder.append(line);
-      line = reader.readLine();
+    while (next(pause)) {
+      table.add(pause, sequence);
     }
-    pause.sequence = builder.toString();
-    return pause;
+    return table;
+  }
+
+  private String string(int column, int start, String previous) {
+    return previous != null && tokenizer.columnEquals(column, start, previous) ? previous
+        : tokenizer.string(column, start);
+  }
+
+  /**
+   * Returns sequence of the last pause read by {@link #next(Pause)}.
+   * <p>
+   * Sequence is only valid until next pause is read.
+   * </p>
+   *
+   * @return sequence of the last pause read
+   */
+  public CharSequence sequence() {
+    return sequence;
   }
 
   @Override
   public void close() throws IOException {
-    reader.close();
+    tokenizer.close();
   }
 }
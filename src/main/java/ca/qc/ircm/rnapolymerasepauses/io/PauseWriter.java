@@ -1,23 +1,28 @@
 package ca.qc.ircm.rnapolymerasepauses.io;
 
 import ca.qc.ircm.rnapolymerasepauses.Pause;
+import ca.qc.ircm.rnapolymerasepauses.PauseTable;
 import java.io.Closeable;
 import java.io.IOException;
 import java.io.Writer;
-import java.text.DecimalFormat;
-import java.text.NumberFormat;
 
 /**
  * Pause writer.
+ * <p>
+ * Numbers are formatted in a reusable buffer by {@link DoubleFormatter}, which gives the same
+ * output as {@link java.text.DecimalFormat}.
+ * </p>
  */
 public class PauseWriter implements Closeable {
   private static final String MARKER = ">";
   private static final String SEPARATOR = "_";
   private static final int SEQUENCE_LENGHT_PER_LINE = 80;
   private static final String LINE_SEPARATOR = System.getProperty("line.separator");
-  private NumberFormat normalizedReadsFormat = new DecimalFormat("0.#####");
-  private NumberFormat foldsAboveAverageFormat = new DecimalFormat("0.################");
-  private NumberFormat beginningReadsFormat = new DecimalFormat("0.##########");
+  private DoubleFormatter normalizedReadsFormat = new DoubleFormatter(5);
+  private DoubleFormatter foldsAboveAverageFormat = new DoubleFormatter(16);
+  private DoubleFormatter beginningReadsFormat = new DoubleFormatter(10);
+  private char[] buffer =
+      new char[Math.max(foldsAboveAverageFormat.maximumLength(), SEQUENCE_LENGHT_PER_LINE)];
   private final Writer writer;
 
   /**
@@ -46,26 +51,60 @@ public class PauseWriter implements Closeable {
     writer.write(SEPARATOR);
     writer.write(String.valueOf(pause.position));
     writer.write(SEPARATOR);
-    writer.write(normalizedReadsFormat.format(pause.normalizedReads));
+    write(normalizedReadsFormat, pause.normalizedReads);
     writer.write(SEPARATOR);
-    writer.write(foldsAboveAverageFormat.format(pause.foldsAboveAverage));
+    write(foldsAboveAverageFormat, pause.foldsAboveAverage);
     writer.write(SEPARATOR);
-    writer.write(beginningReadsFormat.format(pause.beginningReads));
+    write(beginningReadsFormat, pause.beginningReads);
     writer.write(LINE_SEPARATOR);
     if (pause.sequence != null && pause.sequence.length() != 0) {
       String sequence = pause.sequence;
-      while (sequence.length() > SEQUENCE_LENGHT_PER_LINE) {
-        writer.write(sequence.substring(0, SEQUENCE_LENGHT_PER_LINE));
-        writer.write(LINE_SEPARATOR);
-        sequence = sequence.substring(SEQUENCE_LENGHT_PER_LINE);
-      }
-      if (sequence.length() > 0) {
-        writer.write(sequence);
+      for (int start = 0; start < sequence.length(); start += SEQUENCE_LENGHT_PER_LINE) {
+        writer.write(sequence, start,
+            Math.min(SEQUENCE_LENGHT_PER_LINE, sequence.length() - start));
         writer.write(LINE_SEPARATOR);
       }
     }
   }
 
+  /**
+   * Writes pause of table in writer.
+   *
+   * @param table
+   *          pauses
+   * @param index
+   *          index of pause in table
+   * @throws IOException
+   *           could not write to writer
+   */
+  public void writePause(PauseTable table, int index) throws IOException {
+    writer.write(MARKER);
+    writer.write(table.name(index));
+    writer.write(SEPARATOR);
+    writer.write(table.chromosome(index));
+    writer.write(SEPARATOR);
+    writer.write(String.valueOf(table.position(index)));
+    writer.write(SEPARATOR);
+    write(normalizedReadsFormat, table.normalizedReads(index));
+    writer.write(SEPARATOR);
+    write(foldsAboveAverageFormat, table.foldsAboveAverage(index));
+    writer.write(SEPARATOR);
+    write(beginningReadsFormat, table.beginningReads(index));
+    writer.write(LINE_SEPARATOR);
+    int length = table.sequenceLength(index);
+    for (int start = 0; start < length; start += SEQUENCE_LENGHT_PER_LINE) {
+      int end = Math.min(start + SEQUENCE_LENGHT_PER_LINE, length);
+      table.sequence(index, start, end, buffer, 0);
+      writer.write(buffer, 0, end - start);
+      writer.write(LINE_SEPARATOR);
+    }
+  }
+
+  private void write(DoubleFormatter format, double value) throws IOException {
+    int length = format.format(value, buffer, 0);
+    writer.write(buffer, 0, length);
+  }
+
   @Override
   public void close() throws IOException {
     writer.close();
@@ -0,0 +1,73 @@
+package ca.qc.ircm.rnapolymerasepauses.io;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Writes track files where consecutive identical values are written once, followed by a tab and
+ * the number of positions, like <code>0\t1500</code>.
+ * <p>
+ * Values that are not repeated are written alone, so a track file is also a valid run-length
+ * encoded track file. Use {@link TrackReader} to read run-length encoded track files.
+ * </p>
+ */
+public class RleTrackWriter implements TrackWriter {
+  private static final String LINE_SEPARATOR = "\n";
+  private static final String COLUMN_SEPARATOR = "\t";
+  private static final String CHROMOSOME_MARKER = "chrom=";
+  private static final String ZERO = "0";
+  private final Writer writer;
+  private double value;
+  private long count;
+
+  /**
+   * Create run-length encoded track writer.
+   *
+   * @param writer
+   *          underling writer
+   */
+  public RleTrackWriter(Writer writer) {
+    this.writer = writer;
+  }
+
+  @Override
+  public void startChromosome(String chromosome) throws IOException {
+    writeRun();
+    writer.write(CHROMOSOME_MARKER);
+    writer.write(chromosome);
+    writer.write(LINE_SEPARATOR);
+  }
+
+  @Override
+  public void write(double value, long count) throws IOException {
+    if (count <= 0) {
+      return;
+    }
+    if (this.count > 0 && Double.compare(this.value, value) != 0) {
+      writeRun();
+    }
+    this.value = value;
+    this.count += count;
+  }
+
+  private void writeRun() throws IOException {
+    if (count > 0) {
+      writer.write(value == 0 ? ZERO : String.valueOf(value));
+      if (count > 1) {
+        writer.write(COLUMN_SEPARATOR);
+        writer.write(String.valueOf(count));
+      }
+      writer.write(LINE_SEPARATOR);
+      count = 0;
+    }
+  }
+
+  @Override
+  public void close() throws IOException {
+    try {
+      writeRun();
+    } finally {
+      writer.close();
+    }
+  }
+}
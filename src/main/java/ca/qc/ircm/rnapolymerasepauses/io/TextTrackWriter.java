@@ -0,0 +1,53 @@
+package ca.qc.ircm.rnapolymerasepauses.io;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Writes track files with one value per line.
+ */
+public class TextTrackWriter implements TrackWriter {
+  private static final String LINE_SEPARATOR = "\n";
+  private static final String CHROMOSOME_MARKER = "chrom=";
+  private static final String ZERO = "0";
+  private final Writer writer;
+
+  /**
+   * Create track writer.
+   *
+   * @param writer
+   *          underling writer
+   */
+  public TextTrackWriter(Writer writer) {
+    this.writer = writer;
+  }
+
+  @Override
+  public void startChromosome(String chromosome) throws IOException {
+    writer.write(CHROMOSOME_MARKER);
+    writer.write(chromosome);
+    writer.write(LINE_SEPARATOR);
+  }
+
+  @Override
+  public void write(double value, long count) throws IOException {
+    write(value == 0 ? ZERO : String.valueOf(value), count);
+  }
+
+  @Override
+  public void write(String text, double value, long count) throws IOException {
+    write(text, count);
+  }
+
+  private void write(String text, long count) throws IOException {
+    String line = text + LINE_SEPARATOR;
+    for (long i = 0; i < count; i++) {
+      writer.write(line);
+    }
+  }
+
+  @Override
+  public void close() throws IOException {
+    writer.close();
+  }
+}
@@ -0,0 +1,19 @@
+package ca.qc.ircm.rnapolymerasepauses.io;
+
+/**
+ * Track file formats.
+ */
+public enum TrackFormat {
+  /**
+   * One value per line, preceded by a <code>chrom=</code> line for each chromosome.
+   */
+  TEXT,
+  /**
+   * Text track where consecutive identical values are written once, see {@link RleTrackWriter}.
+   */
+  RLE,
+  /**
+   * Binary track, see {@link BinaryTrackWriter}.
+   */
+  BINARY
+}
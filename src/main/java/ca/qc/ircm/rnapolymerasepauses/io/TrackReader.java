@@ -0,0 +1,102 @@
+package ca.qc.ircm.rnapolymerasepauses.io;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Reads track files, one value per line preceded by a <code>chrom=</code> line for each
+ * chromosome.
+ * <p>
+ * Run-length encoded lines, see {@link RleTrackWriter}, are expanded as values are read.
+ * </p>
+ */
+public class TrackReader implements Closeable {
+  private static final String CHROMOSOME_MARKER = "chrom=";
+  private static final String COLUMN_SEPARATOR = "\t";
+  private final LineTokenizer tokenizer;
+  private String chromosome;
+  private long position = -1;
+  private double value;
+  private long remaining;
+
+  /**
+   * Create track reader.
+   *
+   * @param reader
+   *          underling reader
+   */
+  public TrackReader(BufferedReader reader) {
+    this.tokenizer = new LineTokenizer(reader, COLUMN_SEPARATOR);
+  }
+
+  /**
+   * Moves to next value of track.
+   *
+   * @return true if a value was read, false if end of track was reached
+   * @throws IOException
+   *           could not read reader or track contains a value before first chromosome
+   */
+  public boolean next() throws IOException {
+    if (remaining > 0) {
+      remaining--;
+      position++;
+      return true;
+    }
+    while (tokenizer.nextLine()) {
+      if (tokenizer.startsWith(CHROMOSOME_MARKER)) {
+        chromosome = tokenizer.line().substring(CHROMOSOME_MARKER.length());
+        position = -1;
+        remaining = 0;
+      } else if (!tokenizer.isEmpty()) {
+        if (chromosome == null) {
+          throw new IOException(
+              "Track contains value " + tokenizer.line() + " before first chromosome");
+        }
+        value = tokenizer.doubleValue(0);
+        if (tokenizer.columns() > 1) {
+          long count = tokenizer.longValue(1);
+          if (count < 1) {
+            throw new IOException("Track contains invalid count in line " + tokenizer.line());
+          }
+          remaining = count - 1;
+        }
+        position++;
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Returns chromosome of current value.
+   *
+   * @return chromosome of current value
+   */
+  public String chromosome() {
+    return chromosome;
+  }
+
+  /**
+   * Returns position of current value inside chromosome, starting at 0.
+   *
+   * @return position of current value inside chromosome, starting at 0
+   */
+  public long position() {
+    return position;
+  }
+
+  /**
+   * Returns current value.
+   *
+   * @return current value
+   */
+  public double value() {
+    return value;
+  }
+
+  @Override
+  public void close() throws IOException {
+    tokenizer.close();
+  }
+}
@@ -0,0 +1,48 @@
+package ca.qc.ircm.rnapolymerasepauses.io;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Writes track files.
+ */
+public interface TrackWriter extends Closeable {
+  /**
+   * Starts a new chromosome. Following values are positions of this chromosome, starting at 0.
+   *
+   * @param chromosome
+   *          chromosome
+   * @throws IOException
+   *           could not write to output
+   */
+  public void startChromosome(String chromosome) throws IOException;
+
+  /**
+   * Writes the same value for the next <code>count</code> positions.
+   *
+   * @param value
+   *          value
+   * @param count
+   *          number of positions, nothing is written if count is 0 or less
+   * @throws IOException
+   *           could not write to output
+   */
+  public void write(double value, long count) throws IOException;
+
+  /**
+   * Writes the same value for the next <code>count</code> positions. Writers of text tracks write
+   * <code>text</code> unchanged instead of formatting <code>value</code>.
+   *
+   * @param text
+   *          value, as text
+   * @param value
+   *          value
+   * @param count
+   *          number of positions, nothing is written if count is 0 or less
+   * @throws IOException
+   *           could not write to output
+   */
+  public default void write(String text, double value, long count) throws IOException {
+    write(value, count);
+  }
+}
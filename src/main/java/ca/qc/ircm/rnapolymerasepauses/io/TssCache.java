@@ -0,0 +1,149 @@
+package ca.qc.ircm.rnapolymerasepauses.io;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.UUID;
+import javax.inject.Inject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+/**
+ * Cache of compiled TSS files.
+ * <p>
+ * Starts of genes parsed from a TSS file are saved in a cache directory, see {@link GeneStarts}.
+ * The cache file is named after the TSS file's path and contains the TSS file's path, size and
+ * last modification time. When these still match, the cache file is memory-mapped instead of
+ * parsing the TSS file.
+ * </p>
+ */
+@Component
+public class TssCache {
+  static final int MAGIC = 0x54535343; // TSSC
+  static final int VERSION = 1;
+  private static final Charset CHARSET = StandardCharsets.UTF_8;
+  private static final String EXTENSION = ".tss";
+  private static final Logger logger = LoggerFactory.getLogger(TssCache.class);
+  @Inject
+  private TssParser tssParser;
+
+  protected TssCache() {
+  }
+
+  protected TssCache(TssParser tssParser) {
+    this.tssParser = tssParser;
+  }
+
+  /**
+   * Returns starts of genes in TSS file.
+   *
+   * @param tss
+   *          TSS file
+   * @param directory
+   *          cache directory, null to always parse TSS file
+   * @return starts of genes in TSS file
+   * @throws IOException
+   *           could not read TSS file
+   */
+  public GeneStarts geneStarts(Path tss, Path directory) throws IOException {
+    if (directory == null) {
+      return new GeneStarts(tssParser.genes(tss));
+    }
+    byte[] header = header(tss);
+    Path file = file(tss, directory);
+    if (Files.exists(file)) {
+      try {
+        GeneStarts cached = load(file, header);
+        if (cached != null) {
+          return cached;
+        }
+      } catch (IOException e) {
+        logger.warn("Could not load cached TSS file {}, parsing {}", file, tss, e);
+      }
+    }
+    GeneStarts geneStarts = new GeneStarts(tssParser.genes(tss));
+    try {
+      save(file, header, geneStarts);
+    } catch (IOException e) {
+      logger.warn("Could not save cached TSS file {}", file, e);
+    }
+    return geneStarts;
+  }
+
+  /**
+   * Returns cache file of TSS file.
+   *
+   * @param tss
+   *          TSS file
+   * @param directory
+   *          cache directory
+   * @return cache file of TSS file
+   */
+  Path file(Path tss, Path directory) {
+    String path = tss.toAbsolutePath().normalize().toString();
+    return directory.resolve(UUID.nameUUIDFromBytes(path.getBytes(CHARSET)) + EXTENSION);
+  }
+
+  private byte[] header(Path tss) throws IOException {
+    byte[] path = tss.toAbsolutePath().normalize().toString().getBytes(CHARSET);
+    ByteBuffer header = ByteBuffer.allocate(Integer.BYTES * 3 + Long.BYTES * 2 + path.length);
+    header.putInt(MAGIC);
+    header.putInt(VERSION);
+    header.putLong(Files.size(tss));
+    header.putLong(Files.getLastModifiedTime(tss).toMillis());
+    header.putInt(path.length);
+    header.put(path);
+    return header.array();
+  }
+
+  private GeneStarts load(Path file, byte[] header) throws IOException {
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      if (channel.size() < header.length || channel.size() > Integer.MAX_VALUE) {
+        return null;
+      }
+      ByteBuffer buffer = channel.map(MapMode.READ_ONLY, 0, channel.size());
+      for (int i = 0; i < header.length; i++) {
+        if (buffer.get(i) != header[i]) {
+          return null;
+        }
+      }
+      buffer.position(header.length);
+      return new GeneStarts(buffer);
+    }
+  }
+
+  private void save(Path file, byte[] header, GeneStarts geneStarts) throws IOException {
+    Files.createDirectories(file.getParent());
+    // Write to a temporary file first so that concurrent runs never see a partial cache file.
+    Path temporary = Files.createTempFile(file.getParent(), "tss", ".tmp");
+    try {
+      try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.WRITE)) {
+        ByteBuffer headerBuffer = ByteBuffer.wrap(header);
+        while (headerBuffer.hasRemaining()) {
+          channel.write(headerBuffer);
+        }
+        ByteBuffer buffer = geneStarts.buffer();
+        while (buffer.hasRemaining()) {
+          channel.write(buffer);
+        }
+      }
+      try {
+        Files.move(temporary, file, StandardCopyOption.ATOMIC_MOVE,
+            StandardCopyOption.REPLACE_EXISTING);
+      } catch (AtomicMoveNotSupportedException e) {
+        Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING);
+      }
+    } finally {
+      Files.deleteIfExists(temporary);
+    }
+  }
+}
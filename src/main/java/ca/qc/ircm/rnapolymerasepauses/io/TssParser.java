@@ -0,0 +1,46 @@
+package ca.qc.ircm.rnapolymerasepauses.io;
+
+import ca.qc.ircm.rnapolymerasepauses.Gene;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import org.springframework.stereotype.Component;
+
+/**
+ * TSS file parser.
+ */
+@Component
+public class TssParser {
+  private static final String SEPARATOR = "\t";
+
+  /**
+   * Parses genes from TSS file.
+   *
+   * @param file
+   *          TSS file
+   * @return genes
+   * @throws IOException
+   *           could not read file
+   */
+  public List<Gene> genes(Path file) throws IOException {
+    List<Gene> genes = new ArrayList<>();
+    try (LineTokenizer tokenizer =
+        new LineTokenizer(Compression.newBufferedReader(file), SEPARATOR)) {
+      tokenizer.nextLine(); // Skip header.
+      while (tokenizer.nextLine()) {
+        if (tokenizer.columns() < 5) {
+          throw new IOException("Line " + tokenizer.line() + " does not contain 5 columns");
+        }
+        Gene gene = new Gene();
+        gene.chromosome = tokenizer.string(0);
+        gene.start = tokenizer.longValue(1);
+        gene.end = tokenizer.longValue(2);
+        gene.strand = tokenizer.string(3);
+        gene.name = tokenizer.string(4);
+        genes.add(gene);
+      }
+    }
+    return genes;
+  }
+}
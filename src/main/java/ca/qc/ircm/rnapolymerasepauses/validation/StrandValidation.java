@@ -0,0 +1,17 @@
+package ca.qc.ircm.rnapolymerasepauses.validation;
+
+import com.beust.jcommander.IParameterValidator;
+import com.beust.jcommander.ParameterException;
+
+/**
+ * Validates that strand is either <code>+</code> or <code>-</code>.
+ */
+public class StrandValidation implements IParameterValidator {
+  @Override
+  public void validate(String name, String value) throws ParameterException {
+    if (!value.equals("+") && !value.equals("-")) {
+      throw new ParameterException(
+          "Parameter " + name + " should be either + or - (found " + value + ")");
+    }
+  }
+}
@@ -0,0 +1,77 @@
+package ca.qc.ircm.rnapolymerasepauses;
+
+import ca.qc.ircm.rnapolymerasepauses.io.ChromosomeSizesParser;
+import ca.qc.ircm.rnapolymerasepauses.io.TrackFormat;
+import ca.qc.ircm.rnapolymerasepauses.io.TssParser;
+import ca.qc.ircm.rnapolymerasepauses.test.data.SyntheticData;
+import ca.qc.ircm.rnapolymerasepauses.test.data.SyntheticData.Density;
+import ca.qc.ircm.rnapolymerasepauses.test.data.SyntheticData.Genome;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Converts a synthetic BED file of a whole genome to a track file.
+ * <p>
+ * Use <code>-p genome=FLY,HUMAN</code> for larger genomes. Generated files are kept between runs.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+public class BedConverterBenchmark {
+  @Param({ "YEAST" })
+  public Genome genome;
+  @Param({ "SPARSE", "DENSE" })
+  public Density density;
+  @Param({ "TEXT", "BINARY" })
+  public TrackFormat format;
+  @Param({ "1", "4" })
+  public int threads;
+  private BedConverter bedConverter =
+      new BedConverter(new ChromosomeSizesParser(), new TssParser());
+  private BedToTrackCommand parameters = new BedToTrackCommand();
+
+  /**
+   * Generates BED file.
+   */
+  @Setup
+  public void generateBed() throws IOException {
+    SyntheticData data = new SyntheticData();
+    parameters.chromosomeSizes = data.chromosomeSizes(genome);
+    parameters.input = data.bed(genome, density);
+    parameters.output = Files.createTempFile("track", ".txt");
+    parameters.format = format;
+    parameters.threads = threads;
+  }
+
+  /**
+   * Deletes track file.
+   */
+  @TearDown
+  public void deleteTrack() throws IOException {
+    Files.delete(parameters.output);
+  }
+
+  @Benchmark
+  public long bedToTrack() throws IOException {
+    bedConverter.bedToTrack(parameters);
+    return Files.size(parameters.output);
+  }
+}
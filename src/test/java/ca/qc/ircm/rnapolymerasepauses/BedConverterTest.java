@@ -1,16 +1,25 @@
 package ca.qc.ircm.rnapolymerasepauses;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.Matchers.any;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import ca.qc.ircm.rnapolymerasepauses.io.BinaryTrack;
 import ca.qc.ircm.rnapolymerasepauses.io.ChromosomeSizesParser;
+import ca.qc.ircm.rnapolymerasepauses.io.PauseReader;
+import ca.qc.ircm.rnapolymerasepauses.io.TrackFormat;
+import ca.qc.ircm.rnapolymerasepauses.io.TssParser;
 import ca.qc.ircm.rnapolymerasepauses.test.config.NonTransactionalTestAnnotations;
 import java.io.BufferedReader;
 import java.io.BufferedWriter;
+import java.io.IOException;
 import java.io.StringReader;
 import java.io.StringWriter;
+import java.nio.FloatBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
@@ -23,7 +32,9 @@ import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 import org.apache.commons.lang3.RandomStringUtils;
 import org.junit.Before;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 import org.junit.runner.RunWith;
 import org.mockito.Mock;
 import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
@@ -40,23 +51,30 @@ public class BedConverterTest {
   private static final int MAX_SPACE_BETWEEN_DATA = 100;
   private static final String SEPARATOR = "\t";
   private static final double DELTA = 0.000000001;
+  private static final double FLOAT_DELTA = 0.000001;
   private BedConverter bedConverter;
   @Mock
   private ChromosomeSizesParser chromosomeSizesParser;
   @Mock
+  private TssParser tssParser;
+  @Mock
   private BedToTrackCommand parameters;
+  @Mock
+  private BedToPausesCommand pausesParameters;
   private Map<String, Long> sizes;
   private Map<String, List<BedData>> datas;
   private String content;
   private Path chromosomeSizes = Paths.get("chromosomeSizes.txt");
   private Random random;
+  @Rule
+  public TemporaryFolder temporaryFolder = new TemporaryFolder();
 
   /**
    * Before test.
    */
   @Before
   public void beforeTest() throws Throwable {
-    bedConverter = new BedConverter(chromosomeSizesParser);
+    bedConverter = new BedConverter(chromosomeSizesParser, tssParser);
     parameters.chromosomeSizes = chromosomeSizes;
     random = new Random();
     sizes = IntStream.range(0, CHROMOSOME_COUNT).collect(() -> new HashMap<>(),
@@ -135,6 +153,43 @@ public class BedConverterTest {
     }
   }
 
+  private String expandRuns(String trackContent) {
+    StringBuilder builder = new StringBuilder();
+    for (String line : trackContent.split(LINE_SEPARATOR)) {
+      String[] columns = line.split(SEPARATOR);
+      long count = columns.length > 1 ? Long.parseLong(columns[1]) : 1;
+      for (long i = 0; i < count; i++) {
+        builder.append(columns[0]);
+        builder.append(LINE_SEPARATOR);
+      }
+    }
+    return builder.toString();
+  }
+
+  private void assertBinaryTrackContent(Path file) throws Throwable {
+    try (BinaryTrack track = new BinaryTrack(file)) {
+      assertEquals(new ArrayList<>(sizes.keySet()), track.chromosomes());
+      for (String chromosome : sizes.keySet()) {
+        assertEquals((long) sizes.get(chromosome), track.length(chromosome));
+        FloatBuffer values = track.values(chromosome);
+        List<BedData> datas = this.datas.get(chromosome);
+        int dataIndex = 0;
+        BedData data = datas.get(dataIndex++);
+        for (int position = 0; position < sizes.get(chromosome); position++) {
+          while (data != null && position >= data.end) {
+            data = dataIndex < datas.size() ? datas.get(dataIndex++) : null;
+          }
+          if (data == null || position < data.start) {
+            assertEquals(chromosome + ":" + position, 0.0, values.get(position), FLOAT_DELTA);
+          } else {
+            assertEquals(chromosome + ":" + position, data.score, values.get(position),
+                FLOAT_DELTA);
+          }
+        }
+      }
+    }
+  }
+
   @Test
   public void bedToTrack() throws Throwable {
     when(parameters.reader()).thenReturn(new BufferedReader(new StringReader(content)));
@@ -147,6 +202,20 @@ public class BedConverterTest {
     assertTrackContent(writer.toString());
   }
 
+  @Test
+  public void bedToTrack_ScoreText() throws Throwable {
+    sizes.clear();
+    sizes.put("chr1", 5L);
+    content = "chr1\t0\t2\tname1\t0.0\nchr1\t2\t3\tname2\t5\n";
+    when(parameters.reader()).thenReturn(new BufferedReader(new StringReader(content)));
+    StringWriter writer = new StringWriter();
+    when(parameters.writer()).thenReturn(new BufferedWriter(writer));
+
+    bedConverter.bedToTrack(parameters);
+
+    assertEquals("chrom=chr1\n0.0\n0.0\n5.0\n0\n0\n", writer.toString());
+  }
+
   @Test
   public void bedToTrack_NoName() throws Throwable {
     writeBedDatas(false);
@@ -214,6 +283,238 @@ public class BedConverterTest {
     assertTrackContent(writer.toString());
   }
 
+  @Test
+  public void bedToTrack_Rle() throws Throwable {
+    parameters.format = TrackFormat.RLE;
+    when(parameters.reader()).thenReturn(new BufferedReader(new StringReader(content)));
+    StringWriter writer = new StringWriter();
+    when(parameters.writer()).thenReturn(new BufferedWriter(writer));
+
+    bedConverter.bedToTrack(parameters);
+
+    verify(chromosomeSizesParser).chromosomeSizes(chromosomeSizes);
+    String trackContent = expandRuns(writer.toString());
+    assertTrackContent(trackContent);
+    assertTrue(writer.toString().length() < trackContent.length());
+  }
+
+  @Test
+  public void bedToTrack_Threads() throws Throwable {
+    Path input = temporaryFolder.getRoot().toPath().resolve("input.txt");
+    Files.write(input, content.getBytes(StandardCharsets.UTF_8));
+    parameters.input = input;
+    parameters.threads = 4;
+    StringWriter writer = new StringWriter();
+    when(parameters.writer()).thenReturn(new BufferedWriter(writer));
+
+    bedConverter.bedToTrack(parameters);
+
+    verify(chromosomeSizesParser).chromosomeSizes(chromosomeSizes);
+    assertTrackContent(writer.toString());
+  }
+
+  @Test
+  public void bedToTrack_ThreadsBinary() throws Throwable {
+    Path input = temporaryFolder.getRoot().toPath().resolve("input.txt");
+    Files.write(input, content.getBytes(StandardCharsets.UTF_8));
+    parameters.input = input;
+    parameters.threads = 4;
+    parameters.format = TrackFormat.BINARY;
+    Path output = temporaryFolder.getRoot().toPath().resolve("track.bin");
+    when(parameters.outputStream()).thenReturn(Files.newOutputStream(output));
+
+    bedConverter.bedToTrack(parameters);
+
+    verify(chromosomeSizesParser).chromosomeSizes(chromosomeSizes);
+    assertBinaryTrackContent(output);
+  }
+
+  @Test
+  public void bedToTrack_Binary() throws Throwable {
+    parameters.format = TrackFormat.BINARY;
+    when(parameters.reader()).thenReturn(new BufferedReader(new StringReader(content)));
+    Path output = temporaryFolder.getRoot().toPath().resolve("track.bin");
+    when(parameters.outputStream()).thenReturn(Files.newOutputStream(output));
+
+    bedConverter.bedToTrack(parameters);
+
+    verify(chromosomeSizesParser).chromosomeSizes(chromosomeSizes);
+    assertBinaryTrackContent(output);
+  }
+
+  @Test
+  public void bedToTrack_StrandPair() throws Throwable {
+    parameters.minusInput = Paths.get("minus.txt");
+    parameters.minusOutput = Paths.get("minus-track.txt");
+    when(parameters.reader()).thenReturn(new BufferedReader(new StringReader(content)));
+    when(parameters.minusReader()).thenReturn(new BufferedReader(new StringReader(content)));
+    StringWriter writer = new StringWriter();
+    when(parameters.writer()).thenReturn(new BufferedWriter(writer));
+    StringWriter minusWriter = new StringWriter();
+    when(parameters.minusWriter()).thenReturn(new BufferedWriter(minusWriter));
+
+    bedConverter.bedToTrack(parameters);
+
+    verify(chromosomeSizesParser).chromosomeSizes(chromosomeSizes);
+    assertTrackContent(writer.toString());
+    assertTrackContent(minusWriter.toString());
+  }
+
+  @Test
+  public void bedToTrack_StrandPairThreads() throws Throwable {
+    Path input = temporaryFolder.getRoot().toPath().resolve("input.txt");
+    Files.write(input, content.getBytes(StandardCharsets.UTF_8));
+    Path minusInput = temporaryFolder.getRoot().toPath().resolve("minus.txt");
+    Files.write(minusInput, content.getBytes(StandardCharsets.UTF_8));
+    parameters.input = input;
+    parameters.minusInput = minusInput;
+    parameters.minusOutput = Paths.get("minus-track.txt");
+    parameters.threads = 4;
+    StringWriter writer = new StringWriter();
+    when(parameters.writer()).thenReturn(new BufferedWriter(writer));
+    StringWriter minusWriter = new StringWriter();
+    when(parameters.minusWriter()).thenReturn(new BufferedWriter(minusWriter));
+
+    bedConverter.bedToTrack(parameters);
+
+    verify(chromosomeSizesParser).chromosomeSizes(chromosomeSizes);
+    assertTrackContent(writer.toString());
+    assertTrackContent(minusWriter.toString());
+  }
+
+  @Test
+  public void bedToTrack_StrandPairBinary() throws Throwable {
+    parameters.format = TrackFormat.BINARY;
+    parameters.minusInput = Paths.get("minus.txt");
+    parameters.minusOutput = Paths.get("minus-track.bin");
+    when(parameters.reader()).thenReturn(new BufferedReader(new StringReader(content)));
+    when(parameters.minusReader()).thenReturn(new BufferedReader(new StringReader(content)));
+    Path output = temporaryFolder.getRoot().toPath().resolve("track.bin");
+    when(parameters.outputStream()).thenReturn(Files.newOutputStream(output));
+    Path minusOutput = temporaryFolder.getRoot().toPath().resolve("minus-track.bin");
+    when(parameters.minusOutputStream()).thenReturn(Files.newOutputStream(minusOutput));
+
+    bedConverter.bedToTrack(parameters);
+
+    verify(chromosomeSizesParser).chromosomeSizes(chromosomeSizes);
+    assertBinaryTrackContent(output);
+    assertBinaryTrackContent(minusOutput);
+  }
+
+  @Test(expected = IOException.class)
+  public void bedToTrack_StrandPairNoMinusOutput() throws Throwable {
+    parameters.minusInput = Paths.get("minus.txt");
+
+    bedConverter.bedToTrack(parameters);
+  }
+
+  private Gene gene(String name, String chromosome, long start, long end, String strand) {
+    Gene gene = new Gene();
+    gene.name = name;
+    gene.chromosome = chromosome;
+    gene.start = start;
+    gene.end = end;
+    gene.strand = strand;
+    return gene;
+  }
+
+  private List<Pause> bedToPauses(String bed) throws Throwable {
+    pausesParameters.tss = Paths.get("tss.txt");
+    when(tssParser.genes(any())).thenReturn(Arrays.asList(gene("gene1", "chr1", 100, 600, "+"),
+        gene("gene2", "chr1", 400, 900, "-"), gene("gene3", "chr2", 100, 600, "+")));
+    when(pausesParameters.reader()).thenReturn(new BufferedReader(new StringReader(bed)));
+    StringWriter output = new StringWriter();
+    when(pausesParameters.writer()).thenReturn(new BufferedWriter(output));
+
+    bedConverter.bedToPauses(pausesParameters);
+
+    verify(tssParser).genes(pausesParameters.tss);
+    List<Pause> pauses = new ArrayList<>();
+    try (PauseReader reader =
+        new PauseReader(new BufferedReader(new StringReader(output.toString())))) {
+      Pause pause;
+      while ((pause = reader.readPause()) != null) {
+        pauses.add(pause);
+      }
+    }
+    return pauses;
+  }
+
+  private void assertPause(Pause pause, String name, String chromosome, int position,
+      double foldsAboveAverage) {
+    assertEquals(name, pause.name);
+    assertEquals(chromosome, pause.chromosome);
+    assertEquals(position, pause.position);
+    assertEquals(foldsAboveAverage, pause.foldsAboveAverage, DELTA);
+    assertEquals(0, pause.normalizedReads, DELTA);
+    assertEquals(0, pause.beginningReads, DELTA);
+  }
+
+  @Test
+  public void bedToPauses() throws Throwable {
+    List<Pause> pauses = bedToPauses("track name=pauses\n" + "chr1\t150\t151\tp1\t2.5\t+\n"
+        + "chr1\t450\t451\tp2\t3.5\t-\n" + "chr2\t600\t601\tp3\t4.5\t+\n");
+
+    assertEquals(3, pauses.size());
+    assertPause(pauses.get(0), "gene1", "chr1", 50, 2.5);
+    assertPause(pauses.get(1), "gene2", "chr1", 50, 3.5);
+    assertPause(pauses.get(2), "gene3", "chr2", 500, 4.5);
+  }
+
+  @Test
+  public void bedToPauses_NoStrand() throws Throwable {
+    List<Pause> pauses = bedToPauses("chr1\t450\t451\tp1\t2.5\n");
+
+    assertEquals(2, pauses.size());
+    assertPause(pauses.get(0), "gene1", "chr1", 350, 2.5);
+    assertPause(pauses.get(1), "gene2", "chr1", 50, 2.5);
+  }
+
+  @Test
+  public void bedToPauses_IgnoreStrand() throws Throwable {
+    pausesParameters.ignoreStrand = true;
+
+    List<Pause> pauses = bedToPauses("chr1\t450\t451\tp1\t2.5\t-\n");
+
+    assertEquals(2, pauses.size());
+    assertPause(pauses.get(0), "gene1", "chr1", 350, 2.5);
+    assertPause(pauses.get(1), "gene2", "chr1", 50, 2.5);
+  }
+
+  @Test
+  public void bedToPauses_GeneName() throws Throwable {
+    List<Pause> pauses = bedToPauses("chr1\t450\t451\tgene2\t2.5\n");
+
+    assertEquals(1, pauses.size());
+    assertPause(pauses.get(0), "gene2", "chr1", 50, 2.5);
+  }
+
+  @Test
+  public void bedToPauses_NoScore() throws Throwable {
+    List<Pause> pauses = bedToPauses("chr2\t100\t101\n");
+
+    assertEquals(1, pauses.size());
+    assertPause(pauses.get(0), "gene3", "chr2", 0, 0);
+  }
+
+  @Test
+  public void bedToPauses_NoGene() throws Throwable {
+    List<Pause> pauses = bedToPauses("# comment\n" + "chr1\t50\t51\tp1\t2.5\n"
+        + "chr1\t950\t951\tp2\t2.5\t.\n" + "chr3\t150\t151\n");
+
+    assertEquals(0, pauses.size());
+  }
+
+  @Test
+  public void bedToPauses_PausesToBed() throws Throwable {
+    List<Pause> pauses = bedToPauses("chr1\t450\t451\tgene1\t1.25\n"
+        + "chr1\t900\t901\tgene2\t3.0\n");
+
+    assertEquals(2, pauses.size());
+    assertPause(pauses.get(0), "gene1", "chr1", 350, 1.25);
+    assertPause(pauses.get(1), "gene2", "chr1", 500, 3.0);
+  }
+
   private static class BedData {
     String chromosome;
     long start;
@@ -0,0 +1,168 @@
+package ca.qc.ircm.rnapolymerasepauses;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import ca.qc.ircm.rnapolymerasepauses.test.config.NonTransactionalTestAnnotations;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+
+@RunWith(SpringJUnit4ClassRunner.class)
+@NonTransactionalTestAnnotations
+public class CommandServerTest {
+  private static final long TIMEOUT = 10;
+  @Rule
+  public TemporaryFolder temporaryFolder = new TemporaryFolder();
+  private CommandServer server;
+  private Path tokenFile;
+  private Future<?> running;
+  private ExecutorService executorService = Executors.newSingleThreadExecutor();
+  private List<String[]> commands = new CopyOnWriteArrayList<>();
+  private Predicate<String[]> executor = args -> {
+    commands.add(args);
+    if (args[0].equals("exception")) {
+      throw new IllegalStateException("test");
+    }
+    return !args[0].equals("fail");
+  };
+
+  /**
+   * Before test.
+   */
+  @Before
+  public void beforeTest() throws Throwable {
+    tokenFile = temporaryFolder.getRoot().toPath().resolve("server.token");
+    server = new CommandServer(0, 2, tokenFile, executor);
+    running = executorService.submit(() -> {
+      server.run();
+      return null;
+    });
+  }
+
+  @After
+  public void afterTest() {
+    server.close();
+    executorService.shutdownNow();
+  }
+
+  @Test
+  public void send() throws Throwable {
+    assertTrue(
+        CommandServer.send(server.port(), tokenFile, "maxima", "-i", "input.txt", "-w", "5"));
+    assertEquals(1, commands.size());
+    assertArrayEquals(new String[] { "maxima", "-i", "input.txt", "-w", "5" }, commands.get(0));
+  }
+
+  @Test
+  public void tokenFile() throws Throwable {
+    assertTrue(Files.exists(tokenFile));
+    assertEquals("rw-------",
+        PosixFilePermissions.toString(Files.getPosixFilePermissions(tokenFile)));
+    List<String> lines = Files.readAllLines(tokenFile);
+    assertEquals(1, lines.size());
+    assertFalse(lines.get(0).isEmpty());
+  }
+
+  @Test
+  public void tokenFile_Replaced() throws Throwable {
+    Path tokenFile = temporaryFolder.getRoot().toPath().resolve("other.token");
+    Files.write(tokenFile, "old\n".getBytes());
+    try (CommandServer other = new CommandServer(0, 1, tokenFile, executor)) {
+      assertFalse(Files.readAllLines(tokenFile).get(0).equals("old"));
+      assertEquals("rw-------",
+          PosixFilePermissions.toString(Files.getPosixFilePermissions(tokenFile)));
+    }
+    assertFalse(Files.exists(tokenFile));
+  }
+
+  @Test
+  public void send_InvalidToken() throws Throwable {
+    Path invalidTokenFile = temporaryFolder.getRoot().toPath().resolve("invalid.token");
+    Files.write(invalidTokenFile, "invalid\n".getBytes());
+    assertFalse(CommandServer.send(server.port(), invalidTokenFile, "maxima"));
+    assertTrue(commands.isEmpty());
+  }
+
+  @Test
+  public void send_EmptyToken() throws Throwable {
+    Path invalidTokenFile = temporaryFolder.getRoot().toPath().resolve("invalid.token");
+    Files.createFile(invalidTokenFile);
+    assertFalse(CommandServer.send(server.port(), invalidTokenFile, "maxima"));
+    assertTrue(commands.isEmpty());
+  }
+
+  @Test
+  public void send_Many() throws Throwable {
+    for (int i = 0; i < 10; i++) {
+      assertTrue(CommandServer.send(server.port(), tokenFile, "maxima", String.valueOf(i)));
+    }
+    assertEquals(10, commands.size());
+    for (int i = 0; i < 10; i++) {
+      assertArrayEquals(new String[] { "maxima", String.valueOf(i) }, commands.get(i));
+    }
+  }
+
+  @Test
+  public void send_Failed() throws Throwable {
+    assertFalse(CommandServer.send(server.port(), tokenFile, "fail"));
+    assertTrue(CommandServer.send(server.port(), tokenFile, "maxima"));
+    assertEquals(2, commands.size());
+  }
+
+  @Test
+  public void send_Exception() throws Throwable {
+    assertFalse(CommandServer.send(server.port(), tokenFile, "exception"));
+    assertTrue(CommandServer.send(server.port(), tokenFile, "maxima"));
+    assertEquals(2, commands.size());
+  }
+
+  @Test
+  public void send_Empty() throws Throwable {
+    assertFalse(CommandServer.send(server.port(), tokenFile));
+    assertTrue(commands.isEmpty());
+  }
+
+  @Test
+  public void send_Serve() throws Throwable {
+    assertFalse(CommandServer.send(server.port(), tokenFile, ServeCommand.COMMAND));
+    assertTrue(CommandServer.send(server.port(), tokenFile, "maxima"));
+    assertEquals(1, commands.size());
+  }
+
+  @Test
+  public void send_Stop() throws Throwable {
+    assertTrue(
+        CommandServer.send(server.port(), tokenFile, ServeCommand.COMMAND, ServeCommand.STOP));
+    running.get(TIMEOUT, TimeUnit.SECONDS);
+    assertTrue(commands.isEmpty());
+    assertFalse(Files.exists(tokenFile));
+  }
+
+  @Test(expected = IOException.class)
+  public void send_Closed() throws Throwable {
+    Path copy = temporaryFolder.getRoot().toPath().resolve("copy.token");
+    Files.copy(tokenFile, copy, StandardCopyOption.REPLACE_EXISTING);
+    server.close();
+    running.get(TIMEOUT, TimeUnit.SECONDS);
+    CommandServer.send(server.port(), copy, "maxima");
+  }
+}
@@ -0,0 +1,381 @@
+package ca.qc.ircm.rnapolymerasepauses;
+
+import static ca.qc.ircm.rnapolymerasepauses.test.data.TrackData.binaryTrack;
+import static ca.qc.ircm.rnapolymerasepauses.test.data.TrackData.gene;
+import static ca.qc.ircm.rnapolymerasepauses.test.data.TrackData.lines;
+import static ca.qc.ircm.rnapolymerasepauses.test.data.TrackData.reader;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import ca.qc.ircm.rnapolymerasepauses.io.TrackFormat;
+import ca.qc.ircm.rnapolymerasepauses.io.TssParser;
+import ca.qc.ircm.rnapolymerasepauses.test.config.NonTransactionalTestAnnotations;
+import java.io.BufferedWriter;
+import java.io.StringWriter;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+
+@RunWith(SpringJUnit4ClassRunner.class)
+@NonTransactionalTestAnnotations
+public class CorrelatorTest {
+  private static final int CHROMOSOME_LENGTH = 700;
+  private static final int GENE_LENGTH = 601;
+  private static final double DELTA = 0.000001;
+  private Correlator correlator;
+  @Mock
+  private TssParser tssParser;
+  @Mock
+  private CorrelateCommand parameters;
+  private List<Gene> genes = new ArrayList<>();
+  private double[] plus1 = new double[CHROMOSOME_LENGTH];
+  private double[] minus1 = new double[CHROMOSOME_LENGTH];
+  private double[] plus2 = new double[CHROMOSOME_LENGTH];
+  private double[] minus2 = new double[CHROMOSOME_LENGTH];
+  private StringWriter output = new StringWriter();
+  @Rule
+  public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  /**
+   * Before test.
+   */
+  @Before
+  public void beforeTest() throws Throwable {
+    correlator = new Correlator(tssParser);
+    parameters.tss = Paths.get("tss.txt");
+    parameters.threads = 2;
+    for (int i = 0; i < CHROMOSOME_LENGTH; i++) {
+      plus1[i] = i % 7;
+      plus2[i] = 2 * (i % 7) + 1;
+      minus1[i] = i;
+      minus2[i] = CHROMOSOME_LENGTH - i;
+    }
+    when(tssParser.genes(any())).thenReturn(genes);
+    when(parameters.writer()).thenReturn(new BufferedWriter(output));
+  }
+
+  private void textTracks(String... chromosomes) throws Throwable {
+    when(parameters.plus1Reader()).thenReturn(reader(plus1, chromosomes));
+    when(parameters.minus1Reader()).thenReturn(reader(minus1, chromosomes));
+    when(parameters.plus2Reader()).thenReturn(reader(plus2, chromosomes));
+    when(parameters.minus2Reader()).thenReturn(reader(minus2, chromosomes));
+  }
+
+  private double endReads(double[] values, int end) {
+    double sum = 0;
+    for (int i = end - 500; i < end; i++) {
+      sum += values[i];
+    }
+    return sum / 500;
+  }
+
+  @Test
+  public void correlate() throws Throwable {
+    gene(genes, "gene1", "chr1", 1, GENE_LENGTH, "+");
+    gene(genes, "gene2", "chr1", 51, 50 + GENE_LENGTH, "-");
+    textTracks("chr1");
+
+    correlator.correlate(parameters);
+
+    verify(tssParser).genes(parameters.tss);
+    String[][] lines = lines(output);
+    assertEquals(2, lines.length);
+    assertEquals(5, lines[0].length);
+    assertEquals("gene1", lines[0][0]);
+    assertEquals(1.0, Double.parseDouble(lines[0][1]), DELTA);
+    assertEquals(1.0, Double.parseDouble(lines[0][2]), DELTA);
+    assertEquals(endReads(plus1, GENE_LENGTH), Double.parseDouble(lines[0][3]), DELTA);
+    assertEquals(endReads(plus2, GENE_LENGTH), Double.parseDouble(lines[0][4]), DELTA);
+    assertEquals(5, lines[1].length);
+    assertEquals("gene2", lines[1][0]);
+    assertEquals(-1.0, Double.parseDouble(lines[1][1]), DELTA);
+    assertEquals(-1.0, Double.parseDouble(lines[1][2]), DELTA);
+    assertEquals(endReads(minus1, 50 + 500), Double.parseDouble(lines[1][3]), DELTA);
+    assertEquals(endReads(minus2, 50 + 500), Double.parseDouble(lines[1][4]), DELTA);
+  }
+
+  @Test
+  public void correlate_MinusStrand() throws Throwable {
+    gene(genes, "gene1", "chr1", 1, GENE_LENGTH, "-");
+    for (int i = 0; i < CHROMOSOME_LENGTH; i++) {
+      minus1[i] = i < 500 ? 1 + i % 3 : 0;
+      minus2[i] = i < 500 ? 2 * (i % 3) : 0;
+    }
+    textTracks("chr1");
+
+    correlator.correlate(parameters);
+
+    String[][] lines = lines(output);
+    assertEquals(1, lines.length);
+    assertEquals("gene1", lines[0][0]);
+    assertEquals(1.0, Double.parseDouble(lines[0][1]), DELTA);
+    assertEquals(1.0, Double.parseDouble(lines[0][2]), DELTA);
+    assertEquals(endReads(minus1, 500), Double.parseDouble(lines[0][3]), DELTA);
+    assertEquals(endReads(minus2, 500), Double.parseDouble(lines[0][4]), DELTA);
+  }
+
+  @Test
+  public void correlate_TssOrder() throws Throwable {
+    gene(genes, "gene2", "chr2", 51, 50 + GENE_LENGTH, "-");
+    gene(genes, "gene1", "chr1", 1, GENE_LENGTH, "+");
+    gene(genes, "gene3", "chr1", 1, GENE_LENGTH, "-");
+    textTracks("chr1", "chr2");
+
+    correlator.correlate(parameters);
+
+    String[][] lines = lines(output);
+    assertEquals(3, lines.length);
+    assertEquals("gene2", lines[0][0]);
+    assertEquals("gene1", lines[1][0]);
+    assertEquals("gene3", lines[2][0]);
+  }
+
+  @Test
+  public void correlate_ShortGene() throws Throwable {
+    gene(genes, "gene1", "chr1", 1, 501, "+");
+    gene(genes, "gene2", "chr1", 1, 502, "+");
+    textTracks("chr1");
+
+    correlator.correlate(parameters);
+
+    String[][] lines = lines(output);
+    assertEquals(1, lines.length);
+    assertEquals("gene2", lines[0][0]);
+  }
+
+  @Test
+  public void correlate_MissingChromosome() throws Throwable {
+    gene(genes, "gene1", "chr1", 1, GENE_LENGTH, "+");
+    gene(genes, "gene2", "chr2", 1, GENE_LENGTH, "+");
+    textTracks("chr1");
+
+    correlator.correlate(parameters);
+
+    String[][] lines = lines(output);
+    assertEquals(1, lines.length);
+    assertEquals("gene1", lines[0][0]);
+  }
+
+  @Test
+  public void correlate_Constant() throws Throwable {
+    gene(genes, "gene1", "chr1", 1, GENE_LENGTH, "+");
+    plus2 = new double[CHROMOSOME_LENGTH];
+    textTracks("chr1");
+
+    correlator.correlate(parameters);
+
+    String[][] lines = lines(output);
+    assertEquals(1, lines.length);
+    assertEquals("NaN", lines[0][1]);
+    assertEquals("NaN", lines[0][2]);
+    assertEquals("0", lines[0][4]);
+  }
+
+  @Test
+  public void correlate_GeneBeyondChromosomeEnd() throws Throwable {
+    gene(genes, "gene1", "chr1", 201, 200 + GENE_LENGTH, "+");
+    textTracks("chr1");
+
+    correlator.correlate(parameters);
+
+    String[][] lines = lines(output);
+    assertEquals(1, lines.length);
+    assertEquals(1.0, Double.parseDouble(lines[0][1]), DELTA);
+    assertEquals(endReads(plus1, CHROMOSOME_LENGTH), Double.parseDouble(lines[0][3]), DELTA);
+  }
+
+  @Test
+  public void correlate_Binary() throws Throwable {
+    gene(genes, "gene1", "chr1", 1, GENE_LENGTH, "+");
+    gene(genes, "gene2", "chr1", 51, 50 + GENE_LENGTH, "-");
+    parameters.format = TrackFormat.BINARY;
+    parameters.plus1 = binaryTrack(temporaryFolder, "plus1.bin", plus1);
+    parameters.minus1 = binaryTrack(temporaryFolder, "minus1.bin", minus1);
+    parameters.plus2 = binaryTrack(temporaryFolder, "plus2.bin", plus2);
+    parameters.minus2 = binaryTrack(temporaryFolder, "minus2.bin", minus2);
+
+    correlator.correlate(parameters);
+
+    String[][] lines = lines(output);
+    assertEquals(2, lines.length);
+    assertEquals("gene1", lines[0][0]);
+    assertEquals(1.0, Double.parseDouble(lines[0][1]), DELTA);
+    assertEquals(1.0, Double.parseDouble(lines[0][2]), DELTA);
+    assertEquals("gene2", lines[1][0]);
+    assertEquals(-1.0, Double.parseDouble(lines[1][1]), DELTA);
+    assertEquals(-1.0, Double.parseDouble(lines[1][2]), DELTA);
+    assertEquals(endReads(minus1, 50 + 500), Double.parseDouble(lines[1][3]), DELTA);
+  }
+
+  @Test
+  public void correlate_ManyGenes() throws Throwable {
+    Random random = new Random();
+    for (int i = 0; i < CHROMOSOME_LENGTH; i++) {
+      plus1[i] = random.nextInt(10);
+      plus2[i] = random.nextInt(10);
+    }
+    for (int i = 0; i < 100; i++) {
+      gene(genes, "gene" + i, "chr1", 1 + i, i + GENE_LENGTH - 10, "+");
+    }
+    textTracks("chr1");
+
+    correlator.correlate(parameters);
+
+    String[][] lines = lines(output);
+    assertEquals(100, lines.length);
+    for (int i = 0; i < 100; i++) {
+      assertEquals("gene" + i, lines[i][0]);
+      double[] reads1 = new double[GENE_LENGTH - 10];
+      double[] reads2 = new double[GENE_LENGTH - 10];
+      System.arraycopy(plus1, i, reads1, 0, reads1.length);
+      System.arraycopy(plus2, i, reads2, 0, reads2.length);
+      Correlator.Correlation correlation = Correlator.correlation(reads1, reads2);
+      assertEquals(correlation.pearson, Double.parseDouble(lines[i][1]), DELTA);
+      assertEquals(correlation.spearman, Double.parseDouble(lines[i][2]), DELTA);
+    }
+  }
+
+  @Test
+  public void correlate_ManyPendingGenes() throws Throwable {
+    for (int i = 0; i < 1000; i++) {
+      gene(genes, "gene" + i, "chr1", 1, GENE_LENGTH, i % 2 == 0 ? "+" : "-");
+    }
+    textTracks("chr1");
+
+    correlator.correlate(parameters);
+
+    String[][] lines = lines(output);
+    assertEquals(1000, lines.length);
+    for (int i = 0; i < 1000; i++) {
+      assertEquals("gene" + i, lines[i][0]);
+      assertEquals(i % 2 == 0 ? 1.0 : -1.0, Double.parseDouble(lines[i][1]), DELTA);
+    }
+  }
+
+  @Test
+  public void correlate_ChromosomeOrder() throws Throwable {
+    for (int i = 0; i < 1000; i++) {
+      gene(genes, "gene" + i, i % 2 == 0 ? "chr1" : "chr2", 1, GENE_LENGTH, "+");
+    }
+    when(parameters.plus1Reader()).thenReturn(reader(plus1, "chr1", "chr2"));
+    when(parameters.minus1Reader()).thenReturn(reader(minus1, "chr1", "chr2"));
+    when(parameters.plus2Reader()).thenReturn(reader(plus2, "chr2", "chr1"));
+    when(parameters.minus2Reader()).thenReturn(reader(minus2, "chr2", "chr1"));
+
+    correlator.correlate(parameters);
+
+    String[][] lines = lines(output);
+    assertEquals(1000, lines.length);
+    for (int i = 0; i < 1000; i++) {
+      assertEquals("gene" + i, lines[i][0]);
+      assertEquals(1.0, Double.parseDouble(lines[i][1]), DELTA);
+    }
+  }
+
+  @Test
+  public void correlate_MissingChromosomeInOneSample() throws Throwable {
+    for (int i = 0; i < 1000; i++) {
+      gene(genes, "gene" + i, i % 2 == 0 ? "chr1" : "chr2", 1, GENE_LENGTH, "+");
+    }
+    when(parameters.plus1Reader()).thenReturn(reader(plus1, "chr2", "chr1"));
+    when(parameters.minus1Reader()).thenReturn(reader(minus1, "chr1"));
+    when(parameters.plus2Reader()).thenReturn(reader(plus2, "chr1"));
+    when(parameters.minus2Reader()).thenReturn(reader(minus2, "chr1"));
+
+    correlator.correlate(parameters);
+
+    String[][] lines = lines(output);
+    assertEquals(500, lines.length);
+    for (int i = 0; i < 500; i++) {
+      assertEquals("gene" + (i * 2), lines[i][0]);
+    }
+  }
+
+  @Test
+  public void pearson() {
+    Random random = new Random();
+    double[] x = new double[1000];
+    double[] y = new double[1000];
+    for (int i = 0; i < x.length; i++) {
+      x[i] = random.nextInt(20);
+      y[i] = x[i] * 0.5 + random.nextInt(10);
+    }
+    double meanX = 0;
+    double meanY = 0;
+    for (int i = 0; i < x.length; i++) {
+      meanX += x[i] / x.length;
+      meanY += y[i] / y.length;
+    }
+    double covariance = 0;
+    double varianceX = 0;
+    double varianceY = 0;
+    for (int i = 0; i < x.length; i++) {
+      covariance += (x[i] - meanX) * (y[i] - meanY);
+      varianceX += (x[i] - meanX) * (x[i] - meanX);
+      varianceY += (y[i] - meanY) * (y[i] - meanY);
+    }
+
+    double pearson = Correlator.pearson(x, y, x.length);
+
+    assertEquals(covariance / Math.sqrt(varianceX * varianceY), pearson, DELTA);
+  }
+
+  @Test
+  public void pearson_Length() {
+    double[] x = { 1, 2, 3, 10 };
+    double[] y = { 2, 4, 6, 0 };
+
+    assertEquals(1.0, Correlator.pearson(x, y, 3), DELTA);
+  }
+
+  @Test
+  public void pearson_Constant() {
+    double[] x = { 1, 2, 3 };
+    double[] y = { 2, 2, 2 };
+
+    assertEquals(Double.NaN, Correlator.pearson(x, y, 3), DELTA);
+  }
+
+  @Test
+  public void ranks() {
+    double[] values = { 3, 1, 3, 2, 3 };
+
+    double[] ranks = Correlator.ranks(values, values.length);
+
+    assertArrayEquals(new double[] { 4, 1, 4, 2, 4 }, ranks, DELTA);
+  }
+
+  @Test
+  public void ranks_Length() {
+    double[] values = { 3, 1, 3, 0 };
+
+    double[] ranks = Correlator.ranks(values, 3);
+
+    assertArrayEquals(new double[] { 2.5, 1, 2.5 }, ranks, DELTA);
+  }
+
+  @Test
+  public void correlation() {
+    // Same as scipy.stats.spearmanr([1, 2, 3, 4, 5], [5, 6, 7, 8, 7]).
+    double[] reads1 = { 1, 2, 3, 4, 5 };
+    double[] reads2 = { 5, 6, 7, 8, 7 };
+
+    Correlator.Correlation correlation = Correlator.correlation(reads1, reads2);
+
+    assertEquals(0.8320502943378437, correlation.pearson, DELTA);
+    assertEquals(0.8207826816681233, correlation.spearman, DELTA);
+    assertEquals(15 / 500.0, correlation.reads1, DELTA);
+    assertEquals(33 / 500.0, correlation.reads2, DELTA);
+  }
+}
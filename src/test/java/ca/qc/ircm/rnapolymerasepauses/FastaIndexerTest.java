@@ -0,0 +1,181 @@
+package ca.qc.ircm.rnapolymerasepauses;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.when;
+
+import ca.qc.ircm.rnapolymerasepauses.test.config.NonTransactionalTestAnnotations;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Random;
+import java.util.zip.GZIPOutputStream;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+
+@RunWith(SpringJUnit4ClassRunner.class)
+@NonTransactionalTestAnnotations
+public class FastaIndexerTest {
+  private static final String LINE_SEPARATOR = "\n";
+  private FastaIndexer fastaIndexer;
+  @Mock
+  private FastaIndexCommand parameters;
+  private StringWriter output = new StringWriter();
+  @Rule
+  public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  /**
+   * Before test.
+   */
+  @Before
+  public void beforeTest() throws Throwable {
+    fastaIndexer = new FastaIndexer();
+    parameters.input = temporaryFolder.getRoot().toPath().resolve("genome.fa");
+    when(parameters.writer()).thenReturn(new BufferedWriter(output));
+  }
+
+  private void fasta(String content) throws IOException {
+    Files.write(parameters.input, content.getBytes(StandardCharsets.UTF_8));
+  }
+
+  @Test
+  public void index() throws Throwable {
+    fasta(">chr1 first chromosome\nACGTACGTAC\nACGTACGTAC\nACG\n>chr2\nAC\n");
+
+    fastaIndexer.index(parameters);
+
+    String[] lines = output.toString().split(LINE_SEPARATOR);
+    assertEquals(2, lines.length);
+    assertEquals("chr1\t23\t23\t10\t11", lines[0]);
+    assertEquals("chr2\t2\t55\t2\t3", lines[1]);
+  }
+
+  @Test
+  public void index_WindowsLineSeparator() throws Throwable {
+    fasta(">chr1\r\nACGT\r\nAC\r\n>chr2\tsecond\r\nACG\r\n");
+
+    fastaIndexer.index(parameters);
+
+    String[] lines = output.toString().split(LINE_SEPARATOR);
+    assertEquals(2, lines.length);
+    assertEquals("chr1\t6\t7\t4\t6", lines[0]);
+    assertEquals("chr2\t3\t31\t3\t5", lines[1]);
+  }
+
+  @Test
+  public void index_NoLastLineSeparator() throws Throwable {
+    fasta(">chr1\nACGT\nAC\n>chr2\nACGT\nACGT");
+
+    fastaIndexer.index(parameters);
+
+    String[] lines = output.toString().split(LINE_SEPARATOR);
+    assertEquals(2, lines.length);
+    assertEquals("chr1\t6\t6\t4\t5", lines[0]);
+    assertEquals("chr2\t8\t20\t4\t5", lines[1]);
+  }
+
+  @Test
+  public void index_SingleLineNoLineSeparator() throws Throwable {
+    fasta(">chr1\nACGT");
+
+    fastaIndexer.index(parameters);
+
+    assertEquals("chr1\t4\t6\t4\t5\n", output.toString());
+  }
+
+  @Test
+  public void index_EmptySequence() throws Throwable {
+    fasta(">chrM\n>chr1\nAC\n>chr2");
+
+    fastaIndexer.index(parameters);
+
+    String[] lines = output.toString().split(LINE_SEPARATOR);
+    assertEquals(3, lines.length);
+    assertEquals("chrM\t0\t6\t0\t0", lines[0]);
+    assertEquals("chr1\t2\t12\t2\t3", lines[1]);
+    assertEquals("chr2\t0\t20\t0\t0", lines[2]);
+  }
+
+  @Test
+  public void index_Empty() throws Throwable {
+    fasta("");
+
+    fastaIndexer.index(parameters);
+
+    assertEquals("", output.toString());
+  }
+
+  @Test(expected = IOException.class)
+  public void index_LongerLine() throws Throwable {
+    fasta(">chr1\nACG\nACGT\n");
+
+    fastaIndexer.index(parameters);
+  }
+
+  @Test(expected = IOException.class)
+  public void index_LineAfterShorterLine() throws Throwable {
+    fasta(">chr1\nACGT\nAC\nAC\n");
+
+    fastaIndexer.index(parameters);
+  }
+
+  @Test(expected = IOException.class)
+  public void index_Compressed() throws Throwable {
+    try (OutputStream output = new GZIPOutputStream(Files.newOutputStream(parameters.input))) {
+      output.write(">chr1\nACGT\n".getBytes(StandardCharsets.UTF_8));
+    }
+
+    fastaIndexer.index(parameters);
+  }
+
+  @Test
+  public void index_Random() throws Throwable {
+    Random random = new Random();
+    char[] bases = { 'A', 'C', 'G', 'T', 'N' };
+    int lineBases = 60;
+    StringBuilder content = new StringBuilder();
+    String[] sequences = new String[3];
+    for (int i = 0; i < sequences.length; i++) {
+      content.append(">chr" + (i + 1) + LINE_SEPARATOR);
+      StringBuilder sequence = new StringBuilder();
+      int length = 1000000 + random.nextInt(lineBases * 100);
+      for (int j = 0; j < length; j++) {
+        char base = bases[random.nextInt(bases.length)];
+        sequence.append(base);
+        content.append(base);
+        if (j % lineBases == lineBases - 1 || j == length - 1) {
+          content.append(LINE_SEPARATOR);
+        }
+      }
+      sequences[i] = sequence.toString();
+    }
+    fasta(content.toString());
+
+    fastaIndexer.index(parameters);
+
+    String[] lines = output.toString().split(LINE_SEPARATOR);
+    assertEquals(sequences.length, lines.length);
+    try (RandomAccessFile file = new RandomAccessFile(parameters.input.toFile(), "r")) {
+      for (int i = 0; i < sequences.length; i++) {
+        String[] columns = lines[i].split("\t");
+        assertEquals("chr" + (i + 1), columns[0]);
+        assertEquals(sequences[i].length(), Long.parseLong(columns[1]));
+        assertEquals(lineBases, Integer.parseInt(columns[3]));
+        assertEquals(lineBases + 1, Integer.parseInt(columns[4]));
+        // Reads bases at position 12345 using index, like samtools faidx.
+        long position = 12345;
+        file.seek(Long.parseLong(columns[2]) + position / lineBases * (lineBases + 1)
+            + position % lineBases);
+        assertEquals(sequences[i].charAt((int) position), (char) file.read());
+      }
+    }
+  }
+}
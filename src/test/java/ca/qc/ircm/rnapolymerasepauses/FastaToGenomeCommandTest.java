@@ -0,0 +1,114 @@
+package ca.qc.ircm.rnapolymerasepauses;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import ca.qc.ircm.rnapolymerasepauses.test.config.NonTransactionalTestAnnotations;
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+
+@RunWith(SpringJUnit4ClassRunner.class)
+@NonTransactionalTestAnnotations
+public class FastaToGenomeCommandTest {
+  private static final Charset CHARSET = StandardCharsets.UTF_8;
+  private final InputStream systemIn = System.in;
+  private final PrintStream systemOut = System.out;
+  private FastaToGenomeCommand command = new FastaToGenomeCommand();
+  @Rule
+  public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  @After
+  public void restoreSystemInputOutput() {
+    System.setIn(systemIn);
+    System.setOut(systemOut);
+  }
+
+  @Test
+  public void reader() throws Throwable {
+    Path file = temporaryFolder.newFile("file.txt").toPath();
+    Files.write(file,
+        IntStream.range(0, 2).mapToObj(i -> "test line " + i).collect(Collectors.toList()));
+    command.input = file;
+
+    List<String> lines = new ArrayList<>();
+    try (BufferedReader reader = command.reader()) {
+      String line;
+      while ((line = reader.readLine()) != null) {
+        lines.add(line);
+      }
+    }
+
+    assertEquals(2, lines.size());
+    assertEquals("test line 0", lines.get(0));
+    assertEquals("test line 1", lines.get(1));
+  }
+
+  @Test
+  public void reader_System() throws Throwable {
+    ByteArrayInputStream input =
+        new ByteArrayInputStream("test line 0\ntest line 1".getBytes(CHARSET));
+    System.setIn(input);
+
+    List<String> lines = new ArrayList<>();
+    try (BufferedReader reader = command.reader()) {
+      String line;
+      while ((line = reader.readLine()) != null) {
+        lines.add(line);
+      }
+    }
+
+    assertEquals(2, lines.size());
+    assertEquals("test line 0", lines.get(0));
+    assertEquals("test line 1", lines.get(1));
+  }
+
+  @Test
+  public void outputStream() throws Throwable {
+    Path file = temporaryFolder.newFile("file.bin").toPath();
+    command.output = file;
+
+    try (OutputStream output = command.outputStream()) {
+      output.write(new byte[] { 1, 2, 3 });
+    }
+
+    assertArrayEquals(new byte[] { 1, 2, 3 }, Files.readAllBytes(file));
+  }
+
+  @Test(expected = IOException.class)
+  public void outputStream_Compressed() throws Throwable {
+    command.output = temporaryFolder.getRoot().toPath().resolve("genome.bin.bgz");
+
+    command.outputStream();
+  }
+
+  @Test
+  public void outputStream_System() throws Throwable {
+    ByteArrayOutputStream output = new ByteArrayOutputStream();
+    System.setOut(new PrintStream(output));
+
+    try (OutputStream outputStream = command.outputStream()) {
+      outputStream.write(new byte[] { 1, 2, 3 });
+    }
+
+    assertArrayEquals(new byte[] { 1, 2, 3 }, output.toByteArray());
+  }
+}
@@ -0,0 +1,76 @@
+package ca.qc.ircm.rnapolymerasepauses;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures point queries of {@link GeneIndex} on a yeast-sized annotation.
+ * <p>
+ * Scores are in queries per second.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@OperationsPerInvocation(GeneIndexBenchmark.QUERIES_COUNT)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class GeneIndexBenchmark {
+  static final int QUERIES_COUNT = 100000;
+  private static final int GENES_COUNT = 7000;
+  private static final int CHROMOSOME_COUNT = 16;
+  private static final int CHROMOSOME_LENGTH = 1000000;
+  private static final int GENE_MAX_LENGTH = 3000;
+  private GeneIndex index;
+  private String[] chromosomes = new String[QUERIES_COUNT];
+  private String[] strands = new String[QUERIES_COUNT];
+  private long[] positions = new long[QUERIES_COUNT];
+  private int[] overlaps = new int[16];
+
+  /**
+   * Generates genes and queries.
+   */
+  @Setup
+  public void generateGenes() {
+    Random random = new Random(GENES_COUNT);
+    List<Gene> genes = new ArrayList<>();
+    for (int i = 0; i < GENES_COUNT; i++) {
+      Gene gene = new Gene();
+      gene.name = "gene" + i;
+      gene.chromosome = "chr" + (i % CHROMOSOME_COUNT + 1);
+      gene.start = random.nextInt(CHROMOSOME_LENGTH);
+      gene.end = gene.start + random.nextInt(GENE_MAX_LENGTH);
+      gene.strand = random.nextBoolean() ? Gene.PLUS_STRAND : Gene.MINUS_STRAND;
+      genes.add(gene);
+    }
+    index = new GeneIndex(genes);
+    for (int i = 0; i < QUERIES_COUNT; i++) {
+      chromosomes[i] = genes.get(random.nextInt(GENES_COUNT)).chromosome;
+      strands[i] = random.nextBoolean() ? Gene.PLUS_STRAND : Gene.MINUS_STRAND;
+      positions[i] = random.nextInt(CHROMOSOME_LENGTH);
+    }
+  }
+
+  @Benchmark
+  public int overlaps() {
+    int count = 0;
+    for (int i = 0; i < QUERIES_COUNT; i++) {
+      count += index.overlaps(chromosomes[i], strands[i], positions[i], overlaps);
+    }
+    return count;
+  }
+}
@@ -0,0 +1,145 @@
+package ca.qc.ircm.rnapolymerasepauses;
+
+import static org.junit.Assert.assertEquals;
+
+import ca.qc.ircm.rnapolymerasepauses.test.config.NonTransactionalTestAnnotations;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+
+@RunWith(SpringJUnit4ClassRunner.class)
+@NonTransactionalTestAnnotations
+public class GeneIndexTest {
+  private static final int GENES_COUNT = 5000;
+  private static final int QUERIES_COUNT = 20000;
+  private static final int CHROMOSOME_COUNT = 3;
+  private static final int CHROMOSOME_LENGTH = 100000;
+  private static final int GENE_MAX_LENGTH = 3000;
+
+  private Gene gene(String name, String chromosome, long start, long end, String strand) {
+    Gene gene = new Gene();
+    gene.name = name;
+    gene.chromosome = chromosome;
+    gene.start = start;
+    gene.end = end;
+    gene.strand = strand;
+    return gene;
+  }
+
+  private List<Integer> overlaps(GeneIndex index, String chromosome, String strand,
+      long position) {
+    int[] genes = new int[2];
+    int count = index.overlaps(chromosome, strand, position, genes);
+    if (count > genes.length) {
+      genes = new int[count];
+      assertEquals(count, index.overlaps(chromosome, strand, position, genes));
+    }
+    List<Integer> overlaps = new ArrayList<>();
+    for (int i = 0; i < count; i++) {
+      overlaps.add(genes[i]);
+    }
+    return overlaps;
+  }
+
+  @Test
+  public void overlaps() throws Throwable {
+    GeneIndex index = new GeneIndex(Arrays.asList(gene("gene1", "chr1", 100, 600, "+"),
+        gene("gene2", "chr1", 400, 900, "-"), gene("gene3", "chr1", 300, 500, "+"),
+        gene("gene4", "chr2", 100, 600, "+")));
+
+    assertEquals(4, index.size());
+    assertEquals(Arrays.asList(0), overlaps(index, "chr1", "+", 100));
+    assertEquals(Arrays.asList(0, 2), overlaps(index, "chr1", "+", 450));
+    assertEquals(Arrays.asList(0, 2), overlaps(index, "chr1", "+", 500));
+    assertEquals(Arrays.asList(0), overlaps(index, "chr1", "+", 600));
+    assertEquals(Arrays.asList(), overlaps(index, "chr1", "+", 601));
+    assertEquals(Arrays.asList(), overlaps(index, "chr1", "+", 99));
+    assertEquals(Arrays.asList(1), overlaps(index, "chr1", "-", 450));
+    assertEquals(Arrays.asList(0, 2, 1), overlaps(index, "chr1", null, 450));
+    assertEquals(Arrays.asList(3), overlaps(index, "chr2", "+", 450));
+    assertEquals(Arrays.asList(), overlaps(index, "chr2", "-", 450));
+    assertEquals(Arrays.asList(), overlaps(index, "chr3", null, 450));
+  }
+
+  @Test
+  public void overlaps_ReversedGene() throws Throwable {
+    GeneIndex index = new GeneIndex(Arrays.asList(gene("gene1", "chr1", 600, 100, "-")));
+
+    assertEquals(Arrays.asList(0), overlaps(index, "chr1", "-", 100));
+    assertEquals(Arrays.asList(0), overlaps(index, "chr1", "-", 600));
+    assertEquals(Arrays.asList(), overlaps(index, "chr1", "-", 601));
+  }
+
+  @Test
+  public void overlaps_OtherStrand() throws Throwable {
+    GeneIndex index = new GeneIndex(Arrays.asList(gene("gene1", "chr1", 100, 600, ".")));
+
+    assertEquals(Arrays.asList(), overlaps(index, "chr1", "+", 450));
+    assertEquals(Arrays.asList(), overlaps(index, "chr1", "-", 450));
+    assertEquals(Arrays.asList(0), overlaps(index, "chr1", null, 450));
+  }
+
+  @Test
+  public void overlaps_ArrayTooSmall() throws Throwable {
+    GeneIndex index = new GeneIndex(Arrays.asList(gene("gene1", "chr1", 100, 600, "+"),
+        gene("gene2", "chr1", 200, 600, "+"), gene("gene3", "chr1", 300, 600, "+")));
+    int[] genes = new int[2];
+
+    assertEquals(3, index.overlaps("chr1", "+", 450, genes));
+    assertEquals(0, genes[0]);
+    assertEquals(1, genes[1]);
+  }
+
+  @Test
+  public void overlaps_Empty() throws Throwable {
+    GeneIndex index = new GeneIndex(Collections.emptyList());
+
+    assertEquals(0, index.size());
+    assertEquals(Arrays.asList(), overlaps(index, "chr1", null, 450));
+  }
+
+  @Test
+  public void overlaps_Random() throws Throwable {
+    Random random = new Random();
+    List<Gene> genes = new ArrayList<>();
+    for (int i = 0; i < GENES_COUNT; i++) {
+      long start = random.nextInt(CHROMOSOME_LENGTH);
+      // Some long genes force queries to visit both subtrees.
+      long length = random.nextInt(100) == 0 ? random.nextInt(CHROMOSOME_LENGTH)
+          : random.nextInt(GENE_MAX_LENGTH);
+      genes.add(gene("gene" + i, "chr" + random.nextInt(CHROMOSOME_COUNT), start, start + length,
+          random.nextBoolean() ? "+" : "-"));
+    }
+    GeneIndex index = new GeneIndex(genes);
+
+    for (int i = 0; i < QUERIES_COUNT; i++) {
+      String chromosome = "chr" + random.nextInt(CHROMOSOME_COUNT);
+      String strand = random.nextBoolean() ? "+" : "-";
+      long position = random.nextInt(CHROMOSOME_LENGTH + GENE_MAX_LENGTH);
+      List<Integer> expected = new ArrayList<>();
+      for (int j = 0; j < genes.size(); j++) {
+        Gene gene = genes.get(j);
+        if (gene.chromosome.equals(chromosome) && gene.strand.equals(strand)
+            && gene.start <= position && position <= gene.end) {
+          expected.add(j);
+        }
+      }
+      expected.sort((gene1, gene2) -> Long.compare(genes.get(gene1).start,
+          genes.get(gene2).start));
+      List<Integer> overlaps = overlaps(index, chromosome, strand, position);
+      assertEquals(expected.size(), overlaps.size());
+      for (int j = 0; j < overlaps.size(); j++) {
+        assertEquals(genes.get(expected.get(j)).start, genes.get(overlaps.get(j)).start);
+      }
+      List<Integer> sortedOverlaps = new ArrayList<>(overlaps);
+      Collections.sort(sortedOverlaps);
+      Collections.sort(expected);
+      assertEquals(expected, sortedOverlaps);
+    }
+  }
+}
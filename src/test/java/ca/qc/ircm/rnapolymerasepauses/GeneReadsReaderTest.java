@@ -0,0 +1,142 @@
+package ca.qc.ircm.rnapolymerasepauses;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import ca.qc.ircm.rnapolymerasepauses.io.BinaryTrackWriter;
+import ca.qc.ircm.rnapolymerasepauses.io.TrackFormat;
+import ca.qc.ircm.rnapolymerasepauses.test.config.NonTransactionalTestAnnotations;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+
+@RunWith(SpringJUnit4ClassRunner.class)
+@NonTransactionalTestAnnotations
+public class GeneReadsReaderTest {
+  private static final String LINE_SEPARATOR = "\n";
+  private static final double DELTA = 0.000001;
+  private List<Gene> genes = new ArrayList<>();
+  private List<Gene> readGenes = new ArrayList<>();
+  private List<double[]> reads = new ArrayList<>();
+  @Rule
+  public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  private Gene gene(String name, String chromosome, long start, long end) {
+    Gene gene = new Gene();
+    gene.name = name;
+    gene.chromosome = chromosome;
+    gene.start = start;
+    gene.end = end;
+    gene.strand = Gene.PLUS_STRAND;
+    genes.add(gene);
+    return gene;
+  }
+
+  private String track(String chromosome, int length) {
+    StringBuilder builder = new StringBuilder();
+    builder.append("chrom=" + chromosome + LINE_SEPARATOR);
+    for (int i = 0; i < length; i++) {
+      builder.append(i);
+      builder.append(LINE_SEPARATOR);
+    }
+    return builder.toString();
+  }
+
+  private void read(TrackFormat format, Path input, String content) throws IOException {
+    GeneReadsReader.read(GeneReadsReader.byChromosome(genes), input,
+        () -> new BufferedReader(new StringReader(content)), format, (gene, geneReads) -> {
+          readGenes.add(gene);
+          reads.add(geneReads);
+        });
+  }
+
+  @Test
+  public void byChromosome() {
+    Gene gene1 = gene("gene1", "chr1", 50, 100);
+    Gene gene2 = gene("gene2", "chr2", 10, 100);
+    Gene gene3 = gene("gene3", "chr1", 20, 100);
+
+    Map<String, List<Gene>> byChromosome = GeneReadsReader.byChromosome(genes);
+
+    assertEquals(2, byChromosome.size());
+    assertEquals(Arrays.asList(gene3, gene1), byChromosome.get("chr1"));
+    assertEquals(Arrays.asList(gene2), byChromosome.get("chr2"));
+  }
+
+  @Test
+  public void read() throws Throwable {
+    Gene gene1 = gene("gene1", "chr1", 3, 5);
+    Gene gene2 = gene("gene2", "chr1", 1, 4);
+    Gene gene3 = gene("gene3", "chr2", 2, 3);
+
+    read(TrackFormat.TEXT, null, track("chr1", 10) + track("chr2", 10));
+
+    assertEquals(3, readGenes.size());
+    assertSame(gene2, readGenes.get(0));
+    assertArrayEquals(new double[] { 0, 1, 2, 3 }, reads.get(0), DELTA);
+    assertSame(gene1, readGenes.get(1));
+    assertArrayEquals(new double[] { 2, 3, 4 }, reads.get(1), DELTA);
+    assertSame(gene3, readGenes.get(2));
+    assertArrayEquals(new double[] { 1, 2 }, reads.get(2), DELTA);
+  }
+
+  @Test
+  public void read_BeyondChromosomeEnd() throws Throwable {
+    Gene gene1 = gene("gene1", "chr1", 8, 15);
+
+    read(TrackFormat.RLE, null, track("chr1", 10) + track("chr2", 10));
+
+    assertEquals(1, readGenes.size());
+    assertSame(gene1, readGenes.get(0));
+    assertArrayEquals(new double[] { 7, 8, 9 }, reads.get(0), DELTA);
+  }
+
+  @Test
+  public void read_MissingChromosome() throws Throwable {
+    gene("gene1", "chr3", 1, 5);
+
+    read(null, null, track("chr1", 10));
+
+    assertEquals(0, readGenes.size());
+  }
+
+  @Test
+  public void read_Binary() throws Throwable {
+    Gene gene1 = gene("gene1", "chr1", 3, 5);
+    Gene gene2 = gene("gene2", "chr1", 8, 15);
+    Path file = temporaryFolder.getRoot().toPath().resolve("track.bin");
+    try (BinaryTrackWriter writer = new BinaryTrackWriter(Files.newOutputStream(file))) {
+      writer.startChromosome("chr1");
+      for (int i = 0; i < 10; i++) {
+        writer.write(i, 1);
+      }
+    }
+
+    read(TrackFormat.BINARY, file, null);
+
+    assertEquals(2, readGenes.size());
+    assertSame(gene1, readGenes.get(0));
+    assertArrayEquals(new double[] { 2, 3, 4 }, reads.get(0), DELTA);
+    assertSame(gene2, readGenes.get(1));
+    assertArrayEquals(new double[] { 7, 8, 9 }, reads.get(1), DELTA);
+  }
+
+  @Test(expected = IOException.class)
+  public void read_BinaryNoInput() throws Throwable {
+    gene("gene1", "chr1", 3, 5);
+
+    read(TrackFormat.BINARY, null, null);
+  }
+}
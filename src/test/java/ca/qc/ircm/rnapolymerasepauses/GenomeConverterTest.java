@@ -0,0 +1,106 @@
+package ca.qc.ircm.rnapolymerasepauses;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.when;
+
+import ca.qc.ircm.rnapolymerasepauses.io.Genome;
+import ca.qc.ircm.rnapolymerasepauses.test.config.NonTransactionalTestAnnotations;
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+
+@RunWith(SpringJUnit4ClassRunner.class)
+@NonTransactionalTestAnnotations
+public class GenomeConverterTest {
+  private static final String LINE_SEPARATOR = "\n";
+  private GenomeConverter genomeConverter;
+  @Mock
+  private FastaToGenomeCommand parameters;
+  @Rule
+  public TemporaryFolder temporaryFolder = new TemporaryFolder();
+  private ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+  /**
+   * Before test.
+   */
+  @Before
+  public void beforeTest() throws Throwable {
+    genomeConverter = new GenomeConverter();
+    when(parameters.outputStream()).thenReturn(output);
+  }
+
+  private Genome genome() throws Throwable {
+    Path file = temporaryFolder.getRoot().toPath().resolve("genome.bin");
+    Files.write(file, output.toByteArray());
+    return new Genome(file);
+  }
+
+  @Test
+  public void fastaToGenome() throws Throwable {
+    String content = ">chrI description of chrI" + LINE_SEPARATOR + "ACGTAC" + LINE_SEPARATOR
+        + "GTNNac" + LINE_SEPARATOR + "TT" + LINE_SEPARATOR + ">chrM" + LINE_SEPARATOR
+        + ">chrII" + LINE_SEPARATOR + "GGGCCCA" + LINE_SEPARATOR;
+    when(parameters.reader()).thenReturn(new BufferedReader(new StringReader(content)));
+
+    genomeConverter.fastaToGenome(parameters);
+
+    try (Genome genome = genome()) {
+      assertEquals(Arrays.asList("chrI", "chrM", "chrII"), genome.chromosomes());
+      assertEquals(14, genome.length("chrI"));
+      assertEquals("ACGTACGTNNACTT", genome.sequence("chrI", 0, 14));
+      assertEquals(0, genome.length("chrM"));
+      assertEquals(7, genome.length("chrII"));
+      assertEquals("GGGCCCA", genome.sequence("chrII", 0, 7));
+    }
+  }
+
+  @Test
+  public void fastaToGenome_WindowsLineSeparator() throws Throwable {
+    String content = ">chrI\r\nACGT\r\nGGA\r\n";
+    when(parameters.reader()).thenReturn(new BufferedReader(new StringReader(content)));
+
+    genomeConverter.fastaToGenome(parameters);
+
+    try (Genome genome = genome()) {
+      assertEquals(Arrays.asList("chrI"), genome.chromosomes());
+      assertEquals("ACGTGGA", genome.sequence("chrI", 0, 7));
+    }
+  }
+
+  @Test
+  public void fastaToGenome_Random() throws Throwable {
+    Random random = new Random();
+    char[] bases = { 'A', 'C', 'G', 'T', 'N' };
+    StringBuilder sequence = new StringBuilder();
+    StringBuilder content = new StringBuilder(">chr1" + LINE_SEPARATOR);
+    for (int i = 0; i < 10000; i++) {
+      char base = bases[random.nextInt(bases.length)];
+      sequence.append(base);
+      content.append(base);
+      if (i % 60 == 59) {
+        content.append(LINE_SEPARATOR);
+      }
+    }
+    when(parameters.reader())
+        .thenReturn(new BufferedReader(new StringReader(content.toString())));
+
+    genomeConverter.fastaToGenome(parameters);
+
+    try (Genome genome = genome()) {
+      assertEquals(sequence.length(), genome.length("chr1"));
+      assertEquals(sequence.toString(), genome.sequence("chr1", 0, sequence.length()));
+      assertEquals(sequence.substring(4321, 5678), genome.sequence("chr1", 4321, 5678));
+    }
+  }
+}
@@ -0,0 +1,103 @@
+package ca.qc.ircm.rnapolymerasepauses;
+
+import ca.qc.ircm.rnapolymerasepauses.io.PauseReader;
+import ca.qc.ircm.rnapolymerasepauses.io.PauseWriter;
+import ca.qc.ircm.rnapolymerasepauses.test.data.SyntheticData;
+import ca.qc.ircm.rnapolymerasepauses.test.data.SyntheticData.Genome;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Reads, writes and finds maxima of a synthetic pauses file of a whole genome.
+ * <p>
+ * Use <code>-p genome=FLY,HUMAN</code> for larger genomes. Generated files are kept between runs.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+public class GenomePausesBenchmark {
+  @Param({ "YEAST" })
+  public Genome genome;
+  @Param({ "20" })
+  public int window;
+  private Maxima maxima = new Maxima();
+  private Path pauses;
+  private PauseTable table;
+  private Path output;
+
+  /**
+   * Generates pauses file.
+   */
+  @Setup
+  public void generatePauses() throws IOException {
+    pauses = new SyntheticData().pauses(genome);
+    try (PauseReader reader =
+        new PauseReader(Files.newBufferedReader(pauses, StandardCharsets.UTF_8))) {
+      table = reader.readTable();
+    }
+    output = Files.createTempFile("pauses", ".txt");
+  }
+
+  /**
+   * Deletes output file.
+   */
+  @TearDown
+  public void deleteOutput() throws IOException {
+    Files.delete(output);
+  }
+
+  @Benchmark
+  public double pauseReader() throws IOException {
+    double sum = 0;
+    try (PauseReader reader =
+        new PauseReader(Files.newBufferedReader(pauses, StandardCharsets.UTF_8))) {
+      Pause pause = new Pause();
+      while (reader.next(pause)) {
+        sum += pause.foldsAboveAverage + reader.sequence().length();
+      }
+    }
+    return sum;
+  }
+
+  @Benchmark
+  public long pauseWriter() throws IOException {
+    try (BufferedWriter writer = Files.newBufferedWriter(output, StandardCharsets.UTF_8);
+        PauseWriter pauseWriter = new PauseWriter(writer)) {
+      for (int i = 0; i < table.size(); i++) {
+        pauseWriter.writePause(table, i);
+      }
+    }
+    return Files.size(output);
+  }
+
+  @Benchmark
+  public long maxima() throws IOException {
+    MaximaCommand parameters = new MaximaCommand();
+    parameters.input = pauses;
+    parameters.windowSize = window;
+    parameters.output = output;
+    maxima.maxima(parameters);
+    return Files.size(output);
+  }
+}
@@ -2,14 +2,28 @@ package ca.qc.ircm.rnapolymerasepauses;
 
 import static ca.qc.ircm.rnapolymerasepauses.BedToTrackCommand.COMMAND;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyZeroInteractions;
 
+import ca.qc.ircm.rnapolymerasepauses.io.TrackFormat;
 import ca.qc.ircm.rnapolymerasepauses.test.config.NonTransactionalTestAnnotations;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
@@ -36,6 +50,22 @@ public class MainServiceTest {
   private SgdGeneConverter sgdGeneConverter;
   @Mock
   private FakeGene fakeGene;
+  @Mock
+  private PauseCaller pauseCaller;
+  @Mock
+  private TrackIndexer trackIndexer;
+  @Mock
+  private Pipeline pipeline;
+  @Mock
+  private GenomeConverter genomeConverter;
+  @Mock
+  private FastaIndexer fastaIndexer;
+  @Mock
+  private Correlator correlator;
+  @Mock
+  private Metagene metagene;
+  @Mock
+  private TandemGenes tandemGenes;
   @Captor
   private ArgumentCaptor<BedToTrackCommand> bedToTrackCommandCaptor;
   @Captor
@@ -50,19 +80,39 @@ public class MainServiceTest {
   private ArgumentCaptor<SgdGeneToTssCommand> sgdGeneToTssCommandCaptor;
   @Captor
   private ArgumentCaptor<FakeGeneCommand> fakeGeneCommandCaptor;
+  @Captor
+  private ArgumentCaptor<CallPausesCommand> callPausesCommandCaptor;
+  @Captor
+  private ArgumentCaptor<TrackIndexCommand> trackIndexCommandCaptor;
+  @Captor
+  private ArgumentCaptor<BedToPausesCommand> bedToPausesCommandCaptor;
+  @Captor
+  private ArgumentCaptor<PipelineCommand> pipelineCommandCaptor;
+  @Captor
+  private ArgumentCaptor<FastaToGenomeCommand> fastaToGenomeCommandCaptor;
+  @Captor
+  private ArgumentCaptor<FastaIndexCommand> fastaIndexCommandCaptor;
+  @Captor
+  private ArgumentCaptor<CorrelateCommand> correlateCommandCaptor;
+  @Captor
+  private ArgumentCaptor<MetageneCommand> metageneCommandCaptor;
+  @Captor
+  private ArgumentCaptor<TandemCommand> tandemCommandCaptor;
   @Rule
   public TemporaryFolder temporaryFolder = new TemporaryFolder();
 
   @Before
   public void beforeTest() {
     mainService = new MainService(bedConverter, wigConverter, pausesConverter, maxima,
-        sgdGeneConverter, fakeGene, true);
+        sgdGeneConverter, fakeGene, pauseCaller, trackIndexer, pipeline, genomeConverter,
+        fastaIndexer, correlator, metagene, tandemGenes, true);
   }
 
   @Test
   public void run_RunnerDisabled() {
     mainService = new MainService(bedConverter, wigConverter, pausesConverter, maxima,
-        sgdGeneConverter, fakeGene, false);
+        sgdGeneConverter, fakeGene, pauseCaller, trackIndexer, pipeline, genomeConverter,
+        fastaIndexer, correlator, metagene, tandemGenes, false);
     mainService.run(new String[] { COMMAND, "-s", "1" });
     verifyZeroInteractions(bedConverter);
     verifyZeroInteractions(wigConverter);
@@ -70,6 +120,14 @@ public class MainServiceTest {
     verifyZeroInteractions(maxima);
     verifyZeroInteractions(sgdGeneConverter);
     verifyZeroInteractions(fakeGene);
+    verifyZeroInteractions(pauseCaller);
+    verifyZeroInteractions(trackIndexer);
+    verifyZeroInteractions(pipeline);
+    verifyZeroInteractions(genomeConverter);
+    verifyZeroInteractions(fastaIndexer);
+    verifyZeroInteractions(correlator);
+    verifyZeroInteractions(metagene);
+    verifyZeroInteractions(tandemGenes);
   }
 
   @Test
@@ -81,6 +139,14 @@ public class MainServiceTest {
     verifyZeroInteractions(maxima);
     verifyZeroInteractions(sgdGeneConverter);
     verifyZeroInteractions(fakeGene);
+    verifyZeroInteractions(pauseCaller);
+    verifyZeroInteractions(trackIndexer);
+    verifyZeroInteractions(pipeline);
+    verifyZeroInteractions(genomeConverter);
+    verifyZeroInteractions(fastaIndexer);
+    verifyZeroInteractions(correlator);
+    verifyZeroInteractions(metagene);
+    verifyZeroInteractions(tandemGenes);
   }
 
   @Test
@@ -90,6 +156,8 @@ public class MainServiceTest {
     mainService.run(new String[] { BedToTrackCommand.COMMAND, "-s", chromosomeSizes.toString() });
     verify(bedConverter).bedToTrack(bedToTrackCommandCaptor.capture());
     assertEquals(chromosomeSizes, bedToTrackCommandCaptor.getValue().chromosomeSizes);
+    assertEquals(TrackFormat.TEXT, bedToTrackCommandCaptor.getValue().format);
+    assertEquals(1, bedToTrackCommandCaptor.getValue().threads);
   }
 
   @Test
@@ -189,6 +257,76 @@ public class MainServiceTest {
     assertEquals(chromosomeSizes, bedToTrackCommandCaptor.getValue().chromosomeSizes);
   }
 
+  @Test
+  public void run_BedToTrack_Format() throws Throwable {
+    Path chromosomeSizes = temporaryFolder.getRoot().toPath().resolve("chromosomeSizes.txt");
+    Files.createFile(chromosomeSizes);
+    mainService.run(new String[] { BedToTrackCommand.COMMAND, "-s", chromosomeSizes.toString(),
+        "-f", "binary" });
+    verify(bedConverter).bedToTrack(bedToTrackCommandCaptor.capture());
+    assertEquals(TrackFormat.BINARY, bedToTrackCommandCaptor.getValue().format);
+    assertEquals(chromosomeSizes, bedToTrackCommandCaptor.getValue().chromosomeSizes);
+  }
+
+  @Test
+  public void run_BedToTrack_FormatRle() throws Throwable {
+    Path chromosomeSizes = temporaryFolder.getRoot().toPath().resolve("chromosomeSizes.txt");
+    Files.createFile(chromosomeSizes);
+    mainService.run(new String[] { BedToTrackCommand.COMMAND, "-s", chromosomeSizes.toString(),
+        "-f", "rle" });
+    verify(bedConverter).bedToTrack(bedToTrackCommandCaptor.capture());
+    assertEquals(TrackFormat.RLE, bedToTrackCommandCaptor.getValue().format);
+  }
+
+  @Test
+  public void run_BedToTrack_FormatLongName() throws Throwable {
+    Path chromosomeSizes = temporaryFolder.getRoot().toPath().resolve("chromosomeSizes.txt");
+    Files.createFile(chromosomeSizes);
+    mainService.run(new String[] { BedToTrackCommand.COMMAND, "-s", chromosomeSizes.toString(),
+        "--format", "text" });
+    verify(bedConverter).bedToTrack(bedToTrackCommandCaptor.capture());
+    assertEquals(TrackFormat.TEXT, bedToTrackCommandCaptor.getValue().format);
+    assertEquals(chromosomeSizes, bedToTrackCommandCaptor.getValue().chromosomeSizes);
+  }
+
+  @Test
+  public void run_BedToTrack_InvalidFormat() throws Throwable {
+    Path chromosomeSizes = temporaryFolder.getRoot().toPath().resolve("chromosomeSizes.txt");
+    Files.createFile(chromosomeSizes);
+    mainService.run(new String[] { BedToTrackCommand.COMMAND, "-s", chromosomeSizes.toString(),
+        "-f", "bigwig" });
+    verify(bedConverter, never()).bedToTrack(any());
+  }
+
+  @Test
+  public void run_BedToTrack_Threads() throws Throwable {
+    Path chromosomeSizes = temporaryFolder.getRoot().toPath().resolve("chromosomeSizes.txt");
+    Files.createFile(chromosomeSizes);
+    mainService.run(new String[] { BedToTrackCommand.COMMAND, "-s", chromosomeSizes.toString(),
+        "-t", "8" });
+    verify(bedConverter).bedToTrack(bedToTrackCommandCaptor.capture());
+    assertEquals(8, bedToTrackCommandCaptor.getValue().threads);
+  }
+
+  @Test
+  public void run_BedToTrack_ThreadsLongName() throws Throwable {
+    Path chromosomeSizes = temporaryFolder.getRoot().toPath().resolve("chromosomeSizes.txt");
+    Files.createFile(chromosomeSizes);
+    mainService.run(new String[] { BedToTrackCommand.COMMAND, "-s", chromosomeSizes.toString(),
+        "--threads", "8" });
+    verify(bedConverter).bedToTrack(bedToTrackCommandCaptor.capture());
+    assertEquals(8, bedToTrackCommandCaptor.getValue().threads);
+  }
+
+  @Test
+  public void run_BedToTrack_InvalidThreads() throws Throwable {
+    Path chromosomeSizes = temporaryFolder.getRoot().toPath().resolve("chromosomeSizes.txt");
+    Files.createFile(chromosomeSizes);
+    mainService.run(new String[] { BedToTrackCommand.COMMAND, "-s", chromosomeSizes.toString(),
+        "-t", "-2" });
+    verify(bedConverter, never()).bedToTrack(any());
+  }
+
   @Test
   public void run_BedToTrack_Help() throws Throwable {
     mainService.run(new String[] { BedToTrackCommand.COMMAND, "-h" });
@@ -202,6 +340,8 @@ public class MainServiceTest {
     mainService.run(new String[] { WigToTrackCommand.COMMAND, "-s", chromosomeSizes.toString() });
     verify(wigConverter).wigToTrack(wigToTrackCommandCaptor.capture());
     assertEquals(chromosomeSizes, wigToTrackCommandCaptor.getValue().chromosomeSizes);
+    assertEquals(TrackFormat.TEXT, wigToTrackCommandCaptor.getValue().format);
+    assertEquals(1, wigToTrackCommandCaptor.getValue().threads);
   }
 
   @Test
@@ -301,6 +441,76 @@ public class MainServiceTest {
     assertEquals(chromosomeSizes, wigToTrackCommandCaptor.getValue().chromosomeSizes);
   }
 
+  @Test
+  public void run_WigToTrack_Format() throws Throwable {
+    Path chromosomeSizes = temporaryFolder.getRoot().toPath().resolve("chromosomeSizes.txt");
+    Files.createFile(chromosomeSizes);
+    mainService.run(new String[] { WigToTrackCommand.COMMAND, "-s", chromosomeSizes.toString(),
+        "-f", "binary" });
+    verify(wigConverter).wigToTrack(wigToTrackCommandCaptor.capture());
+    assertEquals(TrackFormat.BINARY, wigToTrackCommandCaptor.getValue().format);
+    assertEquals(chromosomeSizes, wigToTrackCommandCaptor.getValue().chromosomeSizes);
+  }
+
+  @Test
+  public void run_WigToTrack_FormatRle() throws Throwable {
+    Path chromosomeSizes = temporaryFolder.getRoot().toPath().resolve("chromosomeSizes.txt");
+    Files.createFile(chromosomeSizes);
+    mainService.run(new String[] { WigToTrackCommand.COMMAND, "-s", chromosomeSizes.toString(),
+        "-f", "rle" });
+    verify(wigConverter).wigToTrack(wigToTrackCommandCaptor.capture());
+    assertEquals(TrackFormat.RLE, wigToTrackCommandCaptor.getValue().format);
+  }
+
+  @Test
+  public void run_WigToTrack_FormatLongName() throws Throwable {
+    Path chromosomeSizes = temporaryFolder.getRoot().toPath().resolve("chromosomeSizes.txt");
+    Files.createFile(chromosomeSizes);
+    mainService.run(new String[] { WigToTrackCommand.COMMAND, "-s", chromosomeSizes.toString(),
+        "--format", "text" });
+    verify(wigConverter).wigToTrack(wigToTrackCommandCaptor.capture());
+    assertEquals(TrackFormat.TEXT, wigToTrackCommandCaptor.getValue().format);
+    assertEquals(chromosomeSizes, wigToTrackCommandCaptor.getValue().chromosomeSizes);
+  }
+
+  @Test
+  public void run_WigToTrack_InvalidFormat() throws Throwable {
+    Path chromosomeSizes = temporaryFolder.getRoot().toPath().resolve("chromosomeSizes.txt");
+    Files.createFile(chromosomeSizes);
+    mainService.run(new String[] { WigToTrackCommand.COMMAND, "-s", chromosomeSizes.toString(),
+        "-f", "bigwig" });
+    verify(wigConverter, never()).wigToTrack(any());
+  }
+
+  @Test
+  public void run_WigToTrack_Threads() throws Throwable {
+    Path chromosomeSizes = temporaryFolder.getRoot().toPath().resolve("chromosomeSizes.txt");
+    Files.createFile(chromosomeSizes);
+    mainService.run(new String[] { WigToTrackCommand.COMMAND, "-s", chromosomeSizes.toString(),
+        "-t", "8" });
+    verify(wigConverter).wigToTrack(wigToTrackCommandCaptor.capture());
+    assertEquals(8, wigToTrackCommandCaptor.getValue().threads);
+  }
+
+  @Test
+  public void run_WigToTrack_ThreadsLongName() throws Throwable {
+    Path chromosomeSizes = temporaryFolder.getRoot().toPath().resolve("chromosomeSizes.txt");
+    Files.createFile(chromosomeSizes);
+    mainService.run(new String[] { WigToTrackCommand.COMMAND, "-s", chromosomeSizes.toString(),
+        "--threads", "8" });
+    verify(wigConverter).wigToTrack(wigToTrackCommandCaptor.capture());
+    assertEquals(8, wigToTrackCommandCaptor.getValue().threads);
+  }
+
+  @Test
+  public void run_WigToTrack_InvalidThreads() throws Throwable {
+    Path chromosomeSizes = temporaryFolder.getRoot().toPath().resolve("chromosomeSizes.txt");
+    Files.createFile(chromosomeSizes);
+    mainService.run(new String[] { WigToTrackCommand.COMMAND, "-s", chromosomeSizes.toString(),
+        "-t", "-2" });
+    verify(wigConverter, never()).wigToTrack(any());
+  }
+
   @Test
   public void run_WigToTrack_Help() throws Throwable {
     mainService.run(new String[] { WigToTrackCommand.COMMAND, "-h" });
@@ -314,6 +524,8 @@ public class MainServiceTest {
     mainService.run(new String[] { PausesToBedCommand.COMMAND, "-t", tss.toString() });
     verify(pausesConverter).pausesToBed(pausesToBedCommandCaptor.capture());
     assertEquals(tss, pausesToBedCommandCaptor.getValue().tss);
+    assertNull(pausesToBedCommandCaptor.getValue().cache);
+    assertFalse(pausesToBedCommandCaptor.getValue().noCache);
   }
 
   @Test
@@ -400,6 +612,28 @@ public class MainServiceTest {
     assertEquals(tss, pausesToBedCommandCaptor.getValue().tss);
   }
 
+  @Test
+  public void run_PausesToBed_Cache() throws Throwable {
+    Path tss = temporaryFolder.getRoot().toPath().resolve("tss.txt");
+    Files.createFile(tss);
+    Path cache = temporaryFolder.getRoot().toPath().resolve("cache");
+    mainService.run(new String[] { PausesToBedCommand.COMMAND, "-t", tss.toString(), "--cache",
+        cache.toString() });
+    verify(pausesConverter).pausesToBed(pausesToBedCommandCaptor.capture());
+    assertEquals(cache, pausesToBedCommandCaptor.getValue().cache);
+    assertFalse(pausesToBedCommandCaptor.getValue().noCache);
+  }
+
+  @Test
+  public void run_PausesToBed_NoCache() throws Throwable {
+    Path tss = temporaryFolder.getRoot().toPath().resolve("tss.txt");
+    Files.createFile(tss);
+    mainService
+        .run(new String[] { PausesToBedCommand.COMMAND, "-t", tss.toString(), "--noCache" });
+    verify(pausesConverter).pausesToBed(pausesToBedCommandCaptor.capture());
+    assertTrue(pausesToBedCommandCaptor.getValue().noCache);
+  }
+
   @Test
   public void run_PausesToBed_OutputNotExists() throws Throwable {
     Path output = temporaryFolder.getRoot().toPath().resolve("output.txt");
@@ -754,6 +988,932 @@ public class MainServiceTest {
     verify(fakeGene, never()).fakeGene(any());
   }
 
+  @Test
+  public void run_CallPauses() throws Throwable {
+    Path tss = temporaryFolder.getRoot().toPath().resolve("tss.txt");
+    Files.createFile(tss);
+    mainService.run(new String[] { CallPausesCommand.COMMAND, "-t", tss.toString() });
+    verify(pauseCaller).callPauses(callPausesCommandCaptor.capture());
+    CallPausesCommand command = callPausesCommandCaptor.getValue();
+    assertEquals(tss, command.tss);
+    assertEquals("+", command.strand);
+    assertEquals(200, command.windowSize);
+    assertEquals(4, command.fold, 0.000001);
+    assertEquals(3, command.peakMin, 0.000001);
+    assertEquals(2, command.tnormThreshold, 0.000001);
+    assertEquals(10, command.rounds);
+    assertEquals(0, command.cutoff, 0.000001);
+    assertEquals(0, command.peakStrengthMin, 0.000001);
+    assertNull(command.genome);
+    assertEquals(15, command.sequenceLength);
+    assertEquals(TrackFormat.TEXT, command.format);
+  }
+
+  @Test
+  public void run_CallPauses_TssMissing() throws Throwable {
+    mainService.run(new String[] { CallPausesCommand.COMMAND });
+    verify(pauseCaller, never()).callPauses(any());
+  }
+
+  @Test
+  public void run_CallPauses_TssNotExists() throws Throwable {
+    Path tss = temporaryFolder.getRoot().toPath().resolve("tss.txt");
+    mainService.run(new String[] { CallPausesCommand.COMMAND, "-t", tss.toString() });
+    verify(pauseCaller, never()).callPauses(any());
+  }
+
+  @Test
+  public void run_CallPauses_Parameters() throws Throwable {
+    Path input = temporaryFolder.getRoot().toPath().resolve("input.txt");
+    Files.createFile(input);
+    Path tss = temporaryFolder.getRoot().toPath().resolve("tss.txt");
+    Files.createFile(tss);
+    Path genome = temporaryFolder.getRoot().toPath().resolve("genome.bin");
+    Files.createFile(genome);
+    Path output = temporaryFolder.getRoot().toPath().resolve("output.txt");
+    mainService.run(new String[] { CallPausesCommand.COMMAND, "-i", input.toString(), "-t",
+        tss.toString(), "--strand", "-", "-w", "100", "-f", "3", "-p", "2", "--tnormThreshold",
+        "1.5", "-r", "3", "-c", "0.5", "--peakStrengthMin", "1.2", "-g", genome.toString(),
+        "--sequenceLength", "10", "-o", output.toString() });
+    verify(pauseCaller).callPauses(callPausesCommandCaptor.capture());
+    CallPausesCommand command = callPausesCommandCaptor.getValue();
+    assertEquals(input, command.input);
+    assertEquals(tss, command.tss);
+    assertEquals("-", command.strand);
+    assertEquals(100, command.windowSize);
+    assertEquals(3, command.fold, 0.000001);
+    assertEquals(2, command.peakMin, 0.000001);
+    assertEquals(1.5, command.tnormThreshold, 0.000001);
+    assertEquals(3, command.rounds);
+    assertEquals(0.5, command.cutoff, 0.000001);
+    assertEquals(1.2, command.peakStrengthMin, 0.000001);
+    assertEquals(genome, command.genome);
+    assertEquals(10, command.sequenceLength);
+    assertEquals(output, command.output);
+  }
+
+  @Test
+  public void run_CallPauses_Format() throws Throwable {
+    Path input = temporaryFolder.getRoot().toPath().resolve("input.bin");
+    Files.createFile(input);
+    Path tss = temporaryFolder.getRoot().toPath().resolve("tss.txt");
+    Files.createFile(tss);
+    mainService.run(new String[] { CallPausesCommand.COMMAND, "-i", input.toString(), "-t",
+        tss.toString(), "--format", "binary" });
+    verify(pauseCaller).callPauses(callPausesCommandCaptor.capture());
+    assertEquals(TrackFormat.BINARY, callPausesCommandCaptor.getValue().format);
+  }
+
+  @Test
+  public void run_CallPauses_InvalidStrand() throws Throwable {
+    Path tss = temporaryFolder.getRoot().toPath().resolve("tss.txt");
+    Files.createFile(tss);
+    mainService.run(new String[] { CallPausesCommand.COMMAND, "-t", tss.toString(), "--strand",
+        "a" });
+    verify(pauseCaller, never()).callPauses(any());
+  }
+
+  @Test
+  public void run_CallPauses_WindowBelowMinimum() throws Throwable {
+    Path tss = temporaryFolder.getRoot().toPath().resolve("tss.txt");
+    Files.createFile(tss);
+    mainService
+        .run(new String[] { CallPausesCommand.COMMAND, "-t", tss.toString(), "-w", "0" });
+    verify(pauseCaller, never()).callPauses(any());
+  }
+
+  @Test
+  public void run_CallPauses_InputNotExists() throws Throwable {
+    Path input = temporaryFolder.getRoot().toPath().resolve("input.txt");
+    Path tss = temporaryFolder.getRoot().toPath().resolve("tss.txt");
+    Files.createFile(tss);
+    mainService.run(new String[] { CallPausesCommand.COMMAND, "-i", input.toString(), "-t",
+        tss.toString() });
+    verify(pauseCaller, never()).callPauses(any());
+  }
+
+  @Test
+  public void run_CallPauses_GenomeNotExists() throws Throwable {
+    Path tss = temporaryFolder.getRoot().toPath().resolve("tss.txt");
+    Files.createFile(tss);
+    Path genome = temporaryFolder.getRoot().toPath().resolve("genome.bin");
+    mainService.run(new String[] { CallPausesCommand.COMMAND, "-t", tss.toString(), "-g",
+        genome.toString() });
+    verify(pauseCaller, never()).callPauses(any());
+  }
+
+  @Test
+  public void run_CallPauses_Help() throws Throwable {
+    mainService.run(new String[] { CallPausesCommand.COMMAND, "-h" });
+    verify(pauseCaller, never()).callPauses(any());
+  }
+
+  @Test
+  public void run_TrackIndex() throws Throwable {
+    Path plus = temporaryFolder.getRoot().toPath().resolve("track_plus.txt");
+    Files.createFile(plus);
+    Path minus = temporaryFolder.getRoot().toPath().resolve("track_minus.txt");
+    Files.createFile(minus);
+    Path tss = temporaryFolder.getRoot().toPath().resolve("tss.txt");
+    Files.createFile(tss);
+    mainService.run(new String[] { TrackIndexCommand.COMMAND, "-p", plus.toString(), "-m",
+        minus.toString(), "-t", tss.toString() });
+    verify(trackIndexer).index(trackIndexCommandCaptor.capture());
+    TrackIndexCommand command = trackIndexCommandCaptor.getValue();
+    assertEquals(plus, command.plus);
+    assertEquals(minus, command.minus);
+    assertEquals(tss, command.tss);
+    assertNull(command.output);
+  }
+
+  @Test
+  public void run_TrackIndex_Output() throws Throwable {
+    Path plus = temporaryFolder.getRoot().toPath().resolve("track_plus.txt");
+    Files.createFile(plus);
+    Path minus = temporaryFolder.getRoot().toPath().resolve("track_minus.txt");
+    Files.createFile(minus);
+    Path tss = temporaryFolder.getRoot().toPath().resolve("tss.txt");
+    Files.createFile(tss);
+    Path output = temporaryFolder.getRoot().toPath().resolve("track_index.txt");
+    mainService.run(new String[] { TrackIndexCommand.COMMAND, "--plus", plus.toString(),
+        "--minus", minus.toString(), "--tss", tss.toString(), "-o", output.toString() });
+    verify(trackIndexer).index(trackIndexCommandCaptor.capture());
+    assertEquals(output, trackIndexCommandCaptor.getValue().output);
+  }
+
+  @Test
+  public void run_TrackIndex_PlusMissing() throws Throwable {
+    Path minus = temporaryFolder.getRoot().toPath().resolve("track_minus.txt");
+    Files.createFile(minus);
+    Path tss = temporaryFolder.getRoot().toPath().resolve("tss.txt");
+    Files.createFile(tss);
+    mainService.run(new String[] { TrackIndexCommand.COMMAND, "-m", minus.toString(), "-t",
+        tss.toString() });
+    verify(trackIndexer, never()).index(any());
+  }
+
+  @Test
+  public void run_TrackIndex_MinusNotExists() throws Throwable {
+    Path plus = temporaryFolder.getRoot().toPath().resolve("track_plus.txt");
+    Files.createFile(plus);
+    Path minus = temporaryFolder.getRoot().toPath().resolve("track_minus.txt");
+    Path tss = temporaryFolder.getRoot().toPath().resolve("tss.txt");
+    Files.createFile(tss);
+    mainService.run(new String[] { TrackIndexCommand.COMMAND, "-p", plus.toString(), "-m",
+        minus.toString(), "-t", tss.toString() });
+    verify(trackIndexer, never()).index(any());
+  }
+
+  @Test
+  public void run_TrackIndex_TssMissing() throws Throwable {
+    Path plus = temporaryFolder.getRoot().toPath().resolve("track_plus.txt");
+    Files.createFile(plus);
+    Path minus = temporaryFolder.getRoot().toPath().resolve("track_minus.txt");
+    Files.createFile(minus);
+    mainService.run(new String[] { TrackIndexCommand.COMMAND, "-p", plus.toString(), "-m",
+        minus.toString() });
+    verify(trackIndexer, never()).index(any());
+  }
+
+  @Test
+  public void run_TrackIndex_Help() throws Throwable {
+    mainService.run(new String[] { TrackIndexCommand.COMMAND, "-h" });
+    verify(trackIndexer, never()).index(any());
+  }
+
+  @Test
+  public void run_BedToPauses() throws Throwable {
+    Path tss = temporaryFolder.getRoot().toPath().resolve("tss.txt");
+    Files.createFile(tss);
+    mainService.run(new String[] { BedToPausesCommand.COMMAND, "-t", tss.toString() });
+    verify(bedConverter).bedToPauses(bedToPausesCommandCaptor.capture());
+    BedToPausesCommand command = bedToPausesCommandCaptor.getValue();
+    assertEquals(tss, command.tss);
+    assertNull(command.input);
+    assertNull(command.output);
+    assertFalse(command.ignoreStrand);
+  }
+
+  @Test
+  public void run_BedToPauses_Parameters() throws Throwable {
+    Path input = temporaryFolder.getRoot().toPath().resolve("input.bed");
+    Files.createFile(input);
+    Path tss = temporaryFolder.getRoot().toPath().resolve("tss.txt");
+    Files.createFile(tss);
+    Path output = temporaryFolder.getRoot().toPath().resolve("output.txt");
+    mainService.run(new String[] { BedToPausesCommand.COMMAND, "-i", input.toString(), "-t",
+        tss.toString(), "-o", output.toString(), "--ignoreStrand" });
+    verify(bedConverter).bedToPauses(bedToPausesCommandCaptor.capture());
+    BedToPausesCommand command = bedToPausesCommandCaptor.getValue();
+    assertEquals(input, command.input);
+    assertEquals(tss, command.tss);
+    assertEquals(output, command.output);
+    assertTrue(command.ignoreStrand);
+  }
+
+  @Test
+  public void run_BedToPauses_TssMissing() throws Throwable {
+    mainService.run(new String[] { BedToPausesCommand.COMMAND });
+    verify(bedConverter, never()).bedToPauses(any());
+  }
+
+  @Test
+  public void run_BedToPauses_InputNotExists() throws Throwable {
+    Path input = temporaryFolder.getRoot().toPath().resolve("input.bed");
+    Path tss = temporaryFolder.getRoot().toPath().resolve("tss.txt");
+    Files.createFile(tss);
+    mainService.run(new String[] { BedToPausesCommand.COMMAND, "-i", input.toString(), "-t",
+        tss.toString() });
+    verify(bedConverter, never()).bedToPauses(any());
+  }
+
+  @Test
+  public void run_BedToPauses_Help() throws Throwable {
+    mainService.run(new String[] { BedToPausesCommand.COMMAND, "-h" });
+    verify(bedConverter, never()).bedToPauses(any());
+  }
+
+  @Test
+  public void run_Batch() throws Throwable {
+    Path input = temporaryFolder.getRoot().toPath().resolve("input.bed");
+    Files.createFile(input);
+    Path tss = temporaryFolder.getRoot().toPath().resolve("tss.txt");
+    Files.createFile(tss);
+    Path manifest = temporaryFolder.getRoot().toPath().resolve("manifest.txt");
+    Path output = temporaryFolder.getRoot().toPath().resolve("output.txt");
+    Path pauses = temporaryFolder.getRoot().toPath().resolve("pauses.txt");
+    Path maximaOutput = temporaryFolder.getRoot().toPath().resolve("maxima.txt");
+    Files.write(manifest, ("# Comment\n" + BedToPausesCommand.COMMAND + "\t-i\t" + input
+        + "\t-t\t" + tss + "\t-o\t" + pauses + "\n\n" + MaximaCommand.COMMAND + "\t-i\t"
+        + input + "\t-w\t5\t-o\t" + maximaOutput + "\n").getBytes());
+    assertTrue(mainService.execute(new String[] { BatchCommand.COMMAND, "-m",
+        manifest.toString(), "-o", output.toString() }));
+    verify(bedConverter).bedToPauses(bedToPausesCommandCaptor.capture());
+    assertEquals(input, bedToPausesCommandCaptor.getValue().input);
+    assertEquals(tss, bedToPausesCommandCaptor.getValue().tss);
+    verify(maxima).maxima(maximaCommandCaptor.capture());
+    assertEquals(input, maximaCommandCaptor.getValue().input);
+    assertEquals(5, maximaCommandCaptor.getValue().windowSize);
+    List<String> lines = Files.readAllLines(output);
+    assertEquals(3, lines.size());
+    assertEquals("line\tstatus\tmilliseconds\tcommand", lines.get(0));
+    String[] columns = lines.get(1).split("\t", -1);
+    assertEquals("2", columns[0]);
+    assertEquals(BatchRunner.SUCCESS, columns[1]);
+    assertTrue(Long.parseLong(columns[2]) >= 0);
+    assertEquals(
+        BedToPausesCommand.COMMAND + " -i " + input + " -t " + tss + " -o " + pauses, columns[3]);
+    columns = lines.get(2).split("\t", -1);
+    assertEquals("4", columns[0]);
+    assertEquals(BatchRunner.SUCCESS, columns[1]);
+    assertEquals(MaximaCommand.COMMAND + " -i " + input + " -w 5 -o " + maximaOutput,
+        columns[3]);
+  }
+
+  @Test
+  public void run_Batch_Threads() throws Throwable {
+    Path manifest = temporaryFolder.getRoot().toPath().resolve("manifest.txt");
+    Files.createFile(manifest);
+    Path output = temporaryFolder.getRoot().toPath().resolve("output.txt");
+    assertTrue(mainService.execute(new String[] { BatchCommand.COMMAND, "-m",
+        manifest.toString(), "-t", "4", "-o", output.toString() }));
+    List<String> lines = Files.readAllLines(output);
+    assertEquals(1, lines.size());
+  }
+
+  @Test
+  public void run_Batch_Failures() throws Throwable {
+    Path input = temporaryFolder.getRoot().toPath().resolve("input.txt");
+    Files.createFile(input);
+    Path tss = temporaryFolder.getRoot().toPath().resolve("tss.txt");
+    Files.createFile(tss);
+    Path missing = temporaryFolder.getRoot().toPath().resolve("missing.txt");
+    Path manifest = temporaryFolder.getRoot().toPath().resolve("manifest.txt");
+    Path output = temporaryFolder.getRoot().toPath().resolve("output.txt");
+    Path jobOutput = temporaryFolder.getRoot().toPath().resolve("job.txt");
+    doThrow(new IllegalStateException("test")).when(pauseCaller).callPauses(any());
+    Files.write(manifest,
+        (CallPausesCommand.COMMAND + "\t-i\t" + input + "\t-t\t" + tss + "\t-o\t" + jobOutput
+            + "\n" + MaximaCommand.COMMAND + "\t-i\t" + missing + "\t-w\t5\t-o\t" + jobOutput
+            + "\n" + BatchCommand.COMMAND + "\t-m\t" + manifest + "\n" + MaximaCommand.COMMAND
+            + "\t-i\t" + input + "\t-w\t5\t-o\t" + jobOutput + "\n").getBytes());
+    assertFalse(mainService.execute(new String[] { BatchCommand.COMMAND, "-m",
+        manifest.toString(), "-t", "2", "-o", output.toString() }));
+    verify(pauseCaller).callPauses(any());
+    verify(maxima).maxima(maximaCommandCaptor.capture());
+    assertEquals(input, maximaCommandCaptor.getValue().input);
+    List<String> lines = Files.readAllLines(output);
+    assertEquals(5, lines.size());
+    assertEquals(BatchRunner.FAILURE, lines.get(1).split("\t", -1)[1]);
+    assertEquals(BatchRunner.FAILURE, lines.get(2).split("\t", -1)[1]);
+    assertEquals(BatchRunner.FAILURE, lines.get(3).split("\t", -1)[1]);
+    assertEquals(BatchRunner.SUCCESS, lines.get(4).split("\t", -1)[1]);
+  }
+
+  @Test
+  public void run_Batch_StandardStreams() throws Throwable {
+    Path input = temporaryFolder.getRoot().toPath().resolve("input.txt");
+    Files.createFile(input);
+    Path manifest = temporaryFolder.getRoot().toPath().resolve("manifest.txt");
+    Path output = temporaryFolder.getRoot().toPath().resolve("output.txt");
+    Path jobOutput = temporaryFolder.getRoot().toPath().resolve("job.txt");
+    Files.write(manifest,
+        (MaximaCommand.COMMAND + "\t-i\t" + input + "\t-w\t5\n" + MaximaCommand.COMMAND
+            + "\t-w\t5\t-o\t" + jobOutput + "\n" + MaximaCommand.COMMAND + "\t-h\n"
+            + MaximaCommand.COMMAND + "\t-i\t" + input + "\t-w\t5\t-o\t" + jobOutput + "\n")
+                .getBytes());
+    assertFalse(mainService.execute(new String[] { BatchCommand.COMMAND, "-m",
+        manifest.toString(), "-o", output.toString() }));
+    verify(maxima).maxima(maximaCommandCaptor.capture());
+    assertEquals(input, maximaCommandCaptor.getValue().input);
+    assertEquals(jobOutput, maximaCommandCaptor.getValue().output);
+    List<String> lines = Files.readAllLines(output);
+    assertEquals(5, lines.size());
+    assertEquals(BatchRunner.FAILURE, lines.get(1).split("\t", -1)[1]);
+    assertEquals(BatchRunner.FAILURE, lines.get(2).split("\t", -1)[1]);
+    assertEquals(BatchRunner.FAILURE, lines.get(3).split("\t", -1)[1]);
+    assertEquals(BatchRunner.SUCCESS, lines.get(4).split("\t", -1)[1]);
+  }
+
+  @Test
+  public void run_Batch_ManifestMissing() throws Throwable {
+    assertFalse(mainService.execute(new String[] { BatchCommand.COMMAND }));
+    verifyZeroInteractions(maxima);
+    verifyZeroInteractions(pipeline);
+    verifyZeroInteractions(genomeConverter);
+    verifyZeroInteractions(fastaIndexer);
+    verifyZeroInteractions(correlator);
+    verifyZeroInteractions(metagene);
+    verifyZeroInteractions(tandemGenes);
+  }
+
+  @Test
+  public void run_Batch_ManifestNotExists() throws Throwable {
+    Path manifest = temporaryFolder.getRoot().toPath().resolve("manifest.txt");
+    assertFalse(mainService.execute(new String[] { BatchCommand.COMMAND, "-m",
+        manifest.toString() }));
+    verifyZeroInteractions(maxima);
+    verifyZeroInteractions(pipeline);
+    verifyZeroInteractions(genomeConverter);
+    verifyZeroInteractions(fastaIndexer);
+    verifyZeroInteractions(correlator);
+    verifyZeroInteractions(metagene);
+    verifyZeroInteractions(tandemGenes);
+  }
+
+  @Test
+  public void run_Batch_InvalidThreads() throws Throwable {
+    Path manifest = temporaryFolder.getRoot().toPath().resolve("manifest.txt");
+    Files.createFile(manifest);
+    assertFalse(mainService.execute(new String[] { BatchCommand.COMMAND, "-m",
+        manifest.toString(), "-t", "0" }));
+  }
+
+  @Test
+  public void run_Batch_Help() throws Throwable {
+    assertTrue(mainService.execute(new String[] { BatchCommand.COMMAND, "-h" }));
+    verifyZeroInteractions(maxima);
+    verifyZeroInteractions(pipeline);
+    verifyZeroInteractions(genomeConverter);
+    verifyZeroInteractions(fastaIndexer);
+    verifyZeroInteractions(correlator);
+    verifyZeroInteractions(metagene);
+    verifyZeroInteractions(tandemGenes);
+  }
+
+  private int freePort() throws IOException {
+    try (ServerSocket socket = new ServerSocket(0)) {
+      return socket.getLocalPort();
+    }
+  }
+
+  private void waitForServer(int port, Path tokenFile, Future<Boolean> server)
+      throws Throwable {
+    for (int i = 0; i < 100 && !server.isDone(); i++) {
+      try {
+        CommandServer.send(port, tokenFile, "-h");
+        return;
+      } catch (IOException e) {
+        Thread.sleep(100);
+      }
+    }
+  }
+
+  @Test
+  public void run_Serve() throws Throwable {
+    Path input = temporaryFolder.getRoot().toPath().resolve("input.txt");
+    Files.createFile(input);
+    Path output = temporaryFolder.getRoot().toPath().resolve("output.txt");
+    Path tokenFile = temporaryFolder.getRoot().toPath().resolve("server.token");
+    int port = freePort();
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    try {
+      Future<Boolean> server = executor.submit(() -> mainService.execute(new String[] {
+          ServeCommand.COMMAND, "-p", String.valueOf(port), "--tokenFile", tokenFile.toString() }));
+      waitForServer(port, tokenFile, server);
+      assertTrue(CommandServer.send(port, tokenFile, MaximaCommand.COMMAND, "-i",
+          input.toString(), "-w", "5", "-o", output.toString()));
+      verify(maxima).maxima(maximaCommandCaptor.capture());
+      assertEquals(input, maximaCommandCaptor.getValue().input);
+      assertEquals(output, maximaCommandCaptor.getValue().output);
+      assertEquals(5, maximaCommandCaptor.getValue().windowSize);
+      assertFalse(CommandServer.send(port, tokenFile, MaximaCommand.COMMAND));
+      assertFalse(CommandServer.send(port, tokenFile, MaximaCommand.COMMAND, "-i",
+          input.toString(), "-w", "5"));
+      assertFalse(CommandServer.send(port, tokenFile, MaximaCommand.COMMAND, "-i",
+          input.toString(), "-w", "5", "-o", "output.txt"));
+      assertFalse(CommandServer.send(port, tokenFile, "--report", "report.txt",
+          MaximaCommand.COMMAND, "-i", input.toString(), "-w", "5", "-o", output.toString()));
+      verify(maxima).maxima(any());
+      assertTrue(mainService.execute(new String[] { ServeCommand.COMMAND, "-p",
+          String.valueOf(port), "--tokenFile", tokenFile.toString(), "--stop" }));
+      assertTrue(server.get(10, TimeUnit.SECONDS));
+      assertFalse(Files.exists(tokenFile));
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  public void run_Serve_Stop_NoServer() throws Throwable {
+    Path tokenFile = temporaryFolder.getRoot().toPath().resolve("server.token");
+    int port = freePort();
+    assertFalse(mainService.execute(new String[] { ServeCommand.COMMAND, "-p",
+        String.valueOf(port), "--tokenFile", tokenFile.toString(), "--stop" }));
+  }
+
+  @Test
+  public void run_Serve_InvalidPort() throws Throwable {
+    assertFalse(mainService.execute(new String[] { ServeCommand.COMMAND, "-p", "0" }));
+  }
+
+  @Test
+  public void run_Serve_InvalidThreads() throws Throwable {
+    assertFalse(mainService.execute(new String[] { ServeCommand.COMMAND, "-t", "0" }));
+  }
+
+  @Test
+  public void run_Serve_Help() throws Throwable {
+    assertTrue(mainService.execute(new String[] { ServeCommand.COMMAND, "-h" }));
+    verifyZeroInteractions(maxima);
+    verifyZeroInteractions(pipeline);
+    verifyZeroInteractions(genomeConverter);
+    verifyZeroInteractions(fastaIndexer);
+    verifyZeroInteractions(correlator);
+    verifyZeroInteractions(metagene);
+    verifyZeroInteractions(tandemGenes);
+  }
+
+  @Test
+  public void run_Pipeline() throws Throwable {
+    Path tss = temporaryFolder.getRoot().toPath().resolve("tss.txt");
+    Files.createFile(tss);
+    mainService.run(new String[] { PipelineCommand.COMMAND, "-t", tss.toString() });
+    verify(pipeline).run(pipelineCommandCaptor.capture());
+    PipelineCommand command = pipelineCommandCaptor.getValue();
+    assertNull(command.input);
+    assertEquals(tss, command.tss);
+    assertEquals("+", command.strand);
+    assertEquals(200, command.windowSize);
+    assertEquals(4, command.fold, 0.000001);
+    assertEquals(3, command.peakMin, 0.000001);
+    assertEquals(2, command.tnormThreshold, 0.000001);
+    assertEquals(10, command.rounds);
+    assertEquals(0, command.cutoff, 0.000001);
+    assertEquals(0, command.peakStrengthMin, 0.000001);
+    assertEquals(TrackFormat.TEXT, command.format);
+    assertNull(command.maxima);
+    assertFalse(command.bed);
+    assertNull(command.cache);
+    assertFalse(command.noCache);
+    assertNull(command.output);
+  }
+
+  @Test
+  public void run_Pipeline_Parameters() throws Throwable {
+    Path input = temporaryFolder.getRoot().toPath().resolve("input.txt");
+    Files.createFile(input);
+    Path tss = temporaryFolder.getRoot().toPath().resolve("tss.txt");
+    Files.createFile(tss);
+    Path cache = temporaryFolder.getRoot().toPath().resolve("cache");
+    Path output = temporaryFolder.getRoot().toPath().resolve("output.txt");
+    mainService.run(new String[] { PipelineCommand.COMMAND, "-i", input.toString(), "-t",
+        tss.toString(), "--strand", "-", "-w", "100", "-f", "3", "-p", "2", "--tnormThreshold",
+        "1.5", "-r", "3", "-c", "0.5", "--peakStrengthMin", "1.2", "-m", "10", "--bed",
+        "--cache", cache.toString(), "--noCache", "-o", output.toString() });
+    verify(pipeline).run(pipelineCommandCaptor.capture());
+    PipelineCommand command = pipelineCommandCaptor.getValue();
+    assertEquals(input, command.input);
+    assertEquals(tss, command.tss);
+    assertEquals("-", command.strand);
+    assertEquals(100, command.windowSize);
+    assertEquals(3, command.fold, 0.000001);
+    assertEquals(2, command.peakMin, 0.000001);
+    assertEquals(1.5, command.tnormThreshold, 0.000001);
+    assertEquals(3, command.rounds);
+    assertEquals(0.5, command.cutoff, 0.000001);
+    assertEquals(1.2, command.peakStrengthMin, 0.000001);
+    assertEquals((Integer) 10, command.maxima);
+    assertTrue(command.bed);
+    assertEquals(cache, command.cache);
+    assertTrue(command.noCache);
+    assertEquals(output, command.output);
+  }
+
+  @Test
+  public void run_Pipeline_TssMissing() throws Throwable {
+    mainService.run(new String[] { PipelineCommand.COMMAND });
+    verify(pipeline, never()).run(any());
+  }
+
+  @Test
+  public void run_Pipeline_MaximaBelowMinimum() throws Throwable {
+    Path tss = temporaryFolder.getRoot().toPath().resolve("tss.txt");
+    Files.createFile(tss);
+    mainService.run(new String[] { PipelineCommand.COMMAND, "-t", tss.toString(), "-m", "0" });
+    verify(pipeline, never()).run(any());
+  }
+
+  @Test
+  public void run_Pipeline_InputNotExists() throws Throwable {
+    Path input = temporaryFolder.getRoot().toPath().resolve("input.txt");
+    Path tss = temporaryFolder.getRoot().toPath().resolve("tss.txt");
+    Files.createFile(tss);
+    mainService.run(new String[] { PipelineCommand.COMMAND, "-i", input.toString(), "-t",
+        tss.toString() });
+    verify(pipeline, never()).run(any());
+  }
+
+  @Test
+  public void run_Pipeline_Help() throws Throwable {
+    mainService.run(new String[] { PipelineCommand.COMMAND, "-h" });
+    verify(pipeline, never()).run(any());
+  }
+
+  @Test
+  public void execute_Report() throws Throwable {
+    Path chromosomeSizes = temporaryFolder.getRoot().toPath().resolve("chromosomeSizes.txt");
+    Files.createFile(chromosomeSizes);
+    Path report = temporaryFolder.getRoot().toPath().resolve("report.json");
+    doAnswer(invocation -> {
+      RunMetrics.current().recordsIn(3);
+      RunMetrics.current().stage("chromosome chrI").close();
+      return null;
+    }).when(bedConverter).bedToTrack(any());
+    assertTrue(mainService.execute(new String[] { "--report", report.toString(),
+        BedToTrackCommand.COMMAND, "-s", chromosomeSizes.toString() }));
+    verify(bedConverter).bedToTrack(any());
+    String json = new String(Files.readAllBytes(report), StandardCharsets.UTF_8);
+    assertTrue(json.contains("\"command\": \"" + BedToTrackCommand.COMMAND + "\","));
+    assertTrue(json.contains("\"success\": true,"));
+    assertTrue(json.contains("\"recordsIn\": 3,"));
+    assertTrue(json.contains("\"name\": \"chromosome chrI\""));
+    assertFalse(RunMetrics.current().enabled());
+  }
+
+  @Test
+  public void execute_Report_Failed() throws Throwable {
+    Path chromosomeSizes = temporaryFolder.getRoot().toPath().resolve("chromosomeSizes.txt");
+    Files.createFile(chromosomeSizes);
+    Path report = temporaryFolder.getRoot().toPath().resolve("report.json");
+    doThrow(new IOException("test")).when(bedConverter).bedToTrack(any());
+    assertFalse(mainService.execute(new String[] { "--report", report.toString(),
+        BedToTrackCommand.COMMAND, "-s", chromosomeSizes.toString() }));
+    String json = new String(Files.readAllBytes(report), StandardCharsets.UTF_8);
+    assertTrue(json.contains("\"success\": false,"));
+    assertFalse(RunMetrics.current().enabled());
+  }
+
+  @Test
+  public void execute_Report_CannotWrite() throws Throwable {
+    Path chromosomeSizes = temporaryFolder.getRoot().toPath().resolve("chromosomeSizes.txt");
+    Files.createFile(chromosomeSizes);
+    Path report = temporaryFolder.getRoot().toPath().resolve("missing/report.json");
+    assertFalse(mainService.execute(new String[] { "--report", report.toString(),
+        BedToTrackCommand.COMMAND, "-s", chromosomeSizes.toString() }));
+    verify(bedConverter).bedToTrack(any());
+  }
+
+  @Test
+  public void execute_NoReport() throws Throwable {
+    Path chromosomeSizes = temporaryFolder.getRoot().toPath().resolve("chromosomeSizes.txt");
+    Files.createFile(chromosomeSizes);
+    doAnswer(invocation -> {
+      assertFalse(RunMetrics.current().enabled());
+      return null;
+    }).when(bedConverter).bedToTrack(any());
+    assertTrue(mainService.execute(
+        new String[] { BedToTrackCommand.COMMAND, "-s", chromosomeSizes.toString() }));
+    verify(bedConverter).bedToTrack(any());
+  }
+
+  @Test
+  public void run_FastaToGenome() throws Throwable {
+    mainService.run(new String[] { FastaToGenomeCommand.COMMAND });
+    verify(genomeConverter).fastaToGenome(fastaToGenomeCommandCaptor.capture());
+    assertNull(fastaToGenomeCommandCaptor.getValue().input);
+    assertNull(fastaToGenomeCommandCaptor.getValue().output);
+  }
+
+  @Test
+  public void run_FastaToGenome_InputOutput() throws Throwable {
+    Path input = temporaryFolder.getRoot().toPath().resolve("genome.fa");
+    Files.createFile(input);
+    Path output = temporaryFolder.getRoot().toPath().resolve("genome.bin");
+    mainService.run(new String[] { FastaToGenomeCommand.COMMAND, "-i", input.toString(), "-o",
+        output.toString() });
+    verify(genomeConverter).fastaToGenome(fastaToGenomeCommandCaptor.capture());
+    assertEquals(input, fastaToGenomeCommandCaptor.getValue().input);
+    assertEquals(output, fastaToGenomeCommandCaptor.getValue().output);
+  }
+
+  @Test
+  public void run_FastaToGenome_InputNotExists() throws Throwable {
+    Path input = temporaryFolder.getRoot().toPath().resolve("genome.fa");
+    mainService.run(new String[] { FastaToGenomeCommand.COMMAND, "-i", input.toString() });
+    verify(genomeConverter, never()).fastaToGenome(any());
+  }
+
+  @Test
+  public void run_FastaToGenome_Help() throws Throwable {
+    mainService.run(new String[] { FastaToGenomeCommand.COMMAND, "-h" });
+    verify(genomeConverter, never()).fastaToGenome(any());
+  }
+
+  @Test
+  public void run_FastaIndex() throws Throwable {
+    Path input = temporaryFolder.getRoot().toPath().resolve("genome.fa");
+    Files.createFile(input);
+    mainService.run(new String[] { FastaIndexCommand.COMMAND, "-i", input.toString() });
+    verify(fastaIndexer).index(fastaIndexCommandCaptor.capture());
+    assertEquals(input, fastaIndexCommandCaptor.getValue().input);
+    assertNull(fastaIndexCommandCaptor.getValue().output);
+  }
+
+  @Test
+  public void run_FastaIndex_Output() throws Throwable {
+    Path input = temporaryFolder.getRoot().toPath().resolve("genome.fa");
+    Files.createFile(input);
+    Path output = temporaryFolder.getRoot().toPath().resolve("genome.fa.fai");
+    mainService.run(new String[] { FastaIndexCommand.COMMAND, "--input", input.toString(),
+        "--output", output.toString() });
+    verify(fastaIndexer).index(fastaIndexCommandCaptor.capture());
+    assertEquals(input, fastaIndexCommandCaptor.getValue().input);
+    assertEquals(output, fastaIndexCommandCaptor.getValue().output);
+  }
+
+  @Test
+  public void run_FastaIndex_InputMissing() throws Throwable {
+    mainService.run(new String[] { FastaIndexCommand.COMMAND });
+    verify(fastaIndexer, never()).index(any());
+  }
+
+  @Test
+  public void run_FastaIndex_InputNotExists() throws Throwable {
+    Path input = temporaryFolder.getRoot().toPath().resolve("genome.fa");
+    mainService.run(new String[] { FastaIndexCommand.COMMAND, "-i", input.toString() });
+    verify(fastaIndexer, never()).index(any());
+  }
+
+  @Test
+  public void run_FastaIndex_Help() throws Throwable {
+    mainService.run(new String[] { FastaIndexCommand.COMMAND, "-h" });
+    verify(fastaIndexer, never()).index(any());
+  }
+
+  private Path[] correlateTracks() throws Throwable {
+    Path[] tracks = new Path[] { temporaryFolder.getRoot().toPath().resolve("a_plus.txt"),
+        temporaryFolder.getRoot().toPath().resolve("a_minus.txt"),
+        temporaryFolder.getRoot().toPath().resolve("b_plus.txt"),
+        temporaryFolder.getRoot().toPath().resolve("b_minus.txt"),
+        temporaryFolder.getRoot().toPath().resolve("tss.txt") };
+    for (Path track : tracks) {
+      Files.createFile(track);
+    }
+    return tracks;
+  }
+
+  @Test
+  public void run_Correlate() throws Throwable {
+    Path[] tracks = correlateTracks();
+    mainService.run(new String[] { CorrelateCommand.COMMAND, "--plus1", tracks[0].toString(),
+        "--minus1", tracks[1].toString(), "--plus2", tracks[2].toString(), "--minus2",
+        tracks[3].toString(), "-t", tracks[4].toString() });
+    verify(correlator).correlate(correlateCommandCaptor.capture());
+    assertEquals(tracks[0], correlateCommandCaptor.getValue().plus1);
+    assertEquals(tracks[1], correlateCommandCaptor.getValue().minus1);
+    assertEquals(tracks[2], correlateCommandCaptor.getValue().plus2);
+    assertEquals(tracks[3], correlateCommandCaptor.getValue().minus2);
+    assertEquals(tracks[4], correlateCommandCaptor.getValue().tss);
+    assertEquals(TrackFormat.TEXT, correlateCommandCaptor.getValue().format);
+    assertEquals(1, correlateCommandCaptor.getValue().threads);
+    assertNull(correlateCommandCaptor.getValue().output);
+  }
+
+  @Test
+  public void run_Correlate_LongNames() throws Throwable {
+    Path[] tracks = correlateTracks();
+    Path output = temporaryFolder.getRoot().toPath().resolve("correlations.txt");
+    mainService.run(new String[] { CorrelateCommand.COMMAND, "--plus1", tracks[0].toString(),
+        "--minus1", tracks[1].toString(), "--plus2", tracks[2].toString(), "--minus2",
+        tracks[3].toString(), "--tss", tracks[4].toString(), "--format", "binary", "--threads",
+        "4", "--output", output.toString() });
+    verify(correlator).correlate(correlateCommandCaptor.capture());
+    assertEquals(tracks[4], correlateCommandCaptor.getValue().tss);
+    assertEquals(TrackFormat.BINARY, correlateCommandCaptor.getValue().format);
+    assertEquals(4, correlateCommandCaptor.getValue().threads);
+    assertEquals(output, correlateCommandCaptor.getValue().output);
+  }
+
+  @Test
+  public void run_Correlate_SecondSampleMissing() throws Throwable {
+    Path[] tracks = correlateTracks();
+    mainService.run(new String[] { CorrelateCommand.COMMAND, "--plus1", tracks[0].toString(),
+        "--minus1", tracks[1].toString(), "-t", tracks[4].toString() });
+    verify(correlator, never()).correlate(any());
+  }
+
+  @Test
+  public void run_Correlate_InvalidThreads() throws Throwable {
+    Path[] tracks = correlateTracks();
+    mainService.run(new String[] { CorrelateCommand.COMMAND, "--plus1", tracks[0].toString(),
+        "--minus1", tracks[1].toString(), "--plus2", tracks[2].toString(), "--minus2",
+        tracks[3].toString(), "-t", tracks[4].toString(), "--threads", "0" });
+    verify(correlator, never()).correlate(any());
+  }
+
+  @Test
+  public void run_Correlate_Help() throws Throwable {
+    mainService.run(new String[] { CorrelateCommand.COMMAND, "-h" });
+    verify(correlator, never()).correlate(any());
+  }
+
+  private Path[] metageneFiles() throws Throwable {
+    Path[] files = new Path[] { temporaryFolder.getRoot().toPath().resolve("plus.txt"),
+        temporaryFolder.getRoot().toPath().resolve("minus.txt"),
+        temporaryFolder.getRoot().toPath().resolve("tss.txt") };
+    for (Path file : files) {
+      Files.createFile(file);
+    }
+    return files;
+  }
+
+  @Test
+  public void run_Metagene() throws Throwable {
+    Path[] files = metageneFiles();
+    mainService.run(new String[] { MetageneCommand.COMMAND, "-p", files[0].toString(), "-m",
+        files[1].toString(), "-t", files[2].toString() });
+    verify(metagene).metagene(metageneCommandCaptor.capture());
+    assertEquals(files[0], metageneCommandCaptor.getValue().plus);
+    assertEquals(files[1], metageneCommandCaptor.getValue().minus);
+    assertEquals(files[2], metageneCommandCaptor.getValue().tss);
+    assertEquals(TrackFormat.TEXT, metageneCommandCaptor.getValue().format);
+    assertEquals(MetageneCommand.Anchor.TSS, metageneCommandCaptor.getValue().anchor);
+    assertEquals(1000, metageneCommandCaptor.getValue().length);
+    assertEquals(500, metageneCommandCaptor.getValue().minLength);
+    assertEquals(0, metageneCommandCaptor.getValue().lower, 0.000001);
+    assertEquals(100000, metageneCommandCaptor.getValue().upper, 0.000001);
+    assertFalse(metageneCommandCaptor.getValue().raw);
+    assertEquals(1, metageneCommandCaptor.getValue().threads);
+    assertNull(metageneCommandCaptor.getValue().output);
+  }
+
+  @Test
+  public void run_Metagene_LongNames() throws Throwable {
+    Path[] files = metageneFiles();
+    Path output = temporaryFolder.getRoot().toPath().resolve("metagene.txt");
+    mainService.run(new String[] { MetageneCommand.COMMAND, "--plus", files[0].toString(),
+        "--minus", files[1].toString(), "--tss", files[2].toString(), "--format", "binary",
+        "--anchor", "scaled", "--length", "100", "--minLength", "1000", "--lower", "0.5",
+        "--upper", "20", "--raw", "--threads", "4", "--output", output.toString() });
+    verify(metagene).metagene(metageneCommandCaptor.capture());
+    assertEquals(files[0], metageneCommandCaptor.getValue().plus);
+    assertEquals(files[1], metageneCommandCaptor.getValue().minus);
+    assertEquals(files[2], metageneCommandCaptor.getValue().tss);
+    assertEquals(TrackFormat.BINARY, metageneCommandCaptor.getValue().format);
+    assertEquals(MetageneCommand.Anchor.SCALED, metageneCommandCaptor.getValue().anchor);
+    assertEquals(100, metageneCommandCaptor.getValue().length);
+    assertEquals(1000, metageneCommandCaptor.getValue().minLength);
+    assertEquals(0.5, metageneCommandCaptor.getValue().lower, 0.000001);
+    assertEquals(20, metageneCommandCaptor.getValue().upper, 0.000001);
+    assertTrue(metageneCommandCaptor.getValue().raw);
+    assertEquals(4, metageneCommandCaptor.getValue().threads);
+    assertEquals(output, metageneCommandCaptor.getValue().output);
+  }
+
+  @Test
+  public void run_Metagene_Tes() throws Throwable {
+    Path[] files = metageneFiles();
+    mainService.run(new String[] { MetageneCommand.COMMAND, "-p", files[0].toString(), "-m",
+        files[1].toString(), "-t", files[2].toString(), "-a", "tes", "-l", "200" });
+    verify(metagene).metagene(metageneCommandCaptor.capture());
+    assertEquals(MetageneCommand.Anchor.TES, metageneCommandCaptor.getValue().anchor);
+    assertEquals(200, metageneCommandCaptor.getValue().length);
+  }
+
+  @Test
+  public void run_Metagene_InvalidAnchor() throws Throwable {
+    Path[] files = metageneFiles();
+    mainService.run(new String[] { MetageneCommand.COMMAND, "-p", files[0].toString(), "-m",
+        files[1].toString(), "-t", files[2].toString(), "-a", "middle" });
+    verify(metagene, never()).metagene(any());
+  }
+
+  @Test
+  public void run_Metagene_InvalidLength() throws Throwable {
+    Path[] files = metageneFiles();
+    mainService.run(new String[] { MetageneCommand.COMMAND, "-p", files[0].toString(), "-m",
+        files[1].toString(), "-t", files[2].toString(), "-l", "0" });
+    verify(metagene, never()).metagene(any());
+  }
+
+  @Test
+  public void run_Metagene_MinusMissing() throws Throwable {
+    Path[] files = metageneFiles();
+    mainService.run(new String[] { MetageneCommand.COMMAND, "-p", files[0].toString(), "-t",
+        files[2].toString() });
+    verify(metagene, never()).metagene(any());
+  }
+
+  @Test
+  public void run_Metagene_Help() throws Throwable {
+    mainService.run(new String[] { MetageneCommand.COMMAND, "-h" });
+    verify(metagene, never()).metagene(any());
+  }
+
+  private Path[] tandemFiles() throws Throwable {
+    Path[] files = new Path[] { temporaryFolder.getRoot().toPath().resolve("plus.txt"),
+        temporaryFolder.getRoot().toPath().resolve("minus.txt"),
+        temporaryFolder.getRoot().toPath().resolve("tss.txt") };
+    for (Path file : files) {
+      Files.createFile(file);
+    }
+    return files;
+  }
+
+  @Test
+  public void run_Tandem() throws Throwable {
+    Path[] files = tandemFiles();
+    mainService.run(new String[] { TandemCommand.COMMAND, "-p", files[0].toString(), "-m",
+        files[1].toString(), "-t", files[2].toString() });
+    verify(tandemGenes).tandem(tandemCommandCaptor.capture());
+    assertEquals(files[0], tandemCommandCaptor.getValue().plus);
+    assertEquals(files[1], tandemCommandCaptor.getValue().minus);
+    assertEquals(files[2], tandemCommandCaptor.getValue().tss);
+    assertEquals(TrackFormat.TEXT, tandemCommandCaptor.getValue().format);
+    assertEquals(200, tandemCommandCaptor.getValue().senseWindow);
+    assertEquals(200, tandemCommandCaptor.getValue().antisenseWindow);
+    assertEquals(0, tandemCommandCaptor.getValue().delta);
+    assertEquals(100, tandemCommandCaptor.getValue().senseSlide);
+    assertEquals(100, tandemCommandCaptor.getValue().antisenseSlide);
+    assertEquals(10, tandemCommandCaptor.getValue().step);
+    assertNull(tandemCommandCaptor.getValue().output);
+  }
+
+  @Test
+  public void run_Tandem_LongNames() throws Throwable {
+    Path[] files = tandemFiles();
+    Path output = temporaryFolder.getRoot().toPath().resolve("tandem.txt");
+    mainService.run(new String[] { TandemCommand.COMMAND, "--plus", files[0].toString(),
+        "--minus", files[1].toString(), "--tss", files[2].toString(), "--format", "binary",
+        "--senseWindow", "150", "--antisenseWindow", "250", "--delta", "50", "--senseSlide",
+        "300", "--antisenseSlide", "400", "--step", "5", "--output", output.toString() });
+    verify(tandemGenes).tandem(tandemCommandCaptor.capture());
+    assertEquals(files[0], tandemCommandCaptor.getValue().plus);
+    assertEquals(files[1], tandemCommandCaptor.getValue().minus);
+    assertEquals(files[2], tandemCommandCaptor.getValue().tss);
+    assertEquals(TrackFormat.BINARY, tandemCommandCaptor.getValue().format);
+    assertEquals(150, tandemCommandCaptor.getValue().senseWindow);
+    assertEquals(250, tandemCommandCaptor.getValue().antisenseWindow);
+    assertEquals(50, tandemCommandCaptor.getValue().delta);
+    assertEquals(300, tandemCommandCaptor.getValue().senseSlide);
+    assertEquals(400, tandemCommandCaptor.getValue().antisenseSlide);
+    assertEquals(5, tandemCommandCaptor.getValue().step);
+    assertEquals(output, tandemCommandCaptor.getValue().output);
+  }
+
+  @Test
+  public void run_Tandem_InvalidStep() throws Throwable {
+    Path[] files = tandemFiles();
+    mainService.run(new String[] { TandemCommand.COMMAND, "-p", files[0].toString(), "-m",
+        files[1].toString(), "-t", files[2].toString(), "--step", "0" });
+    verify(tandemGenes, never()).tandem(any());
+  }
+
+  @Test
+  public void run_Tandem_TssMissing() throws Throwable {
+    Path[] files = tandemFiles();
+    mainService.run(new String[] { TandemCommand.COMMAND, "-p", files[0].toString(), "-m",
+        files[1].toString() });
+    verify(tandemGenes, never()).tandem(any());
+  }
+
+  @Test
+  public void run_Tandem_Help() throws Throwable {
+    mainService.run(new String[] { TandemCommand.COMMAND, "-h" });
+    verify(tandemGenes, never()).tandem(any());
+  }
+
   @Test
   public void run_Other() throws Throwable {
     mainService.run(new String[] { "other" });
@@ -763,5 +1923,13 @@ public class MainServiceTest {
     verifyZeroInteractions(maxima);
     verifyZeroInteractions(sgdGeneConverter);
     verifyZeroInteractions(fakeGene);
+    verifyZeroInteractions(pauseCaller);
+    verifyZeroInteractions(trackIndexer);
+    verifyZeroInteractions(pipeline);
+    verifyZeroInteractions(genomeConverter);
+    verifyZeroInteractions(fastaIndexer);
+    verifyZeroInteractions(correlator);
+    verifyZeroInteractions(metagene);
+    verifyZeroInteractions(tandemGenes);
   }
 }
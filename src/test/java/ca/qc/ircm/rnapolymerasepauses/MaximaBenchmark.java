@@ -0,0 +1,75 @@
+package ca.qc.ircm.rnapolymerasepauses;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares sliding window maxima with the previous implementation that scanned the whole gene for
+ * every pause.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class MaximaBenchmark {
+  private static final double PAUSE_MAX_FOLDS_ABOVE_AVERAGE = 20;
+  @Param({ "1000", "10000", "50000" })
+  public int pausesCount;
+  @Param({ "20", "200" })
+  public int window;
+  private Maxima maxima = new Maxima();
+  private List<Pause> pauses;
+
+  /**
+   * Generates pauses of a single gene.
+   */
+  @Setup
+  public void generatePauses() {
+    Random random = new Random(pausesCount);
+    pauses = new ArrayList<>();
+    int position = 0;
+    for (int i = 0; i < pausesCount; i++) {
+      position += random.nextInt(4) + 1;
+      Pause pause = new Pause();
+      pause.name = "gene";
+      pause.chromosome = "chr1";
+      pause.position = position;
+      pause.foldsAboveAverage = random.nextDouble() * PAUSE_MAX_FOLDS_ABOVE_AVERAGE;
+      pauses.add(pause);
+    }
+  }
+
+  @Benchmark
+  public List<Pause> slidingWindow() {
+    return maxima.maxima(pauses, window);
+  }
+
+  @Benchmark
+  public List<Pause> fullScan() {
+    List<Pause> maxima = new ArrayList<>();
+    for (Pause pause : pauses) {
+      int start = pause.position - window;
+      int end = pause.position + window;
+      if (pauses.stream().filter(pa -> pa.position >= start && pa.position <= end)
+          .filter(pa -> pa.foldsAboveAverage > pause.foldsAboveAverage).count() == 0) {
+        maxima.add(pause);
+      }
+    }
+    return maxima;
+  }
+}
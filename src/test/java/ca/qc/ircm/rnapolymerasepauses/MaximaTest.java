@@ -153,4 +153,63 @@ public class MaximaTest {
       assertEquals(pause.sequence, sequence.toString());
     }
   }
+
+  private Pause pause(String gene, int position, double foldsAboveAverage) {
+    Pause pause = new Pause();
+    pause.name = gene;
+    pause.chromosome = "chr1";
+    pause.position = position;
+    pause.normalizedReads = random.nextDouble() * PAUSE_MAX_NORMALIZED_READS;
+    pause.foldsAboveAverage = foldsAboveAverage;
+    pause.beginningReads = random.nextDouble() * PAUSE_MAX_BEGINNING_READS;
+    return pause;
+  }
+
+  @Test
+  public void maxima_Ties() throws Throwable {
+    List<Pause> pauses = new ArrayList<>();
+    pauses.add(pause("gene1", 10, 5.0));
+    pauses.add(pause("gene1", 15, 8.0));
+    pauses.add(pause("gene1", 20, 8.0));
+    pauses.add(pause("gene1", 25, 3.0));
+    pauses.add(pause("gene1", 40, 2.0));
+
+    List<Pause> maximaPauses = maxima.maxima(pauses, 10);
+
+    assertEquals(3, maximaPauses.size());
+    assertEquals(pauses.get(1), maximaPauses.get(0));
+    assertEquals(pauses.get(2), maximaPauses.get(1));
+    assertEquals(pauses.get(4), maximaPauses.get(2));
+  }
+
+  @Test
+  public void maxima_UnsortedPositions() throws Throwable {
+    List<Pause> pauses = new ArrayList<>();
+    pauses.add(pause("gene1", 40, 2.0));
+    pauses.add(pause("gene1", 25, 3.0));
+    pauses.add(pause("gene1", 10, 5.0));
+    pauses.add(pause("gene1", 20, 8.0));
+    pauses.add(pause("gene1", 31, 1.0));
+
+    List<Pause> maximaPauses = maxima.maxima(pauses, 10);
+
+    assertEquals(2, maximaPauses.size());
+    assertEquals(pauses.get(0), maximaPauses.get(0));
+    assertEquals(pauses.get(3), maximaPauses.get(1));
+  }
+
+  @Test
+  public void maxima_WindowBoundaries() throws Throwable {
+    List<Pause> pauses = new ArrayList<>();
+    pauses.add(pause("gene1", 0, 2.0));
+    pauses.add(pause("gene1", 10, 4.0));
+    pauses.add(pause("gene1", 21, 6.0));
+    pauses.add(pause("gene1", 31, 7.0));
+
+    List<Pause> maximaPauses = maxima.maxima(pauses, 10);
+
+    assertEquals(2, maximaPauses.size());
+    assertEquals(pauses.get(1), maximaPauses.get(0));
+    assertEquals(pauses.get(3), maximaPauses.get(1));
+  }
 }
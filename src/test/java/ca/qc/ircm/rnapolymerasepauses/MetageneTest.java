@@ -0,0 +1,309 @@
+package ca.qc.ircm.rnapolymerasepauses;
+
+import static ca.qc.ircm.rnapolymerasepauses.test.data.TrackData.binaryTrack;
+import static ca.qc.ircm.rnapolymerasepauses.test.data.TrackData.gene;
+import static ca.qc.ircm.rnapolymerasepauses.test.data.TrackData.lines;
+import static ca.qc.ircm.rnapolymerasepauses.test.data.TrackData.reader;
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import ca.qc.ircm.rnapolymerasepauses.MetageneCommand.Anchor;
+import ca.qc.ircm.rnapolymerasepauses.io.TrackFormat;
+import ca.qc.ircm.rnapolymerasepauses.io.TssParser;
+import ca.qc.ircm.rnapolymerasepauses.test.config.NonTransactionalTestAnnotations;
+import java.io.BufferedWriter;
+import java.io.StringWriter;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+
+@RunWith(SpringJUnit4ClassRunner.class)
+@NonTransactionalTestAnnotations
+public class MetageneTest {
+  private static final int CHROMOSOME_LENGTH = 1000;
+  private static final double DELTA = 0.000001;
+  private Metagene metagene;
+  @Mock
+  private TssParser tssParser;
+  @Mock
+  private MetageneCommand parameters;
+  private List<Gene> genes = new ArrayList<>();
+  private double[] plus = new double[CHROMOSOME_LENGTH];
+  private double[] minus = new double[CHROMOSOME_LENGTH];
+  private StringWriter output = new StringWriter();
+  @Rule
+  public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  /**
+   * Before test.
+   */
+  @Before
+  public void beforeTest() throws Throwable {
+    metagene = new Metagene(tssParser);
+    parameters.tss = Paths.get("tss.txt");
+    parameters.anchor = Anchor.TSS;
+    parameters.length = 5;
+    parameters.minLength = 500;
+    parameters.lower = 0;
+    parameters.upper = 100000;
+    parameters.threads = 2;
+    for (int i = 0; i < CHROMOSOME_LENGTH; i++) {
+      plus[i] = i + 1;
+      minus[i] = i + 1;
+    }
+    when(tssParser.genes(any())).thenReturn(genes);
+    when(parameters.writer()).thenReturn(new BufferedWriter(output));
+  }
+
+  private void textTracks() throws Throwable {
+    when(parameters.plusReader()).thenReturn(reader(plus));
+    when(parameters.minusReader()).thenReturn(reader(minus));
+  }
+
+  @Test
+  public void metagene() throws Throwable {
+    gene(genes, "gene1", "chr1", 1, 600, "+");
+    gene(genes, "gene2", "chr1", 101, 700, "-");
+    textTracks();
+
+    metagene.metagene(parameters);
+
+    verify(tssParser).genes(parameters.tss);
+    String[][] lines = lines(output);
+    assertEquals(5, lines.length);
+    for (int i = 0; i < 5; i++) {
+      assertEquals(3, lines[i].length);
+      assertEquals(String.valueOf(i), lines[i][0]);
+      // Expression of both genes is the mean of 101 to 600.
+      assertEquals(((i + 1) / 350.5 + (700 - i) / 350.5) / 2, Double.parseDouble(lines[i][1]),
+          DELTA);
+      assertEquals("2", lines[i][2]);
+    }
+  }
+
+  @Test
+  public void metagene_Raw() throws Throwable {
+    gene(genes, "gene1", "chr1", 1, 600, "+");
+    gene(genes, "gene2", "chr1", 101, 700, "-");
+    parameters.raw = true;
+    textTracks();
+
+    metagene.metagene(parameters);
+
+    String[][] lines = lines(output);
+    assertEquals(5, lines.length);
+    for (int i = 0; i < 5; i++) {
+      assertEquals(String.valueOf(i), lines[i][0]);
+      assertEquals(((i + 1) + (700 - i)) / 2.0, Double.parseDouble(lines[i][1]), DELTA);
+      assertEquals("2", lines[i][2]);
+    }
+  }
+
+  @Test
+  public void metagene_Tes() throws Throwable {
+    gene(genes, "gene1", "chr1", 1, 600, "+");
+    gene(genes, "gene2", "chr1", 101, 700, "-");
+    parameters.anchor = Anchor.TES;
+    parameters.length = 3;
+    parameters.raw = true;
+    textTracks();
+
+    metagene.metagene(parameters);
+
+    String[][] lines = lines(output);
+    assertEquals(3, lines.length);
+    assertEquals("-2", lines[0][0]);
+    assertEquals((598 + 103) / 2.0, Double.parseDouble(lines[0][1]), DELTA);
+    assertEquals("-1", lines[1][0]);
+    assertEquals((599 + 102) / 2.0, Double.parseDouble(lines[1][1]), DELTA);
+    assertEquals("0", lines[2][0]);
+    assertEquals((600 + 101) / 2.0, Double.parseDouble(lines[2][1]), DELTA);
+    assertEquals("2", lines[2][2]);
+  }
+
+  @Test
+  public void metagene_Scaled() throws Throwable {
+    gene(genes, "gene1", "chr1", 1, 600, "+");
+    gene(genes, "gene2", "chr1", 101, 400, "-");
+    parameters.anchor = Anchor.SCALED;
+    parameters.length = 3;
+    parameters.minLength = 0;
+    parameters.raw = true;
+    textTracks();
+
+    metagene.metagene(parameters);
+
+    String[][] lines = lines(output);
+    assertEquals(3, lines.length);
+    assertEquals("0", lines[0][0]);
+    assertEquals((100.5 + 350.5) / 2, Double.parseDouble(lines[0][1]), DELTA);
+    assertEquals("2", lines[0][2]);
+    assertEquals("1", lines[1][0]);
+    assertEquals((300.5 + 250.5) / 2, Double.parseDouble(lines[1][1]), DELTA);
+    assertEquals("2", lines[2][0]);
+    assertEquals((500.5 + 150.5) / 2, Double.parseDouble(lines[2][1]), DELTA);
+  }
+
+  @Test
+  public void metagene_ScaledShortGene() throws Throwable {
+    gene(genes, "gene1", "chr1", 1, 2, "+");
+    parameters.anchor = Anchor.SCALED;
+    parameters.length = 4;
+    parameters.minLength = 0;
+    parameters.raw = true;
+    textTracks();
+
+    metagene.metagene(parameters);
+
+    String[][] lines = lines(output);
+    assertEquals(4, lines.length);
+    assertEquals(1, Double.parseDouble(lines[0][1]), DELTA);
+    assertEquals(1, Double.parseDouble(lines[1][1]), DELTA);
+    assertEquals(2, Double.parseDouble(lines[2][1]), DELTA);
+    assertEquals(2, Double.parseDouble(lines[3][1]), DELTA);
+  }
+
+  @Test
+  public void metagene_GeneShorterThanLength() throws Throwable {
+    gene(genes, "gene1", "chr1", 1, 3, "+");
+    gene(genes, "gene2", "chr1", 1, 5, "+");
+    parameters.minLength = 0;
+    parameters.raw = true;
+    textTracks();
+
+    metagene.metagene(parameters);
+
+    String[][] lines = lines(output);
+    assertEquals(5, lines.length);
+    assertEquals("2", lines[2][2]);
+    assertEquals("1", lines[3][2]);
+    assertEquals(4, Double.parseDouble(lines[3][1]), DELTA);
+    assertEquals("1", lines[4][2]);
+  }
+
+  @Test
+  public void metagene_MinLength() throws Throwable {
+    gene(genes, "gene1", "chr1", 1, 600, "+");
+    gene(genes, "gene2", "chr1", 1, 500, "+");
+    gene(genes, "gene3", "chr1", 1, 501, "+");
+    parameters.raw = true;
+    textTracks();
+
+    metagene.metagene(parameters);
+
+    String[][] lines = lines(output);
+    assertEquals("2", lines[0][2]);
+  }
+
+  @Test
+  public void metagene_Lower() throws Throwable {
+    gene(genes, "gene1", "chr1", 1, 600, "+");
+    gene(genes, "gene2", "chr1", 1, 601, "+");
+    parameters.lower = 350.5;
+    textTracks();
+
+    metagene.metagene(parameters);
+
+    String[][] lines = lines(output);
+    assertEquals(5, lines.length);
+    assertEquals("1", lines[0][2]);
+    assertEquals(1 / 351.5, Double.parseDouble(lines[0][1]), DELTA);
+  }
+
+  @Test
+  public void metagene_Upper() throws Throwable {
+    gene(genes, "gene1", "chr1", 1, 600, "+");
+    gene(genes, "gene2", "chr1", 1, 601, "+");
+    parameters.upper = 351.5;
+    textTracks();
+
+    metagene.metagene(parameters);
+
+    String[][] lines = lines(output);
+    assertEquals(5, lines.length);
+    assertEquals("1", lines[0][2]);
+    assertEquals(1 / 350.5, Double.parseDouble(lines[0][1]), DELTA);
+  }
+
+  @Test
+  public void metagene_NoExpression() throws Throwable {
+    gene(genes, "gene1", "chr1", 1, 600, "+");
+    plus = new double[CHROMOSOME_LENGTH];
+    textTracks();
+
+    metagene.metagene(parameters);
+
+    assertEquals(0, lines(output).length);
+  }
+
+  @Test
+  public void metagene_MissingChromosome() throws Throwable {
+    gene(genes, "gene1", "chr2", 1, 600, "+");
+    textTracks();
+
+    metagene.metagene(parameters);
+
+    assertEquals(0, lines(output).length);
+  }
+
+  @Test
+  public void metagene_Binary() throws Throwable {
+    gene(genes, "gene1", "chr1", 1, 600, "+");
+    gene(genes, "gene2", "chr1", 101, 700, "-");
+    parameters.format = TrackFormat.BINARY;
+    parameters.plus = binaryTrack(temporaryFolder, "plus.bin", plus);
+    parameters.minus = binaryTrack(temporaryFolder, "minus.bin", minus);
+    parameters.raw = true;
+
+    metagene.metagene(parameters);
+
+    String[][] lines = lines(output);
+    assertEquals(5, lines.length);
+    for (int i = 0; i < 5; i++) {
+      assertEquals(((i + 1) + (700 - i)) / 2.0, Double.parseDouble(lines[i][1]), DELTA);
+      assertEquals("2", lines[i][2]);
+    }
+  }
+
+  @Test
+  public void metagene_ManyGenes() throws Throwable {
+    Random random = new Random();
+    for (int i = 0; i < CHROMOSOME_LENGTH; i++) {
+      plus[i] = random.nextInt(10);
+      minus[i] = random.nextInt(10);
+    }
+    for (int i = 0; i < 200; i++) {
+      gene(genes, "gene" + i, "chr1", 1 + i, 600 + i, i % 2 == 0 ? "+" : "-");
+    }
+    parameters.length = 600;
+    parameters.threads = 4;
+    textTracks();
+
+    metagene.metagene(parameters);
+
+    Metagene.Profile expected = new Metagene.Profile(parameters.length);
+    for (Gene gene : genes) {
+      double[] track = gene.strand.equals("+") ? plus : minus;
+      double[] reads = Arrays.copyOfRange(track, (int) gene.start - 1, (int) gene.end);
+      Metagene.add(gene, reads, parameters, expected);
+    }
+    String[][] lines = lines(output);
+    assertEquals(600, lines.length);
+    for (int i = 0; i < 600; i++) {
+      assertEquals(String.valueOf(i), lines[i][0]);
+      assertEquals(expected.sums[i] / expected.counts[i], Double.parseDouble(lines[i][1]), DELTA);
+      assertEquals(String.valueOf(expected.counts[i]), lines[i][2]);
+    }
+  }
+}
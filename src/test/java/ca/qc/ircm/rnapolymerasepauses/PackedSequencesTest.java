@@ -0,0 +1,118 @@
+package ca.qc.ircm.rnapolymerasepauses;
+
+import static org.junit.Assert.assertEquals;
+
+import ca.qc.ircm.rnapolymerasepauses.test.config.NonTransactionalTestAnnotations;
+import java.util.Random;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+
+@RunWith(SpringJUnit4ClassRunner.class)
+@NonTransactionalTestAnnotations
+public class PackedSequencesTest {
+  private static final int SEQUENCES_COUNT = 1000;
+  private static final int SEQUENCE_MAX_LENGHT = 300;
+  private PackedSequences sequences;
+  private Random random;
+
+  /**
+   * Before test.
+   */
+  @Before
+  public void beforeTest() throws Throwable {
+    sequences = new PackedSequences();
+    random = new Random();
+  }
+
+  private String get(long start, long end) {
+    char[] destination = new char[(int) (end - start)];
+    sequences.get(start, end, destination, 0);
+    return new String(destination);
+  }
+
+  private String randomSequence(String alphabet, int length) {
+    StringBuilder builder = new StringBuilder();
+    for (int i = 0; i < length; i++) {
+      builder.append(alphabet.charAt(random.nextInt(alphabet.length())));
+    }
+    return builder.toString();
+  }
+
+  @Test
+  public void append() throws Throwable {
+    assertEquals(0, sequences.append("ACGT"));
+    assertEquals(4, sequences.append("TTGCA"));
+
+    assertEquals(9, sequences.length());
+    assertEquals("ACGT", get(0, 4));
+    assertEquals("TTGCA", get(4, 9));
+    assertEquals("GTTT", get(2, 6));
+  }
+
+  @Test
+  public void append_LowerCase() throws Throwable {
+    sequences.append("ACgtaCGT");
+
+    assertEquals("ACgtaCGT", get(0, 8));
+    assertEquals("gta", get(2, 5));
+    assertEquals("taC", get(3, 6));
+  }
+
+  @Test
+  public void append_Exceptions() throws Throwable {
+    sequences.append("ACNNNNGTnA-");
+
+    assertEquals("ACNNNNGTnA-", get(0, 11));
+    assertEquals("NNG", get(3, 6));
+    assertEquals("", get(4, 4));
+  }
+
+  @Test
+  public void append_Random() throws Throwable {
+    StringBuilder all = new StringBuilder();
+    for (int i = 0; i < SEQUENCES_COUNT; i++) {
+      String sequence =
+          randomSequence("ACGTACGTACGTacgtNn*", random.nextInt(SEQUENCE_MAX_LENGHT));
+      assertEquals(all.length(), sequences.append(sequence));
+      all.append(sequence);
+    }
+
+    assertEquals(all.length(), sequences.length());
+    assertEquals(all.toString(), get(0, all.length()));
+    for (int i = 0; i < SEQUENCES_COUNT; i++) {
+      int start = random.nextInt(all.length());
+      int end = start + random.nextInt(Math.min(SEQUENCE_MAX_LENGHT, all.length() - start));
+      assertEquals(all.substring(start, end), get(start, end));
+    }
+  }
+
+  @Test
+  public void get_Offset() throws Throwable {
+    sequences.append("ACGTN");
+    char[] destination = new char[6];
+
+    sequences.get(1, 5, destination, 2);
+
+    assertEquals("CGTN", new String(destination, 2, 4));
+  }
+
+  @Test(expected = IndexOutOfBoundsException.class)
+  public void get_AfterEnd() throws Throwable {
+    sequences.append("ACGT");
+
+    get(2, 5);
+  }
+
+  @Test
+  public void clear() throws Throwable {
+    sequences.append("TTTTNNaaaa");
+
+    sequences.clear();
+
+    assertEquals(0, sequences.length());
+    assertEquals(0, sequences.append("ACGA"));
+    assertEquals("ACGA", get(0, 4));
+  }
+}
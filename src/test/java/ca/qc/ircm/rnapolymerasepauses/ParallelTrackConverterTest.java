@@ -0,0 +1,241 @@
+package ca.qc.ircm.rnapolymerasepauses;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import ca.qc.ircm.rnapolymerasepauses.io.BinaryTrack;
+import ca.qc.ircm.rnapolymerasepauses.io.TrackFormat;
+import ca.qc.ircm.rnapolymerasepauses.test.config.NonTransactionalTestAnnotations;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Stream;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+
+@RunWith(SpringJUnit4ClassRunner.class)
+@NonTransactionalTestAnnotations
+public class ParallelTrackConverterTest {
+  private static final double DELTA = 0.000001;
+  @Rule
+  public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  private long segments(Path directory) throws IOException {
+    try (Stream<Path> files = Files.list(directory)) {
+      return files.filter(file -> file.getFileName().toString().endsWith(".segment")).count();
+    }
+  }
+
+  private Path file(String content) throws IOException {
+    Path file = temporaryFolder.getRoot().toPath().resolve("input.txt");
+    Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+    return file;
+  }
+
+  @Test
+  public void bedBlocks() throws Throwable {
+    Path file = file("browser position chr1:1-100\ntrack name=test\n" + "chr1\t0\t10\t1\n"
+        + "chr1\t20\t30\t2\n" + "#comment\n" + "chr2 0 10 3\n" + "chr3\t0\t10\t4\n"
+        + "chr1\t50\t60\t5");
+
+    assertEquals(Arrays.asList(0L, 78L, 90L, 102L), ParallelTrackConverter.bedBlocks(file));
+  }
+
+  @Test
+  public void bedBlocks_LargeFile() throws Throwable {
+    StringBuilder content = new StringBuilder();
+    List<Long> expected = new ArrayList<>();
+    for (int chromosome = 1; chromosome <= 5; chromosome++) {
+      expected.add((long) content.length());
+      for (int i = 0; i < 10000; i++) {
+        content.append("chr" + chromosome + "\t" + i + "\t" + (i + 1) + "\t1\n");
+      }
+    }
+    Path file = file(content.toString());
+
+    assertEquals(expected, ParallelTrackConverter.bedBlocks(file));
+  }
+
+  @Test
+  public void bedBlocks_Empty() throws Throwable {
+    Path file = file("");
+
+    assertEquals(Arrays.asList(0L), ParallelTrackConverter.bedBlocks(file));
+  }
+
+  @Test
+  public void wigBlocks() throws Throwable {
+    Path file = file("track name=test\nvariableStep chrom=chr1\n1\t2\n3\t4\n"
+        + "variableStep chrom=chr2\n1\t5\r\nvariableStep\tchrom=chr3\n");
+
+    assertEquals(Arrays.asList(0L, 16L, 48L, 77L), ParallelTrackConverter.wigBlocks(file));
+  }
+
+  @Test
+  public void wigBlocks_FirstLine() throws Throwable {
+    Path file = file("variableStep chrom=chr1\n1\t2\nvariableStep chrom=chr2\n1\t5\n");
+
+    assertEquals(Arrays.asList(0L, 28L), ParallelTrackConverter.wigBlocks(file));
+  }
+
+  @Test
+  public void convert() throws Throwable {
+    Path file = file("chr1\n2\nchr2\n3\nchr3\n1\n");
+    StringWriter output = new StringWriter();
+
+    ParallelTrackConverter.convert(file, Arrays.asList(0L, 7L, 14L), null, 3, TrackFormat.TEXT,
+        () -> new BufferedWriter(output), () -> null, (reader, writer) -> {
+          writer.startChromosome(reader.readLine());
+          writer.write(Double.parseDouble(reader.readLine()), 2);
+        });
+
+    assertEquals("chrom=chr1\n2.0\n2.0\nchrom=chr2\n3.0\n3.0\nchrom=chr3\n1.0\n1.0\n",
+        output.toString());
+  }
+
+  @Test
+  public void convert_ManyBlocks() throws Throwable {
+    StringBuilder content = new StringBuilder();
+    StringBuilder expected = new StringBuilder();
+    List<Long> blocks = new ArrayList<>();
+    for (int i = 1; i <= 20; i++) {
+      blocks.add((long) content.length());
+      content.append("chr" + i + "\n" + i + "\n");
+      expected.append("chrom=chr" + i + "\n" + i + ".0\n" + i + ".0\n");
+    }
+    Path file = file(content.toString());
+    StringWriter output = new StringWriter();
+
+    ParallelTrackConverter.convert(file, blocks, null, 2, TrackFormat.TEXT,
+        () -> new BufferedWriter(output), () -> null, (reader, writer) -> {
+          writer.startChromosome(reader.readLine());
+          writer.write(Double.parseDouble(reader.readLine()), 2);
+        });
+
+    assertEquals(expected.toString(), output.toString());
+  }
+
+  @Test
+  public void convert_Rle() throws Throwable {
+    Path file = file("chr1\n2\nchr2\n3\n");
+    StringWriter output = new StringWriter();
+
+    ParallelTrackConverter.convert(file, Arrays.asList(0L, 7L), null, 2, TrackFormat.RLE,
+        () -> new BufferedWriter(output), () -> null, (reader, writer) -> {
+          writer.startChromosome(reader.readLine());
+          writer.write(Double.parseDouble(reader.readLine()), 2);
+        });
+
+    assertEquals("chrom=chr1\n2.0\t2\nchrom=chr2\n3.0\t2\n", output.toString());
+  }
+
+  @Test
+  public void convert_Binary() throws Throwable {
+    Path file = file("chr1\n2\nchr2\n3\n");
+    Path output = temporaryFolder.getRoot().toPath().resolve("output.bin");
+
+    ParallelTrackConverter.convert(file, Arrays.asList(0L, 7L), output, 2, TrackFormat.BINARY,
+        () -> null, () -> Files.newOutputStream(output), (reader, writer) -> {
+          writer.startChromosome(reader.readLine());
+          writer.write(Double.parseDouble(reader.readLine()), 2);
+        });
+
+    try (BinaryTrack track = new BinaryTrack(output)) {
+      assertEquals(Arrays.asList("chr1", "chr2"), track.chromosomes());
+      assertEquals(2, track.length("chr1"));
+      assertEquals(2, track.values("chr1").get(1), DELTA);
+      assertEquals(2, track.length("chr2"));
+      assertEquals(3, track.values("chr2").get(1), DELTA);
+    }
+  }
+
+  @Test(expected = NumberFormatException.class)
+  public void convert_Exception() throws Throwable {
+    Path file = file("chr1\n2\nchr2\na\n");
+    StringWriter output = new StringWriter();
+
+    ParallelTrackConverter.convert(file, Arrays.asList(0L, 7L), null, 2, TrackFormat.TEXT,
+        () -> new BufferedWriter(output), () -> null, (reader, writer) -> {
+          writer.startChromosome(reader.readLine());
+          writer.write(Double.parseDouble(reader.readLine()), 2);
+        });
+  }
+
+  @Test(expected = IOException.class)
+  public void convert_IoException() throws Throwable {
+    Path file = file("chr1\n2\nchr2\n3\n");
+
+    ParallelTrackConverter.convert(file, Arrays.asList(0L, 7L), null, 2, TrackFormat.TEXT,
+        () -> new BufferedWriter(new StringWriter()), () -> null, (reader, writer) -> {
+          throw new IOException("test");
+        });
+  }
+
+  @Test
+  public void convert_SegmentsInOutputDirectory() throws Throwable {
+    Path file = file("chr1\n2\nchr2\n3\n");
+    Path directory = temporaryFolder.newFolder("output").toPath();
+    Path output = directory.resolve("output.txt");
+    List<Long> segments = Collections.synchronizedList(new ArrayList<>());
+
+    ParallelTrackConverter.convert(file, Arrays.asList(0L, 7L), output, 2, TrackFormat.TEXT,
+        () -> Files.newBufferedWriter(output), () -> null, (reader, writer) -> {
+          segments.add(segments(directory));
+          writer.startChromosome(reader.readLine());
+          writer.write(Double.parseDouble(reader.readLine()), 2);
+        });
+
+    assertEquals(2, segments.size());
+    for (long count : segments) {
+      assertTrue(count > 0);
+    }
+    assertEquals(0, segments(directory));
+    assertEquals("chrom=chr1\n2.0\n2.0\nchrom=chr2\n3.0\n3.0\n",
+        new String(Files.readAllBytes(output), StandardCharsets.UTF_8));
+  }
+
+  @Test
+  public void convert_Exception_DeleteSegments() throws Throwable {
+    StringBuilder content = new StringBuilder();
+    List<Long> blocks = new ArrayList<>();
+    for (int i = 1; i <= 20; i++) {
+      blocks.add((long) content.length());
+      content.append("chr" + i + "\n" + (i == 1 ? "a" : String.valueOf(i)) + "\n");
+    }
+    Path file = file(content.toString());
+    Path directory = temporaryFolder.newFolder("output").toPath();
+    Path output = directory.resolve("output.txt");
+
+    try {
+      ParallelTrackConverter.convert(file, blocks, output, 4, TrackFormat.TEXT,
+          () -> Files.newBufferedWriter(output), () -> null, (reader, writer) -> {
+            writer.startChromosome(reader.readLine());
+            String value = reader.readLine();
+            if (!value.equals("a")) {
+              try {
+                Thread.sleep(50);
+              } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+              }
+            }
+            writer.write(Double.parseDouble(value), 2);
+          });
+      fail("Expected NumberFormatException");
+    } catch (NumberFormatException e) {
+      // Success
+    }
+
+    assertEquals(0, segments(directory));
+  }
+}
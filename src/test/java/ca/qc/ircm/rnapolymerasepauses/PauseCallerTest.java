@@ -0,0 +1,401 @@
+package ca.qc.ircm.rnapolymerasepauses;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import ca.qc.ircm.rnapolymerasepauses.io.BinaryTrackWriter;
+import ca.qc.ircm.rnapolymerasepauses.io.GenomeWriter;
+import ca.qc.ircm.rnapolymerasepauses.io.PauseReader;
+import ca.qc.ircm.rnapolymerasepauses.io.TrackFormat;
+import ca.qc.ircm.rnapolymerasepauses.io.TssParser;
+import ca.qc.ircm.rnapolymerasepauses.test.config.NonTransactionalTestAnnotations;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.StringReader;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+
+@RunWith(SpringJUnit4ClassRunner.class)
+@NonTransactionalTestAnnotations
+public class PauseCallerTest {
+  private static final String LINE_SEPARATOR = "\n";
+  private static final int CHROMOSOME_LENGTH = 700;
+  private static final int GENE_LENGTH = 601;
+  private static final int PAUSE_POSITION = 300;
+  private static final double PAUSE_READS = 50;
+  private static final double DELTA = 0.000001;
+  private PauseCaller pauseCaller;
+  @Mock
+  private TssParser tssParser;
+  @Mock
+  private CallPausesCommand parameters;
+  private List<Gene> genes = new ArrayList<>();
+  private StringWriter output = new StringWriter();
+  @Rule
+  public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  /**
+   * Before test.
+   */
+  @Before
+  public void beforeTest() throws Throwable {
+    pauseCaller = new PauseCaller(tssParser);
+    parameters.tss = Paths.get("tss.txt");
+    parameters.strand = "+";
+    parameters.windowSize = 200;
+    parameters.fold = 4;
+    parameters.peakMin = 3;
+    parameters.tnormThreshold = 2;
+    parameters.rounds = 10;
+    parameters.cutoff = 0;
+    parameters.peakStrengthMin = 0;
+    when(tssParser.genes(any())).thenReturn(genes);
+    when(parameters.reader())
+        .thenReturn(new BufferedReader(new StringReader(track("chr1") + track("chr2"))));
+    when(parameters.writer()).thenReturn(new BufferedWriter(output));
+  }
+
+  private String track(String chromosome) {
+    StringBuilder builder = new StringBuilder();
+    builder.append("chrom=" + chromosome + LINE_SEPARATOR);
+    for (int i = 0; i < CHROMOSOME_LENGTH; i++) {
+      builder.append(i == PAUSE_POSITION ? PAUSE_READS : 1.0);
+      builder.append(LINE_SEPARATOR);
+    }
+    return builder.toString();
+  }
+
+  private Path binaryTrack(String... chromosomes) throws Throwable {
+    Path file = temporaryFolder.getRoot().toPath().resolve("track.bin");
+    try (BinaryTrackWriter writer = new BinaryTrackWriter(Files.newOutputStream(file))) {
+      for (String chromosome : chromosomes) {
+        writer.startChromosome(chromosome);
+        writer.write(1.0, PAUSE_POSITION);
+        writer.write(PAUSE_READS, 1);
+        writer.write(1.0, CHROMOSOME_LENGTH - PAUSE_POSITION - 1);
+      }
+    }
+    return file;
+  }
+
+  private Path genome(String... chromosomes) throws Throwable {
+    Path file = temporaryFolder.getRoot().toPath().resolve("genome.bin");
+    try (GenomeWriter writer = new GenomeWriter(Files.newOutputStream(file))) {
+      for (String chromosome : chromosomes) {
+        writer.startChromosome(chromosome);
+        for (int i = 0; i < CHROMOSOME_LENGTH; i += 10) {
+          writer.write("AACCGGTTAC");
+        }
+      }
+    }
+    return file;
+  }
+
+  private Gene gene(String name, String chromosome, long start, long end, String strand) {
+    Gene gene = new Gene();
+    gene.name = name;
+    gene.chromosome = chromosome;
+    gene.start = start;
+    gene.end = end;
+    gene.strand = strand;
+    genes.add(gene);
+    return gene;
+  }
+
+  private List<Pause> pauses() throws Throwable {
+    List<Pause> pauses = new ArrayList<>();
+    try (PauseReader reader =
+        new PauseReader(new BufferedReader(new StringReader(output.toString())))) {
+      Pause pause;
+      while ((pause = reader.readPause()) != null) {
+        pauses.add(pause);
+      }
+    }
+    return pauses;
+  }
+
+  @Test
+  public void callPauses() throws Throwable {
+    gene("gene1", "chr1", 1, GENE_LENGTH, "+");
+    gene("gene2", "chr2", 51, 50 + GENE_LENGTH, "+");
+
+    pauseCaller.callPauses(parameters);
+
+    List<Pause> pauses = pauses();
+    assertEquals(2, pauses.size());
+    Pause pause = pauses.get(0);
+    assertEquals("gene1", pause.name);
+    assertEquals("chr1", pause.chromosome);
+    assertEquals(PAUSE_POSITION, pause.position);
+    assertEquals(PAUSE_READS, pause.normalizedReads, DELTA);
+    assertEquals(PAUSE_READS / ((199 + 1.245) / 200), pause.foldsAboveAverage, DELTA);
+    assertEquals((400 + PAUSE_READS) / 400, pause.beginningReads, DELTA);
+    assertNull(pause.sequence);
+    pause = pauses.get(1);
+    assertEquals("gene2", pause.name);
+    assertEquals("chr2", pause.chromosome);
+    assertEquals(PAUSE_POSITION - 50, pause.position);
+    assertEquals(PAUSE_READS, pause.normalizedReads, DELTA);
+    assertEquals(PAUSE_READS / ((199 + 1.245) / 200), pause.foldsAboveAverage, DELTA);
+    assertEquals((400 + PAUSE_READS) / 400, pause.beginningReads, DELTA);
+  }
+
+  @Test
+  public void callPauses_Consumer() throws Throwable {
+    gene("gene1", "chr1", 1, GENE_LENGTH, "+");
+    gene("gene2", "chr2", 51, 50 + GENE_LENGTH, "+");
+    List<List<Pause>> genePauses = new ArrayList<>();
+
+    pauseCaller.callPauses(parameters, pauses -> genePauses.add(pauses));
+
+    assertEquals(2, genePauses.size());
+    List<Pause> pauses = genePauses.get(0);
+    assertEquals(1, pauses.size());
+    Pause pause = pauses.get(0);
+    assertEquals("gene1", pause.name);
+    assertEquals("chr1", pause.chromosome);
+    assertEquals(PAUSE_POSITION, pause.position);
+    assertEquals(PAUSE_READS, pause.normalizedReads, DELTA);
+    pauses = genePauses.get(1);
+    assertEquals(1, pauses.size());
+    pause = pauses.get(0);
+    assertEquals("gene2", pause.name);
+    assertEquals("chr2", pause.chromosome);
+    assertEquals(PAUSE_POSITION - 50, pause.position);
+    assertEquals("", output.toString());
+  }
+
+  @Test
+  public void callPauses_MinusStrand() throws Throwable {
+    gene("gene1", "chr1", 1, GENE_LENGTH, "-");
+    parameters.strand = "-";
+
+    pauseCaller.callPauses(parameters);
+
+    List<Pause> pauses = pauses();
+    assertEquals(1, pauses.size());
+    Pause pause = pauses.get(0);
+    assertEquals("gene1", pause.name);
+    assertEquals(PAUSE_POSITION, pause.position);
+    assertEquals(PAUSE_READS / ((199 + 1.245) / 200), pause.foldsAboveAverage, DELTA);
+    assertEquals((400 + PAUSE_READS) / 400, pause.beginningReads, DELTA);
+  }
+
+  @Test
+  public void callPauses_Genome() throws Throwable {
+    gene("gene1", "chr1", 1, GENE_LENGTH, "+");
+    gene("gene2", "chr2", 51, 50 + GENE_LENGTH, "+");
+    parameters.genome = genome("chr1", "chr2");
+    parameters.sequenceLength = 5;
+
+    pauseCaller.callPauses(parameters);
+
+    List<Pause> pauses = pauses();
+    assertEquals(2, pauses.size());
+    assertEquals("gene1", pauses.get(0).name);
+    assertEquals("TTACAACCGG", pauses.get(0).sequence);
+    assertEquals("gene2", pauses.get(1).name);
+    assertEquals("TTACAACCGG", pauses.get(1).sequence);
+  }
+
+  @Test
+  public void callPauses_GenomeMinusStrand() throws Throwable {
+    gene("gene1", "chr1", 1, GENE_LENGTH, "-");
+    parameters.strand = "-";
+    parameters.genome = genome("chr1");
+    parameters.sequenceLength = 5;
+
+    pauseCaller.callPauses(parameters);
+
+    List<Pause> pauses = pauses();
+    assertEquals(1, pauses.size());
+    assertEquals(PAUSE_POSITION, pauses.get(0).position);
+    assertEquals("CGGTTGTAAC", pauses.get(0).sequence);
+  }
+
+  @Test(expected = IOException.class)
+  public void callPauses_GenomeMissingChromosome() throws Throwable {
+    gene("gene1", "chr1", 1, GENE_LENGTH, "+");
+    parameters.genome = genome("chr2");
+    parameters.sequenceLength = 5;
+
+    pauseCaller.callPauses(parameters);
+  }
+
+  @Test
+  public void callPauses_OtherStrand() throws Throwable {
+    gene("gene1", "chr1", 1, GENE_LENGTH, "-");
+
+    pauseCaller.callPauses(parameters);
+
+    assertEquals(0, pauses().size());
+  }
+
+  @Test
+  public void callPauses_ShortGene() throws Throwable {
+    gene("gene1", "chr1", 1, 501, "+");
+
+    pauseCaller.callPauses(parameters);
+
+    assertEquals(0, pauses().size());
+  }
+
+  @Test
+  public void callPauses_Cutoff() throws Throwable {
+    gene("gene1", "chr1", 1, GENE_LENGTH, "+");
+    parameters.cutoff = 2;
+
+    pauseCaller.callPauses(parameters);
+
+    assertEquals(0, pauses().size());
+  }
+
+  @Test
+  public void callPauses_PeakStrengthMin() throws Throwable {
+    gene("gene1", "chr1", 1, GENE_LENGTH, "+");
+    parameters.peakStrengthMin = 50;
+
+    pauseCaller.callPauses(parameters);
+
+    assertEquals(0, pauses().size());
+  }
+
+  @Test
+  public void callPauses_Gene() throws Throwable {
+    Gene gene = gene("gene1", "chr1", 1, GENE_LENGTH, "+");
+    double[] reads = new double[GENE_LENGTH];
+    Arrays.fill(reads, 1.0);
+    reads[100] = 20;
+    reads[400] = 30;
+
+    List<Pause> pauses = pauseCaller.callPauses(gene, reads, parameters);
+
+    assertEquals(2, pauses.size());
+    assertEquals(100, pauses.get(0).position);
+    assertEquals(20, pauses.get(0).normalizedReads, DELTA);
+    assertEquals(400, pauses.get(1).position);
+    assertEquals(30, pauses.get(1).normalizedReads, DELTA);
+  }
+
+  @Test
+  public void callPauses_StrandPair() throws Throwable {
+    gene("gene1", "chr1", 1, GENE_LENGTH, "+");
+    gene("gene2", "chr2", 51, 50 + GENE_LENGTH, "-");
+    gene("gene3", "chr1", 1, GENE_LENGTH, "-");
+    parameters.strand = "-";
+    parameters.minusInput = Paths.get("minus.txt");
+    when(parameters.minusReader())
+        .thenReturn(new BufferedReader(new StringReader(track("chr2"))));
+
+    pauseCaller.callPauses(parameters);
+
+    verify(tssParser).genes(parameters.tss);
+    List<Pause> pauses = pauses();
+    assertEquals(2, pauses.size());
+    Pause pause = pauses.get(0);
+    assertEquals("gene1", pause.name);
+    assertEquals("chr1", pause.chromosome);
+    assertEquals(PAUSE_POSITION, pause.position);
+    assertEquals(PAUSE_READS, pause.normalizedReads, DELTA);
+    assertEquals(PAUSE_READS / ((199 + 1.245) / 200), pause.foldsAboveAverage, DELTA);
+    pause = pauses.get(1);
+    assertEquals("gene2", pause.name);
+    assertEquals("chr2", pause.chromosome);
+    assertEquals(PAUSE_POSITION - 50, pause.position);
+    assertEquals(PAUSE_READS, pause.normalizedReads, DELTA);
+    assertEquals(PAUSE_READS / ((199 + 1.245) / 200), pause.foldsAboveAverage, DELTA);
+  }
+
+  @Test
+  public void callPauses_StrandPairBinary() throws Throwable {
+    gene("gene1", "chr1", 1, GENE_LENGTH, "+");
+    gene("gene2", "chr2", 51, 50 + GENE_LENGTH, "-");
+    parameters.format = TrackFormat.BINARY;
+    parameters.input = binaryTrack("chr1", "chr2");
+    parameters.minusInput = parameters.input;
+
+    pauseCaller.callPauses(parameters);
+
+    List<Pause> pauses = pauses();
+    assertEquals(2, pauses.size());
+    assertEquals("gene1", pauses.get(0).name);
+    assertEquals(PAUSE_POSITION, pauses.get(0).position);
+    assertEquals("gene2", pauses.get(1).name);
+    assertEquals(PAUSE_POSITION - 50, pauses.get(1).position);
+  }
+
+  @Test(expected = IOException.class)
+  public void callPauses_StrandPairMinusFails() throws Throwable {
+    gene("gene1", "chr1", 1, GENE_LENGTH, "+");
+    parameters.minusInput = Paths.get("minus.txt");
+    when(parameters.minusReader()).thenThrow(new IOException("test"));
+
+    pauseCaller.callPauses(parameters);
+  }
+
+  @Test
+  public void callPauses_Binary() throws Throwable {
+    gene("gene1", "chr1", 1, GENE_LENGTH, "+");
+    gene("gene2", "chr2", 51, 50 + GENE_LENGTH, "+");
+    parameters.format = TrackFormat.BINARY;
+    parameters.input = binaryTrack("chr1", "chr2");
+
+    pauseCaller.callPauses(parameters);
+
+    List<Pause> pauses = pauses();
+    assertEquals(2, pauses.size());
+    Pause pause = pauses.get(0);
+    assertEquals("gene1", pause.name);
+    assertEquals("chr1", pause.chromosome);
+    assertEquals(PAUSE_POSITION, pause.position);
+    assertEquals(PAUSE_READS, pause.normalizedReads, DELTA);
+    assertEquals(PAUSE_READS / ((199 + 1.245) / 200), pause.foldsAboveAverage, DELTA);
+    assertEquals((400 + PAUSE_READS) / 400, pause.beginningReads, DELTA);
+    pause = pauses.get(1);
+    assertEquals("gene2", pause.name);
+    assertEquals("chr2", pause.chromosome);
+    assertEquals(PAUSE_POSITION - 50, pause.position);
+    assertEquals(PAUSE_READS / ((199 + 1.245) / 200), pause.foldsAboveAverage, DELTA);
+  }
+
+  @Test
+  public void callPauses_BinaryMinusStrand() throws Throwable {
+    gene("gene1", "chr1", 1, GENE_LENGTH, "-");
+    parameters.strand = "-";
+    parameters.format = TrackFormat.BINARY;
+    parameters.input = binaryTrack("chr1");
+
+    pauseCaller.callPauses(parameters);
+
+    List<Pause> pauses = pauses();
+    assertEquals(1, pauses.size());
+    Pause pause = pauses.get(0);
+    assertEquals("gene1", pause.name);
+    assertEquals(PAUSE_POSITION, pause.position);
+    assertEquals(PAUSE_READS / ((199 + 1.245) / 200), pause.foldsAboveAverage, DELTA);
+  }
+
+  @Test(expected = IOException.class)
+  public void callPauses_BinaryNoInput() throws Throwable {
+    gene("gene1", "chr1", 1, GENE_LENGTH, "+");
+    parameters.format = TrackFormat.BINARY;
+
+    pauseCaller.callPauses(parameters);
+  }
+}
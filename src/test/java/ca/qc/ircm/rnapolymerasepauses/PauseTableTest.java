@@ -0,0 +1,171 @@
+package ca.qc.ircm.rnapolymerasepauses;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import ca.qc.ircm.rnapolymerasepauses.test.config.NonTransactionalTestAnnotations;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.apache.commons.lang3.RandomStringUtils;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+
+@RunWith(SpringJUnit4ClassRunner.class)
+@NonTransactionalTestAnnotations
+public class PauseTableTest {
+  private static final int PAUSES_COUNT = 10000;
+  private static final int PAUSES_PER_GENE = 20;
+  private static final int PAUSE_MAX_POSITION = 500;
+  private static final int PAUSE_SEQUENCE_MAX_LENGHT = 400;
+  private PauseTable table;
+  private List<Pause> pauses;
+  private Random random;
+
+  /**
+   * Before test.
+   */
+  @Before
+  public void beforeTest() throws Throwable {
+    table = new PauseTable();
+    random = new Random();
+    pauses = new ArrayList<>();
+    for (int i = 0; i < PAUSES_COUNT; i++) {
+      Pause pause = new Pause();
+      pause.name = "gene" + i / PAUSES_PER_GENE;
+      pause.chromosome = "chr" + (i * 10 / PAUSES_COUNT + 1);
+      pause.position = random.nextInt(PAUSE_MAX_POSITION);
+      pause.normalizedReads = random.nextDouble();
+      pause.foldsAboveAverage = random.nextDouble();
+      pause.beginningReads = random.nextDouble();
+      pause.sequence =
+          RandomStringUtils.randomAlphabetic(random.nextInt(PAUSE_SEQUENCE_MAX_LENGHT));
+      pauses.add(pause);
+    }
+  }
+
+  private void assertPauseEquals(Pause expected, PauseTable table, int index) {
+    assertEquals(expected.name, table.name(index));
+    assertEquals(expected.chromosome, table.chromosome(index));
+    assertEquals(expected.position, table.position(index));
+    assertEquals(expected.normalizedReads, table.normalizedReads(index), 0.0);
+    assertEquals(expected.foldsAboveAverage, table.foldsAboveAverage(index), 0.0);
+    assertEquals(expected.beginningReads, table.beginningReads(index), 0.0);
+    assertEquals(expected.sequence, table.sequence(index));
+    assertEquals(expected.sequence.length(), table.sequenceLength(index));
+  }
+
+  @Test
+  public void add() throws Throwable {
+    pauses.forEach(pause -> table.add(pause));
+
+    assertEquals(PAUSES_COUNT, table.size());
+    for (int i = 0; i < PAUSES_COUNT; i++) {
+      assertPauseEquals(pauses.get(i), table, i);
+    }
+  }
+
+  @Test
+  public void add_Sequence() throws Throwable {
+    Pause pause = pauses.get(0);
+    table.add(pause, new StringBuilder("ACGT"));
+
+    assertEquals(1, table.size());
+    assertEquals("ACGT", table.sequence(0));
+  }
+
+  @Test
+  public void add_NullSequence() throws Throwable {
+    Pause pause = pauses.get(0);
+    pause.sequence = null;
+    table.add(pause);
+
+    assertEquals(0, table.sequenceLength(0));
+    assertEquals("", table.sequence(0));
+  }
+
+  @Test
+  public void add_LargeSequences() throws Throwable {
+    // Random letters are mostly exceptions of packed sequences.
+    List<Pause> pauses = this.pauses.subList(0, 5);
+    pauses.forEach(pause -> pause.sequence = RandomStringUtils.randomAlphabetic(700000));
+    pauses.forEach(pause -> table.add(pause));
+
+    for (int i = 0; i < pauses.size(); i++) {
+      assertPauseEquals(pauses.get(i), table, i);
+    }
+  }
+
+  @Test
+  public void ids() throws Throwable {
+    pauses.forEach(pause -> table.add(pause));
+
+    assertEquals(table.nameId(0), table.nameId(PAUSES_PER_GENE - 1));
+    assertTrue(table.nameId(0) != table.nameId(PAUSES_PER_GENE));
+    assertEquals(table.chromosomeId(0), table.chromosomeId(1));
+    assertEquals("gene0", table.value(table.nameId(0)));
+    assertEquals("chr1", table.value(table.chromosomeId(0)));
+  }
+
+  @Test
+  public void sequence_Part() throws Throwable {
+    Pause pause = pauses.get(0);
+    pause.sequence = "ACGTACGT";
+    table.add(pause);
+    char[] destination = new char[5];
+
+    table.sequence(0, 2, 6, destination, 1);
+
+    assertEquals("GTAC", new String(destination, 1, 4));
+  }
+
+  @Test(expected = IndexOutOfBoundsException.class)
+  public void sequence_OutOfSequence() throws Throwable {
+    Pause pause = pauses.get(0);
+    pause.sequence = "ACGT";
+    table.add(pause);
+
+    table.sequence(0, 2, 6, new char[10], 0);
+  }
+
+  @Test
+  public void get() throws Throwable {
+    pauses.forEach(pause -> table.add(pause));
+
+    for (int i = 0; i < PAUSES_COUNT; i++) {
+      Pause expected = pauses.get(i);
+      Pause actual = table.get(i);
+      assertEquals(expected.name, actual.name);
+      assertEquals(expected.chromosome, actual.chromosome);
+      assertEquals(expected.position, actual.position);
+      assertEquals(expected.normalizedReads, actual.normalizedReads, 0.0);
+      assertEquals(expected.foldsAboveAverage, actual.foldsAboveAverage, 0.0);
+      assertEquals(expected.beginningReads, actual.beginningReads, 0.0);
+      assertEquals(expected.sequence, actual.sequence);
+    }
+  }
+
+  @Test(expected = IndexOutOfBoundsException.class)
+  public void get_OutOfBounds() throws Throwable {
+    table.add(pauses.get(0));
+
+    table.get(1);
+  }
+
+  @Test
+  public void clear() throws Throwable {
+    pauses.forEach(pause -> table.add(pause));
+
+    table.clear();
+
+    assertEquals(0, table.size());
+    List<Pause> pauses = this.pauses.subList(100, 200);
+    pauses.forEach(pause -> table.add(pause));
+    assertEquals(pauses.size(), table.size());
+    for (int i = 0; i < pauses.size(); i++) {
+      assertPauseEquals(pauses.get(i), table, i);
+    }
+  }
+}
@@ -1,8 +1,13 @@
 package ca.qc.ircm.rnapolymerasepauses;
 
 import static org.junit.Assert.assertEquals;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import ca.qc.ircm.rnapolymerasepauses.io.GeneStarts;
+import ca.qc.ircm.rnapolymerasepauses.io.TssCache;
+import ca.qc.ircm.rnapolymerasepauses.io.TssParser;
 import ca.qc.ircm.rnapolymerasepauses.test.config.NonTransactionalTestAnnotations;
 import java.io.BufferedReader;
 import java.io.BufferedWriter;
@@ -48,6 +53,9 @@ public class PausesConverterTest {
   private static final double DELTA = 0.000000001;
   private PausesConverter pausesConverter;
   @Mock
+  private TssCache tssCache;
+  private TssParser tssParser = new TssParser();
+  @Mock
   private PausesToBedCommand bedParameters;
   @Mock
   private PausesToTabsCommand tabsParameters;
@@ -64,7 +72,7 @@ public class PausesConverterTest {
    */
   @Before
   public void beforeTest() throws Throwable {
-    pausesConverter = new PausesConverter();
+    pausesConverter = new PausesConverter(tssCache);
     random = new Random();
     pauses = IntStream.range(0, PAUSES_COUNT)
         .mapToObj(i -> generatePause(i / PAUSES_PER_CHROMOSOME + 1)).collect(Collectors.toList());
@@ -161,10 +169,12 @@ public class PausesConverterTest {
     when(bedParameters.writer()).thenReturn(new BufferedWriter(writer));
     Path tss = temporaryFolder.newFile("tss.txt").toPath();
     Files.write(tss, Arrays.asList(tssContent.split(LINE_SEPARATOR)));
+    when(tssCache.geneStarts(any(), any())).thenReturn(new GeneStarts(tssParser.genes(tss)));
     bedParameters.tss = tss;
 
     pausesConverter.pausesToBed(bedParameters);
 
+    verify(tssCache).geneStarts(tss, null);
     String[] lines = writer.toString().split(LINE_SEPARATOR);
     for (int i = 0; i < pauses.size(); i++) {
       Pause pause = pauses.get(i);
@@ -191,10 +201,12 @@ public class PausesConverterTest {
     when(bedParameters.writer()).thenReturn(new BufferedWriter(writer));
     Path tss = temporaryFolder.newFile("tss.txt").toPath();
     Files.write(tss, Arrays.asList(tssContent.split(LINE_SEPARATOR)));
+    when(tssCache.geneStarts(any(), any())).thenReturn(new GeneStarts(tssParser.genes(tss)));
     bedParameters.tss = tss;
 
     pausesConverter.pausesToBed(bedParameters);
 
+    verify(tssCache).geneStarts(tss, null);
     String[] lines = writer.toString().split(LINE_SEPARATOR);
     for (int i = 0; i < pauses.size(); i++) {
       Pause pause = pauses.get(i);
@@ -209,6 +221,40 @@ public class PausesConverterTest {
     }
   }
 
+  @Test
+  public void pausesToBed_Cache() throws Throwable {
+    generateGenes();
+    when(bedParameters.reader()).thenReturn(new BufferedReader(new StringReader(content)));
+    when(bedParameters.writer()).thenReturn(new BufferedWriter(new StringWriter()));
+    Path tss = temporaryFolder.newFile("tss.txt").toPath();
+    Files.write(tss, Arrays.asList(tssContent.split(LINE_SEPARATOR)));
+    when(tssCache.geneStarts(any(), any())).thenReturn(new GeneStarts(tssParser.genes(tss)));
+    bedParameters.tss = tss;
+    Path cache = temporaryFolder.getRoot().toPath().resolve("cache");
+    bedParameters.cache = cache;
+
+    pausesConverter.pausesToBed(bedParameters);
+
+    verify(tssCache).geneStarts(tss, cache);
+  }
+
+  @Test
+  public void pausesToBed_NoCache() throws Throwable {
+    generateGenes();
+    when(bedParameters.reader()).thenReturn(new BufferedReader(new StringReader(content)));
+    when(bedParameters.writer()).thenReturn(new BufferedWriter(new StringWriter()));
+    Path tss = temporaryFolder.newFile("tss.txt").toPath();
+    Files.write(tss, Arrays.asList(tssContent.split(LINE_SEPARATOR)));
+    when(tssCache.geneStarts(any(), any())).thenReturn(new GeneStarts(tssParser.genes(tss)));
+    bedParameters.tss = tss;
+    bedParameters.cache = temporaryFolder.getRoot().toPath().resolve("cache");
+    bedParameters.noCache = true;
+
+    pausesConverter.pausesToBed(bedParameters);
+
+    verify(tssCache).geneStarts(tss, null);
+  }
+
   @Test
   public void pausesToTabs() throws Throwable {
     when(tabsParameters.reader()).thenReturn(new BufferedReader(new StringReader(content)));
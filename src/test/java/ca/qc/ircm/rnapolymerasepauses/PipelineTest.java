@@ -0,0 +1,241 @@
+package ca.qc.ircm.rnapolymerasepauses;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import ca.qc.ircm.rnapolymerasepauses.io.GeneStarts;
+import ca.qc.ircm.rnapolymerasepauses.io.PauseReader;
+import ca.qc.ircm.rnapolymerasepauses.io.TrackFormat;
+import ca.qc.ircm.rnapolymerasepauses.io.TssCache;
+import ca.qc.ircm.rnapolymerasepauses.io.TssParser;
+import ca.qc.ircm.rnapolymerasepauses.test.config.NonTransactionalTestAnnotations;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+
+@RunWith(SpringJUnit4ClassRunner.class)
+@NonTransactionalTestAnnotations
+public class PipelineTest {
+  private static final String LINE_SEPARATOR = "\n";
+  private static final int CHROMOSOME_LENGTH = 700;
+  private static final int GENE_LENGTH = 601;
+  private static final int PAUSE_POSITION = 300;
+  private static final double PAUSE_READS = 50;
+  private static final int SECOND_PAUSE_POSITION = 310;
+  private static final double SECOND_PAUSE_READS = 40;
+  private Pipeline pipeline;
+  @Mock
+  private TssParser tssParser;
+  @Mock
+  private TssCache tssCache;
+  @Mock
+  private PipelineCommand parameters;
+  @Mock
+  private CallPausesCommand callPausesParameters;
+  private List<Gene> genes = new ArrayList<>();
+  private StringWriter output = new StringWriter();
+
+  /**
+   * Before test.
+   */
+  @Before
+  public void beforeTest() throws Throwable {
+    pipeline =
+        new Pipeline(new PauseCaller(tssParser), new Maxima(), new PausesConverter(tssCache),
+            tssCache);
+    parameters.tss = Paths.get("tss.txt");
+    parameters.format = TrackFormat.TEXT;
+    parameters.strand = "+";
+    parameters.windowSize = 200;
+    parameters.fold = 4;
+    parameters.peakMin = 3;
+    parameters.tnormThreshold = 2;
+    parameters.rounds = 10;
+    parameters.cutoff = 0;
+    parameters.peakStrengthMin = 0;
+    parameters.cache = Paths.get("cache");
+    when(tssParser.genes(any())).thenReturn(genes);
+    when(parameters.reader())
+        .thenReturn(new BufferedReader(new StringReader(track("chr1") + track("chr2"))));
+    when(parameters.writer()).thenReturn(new BufferedWriter(output));
+    gene("gene1", "chr1", 1, GENE_LENGTH, "+");
+    gene("gene2", "chr2", 51, 50 + GENE_LENGTH, "+");
+    when(tssCache.geneStarts(any(), any())).thenReturn(new GeneStarts(genes));
+  }
+
+  private String track(String chromosome) {
+    StringBuilder builder = new StringBuilder();
+    builder.append("chrom=" + chromosome + LINE_SEPARATOR);
+    for (int i = 0; i < CHROMOSOME_LENGTH; i++) {
+      builder.append(i == PAUSE_POSITION ? PAUSE_READS
+          : i == SECOND_PAUSE_POSITION ? SECOND_PAUSE_READS : 1.0);
+      builder.append(LINE_SEPARATOR);
+    }
+    return builder.toString();
+  }
+
+  private Gene gene(String name, String chromosome, long start, long end, String strand) {
+    Gene gene = new Gene();
+    gene.name = name;
+    gene.chromosome = chromosome;
+    gene.start = start;
+    gene.end = end;
+    gene.strand = strand;
+    genes.add(gene);
+    return gene;
+  }
+
+  private List<Pause> pauses() throws Throwable {
+    List<Pause> pauses = new ArrayList<>();
+    try (PauseReader reader =
+        new PauseReader(new BufferedReader(new StringReader(output.toString())))) {
+      Pause pause;
+      while ((pause = reader.readPause()) != null) {
+        pauses.add(pause);
+      }
+    }
+    return pauses;
+  }
+
+  private String callPauses() throws Throwable {
+    callPausesParameters.tss = parameters.tss;
+    callPausesParameters.format = parameters.format;
+    callPausesParameters.strand = parameters.strand;
+    callPausesParameters.windowSize = parameters.windowSize;
+    callPausesParameters.fold = parameters.fold;
+    callPausesParameters.peakMin = parameters.peakMin;
+    callPausesParameters.tnormThreshold = parameters.tnormThreshold;
+    callPausesParameters.rounds = parameters.rounds;
+    callPausesParameters.cutoff = parameters.cutoff;
+    callPausesParameters.peakStrengthMin = parameters.peakStrengthMin;
+    when(callPausesParameters.reader())
+        .thenReturn(new BufferedReader(new StringReader(track("chr1") + track("chr2"))));
+    StringWriter callPausesOutput = new StringWriter();
+    when(callPausesParameters.writer()).thenReturn(new BufferedWriter(callPausesOutput));
+    new PauseCaller(tssParser).callPauses(callPausesParameters);
+    return callPausesOutput.toString();
+  }
+
+  @Test
+  public void run() throws Throwable {
+    pipeline.run(parameters);
+
+    assertEquals(callPauses(), output.toString());
+    List<Pause> pauses = pauses();
+    assertEquals(4, pauses.size());
+    assertEquals("gene1", pauses.get(0).name);
+    assertEquals(PAUSE_POSITION, pauses.get(0).position);
+    assertEquals("gene1", pauses.get(1).name);
+    assertEquals(SECOND_PAUSE_POSITION, pauses.get(1).position);
+    assertEquals("gene2", pauses.get(2).name);
+    assertEquals(PAUSE_POSITION - 50, pauses.get(2).position);
+    assertEquals("gene2", pauses.get(3).name);
+    assertEquals(SECOND_PAUSE_POSITION - 50, pauses.get(3).position);
+  }
+
+  @Test
+  public void run_Maxima() throws Throwable {
+    parameters.maxima = 20;
+
+    pipeline.run(parameters);
+
+    List<Pause> pauses = pauses();
+    assertEquals(2, pauses.size());
+    assertEquals("gene1", pauses.get(0).name);
+    assertEquals(PAUSE_POSITION, pauses.get(0).position);
+    assertEquals("gene2", pauses.get(1).name);
+    assertEquals(PAUSE_POSITION - 50, pauses.get(1).position);
+  }
+
+  @Test
+  public void run_Bed() throws Throwable {
+    parameters.bed = true;
+
+    pipeline.run(parameters);
+
+    verify(tssCache).geneStarts(parameters.tss, parameters.cache);
+    String[] lines = output.toString().split(LINE_SEPARATOR);
+    assertEquals(4, lines.length);
+    String[] columns = lines[0].split("\t", -1);
+    assertEquals(5, columns.length);
+    assertEquals("chr1", columns[0]);
+    assertEquals(String.valueOf(1 + PAUSE_POSITION), columns[1]);
+    assertEquals(String.valueOf(2 + PAUSE_POSITION), columns[2]);
+    assertEquals("gene1", columns[3]);
+    columns = lines[1].split("\t", -1);
+    assertEquals(String.valueOf(1 + SECOND_PAUSE_POSITION), columns[1]);
+    assertEquals("gene1", columns[3]);
+    columns = lines[2].split("\t", -1);
+    assertEquals("chr2", columns[0]);
+    assertEquals(String.valueOf(51 + PAUSE_POSITION - 50), columns[1]);
+    assertEquals("gene2", columns[3]);
+    columns = lines[3].split("\t", -1);
+    assertEquals(String.valueOf(51 + SECOND_PAUSE_POSITION - 50), columns[1]);
+  }
+
+  @Test
+  public void run_MaximaBed() throws Throwable {
+    parameters.maxima = 20;
+    parameters.bed = true;
+
+    pipeline.run(parameters);
+
+    String[] lines = output.toString().split(LINE_SEPARATOR);
+    assertEquals(2, lines.length);
+    assertEquals("chr1\t" + (1 + PAUSE_POSITION) + "\t" + (2 + PAUSE_POSITION) + "\tgene1",
+        lines[0].substring(0, lines[0].lastIndexOf('\t')));
+    assertEquals("chr2\t" + (1 + PAUSE_POSITION) + "\t" + (2 + PAUSE_POSITION) + "\tgene2",
+        lines[1].substring(0, lines[1].lastIndexOf('\t')));
+  }
+
+  @Test
+  public void run_NoCache() throws Throwable {
+    parameters.bed = true;
+    parameters.noCache = true;
+
+    pipeline.run(parameters);
+
+    verify(tssCache).geneStarts(parameters.tss, null);
+  }
+
+  @Test
+  public void run_GeneNotInTss() throws Throwable {
+    parameters.bed = true;
+    List<Gene> tssGenes = new ArrayList<>(genes);
+    tssGenes.remove(0);
+    when(tssCache.geneStarts(any(), any())).thenReturn(new GeneStarts(tssGenes));
+
+    pipeline.run(parameters);
+
+    String[] lines = output.toString().split(LINE_SEPARATOR);
+    assertEquals(2, lines.length);
+    assertEquals("gene2", lines[0].split("\t", -1)[3]);
+    assertEquals("gene2", lines[1].split("\t", -1)[3]);
+  }
+
+  @Test(expected = IOException.class)
+  public void run_TssError() throws Throwable {
+    when(tssParser.genes(any())).thenThrow(new IOException("test"));
+
+    pipeline.run(parameters);
+  }
+
+  @Test(expected = IOException.class)
+  public void run_OutputError() throws Throwable {
+    when(parameters.writer()).thenThrow(new IOException("test"));
+
+    pipeline.run(parameters);
+  }
+}
@@ -0,0 +1,188 @@
+package ca.qc.ircm.rnapolymerasepauses;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import ca.qc.ircm.rnapolymerasepauses.test.config.NonTransactionalTestAnnotations;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+
+@RunWith(SpringJUnit4ClassRunner.class)
+@NonTransactionalTestAnnotations
+public class RunMetricsTest {
+  @Rule
+  public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  private long value(String json, String name) {
+    Matcher matcher = Pattern.compile("\"" + name + "\": (\\d+)").matcher(json);
+    assertTrue(name + " not found in " + json, matcher.find());
+    return Long.parseLong(matcher.group(1));
+  }
+
+  @Test
+  public void current_Disabled() {
+    RunMetrics metrics = RunMetrics.current();
+
+    assertFalse(metrics.enabled());
+    metrics.recordsIn(3);
+    metrics.stage("test").close();
+    assertEquals(0, value(metrics.toJson(true), "recordsIn"));
+    assertFalse(metrics.toJson(true).contains("\"test\""));
+  }
+
+  @Test
+  public void start() {
+    RunMetrics metrics = RunMetrics.start("bed2track");
+    try {
+      assertSame(metrics, RunMetrics.current());
+      assertTrue(metrics.enabled());
+    } finally {
+      metrics.stop();
+    }
+
+    assertFalse(RunMetrics.current().enabled());
+  }
+
+  @Test
+  public void start_RestorePrevious() {
+    RunMetrics batch = RunMetrics.start("batch");
+    try {
+      RunMetrics metrics = RunMetrics.start("bed2track");
+      assertSame(metrics, RunMetrics.current());
+      metrics.stop();
+      assertSame(batch, RunMetrics.current());
+    } finally {
+      batch.stop();
+    }
+
+    assertFalse(RunMetrics.current().enabled());
+  }
+
+  @Test
+  public void start_ChildThread() throws Throwable {
+    RunMetrics metrics = RunMetrics.start("bed2track");
+    try {
+      RunMetrics[] childMetrics = new RunMetrics[1];
+      Thread thread = new Thread(() -> {
+        childMetrics[0] = RunMetrics.current();
+        childMetrics[0].recordsOut(2);
+      });
+      thread.start();
+      thread.join();
+
+      assertSame(metrics, childMetrics[0]);
+      assertEquals(2, value(metrics.toJson(true), "recordsOut"));
+    } finally {
+      metrics.stop();
+    }
+  }
+
+  @Test
+  public void counters() {
+    RunMetrics metrics = RunMetrics.start("bed2track");
+    try {
+      metrics.recordsIn(3);
+      metrics.recordsIn(4);
+      metrics.recordsOut(5);
+      metrics.bytesRead(100);
+      metrics.bytesWritten(200);
+    } finally {
+      metrics.stop();
+    }
+
+    String json = metrics.toJson(true);
+    assertEquals(7, value(json, "recordsIn"));
+    assertEquals(5, value(json, "recordsOut"));
+    assertEquals(100, value(json, "bytesRead"));
+    assertEquals(200, value(json, "bytesWritten"));
+  }
+
+  @Test
+  public void stage() throws Throwable {
+    RunMetrics metrics = RunMetrics.start("bed2track");
+    try {
+      try (RunMetrics.Timer timer = metrics.stage("chromosome chrI")) {
+        Thread.sleep(5);
+      }
+      RunMetrics.Timer timer = metrics.stage("chromosome chrII");
+      timer.close();
+      timer.close();
+      metrics.stage("chromosome chrI").close();
+    } finally {
+      metrics.stop();
+    }
+
+    String json = metrics.toJson(true);
+    Matcher matcher =
+        Pattern.compile("\\{ \"name\": \"([^\"]+)\", \"count\": (\\d+), \"nanoseconds\": (\\d+) }")
+            .matcher(json);
+    assertTrue(matcher.find());
+    assertEquals("chromosome chrI", matcher.group(1));
+    assertEquals(2, Integer.parseInt(matcher.group(2)));
+    assertTrue(Long.parseLong(matcher.group(3)) >= 5000000);
+    assertTrue(matcher.find());
+    assertEquals("chromosome chrII", matcher.group(1));
+    assertEquals(1, Integer.parseInt(matcher.group(2)));
+    assertFalse(matcher.find());
+  }
+
+  @Test
+  public void toJson() throws Throwable {
+    RunMetrics metrics = RunMetrics.start("bed2\"track");
+    Thread.sleep(5);
+    metrics.stop();
+
+    String json = metrics.toJson(false);
+    assertTrue(json.contains("\"command\": \"bed2\\\"track\","));
+    assertTrue(json.contains("\"success\": false,"));
+    assertTrue(value(json, "elapsedMilliseconds") >= 5);
+    assertTrue(value(json, "peakHeapBytes") > 0);
+    value(json, "gcCount");
+    value(json, "gcMilliseconds");
+    assertTrue(json.contains("\"stages\": []"));
+  }
+
+  @Test
+  public void toJson_Overlapping() throws Throwable {
+    RunMetrics first = RunMetrics.start("bed2track");
+    RunMetrics second = RunMetrics.start("wig2track");
+    first.stop();
+    second.stop();
+    RunMetrics alone = RunMetrics.start("maxima");
+    alone.stop();
+
+    for (RunMetrics metrics : new RunMetrics[] { first, second }) {
+      String json = metrics.toJson(true);
+      assertTrue(json.contains("\"peakHeapBytes\": null,"));
+      assertTrue(json.contains("\"gcCount\": null,"));
+      assertTrue(json.contains("\"gcMilliseconds\": null,"));
+    }
+    String json = alone.toJson(true);
+    assertTrue(value(json, "peakHeapBytes") > 0);
+    value(json, "gcCount");
+    value(json, "gcMilliseconds");
+  }
+
+  @Test
+  public void write() throws Throwable {
+    Path file = temporaryFolder.getRoot().toPath().resolve("report.json");
+    RunMetrics metrics = RunMetrics.start("bed2track");
+    metrics.recordsIn(3);
+    metrics.stop();
+
+    metrics.write(file, true);
+
+    String json = new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+    assertEquals(metrics.toJson(true), json);
+  }
+}
@@ -0,0 +1,88 @@
+package ca.qc.ircm.rnapolymerasepauses;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import ca.qc.ircm.rnapolymerasepauses.test.config.NonTransactionalTestAnnotations;
+import java.io.IOException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+
+@RunWith(SpringJUnit4ClassRunner.class)
+@NonTransactionalTestAnnotations
+public class StrandPairTest {
+  @Test
+  public void run() throws Throwable {
+    Thread[] threads = new Thread[2];
+    CountDownLatch latch = new CountDownLatch(2);
+
+    StrandPair.run(() -> {
+      threads[0] = Thread.currentThread();
+      latch.countDown();
+      await(latch);
+    }, () -> {
+      threads[1] = Thread.currentThread();
+      latch.countDown();
+      await(latch);
+    });
+
+    assertSame(Thread.currentThread(), threads[0]);
+    assertNotNull(threads[1]);
+    assertTrue(threads[0] != threads[1]);
+  }
+
+  private void await(CountDownLatch latch) throws IOException {
+    try {
+      if (!latch.await(10, TimeUnit.SECONDS)) {
+        throw new IOException("Strands were not processed concurrently");
+      }
+    } catch (InterruptedException e) {
+      throw new IOException(e);
+    }
+  }
+
+  @Test
+  public void run_PlusFails() throws Throwable {
+    try {
+      StrandPair.run(() -> {
+        throw new IOException("plus");
+      }, () -> {
+      });
+      fail("Expected IOException");
+    } catch (IOException e) {
+      assertEquals("plus", e.getMessage());
+    }
+  }
+
+  @Test
+  public void run_MinusFails() throws Throwable {
+    try {
+      StrandPair.run(() -> {
+      }, () -> {
+        throw new IOException("minus");
+      });
+      fail("Expected IOException");
+    } catch (IOException e) {
+      assertEquals("minus", e.getMessage());
+    }
+  }
+
+  @Test
+  public void run_MinusRuntimeException() throws Throwable {
+    try {
+      StrandPair.run(() -> {
+      }, () -> {
+        throw new IllegalStateException("minus");
+      });
+      fail("Expected IllegalStateException");
+    } catch (IllegalStateException e) {
+      assertEquals("minus", e.getMessage());
+    }
+  }
+}
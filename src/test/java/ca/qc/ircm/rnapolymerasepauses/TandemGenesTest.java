@@ -0,0 +1,315 @@
+package ca.qc.ircm.rnapolymerasepauses;
+
+import static ca.qc.ircm.rnapolymerasepauses.test.data.TrackData.binaryTrack;
+import static ca.qc.ircm.rnapolymerasepauses.test.data.TrackData.gene;
+import static ca.qc.ircm.rnapolymerasepauses.test.data.TrackData.lines;
+import static ca.qc.ircm.rnapolymerasepauses.test.data.TrackData.reader;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import ca.qc.ircm.rnapolymerasepauses.io.TrackFormat;
+import ca.qc.ircm.rnapolymerasepauses.io.TssParser;
+import ca.qc.ircm.rnapolymerasepauses.test.config.NonTransactionalTestAnnotations;
+import java.io.BufferedWriter;
+import java.io.StringWriter;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+
+@RunWith(SpringJUnit4ClassRunner.class)
+@NonTransactionalTestAnnotations
+public class TandemGenesTest {
+  private static final int CHROMOSOME_LENGTH = 1000;
+  private static final double DELTA = 0.000001;
+  private TandemGenes tandemGenes;
+  @Mock
+  private TssParser tssParser;
+  @Mock
+  private TandemCommand parameters;
+  private List<Gene> genes = new ArrayList<>();
+  private double[] plus = new double[CHROMOSOME_LENGTH];
+  private double[] minus = new double[CHROMOSOME_LENGTH];
+  private StringWriter output = new StringWriter();
+  @Rule
+  public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  /**
+   * Before test.
+   */
+  @Before
+  public void beforeTest() throws Throwable {
+    tandemGenes = new TandemGenes(tssParser);
+    parameters.tss = Paths.get("tss.txt");
+    parameters.senseWindow = 10;
+    parameters.antisenseWindow = 10;
+    parameters.delta = 0;
+    parameters.senseSlide = 20;
+    parameters.antisenseSlide = 20;
+    parameters.step = 5;
+    when(tssParser.genes(any())).thenReturn(genes);
+    when(parameters.writer()).thenReturn(new BufferedWriter(output));
+  }
+
+  private void textTracks() throws Throwable {
+    when(parameters.plusReader()).thenReturn(reader(plus));
+    when(parameters.minusReader()).thenReturn(reader(minus));
+  }
+
+  @Test
+  public void tandem() throws Throwable {
+    gene(genes, "gene1", "chr1", 1, 100, "+");
+    gene(genes, "gene2", "chr1", 201, 300, "+");
+    // Sense windows start at 201, 206, 211 and 216.
+    plus[212] = 3;
+    plus[222] = 1;
+    // Antisense windows end at 200, 195, 190 and 185.
+    minus[182] = 2;
+    minus[178] = 4;
+    textTracks();
+
+    tandemGenes.tandem(parameters);
+
+    verify(tssParser).genes(parameters.tss);
+    String[][] lines = lines(output);
+    assertEquals(1, lines.length);
+    assertEquals(6, lines[0].length);
+    assertEquals("gene2", lines[0][0]);
+    assertEquals(3.0, Double.parseDouble(lines[0][1]), DELTA);
+    assertEquals(6.0, Double.parseDouble(lines[0][2]), DELTA);
+    assertEquals(2.0, Double.parseDouble(lines[0][3]), DELTA);
+    assertEquals("5", lines[0][4]);
+    assertEquals("15", lines[0][5]);
+  }
+
+  @Test
+  public void tandem_Minus() throws Throwable {
+    gene(genes, "gene1", "chr1", 401, 500, "-");
+    gene(genes, "gene2", "chr1", 601, 700, "-");
+    // Sense windows end at 500, 495, 490 and 485.
+    minus[487] = 3;
+    // Antisense windows start at 501, 506, 511 and 516.
+    plus[512] = 2;
+    textTracks();
+
+    tandemGenes.tandem(parameters);
+
+    String[][] lines = lines(output);
+    assertEquals(1, lines.length);
+    assertEquals("gene1", lines[0][0]);
+    assertEquals(3.0, Double.parseDouble(lines[0][1]), DELTA);
+    assertEquals(2.0, Double.parseDouble(lines[0][2]), DELTA);
+    assertEquals(2.0 / 3, Double.parseDouble(lines[0][3]), DELTA);
+    assertEquals("5", lines[0][4]);
+    assertEquals("5", lines[0][5]);
+  }
+
+  @Test
+  public void tandem_Delta() throws Throwable {
+    gene(genes, "gene1", "chr1", 1, 100, "+");
+    gene(genes, "gene2", "chr1", 201, 300, "+");
+    parameters.delta = 10;
+    // Antisense windows end at 190, 185, 180 and 175.
+    minus[195] = 10;
+    minus[182] = 2;
+    minus[178] = 4;
+    textTracks();
+
+    tandemGenes.tandem(parameters);
+
+    String[][] lines = lines(output);
+    assertEquals(1, lines.length);
+    assertEquals(6.0, Double.parseDouble(lines[0][2]), DELTA);
+    assertEquals("15", lines[0][5]);
+  }
+
+  @Test
+  public void tandem_NoSense() throws Throwable {
+    gene(genes, "gene1", "chr1", 1, 100, "+");
+    gene(genes, "gene2", "chr1", 201, 300, "+");
+    minus[182] = 2;
+    textTracks();
+
+    tandemGenes.tandem(parameters);
+
+    String[][] lines = lines(output);
+    assertEquals(1, lines.length);
+    assertEquals(0.0, Double.parseDouble(lines[0][1]), DELTA);
+    assertEquals(2.0, Double.parseDouble(lines[0][2]), DELTA);
+    assertEquals("-1", lines[0][3]);
+    assertEquals("0", lines[0][4]);
+  }
+
+  @Test
+  public void tandem_MissingChromosome() throws Throwable {
+    gene(genes, "gene1", "chr2", 1, 100, "+");
+    gene(genes, "gene2", "chr2", 201, 300, "+");
+    textTracks();
+
+    tandemGenes.tandem(parameters);
+
+    assertEquals(0, lines(output).length);
+  }
+
+  @Test
+  public void tandem_Binary() throws Throwable {
+    gene(genes, "gene1", "chr1", 1, 100, "+");
+    gene(genes, "gene2", "chr1", 201, 300, "+");
+    plus[212] = 3;
+    minus[182] = 2;
+    minus[178] = 4;
+    parameters.format = TrackFormat.BINARY;
+    parameters.plus = binaryTrack(temporaryFolder, "plus.bin", plus);
+    parameters.minus = binaryTrack(temporaryFolder, "minus.bin", minus);
+
+    tandemGenes.tandem(parameters);
+
+    String[][] lines = lines(output);
+    assertEquals(1, lines.length);
+    assertEquals("gene2", lines[0][0]);
+    assertEquals(3.0, Double.parseDouble(lines[0][1]), DELTA);
+    assertEquals(6.0, Double.parseDouble(lines[0][2]), DELTA);
+    assertEquals("5", lines[0][4]);
+    assertEquals("15", lines[0][5]);
+  }
+
+  @Test
+  public void pairs() throws Throwable {
+    Gene gene1 = gene(genes, "gene1", "chr1", 1, 100, "+");
+    Gene gene2 = gene(genes, "gene2", "chr1", 201, 300, "+");
+    Gene gene3 = gene(genes, "gene3", "chr1", 401, 500, "+");
+
+    List<TandemGenes.Pair> pairs = TandemGenes.pairs(genes, parameters);
+
+    assertEquals(2, pairs.size());
+    assertSame(gene1, pairs.get(0).upstream);
+    assertSame(gene2, pairs.get(0).downstream);
+    assertSame(gene2, pairs.get(0).promoterGene());
+    assertEquals("chr1", pairs.get(0).region.chromosome);
+    assertEquals(1, pairs.get(0).region.start);
+    assertEquals(300, pairs.get(0).region.end);
+    assertSame(gene2, pairs.get(1).upstream);
+    assertSame(gene3, pairs.get(1).downstream);
+  }
+
+  @Test
+  public void pairs_Minus() throws Throwable {
+    Gene gene1 = gene(genes, "gene1", "chr1", 1, 100, "-");
+    Gene gene2 = gene(genes, "gene2", "chr1", 201, 300, "-");
+
+    List<TandemGenes.Pair> pairs = TandemGenes.pairs(genes, parameters);
+
+    assertEquals(1, pairs.size());
+    assertSame(gene1, pairs.get(0).upstream);
+    assertSame(gene2, pairs.get(0).downstream);
+    assertSame(gene1, pairs.get(0).promoterGene());
+    assertTrue(pairs.get(0).reverse);
+  }
+
+  @Test
+  public void pairs_Unsorted() throws Throwable {
+    Gene gene1 = gene(genes, "gene1", "chr2", 201, 300, "+");
+    Gene gene2 = gene(genes, "gene2", "chr1", 201, 300, "+");
+    Gene gene3 = gene(genes, "gene3", "chr2", 1, 100, "+");
+    Gene gene4 = gene(genes, "gene4", "chr1", 1, 100, "+");
+
+    List<TandemGenes.Pair> pairs = TandemGenes.pairs(genes, parameters);
+
+    assertEquals(2, pairs.size());
+    assertSame(gene3, pairs.get(0).upstream);
+    assertSame(gene1, pairs.get(0).downstream);
+    assertSame(gene4, pairs.get(1).upstream);
+    assertSame(gene2, pairs.get(1).downstream);
+  }
+
+  @Test
+  public void pairs_DifferentStrand() throws Throwable {
+    gene(genes, "gene1", "chr1", 1, 100, "+");
+    gene(genes, "gene2", "chr1", 201, 300, "-");
+
+    List<TandemGenes.Pair> pairs = TandemGenes.pairs(genes, parameters);
+
+    assertEquals(0, pairs.size());
+  }
+
+  @Test
+  public void pairs_GeneBetween() throws Throwable {
+    gene(genes, "gene1", "chr1", 1, 100, "+");
+    gene(genes, "gene2", "chr1", 151, 180, "-");
+    gene(genes, "gene3", "chr1", 201, 300, "+");
+
+    List<TandemGenes.Pair> pairs = TandemGenes.pairs(genes, parameters);
+
+    assertEquals(0, pairs.size());
+  }
+
+  @Test
+  public void pairs_Overlap() throws Throwable {
+    gene(genes, "gene1", "chr1", 1, 100, "+");
+    gene(genes, "gene2", "chr1", 91, 300, "+");
+
+    List<TandemGenes.Pair> pairs = TandemGenes.pairs(genes, parameters);
+
+    assertEquals(0, pairs.size());
+  }
+
+  @Test
+  public void pairs_OverlapPreviousGene() throws Throwable {
+    gene(genes, "gene1", "chr1", 1, 500, "+");
+    gene(genes, "gene2", "chr1", 101, 200, "+");
+    gene(genes, "gene3", "chr1", 301, 400, "+");
+
+    List<TandemGenes.Pair> pairs = TandemGenes.pairs(genes, parameters);
+
+    assertEquals(0, pairs.size());
+  }
+
+  @Test
+  public void pairs_DifferentChromosome() throws Throwable {
+    gene(genes, "gene1", "chr1", 1, 100, "+");
+    gene(genes, "gene2", "chr2", 201, 300, "+");
+
+    List<TandemGenes.Pair> pairs = TandemGenes.pairs(genes, parameters);
+
+    assertEquals(0, pairs.size());
+  }
+
+  @Test
+  public void pairs_ShortRegion() throws Throwable {
+    gene(genes, "gene1", "chr1", 1, 50, "+");
+    gene(genes, "gene2", "chr1", 61, 110, "+");
+    parameters.delta = 100;
+
+    List<TandemGenes.Pair> pairs = TandemGenes.pairs(genes, parameters);
+
+    assertEquals(0, pairs.size());
+  }
+
+  @Test
+  public void pairs_ShortGene() throws Throwable {
+    gene(genes, "gene1", "chr1", 1, 30, "+");
+    gene(genes, "gene2", "chr1", 201, 300, "+");
+
+    List<TandemGenes.Pair> pairs = TandemGenes.pairs(genes, parameters);
+
+    assertEquals(0, pairs.size());
+  }
+
+  @Test
+  public void prefixSums() throws Throwable {
+    double[] sums = TandemGenes.prefixSums(new double[] { 1, 2, 3.5, 0 });
+
+    assertArrayEquals(new double[] { 0, 1, 3, 6.5, 6.5 }, sums, DELTA);
+  }
+}
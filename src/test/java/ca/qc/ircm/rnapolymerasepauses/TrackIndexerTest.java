@@ -0,0 +1,203 @@
+package ca.qc.ircm.rnapolymerasepauses;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.when;
+
+import ca.qc.ircm.rnapolymerasepauses.io.BinaryTrackWriter;
+import ca.qc.ircm.rnapolymerasepauses.io.TssParser;
+import ca.qc.ircm.rnapolymerasepauses.test.config.NonTransactionalTestAnnotations;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+
+@RunWith(SpringJUnit4ClassRunner.class)
+@NonTransactionalTestAnnotations
+public class TrackIndexerTest {
+  private static final String LINE_SEPARATOR = "\n";
+  private static final String SEPARATOR = "\t";
+  private static final int CHROMOSOME_LENGTH = 700;
+  private static final int MINUS_OFFSET = 10000;
+  private TrackIndexer trackIndexer;
+  @Mock
+  private TssParser tssParser;
+  @Mock
+  private TrackIndexCommand parameters;
+  private List<Gene> genes = new ArrayList<>();
+  private StringWriter output = new StringWriter();
+  @Rule
+  public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  /**
+   * Before test.
+   */
+  @Before
+  public void beforeTest() throws Throwable {
+    trackIndexer = new TrackIndexer(tssParser);
+    parameters.tss = Paths.get("tss.txt");
+    parameters.plus = track("track_plus.txt", 0, "chr1", "chr2");
+    parameters.minus = track("track_minus.txt", MINUS_OFFSET, "chr1", "chr2");
+    when(tssParser.genes(any())).thenReturn(genes);
+    when(parameters.writer()).thenReturn(new BufferedWriter(output));
+  }
+
+  /**
+   * Writes a track where values are 1000 times chromosome number plus position, plus offset.
+   */
+  private Path track(String filename, int offset, String... chromosomes) throws Throwable {
+    StringBuilder builder = new StringBuilder();
+    for (int i = 0; i < chromosomes.length; i++) {
+      builder.append("chrom=" + chromosomes[i] + LINE_SEPARATOR);
+      for (int position = 0; position < CHROMOSOME_LENGTH; position++) {
+        builder.append(offset + (i + 1) * 1000 + position);
+        builder.append(LINE_SEPARATOR);
+      }
+    }
+    Path file = temporaryFolder.getRoot().toPath().resolve(filename);
+    Files.write(file, builder.toString().getBytes(StandardCharsets.UTF_8));
+    return file;
+  }
+
+  private Gene gene(String name, String chromosome, long start, long end, String strand) {
+    Gene gene = new Gene();
+    gene.name = name;
+    gene.chromosome = chromosome;
+    gene.start = start;
+    gene.end = end;
+    gene.strand = strand;
+    genes.add(gene);
+    return gene;
+  }
+
+  private String lineAt(Path track, long offset) throws Throwable {
+    try (RandomAccessFile file = new RandomAccessFile(track.toFile(), "r")) {
+      file.seek(offset);
+      return file.readLine();
+    }
+  }
+
+  private String[] index(int line) {
+    return output.toString().split(LINE_SEPARATOR)[line].split(SEPARATOR);
+  }
+
+  @Test
+  public void index() throws Throwable {
+    gene("gene1", "chr1", 101, 600, "+");
+    gene("gene2", "chr2", 51, 650, "-");
+
+    trackIndexer.index(parameters);
+
+    assertEquals(2, output.toString().split(LINE_SEPARATOR).length);
+    String[] columns = index(0);
+    assertEquals(7, columns.length);
+    assertEquals("gene1", columns[0]);
+    assertEquals("chr1", columns[1]);
+    assertEquals("101", columns[2]);
+    assertEquals("600", columns[3]);
+    assertEquals("+", columns[4]);
+    assertEquals("1100", lineAt(parameters.plus, Long.parseLong(columns[5])));
+    assertEquals("11100", lineAt(parameters.minus, Long.parseLong(columns[6])));
+    columns = index(1);
+    assertEquals("gene2", columns[0]);
+    assertEquals("chr2", columns[1]);
+    assertEquals("51", columns[2]);
+    assertEquals("650", columns[3]);
+    assertEquals("-", columns[4]);
+    assertEquals("2050", lineAt(parameters.plus, Long.parseLong(columns[5])));
+    assertEquals("12050", lineAt(parameters.minus, Long.parseLong(columns[6])));
+  }
+
+  @Test
+  public void index_UnsortedGenes() throws Throwable {
+    gene("gene1", "chr2", 301, 600, "-");
+    gene("gene2", "chr1", 201, 650, "+");
+    gene("gene3", "chr2", 11, 650, "+");
+    gene("gene4", "chr1", 21, 650, "-");
+
+    trackIndexer.index(parameters);
+
+    assertEquals("gene1", index(0)[0]);
+    assertEquals("2300", lineAt(parameters.plus, Long.parseLong(index(0)[5])));
+    assertEquals("12300", lineAt(parameters.minus, Long.parseLong(index(0)[6])));
+    assertEquals("gene2", index(1)[0]);
+    assertEquals("1200", lineAt(parameters.plus, Long.parseLong(index(1)[5])));
+    assertEquals("11200", lineAt(parameters.minus, Long.parseLong(index(1)[6])));
+    assertEquals("gene3", index(2)[0]);
+    assertEquals("2010", lineAt(parameters.plus, Long.parseLong(index(2)[5])));
+    assertEquals("12010", lineAt(parameters.minus, Long.parseLong(index(2)[6])));
+    assertEquals("gene4", index(3)[0]);
+    assertEquals("1020", lineAt(parameters.plus, Long.parseLong(index(3)[5])));
+    assertEquals("11020", lineAt(parameters.minus, Long.parseLong(index(3)[6])));
+  }
+
+  @Test
+  public void index_FirstPosition() throws Throwable {
+    gene("gene1", "chr1", 1, 600, "+");
+    gene("gene2", "chr2", 0, 600, "+");
+
+    trackIndexer.index(parameters);
+
+    assertEquals("1000", lineAt(parameters.plus, Long.parseLong(index(0)[5])));
+    assertEquals("2000", lineAt(parameters.plus, Long.parseLong(index(1)[5])));
+  }
+
+  @Test
+  public void index_AfterChromosomeEnd() throws Throwable {
+    gene("gene1", "chr1", CHROMOSOME_LENGTH + 100, CHROMOSOME_LENGTH + 600, "+");
+    gene("gene2", "chr2", CHROMOSOME_LENGTH + 100, CHROMOSOME_LENGTH + 600, "+");
+
+    trackIndexer.index(parameters);
+
+    assertEquals("chrom=chr2", lineAt(parameters.plus, Long.parseLong(index(0)[5])));
+    assertEquals(Files.size(parameters.plus), Long.parseLong(index(1)[5]));
+  }
+
+  @Test
+  public void index_MissingChromosome() throws Throwable {
+    parameters.minus = track("track_minus.txt", MINUS_OFFSET, "chr1");
+    gene("gene1", "chr2", 101, 600, "+");
+    gene("gene2", "chr3", 101, 600, "+");
+
+    trackIndexer.index(parameters);
+
+    assertEquals("2100", lineAt(parameters.plus, Long.parseLong(index(0)[5])));
+    assertEquals("-1", index(0)[6]);
+    assertEquals("-1", index(1)[5]);
+    assertEquals("-1", index(1)[6]);
+  }
+
+  @Test(expected = IOException.class)
+  public void index_Rle() throws Throwable {
+    gene("gene1", "chr1", 101, 600, "+");
+    Files.write(parameters.plus,
+        "chrom=chr1\n0\t100\n1\n2\t599\n".getBytes(StandardCharsets.UTF_8));
+
+    trackIndexer.index(parameters);
+  }
+
+  @Test(expected = IOException.class)
+  public void index_Binary() throws Throwable {
+    gene("gene1", "chr1", 101, 600, "+");
+    try (BinaryTrackWriter writer =
+        new BinaryTrackWriter(Files.newOutputStream(parameters.minus))) {
+      writer.startChromosome("chr1");
+      writer.write(1, CHROMOSOME_LENGTH);
+    }
+
+    trackIndexer.index(parameters);
+  }
+}
@@ -1,17 +1,23 @@
 package ca.qc.ircm.rnapolymerasepauses;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.Matchers.any;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import ca.qc.ircm.rnapolymerasepauses.io.BinaryTrack;
 import ca.qc.ircm.rnapolymerasepauses.io.ChromosomeSizesParser;
+import ca.qc.ircm.rnapolymerasepauses.io.TrackFormat;
 import ca.qc.ircm.rnapolymerasepauses.test.config.NonTransactionalTestAnnotations;
 import java.io.BufferedReader;
 import java.io.BufferedWriter;
 import java.io.IOException;
 import java.io.StringReader;
 import java.io.StringWriter;
+import java.nio.FloatBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
@@ -24,7 +30,9 @@ import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 import java.util.stream.LongStream;
 import org.junit.Before;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 import org.junit.runner.RunWith;
 import org.mockito.Mock;
 import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
@@ -38,6 +46,7 @@ public class WigConverterTest {
   private static final double NO_SCORE_RATIO = 0.75;
   private static final String SEPARATOR = "\t";
   private static final double DELTA = 0.000000001;
+  private static final double FLOAT_DELTA = 0.000001;
   private WigConverter wigConverter;
   @Mock
   private ChromosomeSizesParser chromosomeSizesParser;
@@ -47,6 +56,8 @@ public class WigConverterTest {
   private Map<String, Map<Long, Double>> scores;
   private String content;
   private Path chromosomeSizes = Paths.get("chromosomeSizes.txt");
+  @Rule
+  public TemporaryFolder temporaryFolder = new TemporaryFolder();
 
   /**
    * Before test.
@@ -99,6 +110,33 @@ public class WigConverterTest {
     }
   }
 
+  private String expandRuns(String trackContent) {
+    StringBuilder builder = new StringBuilder();
+    for (String line : trackContent.split(LINE_SEPARATOR)) {
+      String[] columns = line.split(SEPARATOR);
+      long count = columns.length > 1 ? Long.parseLong(columns[1]) : 1;
+      for (long i = 0; i < count; i++) {
+        builder.append(columns[0]);
+        builder.append(LINE_SEPARATOR);
+      }
+    }
+    return builder.toString();
+  }
+
+  private void assertBinaryTrackContent(Path file) throws Throwable {
+    try (BinaryTrack track = new BinaryTrack(file)) {
+      assertEquals(new ArrayList<>(sizes.keySet()), track.chromosomes());
+      for (String chromosome : sizes.keySet()) {
+        assertEquals((long) sizes.get(chromosome), track.length(chromosome));
+        FloatBuffer values = track.values(chromosome);
+        for (int position = 0; position < sizes.get(chromosome); position++) {
+          double score = scores.get(chromosome).getOrDefault((long) position, 0.0);
+          assertEquals(chromosome + ":" + position, score, values.get(position), FLOAT_DELTA);
+        }
+      }
+    }
+  }
+
   @Test
   public void wigToTrack() throws Throwable {
     when(parameters.reader()).thenReturn(new BufferedReader(new StringReader(content)));
@@ -111,6 +149,20 @@ public class WigConverterTest {
     assertTrackContent(writer.toString());
   }
 
+  @Test
+  public void wigToTrack_ValueText() throws Throwable {
+    sizes.clear();
+    sizes.put("chr1", 5L);
+    content = "variableStep chrom=chr1\n0\t5\n2\t1e-3\n3\t0.50\n";
+    when(parameters.reader()).thenReturn(new BufferedReader(new StringReader(content)));
+    StringWriter writer = new StringWriter();
+    when(parameters.writer()).thenReturn(new BufferedWriter(writer));
+
+    wigConverter.wigToTrack(parameters);
+
+    assertEquals("chrom=chr1\n5\n0\n1e-3\n0.50\n0\n", writer.toString());
+  }
+
   @Test
   public void wigToTrack_Comments() throws Throwable {
     content = "#comment 1\n" + content.split("\n")[0] + "\n#comment 2\n"
@@ -164,4 +216,129 @@ public class WigConverterTest {
     verify(chromosomeSizesParser).chromosomeSizes(chromosomeSizes);
     assertTrackContent(writer.toString());
   }
+
+  @Test
+  public void wigToTrack_Rle() throws Throwable {
+    parameters.format = TrackFormat.RLE;
+    when(parameters.reader()).thenReturn(new BufferedReader(new StringReader(content)));
+    StringWriter writer = new StringWriter();
+    when(parameters.writer()).thenReturn(new BufferedWriter(writer));
+
+    wigConverter.wigToTrack(parameters);
+
+    verify(chromosomeSizesParser).chromosomeSizes(chromosomeSizes);
+    String trackContent = expandRuns(writer.toString());
+    assertTrackContent(trackContent);
+    assertTrue(writer.toString().length() < trackContent.length());
+  }
+
+  @Test
+  public void wigToTrack_Threads() throws Throwable {
+    Path input = temporaryFolder.getRoot().toPath().resolve("input.txt");
+    Files.write(input, content.getBytes(StandardCharsets.UTF_8));
+    parameters.input = input;
+    parameters.threads = 4;
+    StringWriter writer = new StringWriter();
+    when(parameters.writer()).thenReturn(new BufferedWriter(writer));
+
+    wigConverter.wigToTrack(parameters);
+
+    verify(chromosomeSizesParser).chromosomeSizes(chromosomeSizes);
+    assertTrackContent(writer.toString());
+  }
+
+  @Test
+  public void wigToTrack_ThreadsBinary() throws Throwable {
+    Path input = temporaryFolder.getRoot().toPath().resolve("input.txt");
+    Files.write(input, content.getBytes(StandardCharsets.UTF_8));
+    parameters.input = input;
+    parameters.threads = 4;
+    parameters.format = TrackFormat.BINARY;
+    Path output = temporaryFolder.getRoot().toPath().resolve("track.bin");
+    when(parameters.outputStream()).thenReturn(Files.newOutputStream(output));
+
+    wigConverter.wigToTrack(parameters);
+
+    verify(chromosomeSizesParser).chromosomeSizes(chromosomeSizes);
+    assertBinaryTrackContent(output);
+  }
+
+  @Test
+  public void wigToTrack_Binary() throws Throwable {
+    parameters.format = TrackFormat.BINARY;
+    when(parameters.reader()).thenReturn(new BufferedReader(new StringReader(content)));
+    Path output = temporaryFolder.getRoot().toPath().resolve("track.bin");
+    when(parameters.outputStream()).thenReturn(Files.newOutputStream(output));
+
+    wigConverter.wigToTrack(parameters);
+
+    verify(chromosomeSizesParser).chromosomeSizes(chromosomeSizes);
+    assertBinaryTrackContent(output);
+  }
+
+  @Test
+  public void wigToTrack_StrandPair() throws Throwable {
+    parameters.minusInput = Paths.get("minus.txt");
+    parameters.minusOutput = Paths.get("minus-track.txt");
+    when(parameters.reader()).thenReturn(new BufferedReader(new StringReader(content)));
+    when(parameters.minusReader()).thenReturn(new BufferedReader(new StringReader(content)));
+    StringWriter writer = new StringWriter();
+    when(parameters.writer()).thenReturn(new BufferedWriter(writer));
+    StringWriter minusWriter = new StringWriter();
+    when(parameters.minusWriter()).thenReturn(new BufferedWriter(minusWriter));
+
+    wigConverter.wigToTrack(parameters);
+
+    verify(chromosomeSizesParser).chromosomeSizes(chromosomeSizes);
+    assertTrackContent(writer.toString());
+    assertTrackContent(minusWriter.toString());
+  }
+
+  @Test
+  public void wigToTrack_StrandPairThreads() throws Throwable {
+    Path input = temporaryFolder.getRoot().toPath().resolve("input.txt");
+    Files.write(input, content.getBytes(StandardCharsets.UTF_8));
+    Path minusInput = temporaryFolder.getRoot().toPath().resolve("minus.txt");
+    Files.write(minusInput, content.getBytes(StandardCharsets.UTF_8));
+    parameters.input = input;
+    parameters.minusInput = minusInput;
+    parameters.minusOutput = Paths.get("minus-track.txt");
+    parameters.threads = 4;
+    StringWriter writer = new StringWriter();
+    when(parameters.writer()).thenReturn(new BufferedWriter(writer));
+    StringWriter minusWriter = new StringWriter();
+    when(parameters.minusWriter()).thenReturn(new BufferedWriter(minusWriter));
+
+    wigConverter.wigToTrack(parameters);
+
+    verify(chromosomeSizesParser).chromosomeSizes(chromosomeSizes);
+    assertTrackContent(writer.toString());
+    assertTrackContent(minusWriter.toString());
+  }
+
+  @Test
+  public void wigToTrack_StrandPairBinary() throws Throwable {
+    parameters.format = TrackFormat.BINARY;
+    parameters.minusInput = Paths.get("minus.txt");
+    parameters.minusOutput = Paths.get("minus-track.bin");
+    when(parameters.reader()).thenReturn(new BufferedReader(new StringReader(content)));
+    when(parameters.minusReader()).thenReturn(new BufferedReader(new StringReader(content)));
+    Path output = temporaryFolder.getRoot().toPath().resolve("track.bin");
+    when(parameters.outputStream()).thenReturn(Files.newOutputStream(output));
+    Path minusOutput = temporaryFolder.getRoot().toPath().resolve("minus-track.bin");
+    when(parameters.minusOutputStream()).thenReturn(Files.newOutputStream(minusOutput));
+
+    wigConverter.wigToTrack(parameters);
+
+    verify(chromosomeSizesParser).chromosomeSizes(chromosomeSizes);
+    assertBinaryTrackContent(output);
+    assertBinaryTrackContent(minusOutput);
+  }
+
+  @Test(expected = IOException.class)
+  public void wigToTrack_StrandPairNoMinusOutput() throws Throwable {
+    parameters.minusInput = Paths.get("minus.txt");
+
+    wigConverter.wigToTrack(parameters);
+  }
 }
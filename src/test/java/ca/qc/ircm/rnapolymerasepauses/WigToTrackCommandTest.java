@@ -1,5 +1,6 @@
 package ca.qc.ircm.rnapolymerasepauses;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 
 import ca.qc.ircm.rnapolymerasepauses.test.config.NonTransactionalTestAnnotations;
@@ -7,7 +8,9 @@ import java.io.BufferedReader;
 import java.io.BufferedWriter;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.io.PrintStream;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
@@ -113,4 +116,84 @@ public class WigToTrackCommandTest {
     assertEquals("test line 0", lines.get(0));
     assertEquals("test line 1", lines.get(1));
   }
+
+  @Test
+  public void outputStream() throws Throwable {
+    Path file = temporaryFolder.newFile("file.bin").toPath();
+    command.output = file;
+
+    try (OutputStream output = command.outputStream()) {
+      output.write(new byte[] { 1, 2, 3 });
+    }
+
+    assertArrayEquals(new byte[] { 1, 2, 3 }, Files.readAllBytes(file));
+  }
+
+  @Test(expected = IOException.class)
+  public void outputStream_Compressed() throws Throwable {
+    command.output = temporaryFolder.getRoot().toPath().resolve("file.bin.gz");
+
+    command.outputStream();
+  }
+
+  @Test
+  public void outputStream_System() throws Throwable {
+    ByteArrayOutputStream output = new ByteArrayOutputStream();
+    System.setOut(new PrintStream(output));
+
+    try (OutputStream outputStream = command.outputStream()) {
+      outputStream.write(new byte[] { 1, 2, 3 });
+    }
+
+    assertArrayEquals(new byte[] { 1, 2, 3 }, output.toByteArray());
+  }
+
+  @Test
+  public void minusReader() throws Throwable {
+    Path file = temporaryFolder.newFile("minus.txt").toPath();
+    Files.write(file,
+        IntStream.range(0, 2).mapToObj(i -> "test line " + i).collect(Collectors.toList()));
+    command.minusInput = file;
+
+    List<String> lines = new ArrayList<>();
+    try (BufferedReader reader = command.minusReader()) {
+      String line;
+      while ((line = reader.readLine()) != null) {
+        lines.add(line);
+      }
+    }
+
+    assertEquals(2, lines.size());
+    assertEquals("test line 0", lines.get(0));
+    assertEquals("test line 1", lines.get(1));
+  }
+
+  @Test
+  public void minusWriter() throws Throwable {
+    Path file = temporaryFolder.newFile("minus.txt").toPath();
+    command.minusOutput = file;
+
+    try (BufferedWriter writer = command.minusWriter()) {
+      writer.write("test line 0");
+      writer.write("\n");
+      writer.write("test line 1");
+    }
+
+    List<String> lines = Files.readAllLines(file);
+    assertEquals(2, lines.size());
+    assertEquals("test line 0", lines.get(0));
+    assertEquals("test line 1", lines.get(1));
+  }
+
+  @Test
+  public void minusOutputStream() throws Throwable {
+    Path file = temporaryFolder.newFile("minus.bin").toPath();
+    command.minusOutput = file;
+
+    try (OutputStream output = command.minusOutputStream()) {
+      output.write(new byte[] { 1, 2, 3 });
+    }
+
+    assertArrayEquals(new byte[] { 1, 2, 3 }, Files.readAllBytes(file));
+  }
 }
@@ -0,0 +1,132 @@
+package ca.qc.ircm.rnapolymerasepauses.io;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import ca.qc.ircm.rnapolymerasepauses.test.config.NonTransactionalTestAnnotations;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.ZipException;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+
+@RunWith(SpringJUnit4ClassRunner.class)
+@NonTransactionalTestAnnotations
+public class BgzfInputStreamTest {
+  private byte[] text(int length) {
+    Random random = new Random(length);
+    byte[] text = new byte[length];
+    for (int i = 0; i < length; i++) {
+      text[i] = (byte) ('A' + random.nextInt(4));
+    }
+    return text;
+  }
+
+  private byte[] compress(byte[] data) throws IOException {
+    ByteArrayOutputStream output = new ByteArrayOutputStream();
+    try (BgzfOutputStream bgzf = new BgzfOutputStream(output, 1)) {
+      bgzf.write(data);
+    }
+    return output.toByteArray();
+  }
+
+  private byte[] read(byte[] compressed, int threads) throws IOException {
+    ByteArrayOutputStream output = new ByteArrayOutputStream();
+    try (InputStream input = new BgzfInputStream(new ByteArrayInputStream(compressed), threads)) {
+      byte[] buffer = new byte[1000];
+      int read;
+      while ((read = input.read(buffer)) != -1) {
+        output.write(buffer, 0, read);
+      }
+    }
+    return output.toByteArray();
+  }
+
+  @Test
+  public void read() throws Throwable {
+    byte[] data = text(1000);
+
+    assertArrayEquals(data, read(compress(data), 1));
+  }
+
+  @Test
+  public void read_Empty() throws Throwable {
+    assertEquals(0, read(compress(new byte[0]), 1).length);
+  }
+
+  @Test
+  public void read_NoData() throws Throwable {
+    assertEquals(0, read(new byte[0], 1).length);
+  }
+
+  @Test
+  public void read_ManyBlocks() throws Throwable {
+    byte[] data = text(BgzfOutputStream.MAX_DATA_SIZE * 10 + 1);
+
+    assertArrayEquals(data, read(compress(data), 1));
+  }
+
+  @Test
+  public void read_Threads() throws Throwable {
+    byte[] data = text(BgzfOutputStream.MAX_DATA_SIZE * 20 + 100);
+
+    assertArrayEquals(data, read(compress(data), 4));
+  }
+
+  @Test
+  public void read_Byte() throws Throwable {
+    byte[] data = text(BgzfOutputStream.MAX_DATA_SIZE + 10);
+    ByteArrayOutputStream output = new ByteArrayOutputStream();
+    try (InputStream input = new BgzfInputStream(new ByteArrayInputStream(compress(data)), 1)) {
+      int read;
+      while ((read = input.read()) != -1) {
+        output.write(read);
+      }
+    }
+
+    assertArrayEquals(data, output.toByteArray());
+  }
+
+  @Test(expected = ZipException.class)
+  public void read_Corrupted() throws Throwable {
+    byte[] compressed = compress(text(1000));
+    compressed[compressed.length - BgzfOutputStream.EOF.length - 9] ^= 0x55;
+
+    read(compressed, 1);
+  }
+
+  @Test(expected = EOFException.class)
+  public void read_Truncated() throws Throwable {
+    byte[] compressed = compress(text(1000));
+
+    read(Arrays.copyOf(compressed, 100), 1);
+  }
+
+  @Test(expected = ZipException.class)
+  public void read_Gzip() throws Throwable {
+    ByteArrayOutputStream output = new ByteArrayOutputStream();
+    try (GZIPOutputStream gzip = new GZIPOutputStream(output)) {
+      gzip.write(text(1000));
+    }
+
+    read(output.toByteArray(), 1);
+  }
+
+  @Test
+  public void isBgzf() throws Throwable {
+    byte[] compressed = compress(text(1000));
+
+    assertTrue(BgzfInputStream.isBgzf(compressed, 18));
+    assertFalse(BgzfInputStream.isBgzf(compressed, 17));
+    assertFalse(BgzfInputStream.isBgzf(text(18), 18));
+  }
+}
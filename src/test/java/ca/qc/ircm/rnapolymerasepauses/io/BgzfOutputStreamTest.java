@@ -0,0 +1,161 @@
+package ca.qc.ircm.rnapolymerasepauses.io;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import ca.qc.ircm.rnapolymerasepauses.test.config.NonTransactionalTestAnnotations;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.zip.GZIPInputStream;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+
+@RunWith(SpringJUnit4ClassRunner.class)
+@NonTransactionalTestAnnotations
+public class BgzfOutputStreamTest {
+  private byte[] text(int length) {
+    Random random = new Random(length);
+    byte[] text = new byte[length];
+    for (int i = 0; i < length; i++) {
+      text[i] = (byte) ('A' + random.nextInt(4));
+    }
+    return text;
+  }
+
+  private byte[] gunzip(byte[] compressed) throws IOException {
+    ByteArrayOutputStream output = new ByteArrayOutputStream();
+    try (InputStream input = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+      byte[] buffer = new byte[8192];
+      int read;
+      while ((read = input.read(buffer)) != -1) {
+        output.write(buffer, 0, read);
+      }
+    }
+    return output.toByteArray();
+  }
+
+  private int blocks(byte[] compressed) {
+    int blocks = 0;
+    int offset = 0;
+    while (offset < compressed.length) {
+      byte[] header = Arrays.copyOfRange(compressed, offset, offset + 18);
+      assertTrue(BgzfInputStream.isBgzf(header, header.length));
+      int blockSize = ((header[16] & 0xff) | (header[17] & 0xff) << 8) + 1;
+      assertTrue(blockSize <= BgzfOutputStream.MAX_BLOCK_SIZE);
+      offset += blockSize;
+      blocks++;
+    }
+    assertEquals(compressed.length, offset);
+    return blocks;
+  }
+
+  private byte[] write(byte[] data, int threads) throws IOException {
+    ByteArrayOutputStream output = new ByteArrayOutputStream();
+    try (BgzfOutputStream bgzf = new BgzfOutputStream(output, threads)) {
+      for (int offset = 0; offset < data.length; offset += 1000) {
+        bgzf.write(data, offset, Math.min(1000, data.length - offset));
+      }
+    }
+    return output.toByteArray();
+  }
+
+  @Test
+  public void write() throws Throwable {
+    byte[] data = text(1000);
+
+    byte[] compressed = write(data, 1);
+
+    assertArrayEquals(data, gunzip(compressed));
+    assertEquals(2, blocks(compressed));
+    assertArrayEquals(BgzfOutputStream.EOF, Arrays.copyOfRange(compressed,
+        compressed.length - BgzfOutputStream.EOF.length, compressed.length));
+  }
+
+  @Test
+  public void write_Empty() throws Throwable {
+    byte[] compressed = write(new byte[0], 1);
+
+    assertArrayEquals(BgzfOutputStream.EOF, compressed);
+    assertEquals(0, gunzip(compressed).length);
+  }
+
+  @Test
+  public void write_ManyBlocks() throws Throwable {
+    byte[] data = text(BgzfOutputStream.MAX_DATA_SIZE * 10 + 1);
+
+    byte[] compressed = write(data, 1);
+
+    assertArrayEquals(data, gunzip(compressed));
+    assertEquals(12, blocks(compressed));
+  }
+
+  @Test
+  public void write_Threads() throws Throwable {
+    byte[] data = text(BgzfOutputStream.MAX_DATA_SIZE * 20 + 100);
+
+    byte[] compressed = write(data, 4);
+
+    assertArrayEquals(data, gunzip(compressed));
+    assertEquals(22, blocks(compressed));
+    assertArrayEquals(write(data, 1), compressed);
+  }
+
+  @Test
+  public void write_Incompressible() throws Throwable {
+    byte[] data = new byte[BgzfOutputStream.MAX_DATA_SIZE * 3];
+    new Random(1).nextBytes(data);
+
+    byte[] compressed = write(data, 2);
+
+    assertArrayEquals(data, gunzip(compressed));
+    assertEquals(4, blocks(compressed));
+  }
+
+  @Test
+  public void write_Byte() throws Throwable {
+    byte[] data = text(BgzfOutputStream.MAX_DATA_SIZE + 10);
+    ByteArrayOutputStream output = new ByteArrayOutputStream();
+    try (BgzfOutputStream bgzf = new BgzfOutputStream(output, 1)) {
+      for (byte value : data) {
+        bgzf.write(value);
+      }
+    }
+
+    byte[] compressed = output.toByteArray();
+    assertArrayEquals(data, gunzip(compressed));
+    assertEquals(3, blocks(compressed));
+  }
+
+  @Test
+  public void flush() throws Throwable {
+    ByteArrayOutputStream output = new ByteArrayOutputStream();
+    try (BgzfOutputStream bgzf = new BgzfOutputStream(output, 2)) {
+      bgzf.write(text(10));
+      bgzf.flush();
+      assertEquals(1, blocks(output.toByteArray()));
+      bgzf.flush();
+      assertEquals(1, blocks(output.toByteArray()));
+      bgzf.write(text(20));
+    }
+
+    byte[] compressed = output.toByteArray();
+    assertEquals(3, blocks(compressed));
+    byte[] expected = new byte[30];
+    System.arraycopy(text(10), 0, expected, 0, 10);
+    System.arraycopy(text(20), 0, expected, 10, 20);
+    assertArrayEquals(expected, gunzip(compressed));
+  }
+
+  @Test(expected = IOException.class)
+  public void write_Closed() throws Throwable {
+    BgzfOutputStream bgzf = new BgzfOutputStream(new ByteArrayOutputStream(), 1);
+    bgzf.close();
+    bgzf.write(text(BgzfOutputStream.MAX_DATA_SIZE + 1));
+  }
+}
@@ -0,0 +1,132 @@
+package ca.qc.ircm.rnapolymerasepauses.io;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import ca.qc.ircm.rnapolymerasepauses.test.config.NonTransactionalTestAnnotations;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.FloatBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+
+@RunWith(SpringJUnit4ClassRunner.class)
+@NonTransactionalTestAnnotations
+public class BinaryTrackTest {
+  private static final double DELTA = 0.000001;
+  @Rule
+  public TemporaryFolder temporaryFolder = new TemporaryFolder();
+  private Path file;
+
+  /**
+   * Before test.
+   */
+  @Before
+  public void beforeTest() throws Throwable {
+    file = temporaryFolder.getRoot().toPath().resolve("track.bin");
+    try (BinaryTrackWriter writer = new BinaryTrackWriter(Files.newOutputStream(file))) {
+      writer.startChromosome("chr1");
+      for (int i = 0; i < 10; i++) {
+        writer.write(i, 1);
+      }
+      writer.startChromosome("chrM");
+      writer.startChromosome("chr2");
+      writer.write(0.5, 3);
+    }
+  }
+
+  @Test
+  public void chromosomes() throws Throwable {
+    try (BinaryTrack track = new BinaryTrack(file)) {
+      assertEquals(Arrays.asList("chr1", "chrM", "chr2"), track.chromosomes());
+      assertTrue(track.contains("chr1"));
+      assertTrue(track.contains("chrM"));
+      assertFalse(track.contains("chr3"));
+    }
+  }
+
+  @Test
+  public void length() throws Throwable {
+    try (BinaryTrack track = new BinaryTrack(file)) {
+      assertEquals(10, track.length("chr1"));
+      assertEquals(0, track.length("chrM"));
+      assertEquals(3, track.length("chr2"));
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void length_Missing() throws Throwable {
+    try (BinaryTrack track = new BinaryTrack(file)) {
+      track.length("chr3");
+    }
+  }
+
+  @Test
+  public void values() throws Throwable {
+    try (BinaryTrack track = new BinaryTrack(file)) {
+      FloatBuffer values = track.values("chr1");
+      assertEquals(10, values.remaining());
+      for (int i = 0; i < 10; i++) {
+        assertEquals(i, values.get(i), DELTA);
+      }
+      values = track.values("chr2");
+      assertEquals(3, values.remaining());
+      assertEquals(0.5, values.get(0), DELTA);
+      assertEquals(0.5, values.get(2), DELTA);
+      assertEquals(0, track.values("chrM").remaining());
+    }
+  }
+
+  @Test
+  public void values_Range() throws Throwable {
+    try (BinaryTrack track = new BinaryTrack(file)) {
+      FloatBuffer values = track.values("chr1", 3, 6);
+      assertEquals(3, values.remaining());
+      assertEquals(3, values.get(0), DELTA);
+      assertEquals(4, values.get(1), DELTA);
+      assertEquals(5, values.get(2), DELTA);
+      values = track.values("chr1", 8, 20);
+      assertEquals(2, values.remaining());
+      assertEquals(8, values.get(0), DELTA);
+      assertEquals(9, values.get(1), DELTA);
+    }
+  }
+
+  @Test(expected = IOException.class)
+  public void binaryTrack_DuplicateChromosome() throws Throwable {
+    try (DataOutputStream output = new DataOutputStream(Files.newOutputStream(file))) {
+      output.writeInt(BinaryTrackWriter.MAGIC);
+      output.writeInt(BinaryTrackWriter.VERSION);
+      output.writeFloat(1.5f);
+      output.writeFloat(2.5f);
+      output.writeInt(2);
+      output.writeUTF("chr1");
+      output.writeLong(8);
+      output.writeLong(1);
+      output.writeUTF("chr1");
+      output.writeLong(12);
+      output.writeLong(1);
+      output.writeLong(16);
+      output.writeInt(BinaryTrackWriter.MAGIC);
+    }
+    try (BinaryTrack track = new BinaryTrack(file)) {
+      track.chromosomes();
+    }
+  }
+
+  @Test(expected = IOException.class)
+  public void binaryTrack_NotBinary() throws Throwable {
+    Files.write(file, Arrays.asList("chrom=chr1", "0", "1", "2", "3", "4", "5"));
+    try (BinaryTrack track = new BinaryTrack(file)) {
+      track.chromosomes();
+    }
+  }
+}
@@ -0,0 +1,138 @@
+package ca.qc.ircm.rnapolymerasepauses.io;
+
+import static org.junit.Assert.assertEquals;
+
+import ca.qc.ircm.rnapolymerasepauses.test.config.NonTransactionalTestAnnotations;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.FloatBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+
+@RunWith(SpringJUnit4ClassRunner.class)
+@NonTransactionalTestAnnotations
+public class BinaryTrackWriterTest {
+  private static final double DELTA = 0.000001;
+  @Rule
+  public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  @Test
+  public void write() throws Throwable {
+    ByteArrayOutputStream output = new ByteArrayOutputStream();
+    try (BinaryTrackWriter writer = new BinaryTrackWriter(output)) {
+      writer.startChromosome("chr1");
+      writer.write(0, 2);
+      writer.write(1.5, 3);
+      writer.startChromosome("chr2");
+      writer.write(0.25, 1);
+    }
+
+    DataInputStream input = new DataInputStream(new ByteArrayInputStream(output.toByteArray()));
+    assertEquals(BinaryTrackWriter.MAGIC, input.readInt());
+    assertEquals(BinaryTrackWriter.VERSION, input.readInt());
+    assertEquals(0, input.readFloat(), DELTA);
+    assertEquals(0, input.readFloat(), DELTA);
+    assertEquals(1.5, input.readFloat(), DELTA);
+    assertEquals(1.5, input.readFloat(), DELTA);
+    assertEquals(1.5, input.readFloat(), DELTA);
+    assertEquals(0.25, input.readFloat(), DELTA);
+    assertEquals(2, input.readInt());
+    assertEquals("chr1", input.readUTF());
+    assertEquals(8, input.readLong());
+    assertEquals(5, input.readLong());
+    assertEquals("chr2", input.readUTF());
+    assertEquals(28, input.readLong());
+    assertEquals(1, input.readLong());
+    assertEquals(32, input.readLong());
+    assertEquals(BinaryTrackWriter.MAGIC, input.readInt());
+    assertEquals(-1, input.read());
+  }
+
+  @Test
+  public void write_ManyValues() throws Throwable {
+    Path file = temporaryFolder.getRoot().toPath().resolve("track.bin");
+    try (BinaryTrackWriter writer = new BinaryTrackWriter(Files.newOutputStream(file))) {
+      writer.startChromosome("chr1");
+      writer.write(0, 100000);
+      writer.write(2.5, 50000);
+      writer.startChromosome("chr2");
+      writer.write(3.5, 70000);
+    }
+
+    try (BinaryTrack track = new BinaryTrack(file)) {
+      assertEquals(Arrays.asList("chr1", "chr2"), track.chromosomes());
+      assertEquals(150000, track.length("chr1"));
+      assertEquals(0, track.values("chr1").get(99999), DELTA);
+      assertEquals(2.5, track.values("chr1").get(100000), DELTA);
+      assertEquals(2.5, track.values("chr1").get(149999), DELTA);
+      assertEquals(70000, track.length("chr2"));
+      assertEquals(3.5, track.values("chr2").get(0), DELTA);
+      assertEquals(3.5, track.values("chr2").get(69999), DELTA);
+    }
+  }
+
+  @Test(expected = IOException.class)
+  public void write_BeforeChromosome() throws Throwable {
+    try (BinaryTrackWriter writer = new BinaryTrackWriter(new ByteArrayOutputStream())) {
+      writer.write(1.5, 1);
+    }
+  }
+
+  @Test(expected = IOException.class)
+  public void startChromosome_Duplicate() throws Throwable {
+    try (BinaryTrackWriter writer = new BinaryTrackWriter(new ByteArrayOutputStream())) {
+      writer.startChromosome("chr1");
+      writer.write(1.5, 1);
+      writer.startChromosome("chr2");
+      writer.write(2.5, 1);
+      writer.startChromosome("chr1");
+    }
+  }
+
+  @Test
+  public void write_NoCountBeforeChromosome() throws Throwable {
+    ByteArrayOutputStream output = new ByteArrayOutputStream();
+    try (BinaryTrackWriter writer = new BinaryTrackWriter(output)) {
+      writer.write(1.5, 0);
+      writer.startChromosome("chr1");
+      writer.write(2.5, 1);
+    }
+
+    DataInputStream input = new DataInputStream(new ByteArrayInputStream(output.toByteArray()));
+    input.readInt();
+    input.readInt();
+    assertEquals(2.5, input.readFloat(), DELTA);
+    assertEquals(1, input.readInt());
+  }
+
+  @Test
+  public void write_Buffer() throws Throwable {
+    Path file = temporaryFolder.getRoot().toPath().resolve("track.bin");
+    float[] values = new float[100000];
+    for (int i = 0; i < values.length; i++) {
+      values[i] = i;
+    }
+    try (BinaryTrackWriter writer = new BinaryTrackWriter(Files.newOutputStream(file))) {
+      writer.startChromosome("chr1");
+      writer.write(1.5, 1);
+      writer.write(FloatBuffer.wrap(values));
+    }
+
+    try (BinaryTrack track = new BinaryTrack(file)) {
+      assertEquals(100001, track.length("chr1"));
+      FloatBuffer trackValues = track.values("chr1");
+      assertEquals(1.5, trackValues.get(0), DELTA);
+      for (int i = 0; i < values.length; i++) {
+        assertEquals(i, trackValues.get(i + 1), DELTA);
+      }
+    }
+  }
+}
@@ -7,6 +7,7 @@ import ca.qc.ircm.rnapolymerasepauses.test.config.NonTransactionalTestAnnotation
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -54,6 +55,18 @@ public class ChromosomeSizesParserTest {
     }
   }
 
+  @Test
+  public void chromosomeSizes_FastaIndex() throws Throwable {
+    Path file = temporaryFolder.newFile("genome.fa.fai").toPath();
+    Files.write(file, Arrays.asList("chr1\t13\t6\t10\t11", "chr2\t2\t26\t2\t3"));
+
+    Map<String, Long> sizes = chromosomeSizesParser.chromosomeSizes(file);
+
+    assertEquals(2, sizes.size());
+    assertEquals(13, sizes.get("chr1").longValue());
+    assertEquals(2, sizes.get("chr2").longValue());
+  }
+
   @Test(expected = IOException.class)
   public void chromosomeSizes_Invalid() throws Throwable {
     Path file = temporaryFolder.newFile("chromSizes_invalid.txt").toPath();
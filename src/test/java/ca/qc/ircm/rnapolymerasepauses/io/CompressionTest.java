@@ -0,0 +1,271 @@
+package ca.qc.ircm.rnapolymerasepauses.io;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import ca.qc.ircm.rnapolymerasepauses.RunMetrics;
+import ca.qc.ircm.rnapolymerasepauses.test.config.NonTransactionalTestAnnotations;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+
+@RunWith(SpringJUnit4ClassRunner.class)
+@NonTransactionalTestAnnotations
+public class CompressionTest {
+  private static final String CONTENT = "test line 0\ntest line 1\n";
+  @Rule
+  public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  private byte[] gzip(byte[] data) throws IOException {
+    ByteArrayOutputStream output = new ByteArrayOutputStream();
+    try (GZIPOutputStream gzip = new GZIPOutputStream(output)) {
+      gzip.write(data);
+    }
+    return output.toByteArray();
+  }
+
+  private byte[] bgzf(byte[] data) throws IOException {
+    ByteArrayOutputStream output = new ByteArrayOutputStream();
+    try (BgzfOutputStream bgzf = new BgzfOutputStream(output, 1)) {
+      bgzf.write(data);
+    }
+    return output.toByteArray();
+  }
+
+  private byte[] readAll(InputStream input) throws IOException {
+    ByteArrayOutputStream output = new ByteArrayOutputStream();
+    try (InputStream closeable = input) {
+      byte[] buffer = new byte[8192];
+      int read;
+      while ((read = input.read(buffer)) != -1) {
+        output.write(buffer, 0, read);
+      }
+    }
+    return output.toByteArray();
+  }
+
+  private long value(RunMetrics metrics, String name) {
+    Matcher matcher = Pattern.compile("\"" + name + "\": (\\d+)").matcher(metrics.toJson(true));
+    assertTrue(matcher.find());
+    return Long.parseLong(matcher.group(1));
+  }
+
+  private void assertContent(BufferedReader reader) throws IOException {
+    try (BufferedReader closeable = reader) {
+      assertEquals("test line 0", reader.readLine());
+      assertEquals("test line 1", reader.readLine());
+      assertNull(reader.readLine());
+    }
+  }
+
+  @Test
+  public void isCompressed() throws Throwable {
+    Path file = temporaryFolder.getRoot().toPath().resolve("file.txt");
+    Files.write(file, gzip(CONTENT.getBytes(StandardCharsets.UTF_8)));
+    assertTrue(Compression.isCompressed(file));
+    Files.write(file, bgzf(CONTENT.getBytes(StandardCharsets.UTF_8)));
+    assertTrue(Compression.isCompressed(file));
+    Files.write(file, CONTENT.getBytes(StandardCharsets.UTF_8));
+    assertFalse(Compression.isCompressed(file));
+    Files.write(file, new byte[0]);
+    assertFalse(Compression.isCompressed(file));
+  }
+
+  @Test
+  public void isCompressedName() throws Throwable {
+    assertTrue(Compression.isCompressedName(Paths.get("track.txt.gz")));
+    assertTrue(Compression.isCompressedName(Paths.get("track.txt.GZ")));
+    assertTrue(Compression.isCompressedName(Paths.get("track.txt.bgz")));
+    assertFalse(Compression.isCompressedName(Paths.get("track.txt")));
+    assertFalse(Compression.isCompressedName(Paths.get("gz")));
+  }
+
+  @Test
+  public void decompress_Plain() throws Throwable {
+    byte[] data = CONTENT.getBytes(StandardCharsets.UTF_8);
+
+    assertArrayEquals(data, readAll(Compression.decompress(new ByteArrayInputStream(data))));
+  }
+
+  @Test
+  public void decompress_Short() throws Throwable {
+    byte[] data = { 0x1f };
+
+    assertArrayEquals(data, readAll(Compression.decompress(new ByteArrayInputStream(data))));
+  }
+
+  @Test
+  public void decompress_Gzip() throws Throwable {
+    byte[] data = CONTENT.getBytes(StandardCharsets.UTF_8);
+
+    assertArrayEquals(data,
+        readAll(Compression.decompress(new ByteArrayInputStream(gzip(data)))));
+  }
+
+  @Test
+  public void decompress_Bgzf() throws Throwable {
+    byte[] data = CONTENT.getBytes(StandardCharsets.UTF_8);
+
+    assertArrayEquals(data,
+        readAll(Compression.decompress(new ByteArrayInputStream(bgzf(data)))));
+  }
+
+  @Test
+  public void newBufferedReader() throws Throwable {
+    Path file = temporaryFolder.getRoot().toPath().resolve("file.txt");
+    Files.write(file, CONTENT.getBytes(StandardCharsets.UTF_8));
+
+    assertContent(Compression.newBufferedReader(file));
+  }
+
+  @Test
+  public void newBufferedReader_Gzip() throws Throwable {
+    Path file = temporaryFolder.getRoot().toPath().resolve("file.txt");
+    Files.write(file, gzip(CONTENT.getBytes(StandardCharsets.UTF_8)));
+
+    assertContent(Compression.newBufferedReader(file));
+  }
+
+  @Test
+  public void newBufferedReader_Bgzf() throws Throwable {
+    Path file = temporaryFolder.getRoot().toPath().resolve("file.txt");
+    Files.write(file, bgzf(CONTENT.getBytes(StandardCharsets.UTF_8)));
+
+    assertContent(Compression.newBufferedReader(file));
+  }
+
+  @Test
+  public void newBufferedReader_InputStream() throws Throwable {
+    assertContent(Compression.newBufferedReader(
+        new ByteArrayInputStream(bgzf(CONTENT.getBytes(StandardCharsets.UTF_8)))));
+  }
+
+  @Test
+  public void newBufferedWriter() throws Throwable {
+    Path file = temporaryFolder.getRoot().toPath().resolve("file.txt");
+
+    try (BufferedWriter writer = Compression.newBufferedWriter(file)) {
+      writer.write(CONTENT);
+    }
+
+    assertEquals(CONTENT, new String(Files.readAllBytes(file), StandardCharsets.UTF_8));
+  }
+
+  @Test
+  public void newBufferedWriter_Compressed() throws Throwable {
+    Path file = temporaryFolder.getRoot().toPath().resolve("file.txt.gz");
+
+    try (BufferedWriter writer = Compression.newBufferedWriter(file)) {
+      writer.write(CONTENT);
+    }
+
+    byte[] compressed = Files.readAllBytes(file);
+    assertTrue(BgzfInputStream.isBgzf(compressed, compressed.length));
+    assertEquals(CONTENT, new String(
+        readAll(new GZIPInputStream(Files.newInputStream(file))), StandardCharsets.UTF_8));
+  }
+
+  @Test
+  public void newOutputStream() throws Throwable {
+    Path file = temporaryFolder.getRoot().toPath().resolve("file.bin");
+    byte[] data = { 1, 2, 3 };
+
+    try (OutputStream output = Compression.newOutputStream(file)) {
+      output.write(data);
+    }
+
+    assertArrayEquals(data, Files.readAllBytes(file));
+  }
+
+  @Test
+  public void newOutputStream_Compressed() throws Throwable {
+    Path file = temporaryFolder.getRoot().toPath().resolve("file.bin.bgz");
+    byte[] data = { 1, 2, 3 };
+
+    try (OutputStream output = Compression.newOutputStream(file)) {
+      output.write(data);
+    }
+
+    assertArrayEquals(data, readAll(Compression.decompress(Files.newInputStream(file))));
+  }
+
+  @Test
+  public void newMappedOutputStream() throws Throwable {
+    Path file = temporaryFolder.getRoot().toPath().resolve("file.bin");
+    byte[] data = { 1, 2, 3 };
+
+    try (OutputStream output = Compression.newMappedOutputStream(file)) {
+      output.write(data);
+    }
+
+    assertArrayEquals(data, Files.readAllBytes(file));
+  }
+
+  @Test(expected = IOException.class)
+  public void newMappedOutputStream_Compressed() throws Throwable {
+    Path file = temporaryFolder.getRoot().toPath().resolve("file.bin.gz");
+
+    Compression.newMappedOutputStream(file);
+  }
+
+  @Test
+  public void newBufferedReader_Metrics() throws Throwable {
+    Path file = temporaryFolder.getRoot().toPath().resolve("file.txt.gz");
+    Files.write(file, gzip(CONTENT.getBytes(StandardCharsets.UTF_8)));
+    RunMetrics metrics = RunMetrics.start("test");
+    try {
+      assertContent(Compression.newBufferedReader(file));
+    } finally {
+      metrics.stop();
+    }
+
+    assertEquals(Files.size(file), value(metrics, "bytesRead"));
+  }
+
+  @Test
+  public void newBufferedWriter_Metrics() throws Throwable {
+    Path file = temporaryFolder.getRoot().toPath().resolve("file.txt.gz");
+    RunMetrics metrics = RunMetrics.start("test");
+    try (BufferedWriter writer = Compression.newBufferedWriter(file)) {
+      writer.write(CONTENT);
+    } finally {
+      metrics.stop();
+    }
+
+    assertEquals(2, value(metrics, "recordsOut"));
+    assertEquals(Files.size(file), value(metrics, "bytesWritten"));
+  }
+
+  @Test
+  public void newOutputStream_Metrics() throws Throwable {
+    Path file = temporaryFolder.getRoot().toPath().resolve("file.bin");
+    RunMetrics metrics = RunMetrics.start("test");
+    try (OutputStream output = Compression.newOutputStream(file)) {
+      output.write(new byte[] { 1, 2, 3 });
+    } finally {
+      metrics.stop();
+    }
+
+    assertEquals(3, value(metrics, "bytesWritten"));
+  }
+}
@@ -0,0 +1,142 @@
+package ca.qc.ircm.rnapolymerasepauses.io;
+
+import static org.junit.Assert.assertEquals;
+
+import ca.qc.ircm.rnapolymerasepauses.test.config.NonTransactionalTestAnnotations;
+import java.text.DecimalFormat;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+
+@RunWith(SpringJUnit4ClassRunner.class)
+@NonTransactionalTestAnnotations
+public class DoubleFormatterTest {
+  private static final int VALUES_COUNT = 100000;
+
+  private void assertSameAsDecimalFormat(int maximumFractionDigits, double value) {
+    StringBuilder pattern = new StringBuilder("0.");
+    for (int i = 0; i < maximumFractionDigits; i++) {
+      pattern.append("#");
+    }
+    assertEquals("value " + value, new DecimalFormat(pattern.toString()).format(value),
+        new DoubleFormatter(maximumFractionDigits).format(value));
+  }
+
+  @Test
+  public void format() throws Throwable {
+    DoubleFormatter formatter = new DoubleFormatter(5);
+    assertEquals("0", formatter.format(0));
+    assertEquals("1", formatter.format(1));
+    assertEquals("1.5", formatter.format(1.5));
+    assertEquals("0.33333", formatter.format(1.0 / 3));
+    assertEquals("0.66667", formatter.format(2.0 / 3));
+    assertEquals("123456.12346", formatter.format(123456.123456));
+    assertEquals("100000000000000000000", formatter.format(1e20));
+    assertEquals("0.00001", formatter.format(0.000006));
+    assertEquals("0", formatter.format(0.000004));
+  }
+
+  @Test
+  public void format_HalfEven() throws Throwable {
+    DoubleFormatter formatter = new DoubleFormatter(2);
+    assertEquals("0.12", formatter.format(0.125));
+    assertEquals("0.38", formatter.format(0.375));
+    assertEquals("0", new DoubleFormatter(5).format(0.000005));
+    assertEquals("0.00002", new DoubleFormatter(5).format(0.000015));
+  }
+
+  @Test
+  public void format_Special() throws Throwable {
+    assertSameAsDecimalFormat(5, -0.0);
+    assertSameAsDecimalFormat(5, -1.5);
+    assertSameAsDecimalFormat(5, -0.000001);
+    assertSameAsDecimalFormat(5, Double.NaN);
+    assertSameAsDecimalFormat(5, Double.POSITIVE_INFINITY);
+    assertSameAsDecimalFormat(5, Double.MIN_VALUE);
+    assertSameAsDecimalFormat(5, Double.MAX_VALUE);
+    assertSameAsDecimalFormat(16, Math.pow(2, 60));
+  }
+
+  @Test
+  public void format_DecimalFormatReused() throws Throwable {
+    DoubleFormatter formatter = new DoubleFormatter(2);
+    DecimalFormat decimalFormat = new DecimalFormat("0.##");
+    double[] values =
+        { -1.5, Double.NaN, 0.125, -0.001, Double.NEGATIVE_INFINITY, 0.375, -12.345, -0.0 };
+    for (int i = 0; i < 3; i++) {
+      for (double value : values) {
+        assertEquals("value " + value, decimalFormat.format(value), formatter.format(value));
+      }
+    }
+  }
+
+  @Test
+  public void format_DecimalFormatConcurrent() throws Throwable {
+    DoubleFormatter formatter = new DoubleFormatter(5);
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      List<Future<Void>> tasks = new ArrayList<>();
+      for (int i = 0; i < 4; i++) {
+        tasks.add(executor.submit(() -> {
+          DecimalFormat decimalFormat = new DecimalFormat("0.#####");
+          Random random = new Random();
+          for (int j = 0; j < VALUES_COUNT / 10; j++) {
+            double value = -random.nextDouble() * 1000;
+            assertEquals("value " + value, decimalFormat.format(value), formatter.format(value));
+          }
+          return null;
+        }));
+      }
+      for (Future<Void> task : tasks) {
+        task.get();
+      }
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  @Test
+  public void format_Buffer() throws Throwable {
+    DoubleFormatter formatter = new DoubleFormatter(5);
+    char[] buffer = new char[formatter.maximumLength() + 2];
+    buffer[0] = '>';
+    int end = formatter.format(12.25, buffer, 1);
+    assertEquals(">12.25", new String(buffer, 0, end));
+  }
+
+  @Test
+  public void format_Random() throws Throwable {
+    Random random = new Random();
+    for (int i = 0; i < VALUES_COUNT; i++) {
+      assertSameAsDecimalFormat(5, random.nextDouble() * 5);
+      assertSameAsDecimalFormat(16, random.nextDouble() * 20);
+      assertSameAsDecimalFormat(10, random.nextDouble() * 4);
+      assertSameAsDecimalFormat(5, random.nextInt(1000000) / 1000.0);
+      assertSameAsDecimalFormat(10, Double.longBitsToDouble(random.nextLong()));
+    }
+  }
+
+  @Test
+  public void format_NearTies() throws Throwable {
+    Random random = new Random();
+    for (int i = 0; i < VALUES_COUNT; i++) {
+      double value = (random.nextInt(1000000) + 0.5) / 100000;
+      int steps = random.nextInt(5);
+      for (int step = 0; step < steps; step++) {
+        value = i % 2 == 0 ? Math.nextUp(value) : Math.nextDown(value);
+      }
+      assertSameAsDecimalFormat(5, value);
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void new_NegativeFractionDigits() throws Throwable {
+    new DoubleFormatter(-1);
+  }
+}
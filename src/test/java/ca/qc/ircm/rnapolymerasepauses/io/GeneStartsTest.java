@@ -0,0 +1,124 @@
+package ca.qc.ircm.rnapolymerasepauses.io;
+
+import static org.junit.Assert.assertEquals;
+
+import ca.qc.ircm.rnapolymerasepauses.Gene;
+import ca.qc.ircm.rnapolymerasepauses.test.config.NonTransactionalTestAnnotations;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import org.apache.commons.lang3.RandomStringUtils;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+
+@RunWith(SpringJUnit4ClassRunner.class)
+@NonTransactionalTestAnnotations
+public class GeneStartsTest {
+  private static final int GENES_COUNT = 10000;
+  private static final int GENE_NAME_LENGTH = 10;
+  private static final int GENE_MAX_POSITION = 1000000;
+
+  private Gene gene(String name, long start) {
+    Gene gene = new Gene();
+    gene.name = name;
+    gene.start = start;
+    return gene;
+  }
+
+  private List<Gene> genes() {
+    Random random = new Random();
+    List<Gene> genes = new ArrayList<>();
+    for (int i = 0; i < GENES_COUNT; i++) {
+      genes.add(gene(RandomStringUtils.randomAlphanumeric(GENE_NAME_LENGTH) + i,
+          random.nextInt(GENE_MAX_POSITION)));
+    }
+    return genes;
+  }
+
+  @Test
+  public void indexOf() throws Throwable {
+    GeneStarts geneStarts =
+        new GeneStarts(Arrays.asList(gene("YAL001C", 151006), gene("YAL002W", 143707)));
+
+    assertEquals(2, geneStarts.size());
+    assertEquals(0, geneStarts.indexOf("YAL001C"));
+    assertEquals("YAL001C", geneStarts.name(0));
+    assertEquals(151006, geneStarts.start(0));
+    assertEquals(1, geneStarts.indexOf("YAL002W"));
+    assertEquals("YAL002W", geneStarts.name(1));
+    assertEquals(143707, geneStarts.start(1));
+    assertEquals(-1, geneStarts.indexOf("YAL003W"));
+    assertEquals(-1, geneStarts.indexOf("YAL001"));
+    assertEquals(-1, geneStarts.indexOf(""));
+  }
+
+  @Test
+  public void indexOf_Many() throws Throwable {
+    List<Gene> genes = genes();
+
+    GeneStarts geneStarts = new GeneStarts(genes);
+
+    assertEquals(GENES_COUNT, geneStarts.size());
+    for (int i = 0; i < GENES_COUNT; i++) {
+      Gene gene = genes.get(i);
+      assertEquals(i, geneStarts.indexOf(gene.name));
+      assertEquals(gene.name, geneStarts.name(i));
+      assertEquals(gene.start, geneStarts.start(i));
+    }
+  }
+
+  @Test
+  public void indexOf_Empty() throws Throwable {
+    GeneStarts geneStarts = new GeneStarts(Collections.emptyList());
+
+    assertEquals(0, geneStarts.size());
+    assertEquals(-1, geneStarts.indexOf("YAL001C"));
+  }
+
+  @Test(expected = IOException.class)
+  public void new_DuplicatedName() throws Throwable {
+    new GeneStarts(Arrays.asList(gene("YAL001C", 151006), gene("YAL001C", 143707)));
+  }
+
+  @Test
+  public void new_Buffer() throws Throwable {
+    List<Gene> genes = genes();
+    ByteBuffer buffer = ByteBuffer.allocate(new GeneStarts(genes).buffer().remaining() + 3);
+    buffer.put(new byte[] { 1, 2, 3 });
+    buffer.put(new GeneStarts(genes).buffer());
+    buffer.position(3);
+
+    GeneStarts geneStarts = new GeneStarts(buffer);
+
+    assertEquals(GENES_COUNT, geneStarts.size());
+    for (int i = 0; i < GENES_COUNT; i++) {
+      Gene gene = genes.get(i);
+      assertEquals(i, geneStarts.indexOf(gene.name));
+      assertEquals(gene.name, geneStarts.name(i));
+      assertEquals(gene.start, geneStarts.start(i));
+    }
+  }
+
+  @Test(expected = IOException.class)
+  public void new_BufferTruncated() throws Throwable {
+    ByteBuffer buffer = new GeneStarts(genes()).buffer();
+    buffer.limit(buffer.limit() - 1);
+
+    new GeneStarts(buffer);
+  }
+
+  @Test(expected = IOException.class)
+  public void new_BufferInvalid() throws Throwable {
+    new GeneStarts(ByteBuffer.wrap(new byte[] { 1, 2, 3, 4, 5, 6, 7, 8, 9 }));
+  }
+
+  @Test(expected = IndexOutOfBoundsException.class)
+  public void start_OutOfBounds() throws Throwable {
+    new GeneStarts(Arrays.asList(gene("YAL001C", 151006))).start(1);
+  }
+}
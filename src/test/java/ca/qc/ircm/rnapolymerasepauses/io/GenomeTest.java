@@ -0,0 +1,132 @@
+package ca.qc.ircm.rnapolymerasepauses.io;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import ca.qc.ircm.rnapolymerasepauses.test.config.NonTransactionalTestAnnotations;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+
+@RunWith(SpringJUnit4ClassRunner.class)
+@NonTransactionalTestAnnotations
+public class GenomeTest {
+  @Rule
+  public TemporaryFolder temporaryFolder = new TemporaryFolder();
+  private Path file;
+
+  /**
+   * Before test.
+   */
+  @Before
+  public void beforeTest() throws Throwable {
+    file = temporaryFolder.getRoot().toPath().resolve("genome.bin");
+    try (GenomeWriter writer = new GenomeWriter(Files.newOutputStream(file))) {
+      writer.startChromosome("chr1");
+      writer.write("AACCGGTTAC");
+      writer.write("GTNNNACGTA");
+      writer.startChromosome("chrM");
+      writer.startChromosome("chr2");
+      writer.write("tgca");
+    }
+  }
+
+  @Test
+  public void chromosomes() throws Throwable {
+    try (Genome genome = new Genome(file)) {
+      assertEquals(Arrays.asList("chr1", "chrM", "chr2"), genome.chromosomes());
+      assertTrue(genome.contains("chr1"));
+      assertTrue(genome.contains("chrM"));
+      assertFalse(genome.contains("chr3"));
+    }
+  }
+
+  @Test
+  public void length() throws Throwable {
+    try (Genome genome = new Genome(file)) {
+      assertEquals(20, genome.length("chr1"));
+      assertEquals(0, genome.length("chrM"));
+      assertEquals(4, genome.length("chr2"));
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void length_Missing() throws Throwable {
+    try (Genome genome = new Genome(file)) {
+      genome.length("chr3");
+    }
+  }
+
+  @Test
+  public void sequence() throws Throwable {
+    try (Genome genome = new Genome(file)) {
+      assertEquals("AACCGGTTACGTNNNACGTA", genome.sequence("chr1", 0, 20));
+      assertEquals("CCGGT", genome.sequence("chr1", 2, 7));
+      assertEquals("TNNNA", genome.sequence("chr1", 11, 16));
+      assertEquals("NN", genome.sequence("chr1", 13, 15));
+      assertEquals("", genome.sequence("chr1", 5, 5));
+      assertEquals("", genome.sequence("chrM", 0, 10));
+      assertEquals("TGCA", genome.sequence("chr2", 0, 4));
+    }
+  }
+
+  @Test
+  public void sequence_OutsideChromosome() throws Throwable {
+    try (Genome genome = new Genome(file)) {
+      assertEquals("AAC", genome.sequence("chr1", -5, 3));
+      assertEquals("GTA", genome.sequence("chr1", 17, 25));
+      assertEquals("", genome.sequence("chr1", 20, 25));
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void sequence_Missing() throws Throwable {
+    try (Genome genome = new Genome(file)) {
+      genome.sequence("chr3", 0, 1);
+    }
+  }
+
+  @Test
+  public void flank_Plus() throws Throwable {
+    try (Genome genome = new Genome(file)) {
+      assertEquals("CCGGTTAC", genome.flank("chr1", 6, "+", 4));
+      assertEquals("GGTTACGTNN", genome.flank("chr1", 9, "+", 5));
+    }
+  }
+
+  @Test
+  public void flank_Minus() throws Throwable {
+    try (Genome genome = new Genome(file)) {
+      // Reverse complement of CGGTTACG.
+      assertEquals("CGTAACCG", genome.flank("chr1", 8, "-", 4));
+      // Reverse complement of ACGTNNNACG.
+      assertEquals("CGTNNNACGT", genome.flank("chr1", 14, "-", 5));
+    }
+  }
+
+  @Test
+  public void flank_ChromosomeEnds() throws Throwable {
+    try (Genome genome = new Genome(file)) {
+      assertEquals("AACCG", genome.flank("chr1", 2, "+", 3));
+      assertEquals("ACGTA", genome.flank("chr1", 18, "+", 3));
+      assertEquals("TT", genome.flank("chr1", 1, "-", 2));
+    }
+  }
+
+  @Test(expected = IOException.class)
+  public void genome_NotGenome() throws Throwable {
+    Path other = temporaryFolder.getRoot().toPath().resolve("other.txt");
+    Files.write(other, "not a genome file".getBytes());
+    try (Genome genome = new Genome(other)) {
+      genome.chromosomes();
+    }
+  }
+}
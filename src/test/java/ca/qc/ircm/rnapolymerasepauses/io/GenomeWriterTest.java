@@ -0,0 +1,117 @@
+package ca.qc.ircm.rnapolymerasepauses.io;
+
+import static org.junit.Assert.assertEquals;
+
+import ca.qc.ircm.rnapolymerasepauses.test.config.NonTransactionalTestAnnotations;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+
+@RunWith(SpringJUnit4ClassRunner.class)
+@NonTransactionalTestAnnotations
+public class GenomeWriterTest {
+  @Rule
+  public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  @Test
+  public void write() throws Throwable {
+    ByteArrayOutputStream output = new ByteArrayOutputStream();
+    try (GenomeWriter writer = new GenomeWriter(output)) {
+      writer.startChromosome("chr1");
+      writer.write("ACG");
+      writer.write("TNa");
+      writer.startChromosome("chr2");
+      writer.write("T");
+    }
+
+    DataInputStream input = new DataInputStream(new ByteArrayInputStream(output.toByteArray()));
+    assertEquals(GenomeWriter.MAGIC, input.readInt());
+    assertEquals(GenomeWriter.VERSION, input.readInt());
+    assertEquals(0xE4, input.readLong());
+    assertEquals(0x03, input.readLong());
+    assertEquals(2, input.readInt());
+    assertEquals("chr1", input.readUTF());
+    assertEquals(8, input.readLong());
+    assertEquals(6, input.readLong());
+    assertEquals(1, input.readInt());
+    assertEquals(4, input.readLong());
+    assertEquals(5, input.readLong());
+    assertEquals('N', input.readChar());
+    assertEquals("chr2", input.readUTF());
+    assertEquals(16, input.readLong());
+    assertEquals(1, input.readLong());
+    assertEquals(0, input.readInt());
+    assertEquals(24, input.readLong());
+    assertEquals(GenomeWriter.MAGIC, input.readInt());
+    assertEquals(-1, input.read());
+  }
+
+  @Test
+  public void write_OtherRuns() throws Throwable {
+    ByteArrayOutputStream output = new ByteArrayOutputStream();
+    try (GenomeWriter writer = new GenomeWriter(output)) {
+      writer.startChromosome("chr1");
+      writer.write("NNnACRRYN");
+    }
+
+    byte[] bytes = output.toByteArray();
+    DataInputStream input = new DataInputStream(new ByteArrayInputStream(bytes, 16, bytes.length));
+    assertEquals(1, input.readInt());
+    assertEquals("chr1", input.readUTF());
+    assertEquals(8, input.readLong());
+    assertEquals(9, input.readLong());
+    assertEquals(4, input.readInt());
+    assertEquals(0, input.readLong());
+    assertEquals(3, input.readLong());
+    assertEquals('N', input.readChar());
+    assertEquals(5, input.readLong());
+    assertEquals(7, input.readLong());
+    assertEquals('R', input.readChar());
+    assertEquals(7, input.readLong());
+    assertEquals(8, input.readLong());
+    assertEquals('Y', input.readChar());
+    assertEquals(8, input.readLong());
+    assertEquals(9, input.readLong());
+    assertEquals('N', input.readChar());
+  }
+
+  @Test
+  public void write_ManyBases() throws Throwable {
+    Path file = temporaryFolder.getRoot().toPath().resolve("genome.bin");
+    StringBuilder bases = new StringBuilder();
+    for (int i = 0; i < 100000; i++) {
+      bases.append("ACGGT");
+    }
+    try (GenomeWriter writer = new GenomeWriter(Files.newOutputStream(file))) {
+      writer.startChromosome("chr1");
+      writer.write(bases);
+      writer.startChromosome("chr2");
+      writer.write("TTA");
+    }
+
+    try (Genome genome = new Genome(file)) {
+      assertEquals(Arrays.asList("chr1", "chr2"), genome.chromosomes());
+      assertEquals(500000, genome.length("chr1"));
+      assertEquals("ACGGTACGGT", genome.sequence("chr1", 0, 10));
+      assertEquals("GTACG", genome.sequence("chr1", 399998, 400003));
+      assertEquals(bases.toString(), genome.sequence("chr1", 0, 500000));
+      assertEquals("TTA", genome.sequence("chr2", 0, 3));
+    }
+  }
+
+  @Test(expected = IOException.class)
+  public void write_BeforeChromosome() throws Throwable {
+    try (GenomeWriter writer = new GenomeWriter(new ByteArrayOutputStream())) {
+      writer.write("ACGT");
+    }
+  }
+}
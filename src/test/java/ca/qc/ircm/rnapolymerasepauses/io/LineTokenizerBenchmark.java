@@ -0,0 +1,103 @@
+package ca.qc.ircm.rnapolymerasepauses.io;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares parsing BED lines using {@link LineTokenizer} with {@link String#split(String, int)}.
+ * <p>
+ * Run with <code>-prof gc</code> to compare allocation rates.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class LineTokenizerBenchmark {
+  private static final String SEPARATOR = "\t";
+  private static final String COLUMN_SEPARATOR = "[\\t\\s]";
+  private static final int MAX_SPACE_BETWEEN_DATA = 100;
+  private static final int MAX_DATA_LENGTH = 50;
+  @Param({ "100000" })
+  public int linesCount;
+  private String content;
+
+  /**
+   * Generates BED content.
+   */
+  @Setup
+  public void generateBed() {
+    Random random = new Random(linesCount);
+    StringBuilder builder = new StringBuilder();
+    long position = 0;
+    for (int i = 0; i < linesCount; i++) {
+      position += random.nextInt(MAX_SPACE_BETWEEN_DATA);
+      long end = position + random.nextInt(MAX_DATA_LENGTH) + 1;
+      builder.append("chr" + (i * 10 / linesCount + 1));
+      builder.append(SEPARATOR);
+      builder.append(position);
+      builder.append(SEPARATOR);
+      builder.append(end);
+      builder.append(SEPARATOR);
+      builder.append("name" + i);
+      builder.append(SEPARATOR);
+      builder.append(random.nextInt(10000) / 100.0);
+      builder.append("\n");
+      position = end;
+    }
+    content = builder.toString();
+  }
+
+  @Benchmark
+  public double split() throws IOException {
+    double sum = 0;
+    String chromosome = "";
+    try (BufferedReader reader = new BufferedReader(new StringReader(content))) {
+      String line;
+      while ((line = reader.readLine()) != null) {
+        String[] columns = line.split(COLUMN_SEPARATOR, -1);
+        if (!chromosome.equals(columns[0])) {
+          chromosome = columns[0];
+        }
+        long start = Long.parseLong(columns[1]);
+        long end = Long.parseLong(columns[2]);
+        sum += (end - start) * Double.parseDouble(columns[4]);
+      }
+    }
+    return sum;
+  }
+
+  @Benchmark
+  public double tokenizer() throws IOException {
+    double sum = 0;
+    String chromosome = "";
+    try (LineTokenizer tokenizer =
+        new LineTokenizer(new StringReader(content), LineTokenizer.WHITESPACE)) {
+      while (tokenizer.nextLine()) {
+        if (!tokenizer.columnEquals(0, chromosome)) {
+          chromosome = tokenizer.string(0);
+        }
+        long start = tokenizer.longValue(1);
+        long end = tokenizer.longValue(2);
+        sum += (end - start) * tokenizer.doubleValue(4);
+      }
+    }
+    return sum;
+  }
+}
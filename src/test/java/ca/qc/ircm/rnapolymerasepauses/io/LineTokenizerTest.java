@@ -0,0 +1,292 @@
+package ca.qc.ircm.rnapolymerasepauses.io;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import ca.qc.ircm.rnapolymerasepauses.RunMetrics;
+import ca.qc.ircm.rnapolymerasepauses.test.config.NonTransactionalTestAnnotations;
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Random;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+
+@RunWith(SpringJUnit4ClassRunner.class)
+@NonTransactionalTestAnnotations
+public class LineTokenizerTest {
+  private LineTokenizer tokenizer(String content, String separators) {
+    return new LineTokenizer(new StringReader(content), separators);
+  }
+
+  @Test
+  public void nextLine() throws Throwable {
+    try (LineTokenizer tokenizer = tokenizer("a\tb\nc\r\nd\re", LineTokenizer.TAB)) {
+      assertTrue(tokenizer.nextLine());
+      assertEquals("a\tb", tokenizer.line());
+      assertEquals(2, tokenizer.columns());
+      assertEquals("a", tokenizer.string(0));
+      assertEquals("b", tokenizer.string(1));
+      assertTrue(tokenizer.nextLine());
+      assertEquals("c", tokenizer.line());
+      assertEquals(1, tokenizer.columns());
+      assertTrue(tokenizer.nextLine());
+      assertEquals("d", tokenizer.line());
+      assertTrue(tokenizer.nextLine());
+      assertEquals("e", tokenizer.line());
+      assertFalse(tokenizer.nextLine());
+      assertFalse(tokenizer.nextLine());
+    }
+  }
+
+  @Test
+  public void nextLine_Metrics() throws Throwable {
+    RunMetrics metrics = RunMetrics.start("test");
+    try {
+      try (LineTokenizer tokenizer = tokenizer("a\tb\nc\n\nd", LineTokenizer.TAB)) {
+        while (tokenizer.nextLine()) {
+          tokenizer.line();
+        }
+      }
+    } finally {
+      metrics.stop();
+    }
+
+    assertTrue(metrics.toJson(true).contains("\"recordsIn\": 4,"));
+  }
+
+  @Test
+  public void nextLine_Empty() throws Throwable {
+    try (LineTokenizer tokenizer = tokenizer("", LineTokenizer.TAB)) {
+      assertFalse(tokenizer.nextLine());
+    }
+  }
+
+  @Test
+  public void nextLine_EmptyLines() throws Throwable {
+    try (LineTokenizer tokenizer = tokenizer("\n\r\n\n", LineTokenizer.TAB)) {
+      for (int i = 0; i < 3; i++) {
+        assertTrue(tokenizer.nextLine());
+        assertTrue(tokenizer.isEmpty());
+        assertEquals(1, tokenizer.columns());
+        assertEquals("", tokenizer.string(0));
+      }
+      assertFalse(tokenizer.nextLine());
+    }
+  }
+
+  @Test
+  public void nextLine_LongLine() throws Throwable {
+    StringBuilder builder = new StringBuilder();
+    for (int i = 0; i < 100000; i++) {
+      builder.append(i);
+      builder.append("\t");
+    }
+    String line = builder.toString();
+    try (LineTokenizer tokenizer = tokenizer(line + "\n" + line, LineTokenizer.TAB)) {
+      for (int l = 0; l < 2; l++) {
+        assertTrue(tokenizer.nextLine());
+        assertEquals(100001, tokenizer.columns());
+        for (int i = 0; i < 100000; i++) {
+          assertEquals(i, tokenizer.intValue(i));
+        }
+        assertEquals("", tokenizer.string(100000));
+      }
+      assertFalse(tokenizer.nextLine());
+    }
+  }
+
+  @Test
+  public void columns_EmptyColumns() throws Throwable {
+    try (LineTokenizer tokenizer = tokenizer("a\t\tb\t", LineTokenizer.TAB)) {
+      assertTrue(tokenizer.nextLine());
+      assertEquals(4, tokenizer.columns());
+      assertEquals("a", tokenizer.string(0));
+      assertEquals("", tokenizer.string(1));
+      assertEquals("b", tokenizer.string(2));
+      assertEquals("", tokenizer.string(3));
+    }
+  }
+
+  @Test
+  public void columns_Whitespace() throws Throwable {
+    try (LineTokenizer tokenizer = tokenizer("a b\tc\u000Bd\fe", LineTokenizer.WHITESPACE)) {
+      assertTrue(tokenizer.nextLine());
+      assertEquals(5, tokenizer.columns());
+      assertEquals("a", tokenizer.string(0));
+      assertEquals("b", tokenizer.string(1));
+      assertEquals("c", tokenizer.string(2));
+      assertEquals("d", tokenizer.string(3));
+      assertEquals("e", tokenizer.string(4));
+    }
+  }
+
+  @Test(expected = IndexOutOfBoundsException.class)
+  public void string_MissingColumn() throws Throwable {
+    try (LineTokenizer tokenizer = tokenizer("a\tb", LineTokenizer.TAB)) {
+      tokenizer.nextLine();
+      tokenizer.string(2);
+    }
+  }
+
+  @Test
+  public void startsWith() throws Throwable {
+    try (LineTokenizer tokenizer = tokenizer("chrom=chr1\nchr", LineTokenizer.TAB)) {
+      tokenizer.nextLine();
+      assertTrue(tokenizer.startsWith("chrom="));
+      assertTrue(tokenizer.startsWith(""));
+      assertFalse(tokenizer.startsWith("chrom=chr2"));
+      tokenizer.nextLine();
+      assertFalse(tokenizer.startsWith("chrom="));
+    }
+  }
+
+  @Test
+  public void lineEquals() throws Throwable {
+    try (LineTokenizer tokenizer = tokenizer("browser\tx", LineTokenizer.TAB)) {
+      tokenizer.nextLine();
+      assertTrue(tokenizer.lineEquals("browser\tx"));
+      assertFalse(tokenizer.lineEquals("browser"));
+    }
+  }
+
+  @Test
+  public void columnEquals() throws Throwable {
+    try (LineTokenizer tokenizer = tokenizer("chr1\tchr10", LineTokenizer.TAB)) {
+      tokenizer.nextLine();
+      assertTrue(tokenizer.columnEquals(0, "chr1"));
+      assertFalse(tokenizer.columnEquals(0, "chr10"));
+      assertFalse(tokenizer.columnEquals(1, "chr1"));
+      assertTrue(tokenizer.columnEquals(1, "chr10"));
+    }
+  }
+
+  @Test
+  public void longValue() throws Throwable {
+    try (LineTokenizer tokenizer = tokenizer(
+        "0\t123\t-45\t+67\t9223372036854775807\t-9223372036854775808", LineTokenizer.TAB)) {
+      tokenizer.nextLine();
+      assertEquals(0, tokenizer.longValue(0));
+      assertEquals(123, tokenizer.longValue(1));
+      assertEquals(-45, tokenizer.longValue(2));
+      assertEquals(67, tokenizer.longValue(3));
+      assertEquals(Long.MAX_VALUE, tokenizer.longValue(4));
+      assertEquals(Long.MIN_VALUE, tokenizer.longValue(5));
+    }
+  }
+
+  @Test(expected = NumberFormatException.class)
+  public void longValue_Overflow() throws Throwable {
+    try (LineTokenizer tokenizer = tokenizer("9223372036854775808", LineTokenizer.TAB)) {
+      tokenizer.nextLine();
+      tokenizer.longValue(0);
+    }
+  }
+
+  @Test(expected = NumberFormatException.class)
+  public void longValue_Invalid() throws Throwable {
+    try (LineTokenizer tokenizer = tokenizer("12a", LineTokenizer.TAB)) {
+      tokenizer.nextLine();
+      tokenizer.longValue(0);
+    }
+  }
+
+  @Test(expected = NumberFormatException.class)
+  public void longValue_Empty() throws Throwable {
+    try (LineTokenizer tokenizer = tokenizer("\t1", LineTokenizer.TAB)) {
+      tokenizer.nextLine();
+      tokenizer.longValue(0);
+    }
+  }
+
+  @Test(expected = NumberFormatException.class)
+  public void intValue_Overflow() throws Throwable {
+    try (LineTokenizer tokenizer = tokenizer("2147483648", LineTokenizer.TAB)) {
+      tokenizer.nextLine();
+      tokenizer.intValue(0);
+    }
+  }
+
+  @Test
+  public void doubleValue() throws Throwable {
+    String[] values = { "0", "-0", "1.5", "-2.25", "+3", ".5", "1.", "0.1", "0.3",
+        "123456789012345", "1234567890123456789", "0.000001", "1e-7", "1.5E3", "NaN",
+        "-Infinity", "0.7234567891234567", "9007199254740993", "0.00000000000000000000000123",
+        "12.345678901234567", "-0.72345678912345678", "9007199254740993.5",
+        "0.000009007199254740993" };
+    try (LineTokenizer tokenizer = tokenizer(String.join("\t", values), LineTokenizer.TAB)) {
+      tokenizer.nextLine();
+      for (int i = 0; i < values.length; i++) {
+        assertEquals(values[i], Double.doubleToRawLongBits(Double.parseDouble(values[i])),
+            Double.doubleToRawLongBits(tokenizer.doubleValue(i)));
+      }
+    }
+  }
+
+  @Test
+  public void doubleValue_Random() throws Throwable {
+    Random random = new Random();
+    StringBuilder builder = new StringBuilder();
+    for (int i = 0; i < 10000; i++) {
+      builder.append(random.nextDouble() * Math.pow(10, random.nextInt(10) - 5));
+      builder.append("\t");
+      builder.append(new BigDecimal(random.nextDouble())
+          .setScale(random.nextInt(18), RoundingMode.HALF_UP).toPlainString());
+      builder.append("\t");
+      builder.append(BigDecimal.valueOf((long) (random.nextDouble() * 1e18), random.nextInt(23))
+          .toPlainString());
+      builder.append("\n");
+    }
+    try (LineTokenizer tokenizer = tokenizer(builder.toString(), LineTokenizer.TAB)) {
+      while (tokenizer.nextLine()) {
+        for (int i = 0; i < 3; i++) {
+          assertEquals(tokenizer.string(i),
+              Double.doubleToRawLongBits(Double.parseDouble(tokenizer.string(i))),
+              Double.doubleToRawLongBits(tokenizer.doubleValue(i)));
+        }
+      }
+    }
+  }
+
+  @Test(expected = NumberFormatException.class)
+  public void doubleValue_Invalid() throws Throwable {
+    try (LineTokenizer tokenizer = tokenizer("1.2.3", LineTokenizer.TAB)) {
+      tokenizer.nextLine();
+      tokenizer.doubleValue(0);
+    }
+  }
+
+  @Test
+  public void string_Start() throws Throwable {
+    try (LineTokenizer tokenizer = tokenizer(">name_chr1", "_")) {
+      assertTrue(tokenizer.nextLine());
+      assertEquals("name", tokenizer.string(0, 1));
+      assertEquals("", tokenizer.string(0, 5));
+      assertEquals("chr1", tokenizer.string(1, 0));
+      assertTrue(tokenizer.columnEquals(0, 1, "name"));
+      assertFalse(tokenizer.columnEquals(0, 1, ">name"));
+      assertFalse(tokenizer.columnEquals(0, 2, "name"));
+    }
+  }
+
+  @Test(expected = IndexOutOfBoundsException.class)
+  public void string_StartAfterEnd() throws Throwable {
+    try (LineTokenizer tokenizer = tokenizer(">name_chr1", "_")) {
+      tokenizer.nextLine();
+      tokenizer.string(0, 6);
+    }
+  }
+
+  @Test
+  public void appendLine() throws Throwable {
+    try (LineTokenizer tokenizer = tokenizer("AC\nGT\n", LineTokenizer.TAB)) {
+      StringBuilder builder = new StringBuilder();
+      while (tokenizer.nextLine()) {
+        tokenizer.appendLine(builder);
+      }
+      assertEquals("ACGT", builder.toString());
+    }
+  }
+}
@@ -0,0 +1,92 @@
+package ca.qc.ircm.rnapolymerasepauses.io;
+
+import ca.qc.ircm.rnapolymerasepauses.Pause;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares reading pauses using {@link PauseReader#readPause()} with
+ * {@link PauseReader#next(Pause)}.
+ * <p>
+ * Scores are in pauses per second. Run with <code>-prof gc</code> to compare allocation rates.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@OperationsPerInvocation(PauseReaderBenchmark.PAUSES_COUNT)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class PauseReaderBenchmark {
+  static final int PAUSES_COUNT = 100000;
+  private static final int PAUSES_PER_GENE = 10;
+  private static final int PAUSE_MAX_POSITION = 500;
+  private static final double PAUSE_MAX_NORMALIZED_READS = 5;
+  private static final double PAUSE_MAX_FOLDS_ABOVE_AVERAGE = 20;
+  private static final double PAUSE_MAX_BEGINNING_READS = 4;
+  private static final String SEQUENCE = "ACGTACGTACGTACGTACGTACGTACGTACGTACGTACGTACGTACGTAC";
+  private String content;
+
+  /**
+   * Generates pauses file.
+   */
+  @Setup
+  public void generatePauses() throws IOException {
+    Random random = new Random(PAUSES_COUNT);
+    StringWriter output = new StringWriter();
+    try (PauseWriter writer = new PauseWriter(output)) {
+      for (int i = 0; i < PAUSES_COUNT; i++) {
+        Pause pause = new Pause();
+        pause.name = "gene" + i / PAUSES_PER_GENE;
+        pause.chromosome = "chr" + (i * 10 / PAUSES_COUNT + 1);
+        pause.position = random.nextInt(PAUSE_MAX_POSITION);
+        pause.normalizedReads = random.nextDouble() * PAUSE_MAX_NORMALIZED_READS;
+        pause.foldsAboveAverage = random.nextDouble() * PAUSE_MAX_FOLDS_ABOVE_AVERAGE;
+        pause.beginningReads = random.nextDouble() * PAUSE_MAX_BEGINNING_READS;
+        pause.sequence = SEQUENCE;
+        writer.writePause(pause);
+      }
+    }
+    content = output.toString();
+  }
+
+  @Benchmark
+  public double readPause() throws IOException {
+    double sum = 0;
+    try (PauseReader reader = new PauseReader(new BufferedReader(new StringReader(content)))) {
+      Pause pause;
+      while ((pause = reader.readPause()) != null) {
+        sum += pause.foldsAboveAverage + pause.sequence.length();
+      }
+    }
+    return sum;
+  }
+
+  @Benchmark
+  public double next() throws IOException {
+    double sum = 0;
+    try (PauseReader reader = new PauseReader(new BufferedReader(new StringReader(content)))) {
+      Pause pause = new Pause();
+      while (reader.next(pause)) {
+        sum += pause.foldsAboveAverage + reader.sequence().length();
+      }
+    }
+    return sum;
+  }
+}
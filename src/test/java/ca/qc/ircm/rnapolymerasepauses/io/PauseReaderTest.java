@@ -1,8 +1,13 @@
 package ca.qc.ircm.rnapolymerasepauses.io;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 
 import ca.qc.ircm.rnapolymerasepauses.Pause;
+import ca.qc.ircm.rnapolymerasepauses.PauseTable;
 import ca.qc.ircm.rnapolymerasepauses.test.config.NonTransactionalTestAnnotations;
 import java.io.BufferedReader;
 import java.io.IOException;
@@ -137,4 +142,91 @@ public class PauseReaderTest {
       assertEquals("", actual.sequence);
     }
   }
+
+  @Test
+  public void next() throws Throwable {
+    Pause pause = new Pause();
+    try (PauseReader reader = new PauseReader(new BufferedReader(new StringReader(content)))) {
+      for (Pause expected : this.pauses) {
+        assertTrue(reader.next(pause));
+        assertEquals(expected.name, pause.name);
+        assertEquals(expected.chromosome, pause.chromosome);
+        assertEquals(expected.position, pause.position);
+        assertEquals(expected.normalizedReads, pause.normalizedReads, DELTA);
+        assertEquals(expected.foldsAboveAverage, pause.foldsAboveAverage, DELTA);
+        assertEquals(expected.beginningReads, pause.beginningReads, DELTA);
+        assertNull(pause.sequence);
+        assertEquals(expected.sequence, reader.sequence().toString());
+      }
+      assertFalse(reader.next(pause));
+    }
+  }
+
+  @Test
+  public void next_NoSequence() throws Throwable {
+    pauses.forEach(pause -> pause.sequence = null);
+    StringWriter contentAsWriter = new StringWriter();
+    writePauses(pauses, contentAsWriter);
+    content = contentAsWriter.toString();
+    Pause pause = new Pause();
+    try (PauseReader reader = new PauseReader(new BufferedReader(new StringReader(content)))) {
+      for (Pause expected : this.pauses) {
+        assertTrue(reader.next(pause));
+        assertEquals(expected.name, pause.name);
+        assertEquals(expected.position, pause.position);
+        assertEquals("", reader.sequence().toString());
+      }
+      assertFalse(reader.next(pause));
+    }
+  }
+
+  @Test
+  public void next_ReuseStrings() throws Throwable {
+    content = "# comment\n>gene_chr1_10_1.5_2.5_3.5\nACGT\nAC\n>gene_chr1_12_1_2_3\n"
+        + ">other_chr2_4_1_2_3\nGG\n";
+    Pause pause = new Pause();
+    try (PauseReader reader = new PauseReader(new BufferedReader(new StringReader(content)))) {
+      assertTrue(reader.next(pause));
+      String name = pause.name;
+      String chromosome = pause.chromosome;
+      assertEquals("gene", name);
+      assertEquals("chr1", chromosome);
+      assertEquals(10, pause.position);
+      assertEquals(1.5, pause.normalizedReads, DELTA);
+      assertEquals(2.5, pause.foldsAboveAverage, DELTA);
+      assertEquals(3.5, pause.beginningReads, DELTA);
+      assertEquals("ACGTAC", reader.sequence().toString());
+      assertTrue(reader.next(pause));
+      assertSame(name, pause.name);
+      assertSame(chromosome, pause.chromosome);
+      assertEquals(12, pause.position);
+      assertEquals("", reader.sequence().toString());
+      assertTrue(reader.next(pause));
+      assertEquals("other", pause.name);
+      assertEquals("chr2", pause.chromosome);
+      assertEquals(4, pause.position);
+      assertEquals("GG", reader.sequence().toString());
+      assertFalse(reader.next(pause));
+    }
+  }
+
+  @Test
+  public void readTable() throws Throwable {
+    PauseTable table;
+    try (PauseReader reader = new PauseReader(new BufferedReader(new StringReader(content)))) {
+      table = reader.readTable();
+    }
+
+    assertEquals(this.pauses.size(), table.size());
+    for (int i = 0; i < table.size(); i++) {
+      Pause expected = this.pauses.get(i);
+      assertEquals(expected.name, table.name(i));
+      assertEquals(expected.chromosome, table.chromosome(i));
+      assertEquals(expected.position, table.position(i));
+      assertEquals(expected.normalizedReads, table.normalizedReads(i), DELTA);
+      assertEquals(expected.foldsAboveAverage, table.foldsAboveAverage(i), DELTA);
+      assertEquals(expected.beginningReads, table.beginningReads(i), DELTA);
+      assertEquals(expected.sequence, table.sequence(i));
+    }
+  }
 }
@@ -0,0 +1,107 @@
+package ca.qc.ircm.rnapolymerasepauses.io;
+
+import ca.qc.ircm.rnapolymerasepauses.Pause;
+import java.io.CharArrayWriter;
+import java.io.IOException;
+import java.text.DecimalFormat;
+import java.text.NumberFormat;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.apache.commons.lang3.RandomStringUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares writing pauses using {@link PauseWriter} with the previous implementation based on
+ * {@link DecimalFormat}.
+ * <p>
+ * Scores are in pauses per second.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@OperationsPerInvocation(PauseWriterBenchmark.PAUSES_COUNT)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class PauseWriterBenchmark {
+  static final int PAUSES_COUNT = 10000;
+  private static final int PAUSE_NAME_LENGHT = 20;
+  private static final int PAUSE_MAX_POSITION = 500;
+  private static final double PAUSE_MAX_NORMALIZED_READS = 5;
+  private static final double PAUSE_MAX_FOLDS_ABOVE_AVERAGE = 20;
+  private static final double PAUSE_MAX_BEGINNING_READS = 4;
+  private static final int PAUSE_SEQUENCE_LENGHT = 50;
+  private static final String SEPARATOR = "_";
+  private static final String LINE_SEPARATOR = System.getProperty("line.separator");
+  private List<Pause> pauses;
+  private CharArrayWriter output = new CharArrayWriter();
+
+  /**
+   * Generates pauses.
+   */
+  @Setup
+  public void generatePauses() {
+    Random random = new Random(PAUSES_COUNT);
+    pauses = new ArrayList<>();
+    for (int i = 0; i < PAUSES_COUNT; i++) {
+      Pause pause = new Pause();
+      pause.name = RandomStringUtils.randomAlphanumeric(PAUSE_NAME_LENGHT);
+      pause.chromosome = "chr" + (i * 10 / PAUSES_COUNT + 1);
+      pause.position = random.nextInt(PAUSE_MAX_POSITION);
+      pause.normalizedReads = random.nextDouble() * PAUSE_MAX_NORMALIZED_READS;
+      pause.foldsAboveAverage = random.nextDouble() * PAUSE_MAX_FOLDS_ABOVE_AVERAGE;
+      pause.beginningReads = random.nextDouble() * PAUSE_MAX_BEGINNING_READS;
+      pause.sequence = RandomStringUtils.randomAlphabetic(PAUSE_SEQUENCE_LENGHT);
+      pauses.add(pause);
+    }
+  }
+
+  @Benchmark
+  public int pauseWriter() throws IOException {
+    output.reset();
+    PauseWriter writer = new PauseWriter(output);
+    for (Pause pause : pauses) {
+      writer.writePause(pause);
+    }
+    return output.size();
+  }
+
+  @Benchmark
+  public int decimalFormat() throws IOException {
+    output.reset();
+    NumberFormat normalizedReadsFormat = new DecimalFormat("0.#####");
+    NumberFormat foldsAboveAverageFormat = new DecimalFormat("0.################");
+    NumberFormat beginningReadsFormat = new DecimalFormat("0.##########");
+    for (Pause pause : pauses) {
+      output.write(">");
+      output.write(pause.name);
+      output.write(SEPARATOR);
+      output.write(pause.chromosome);
+      output.write(SEPARATOR);
+      output.write(String.valueOf(pause.position));
+      output.write(SEPARATOR);
+      output.write(normalizedReadsFormat.format(pause.normalizedReads));
+      output.write(SEPARATOR);
+      output.write(foldsAboveAverageFormat.format(pause.foldsAboveAverage));
+      output.write(SEPARATOR);
+      output.write(beginningReadsFormat.format(pause.beginningReads));
+      output.write(LINE_SEPARATOR);
+      output.write(pause.sequence);
+      output.write(LINE_SEPARATOR);
+    }
+    return output.size();
+  }
+}
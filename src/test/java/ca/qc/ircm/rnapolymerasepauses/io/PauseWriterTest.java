@@ -4,8 +4,10 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
 import ca.qc.ircm.rnapolymerasepauses.Pause;
+import ca.qc.ircm.rnapolymerasepauses.PauseTable;
 import ca.qc.ircm.rnapolymerasepauses.test.config.NonTransactionalTestAnnotations;
 import java.io.StringWriter;
+import java.text.DecimalFormat;
 import java.util.List;
 import java.util.Random;
 import java.util.stream.Collectors;
@@ -111,4 +113,47 @@ public class PauseWriterTest {
       assertEquals(pause.beginningReads, Double.parseDouble(columns[5]), DELTA);
     }
   }
+
+  @Test
+  public void writePause_SameAsDecimalFormat() throws Throwable {
+    DecimalFormat normalizedReadsFormat = new DecimalFormat("0.#####");
+    DecimalFormat foldsAboveAverageFormat = new DecimalFormat("0.################");
+    DecimalFormat beginningReadsFormat = new DecimalFormat("0.##########");
+    pauses.forEach(pause -> pause.sequence = null);
+    StringWriter actualContentWriter = new StringWriter();
+    try (PauseWriter writer = new PauseWriter(actualContentWriter)) {
+      for (Pause pause : pauses) {
+        writer.writePause(pause);
+      }
+    }
+
+    String[] lines = actualContentWriter.toString().split(LINE_SEPARATOR);
+    int lineNumber = 0;
+    for (Pause pause : pauses) {
+      String[] columns = lines[lineNumber++].substring(1).split(SEPARATOR);
+      assertEquals(normalizedReadsFormat.format(pause.normalizedReads), columns[3]);
+      assertEquals(foldsAboveAverageFormat.format(pause.foldsAboveAverage), columns[4]);
+      assertEquals(beginningReadsFormat.format(pause.beginningReads), columns[5]);
+    }
+  }
+
+  @Test
+  public void writePause_Table() throws Throwable {
+    PauseTable table = new PauseTable();
+    pauses.forEach(pause -> table.add(pause));
+    StringWriter expectedContentWriter = new StringWriter();
+    try (PauseWriter writer = new PauseWriter(expectedContentWriter)) {
+      for (Pause pause : pauses) {
+        writer.writePause(pause);
+      }
+    }
+    StringWriter actualContentWriter = new StringWriter();
+    try (PauseWriter writer = new PauseWriter(actualContentWriter)) {
+      for (int i = 0; i < table.size(); i++) {
+        writer.writePause(table, i);
+      }
+    }
+
+    assertEquals(expectedContentWriter.toString(), actualContentWriter.toString());
+  }
 }
@@ -0,0 +1,58 @@
+package ca.qc.ircm.rnapolymerasepauses.io;
+
+import static org.junit.Assert.assertEquals;
+
+import ca.qc.ircm.rnapolymerasepauses.test.config.NonTransactionalTestAnnotations;
+import java.io.StringWriter;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+
+@RunWith(SpringJUnit4ClassRunner.class)
+@NonTransactionalTestAnnotations
+public class RleTrackWriterTest {
+  @Test
+  public void write() throws Throwable {
+    StringWriter output = new StringWriter();
+    try (RleTrackWriter writer = new RleTrackWriter(output)) {
+      writer.startChromosome("chr1");
+      writer.write(0, 2000);
+      writer.write(1.5, 1);
+      writer.write(2.5, 3);
+      writer.startChromosome("chr2");
+      writer.write(0.25, 1);
+      writer.write(0, 1);
+    }
+
+    assertEquals("chrom=chr1\n0\t2000\n1.5\n2.5\t3\nchrom=chr2\n0.25\n0\n", output.toString());
+  }
+
+  @Test
+  public void write_MergeRuns() throws Throwable {
+    StringWriter output = new StringWriter();
+    try (RleTrackWriter writer = new RleTrackWriter(output)) {
+      writer.startChromosome("chr1");
+      writer.write(0, 2);
+      writer.write(0, 3);
+      writer.write(1.5, 1);
+      writer.write(1.5, 1);
+      writer.startChromosome("chr2");
+      writer.write(1.5, 1);
+    }
+
+    assertEquals("chrom=chr1\n0\t5\n1.5\t2\nchrom=chr2\n1.5\n", output.toString());
+  }
+
+  @Test
+  public void write_NoCount() throws Throwable {
+    StringWriter output = new StringWriter();
+    try (RleTrackWriter writer = new RleTrackWriter(output)) {
+      writer.startChromosome("chr1");
+      writer.write(1.5, 0);
+      writer.write(2.5, -1);
+      writer.startChromosome("chr2");
+    }
+
+    assertEquals("chrom=chr1\nchrom=chr2\n", output.toString());
+  }
+}
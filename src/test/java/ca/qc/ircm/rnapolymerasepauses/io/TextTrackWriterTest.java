@@ -0,0 +1,54 @@
+package ca.qc.ircm.rnapolymerasepauses.io;
+
+import static org.junit.Assert.assertEquals;
+
+import ca.qc.ircm.rnapolymerasepauses.test.config.NonTransactionalTestAnnotations;
+import java.io.StringWriter;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+
+@RunWith(SpringJUnit4ClassRunner.class)
+@NonTransactionalTestAnnotations
+public class TextTrackWriterTest {
+  @Test
+  public void write() throws Throwable {
+    StringWriter output = new StringWriter();
+    try (TextTrackWriter writer = new TextTrackWriter(output)) {
+      writer.startChromosome("chr1");
+      writer.write(0, 2);
+      writer.write(1.5, 3);
+      writer.startChromosome("chr2");
+      writer.write(0.25, 1);
+      writer.write(0, 1);
+    }
+
+    assertEquals("chrom=chr1\n0\n0\n1.5\n1.5\n1.5\nchrom=chr2\n0.25\n0\n", output.toString());
+  }
+
+  @Test
+  public void write_Text() throws Throwable {
+    StringWriter output = new StringWriter();
+    try (TextTrackWriter writer = new TextTrackWriter(output)) {
+      writer.startChromosome("chr1");
+      writer.write("5", 5, 2);
+      writer.write("1e-3", 0.001, 1);
+      writer.write("0.0", 0, 1);
+      writer.write("2", 2, 0);
+    }
+
+    assertEquals("chrom=chr1\n5\n5\n1e-3\n0.0\n", output.toString());
+  }
+
+  @Test
+  public void write_NoCount() throws Throwable {
+    StringWriter output = new StringWriter();
+    try (TextTrackWriter writer = new TextTrackWriter(output)) {
+      writer.startChromosome("chr1");
+      writer.write(1.5, 0);
+      writer.write(2.5, -1);
+    }
+
+    assertEquals("chrom=chr1\n", output.toString());
+  }
+}
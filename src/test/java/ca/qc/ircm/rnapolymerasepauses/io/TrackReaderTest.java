@@ -0,0 +1,119 @@
+package ca.qc.ircm.rnapolymerasepauses.io;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import ca.qc.ircm.rnapolymerasepauses.test.config.NonTransactionalTestAnnotations;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+
+@RunWith(SpringJUnit4ClassRunner.class)
+@NonTransactionalTestAnnotations
+public class TrackReaderTest {
+  private static final double DELTA = 0.000000001;
+
+  private TrackReader reader(String content) {
+    return new TrackReader(new BufferedReader(new StringReader(content)));
+  }
+
+  @Test
+  public void next() throws Throwable {
+    try (TrackReader reader = reader("chrom=chr1\n0\n1.5\n0\nchrom=chr2\n2\n0.25\n")) {
+      assertTrue(reader.next());
+      assertEquals("chr1", reader.chromosome());
+      assertEquals(0, reader.position());
+      assertEquals(0, reader.value(), DELTA);
+      assertTrue(reader.next());
+      assertEquals("chr1", reader.chromosome());
+      assertEquals(1, reader.position());
+      assertEquals(1.5, reader.value(), DELTA);
+      assertTrue(reader.next());
+      assertEquals("chr1", reader.chromosome());
+      assertEquals(2, reader.position());
+      assertEquals(0, reader.value(), DELTA);
+      assertTrue(reader.next());
+      assertEquals("chr2", reader.chromosome());
+      assertEquals(0, reader.position());
+      assertEquals(2, reader.value(), DELTA);
+      assertTrue(reader.next());
+      assertEquals("chr2", reader.chromosome());
+      assertEquals(1, reader.position());
+      assertEquals(0.25, reader.value(), DELTA);
+      assertFalse(reader.next());
+    }
+  }
+
+  @Test
+  public void next_Empty() throws Throwable {
+    try (TrackReader reader = reader("")) {
+      assertFalse(reader.next());
+    }
+  }
+
+  @Test
+  public void next_EmptyChromosome() throws Throwable {
+    try (TrackReader reader = reader("chrom=chr1\nchrom=chr2\n3\n")) {
+      assertTrue(reader.next());
+      assertEquals("chr2", reader.chromosome());
+      assertEquals(0, reader.position());
+      assertEquals(3, reader.value(), DELTA);
+      assertFalse(reader.next());
+    }
+  }
+
+  @Test
+  public void next_Runs() throws Throwable {
+    try (TrackReader reader = reader("chrom=chr1\n0\t3\n1.5\nchrom=chr2\n2\t2\n")) {
+      for (int i = 0; i < 3; i++) {
+        assertTrue(reader.next());
+        assertEquals("chr1", reader.chromosome());
+        assertEquals(i, reader.position());
+        assertEquals(0, reader.value(), DELTA);
+      }
+      assertTrue(reader.next());
+      assertEquals("chr1", reader.chromosome());
+      assertEquals(3, reader.position());
+      assertEquals(1.5, reader.value(), DELTA);
+      for (int i = 0; i < 2; i++) {
+        assertTrue(reader.next());
+        assertEquals("chr2", reader.chromosome());
+        assertEquals(i, reader.position());
+        assertEquals(2, reader.value(), DELTA);
+      }
+      assertFalse(reader.next());
+    }
+  }
+
+  @Test(expected = IOException.class)
+  public void next_InvalidCount() throws Throwable {
+    try (TrackReader reader = reader("chrom=chr1\n0\t0\n")) {
+      reader.next();
+    }
+  }
+
+  @Test(expected = NumberFormatException.class)
+  public void next_InvalidCountNumber() throws Throwable {
+    try (TrackReader reader = reader("chrom=chr1\n0\ta\n")) {
+      reader.next();
+    }
+  }
+
+  @Test(expected = IOException.class)
+  public void next_NoChromosome() throws Throwable {
+    try (TrackReader reader = reader("0\n1\n")) {
+      reader.next();
+    }
+  }
+
+  @Test(expected = NumberFormatException.class)
+  public void next_InvalidValue() throws Throwable {
+    try (TrackReader reader = reader("chrom=chr1\na\n")) {
+      reader.next();
+    }
+  }
+}
@@ -0,0 +1,148 @@
+package ca.qc.ircm.rnapolymerasepauses.io;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import ca.qc.ircm.rnapolymerasepauses.Gene;
+import ca.qc.ircm.rnapolymerasepauses.test.config.NonTransactionalTestAnnotations;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+
+@RunWith(SpringJUnit4ClassRunner.class)
+@NonTransactionalTestAnnotations
+public class TssCacheTest {
+  private TssCache tssCache;
+  @Mock
+  private TssParser tssParser;
+  @Rule
+  public TemporaryFolder temporaryFolder = new TemporaryFolder();
+  private List<Gene> genes = new ArrayList<>();
+  private Path tss;
+  private Path directory;
+
+  /**
+   * Before test.
+   */
+  @Before
+  public void beforeTest() throws Throwable {
+    tssCache = new TssCache(tssParser);
+    genes.add(gene("YAL001C", 151006));
+    genes.add(gene("YAL002W", 143707));
+    when(tssParser.genes(any())).thenReturn(genes);
+    tss = temporaryFolder.newFile("tss.txt").toPath();
+    Files.write(tss, Arrays.asList("SEQ_NAME\tSTART\tEND\tSTRAND\tANNO_TAG"));
+    directory = temporaryFolder.getRoot().toPath().resolve("cache");
+  }
+
+  private Gene gene(String name, long start) {
+    Gene gene = new Gene();
+    gene.name = name;
+    gene.start = start;
+    return gene;
+  }
+
+  private void assertGeneStarts(GeneStarts geneStarts) {
+    assertEquals(2, geneStarts.size());
+    assertEquals(0, geneStarts.indexOf("YAL001C"));
+    assertEquals(151006, geneStarts.start(0));
+    assertEquals(1, geneStarts.indexOf("YAL002W"));
+    assertEquals(143707, geneStarts.start(1));
+  }
+
+  @Test
+  public void geneStarts() throws Throwable {
+    GeneStarts geneStarts = tssCache.geneStarts(tss, directory);
+
+    verify(tssParser).genes(tss);
+    assertGeneStarts(geneStarts);
+    assertTrue(Files.exists(tssCache.file(tss, directory)));
+  }
+
+  @Test
+  public void geneStarts_Cached() throws Throwable {
+    tssCache.geneStarts(tss, directory);
+    genes.clear();
+
+    GeneStarts geneStarts = tssCache.geneStarts(tss, directory);
+
+    verify(tssParser, times(1)).genes(tss);
+    assertGeneStarts(geneStarts);
+  }
+
+  @Test
+  public void geneStarts_NoDirectory() throws Throwable {
+    GeneStarts geneStarts = tssCache.geneStarts(tss, null);
+    tssCache.geneStarts(tss, null);
+
+    verify(tssParser, times(2)).genes(tss);
+    assertGeneStarts(geneStarts);
+    assertFalse(Files.exists(directory));
+  }
+
+  @Test
+  public void geneStarts_SizeChanged() throws Throwable {
+    tssCache.geneStarts(tss, directory);
+    Files.write(tss, Arrays.asList("SEQ_NAME\tSTART\tEND\tSTRAND\tANNO_TAG", ""));
+    genes.remove(1);
+
+    GeneStarts geneStarts = tssCache.geneStarts(tss, directory);
+
+    verify(tssParser, times(2)).genes(tss);
+    assertEquals(1, geneStarts.size());
+    assertEquals(1, tssCache.geneStarts(tss, directory).size());
+  }
+
+  @Test
+  public void geneStarts_ModificationTimeChanged() throws Throwable {
+    tssCache.geneStarts(tss, directory);
+    Files.setLastModifiedTime(tss,
+        FileTime.fromMillis(Files.getLastModifiedTime(tss).toMillis() - 10000));
+
+    tssCache.geneStarts(tss, directory);
+
+    verify(tssParser, times(2)).genes(tss);
+  }
+
+  @Test
+  public void geneStarts_OtherFile() throws Throwable {
+    tssCache.geneStarts(tss, directory);
+    Path other = temporaryFolder.newFile("other.txt").toPath();
+    Files.copy(tss, other, StandardCopyOption.REPLACE_EXISTING);
+
+    tssCache.geneStarts(other, directory);
+
+    verify(tssParser).genes(tss);
+    verify(tssParser).genes(other);
+  }
+
+  @Test
+  public void geneStarts_Corrupted() throws Throwable {
+    tssCache.geneStarts(tss, directory);
+    Path file = tssCache.file(tss, directory);
+    byte[] content = Files.readAllBytes(file);
+    Files.write(file, Arrays.copyOf(content, content.length - 1));
+
+    GeneStarts geneStarts = tssCache.geneStarts(tss, directory);
+
+    verify(tssParser, times(2)).genes(tss);
+    assertGeneStarts(geneStarts);
+    assertEquals(content.length, Files.size(file));
+  }
+}
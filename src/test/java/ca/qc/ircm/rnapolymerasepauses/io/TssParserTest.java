@@ -0,0 +1,80 @@
+package ca.qc.ircm.rnapolymerasepauses.io;
+
+import static org.junit.Assert.assertEquals;
+
+import ca.qc.ircm.rnapolymerasepauses.Gene;
+import ca.qc.ircm.rnapolymerasepauses.test.config.NonTransactionalTestAnnotations;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import org.apache.commons.lang3.RandomStringUtils;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+
+@RunWith(SpringJUnit4ClassRunner.class)
+@NonTransactionalTestAnnotations
+public class TssParserTest {
+  private static final int GENES_COUNT = 1000;
+  private static final int GENE_NAME_LENGTH = 10;
+  private static final int MAX_CHROMOSOME = 18;
+  private static final int GENE_MAX_POSITION = 1000000;
+  private static final int GENE_MAX_LENGTH = 1000;
+  private static final String SEPARATOR = "\t";
+  private TssParser tssParser = new TssParser();
+  @Rule
+  public TemporaryFolder temporaryFolder = new TemporaryFolder();
+  private List<Gene> genes;
+
+  private void createTss(Path path) throws IOException {
+    Random random = new Random();
+    genes = new ArrayList<>();
+    List<String> lines = new ArrayList<>();
+    lines.add("SEQ_NAME\tSTART\tEND\tSTRAND\tANNO_TAG");
+    for (int i = 0; i < GENES_COUNT; i++) {
+      Gene gene = new Gene();
+      gene.name = RandomStringUtils.randomAlphanumeric(GENE_NAME_LENGTH);
+      gene.chromosome = "chr" + (random.nextInt(MAX_CHROMOSOME) + 1);
+      gene.start = random.nextInt(GENE_MAX_POSITION);
+      gene.end = gene.start + random.nextInt(GENE_MAX_LENGTH);
+      gene.strand = random.nextBoolean() ? "+" : "-";
+      genes.add(gene);
+      lines.add(gene.chromosome + SEPARATOR + gene.start + SEPARATOR + gene.end + SEPARATOR
+          + gene.strand + SEPARATOR + gene.name);
+    }
+    Files.write(path, lines);
+  }
+
+  @Test
+  public void genes() throws Throwable {
+    Path file = temporaryFolder.newFile("tss.txt").toPath();
+    createTss(file);
+
+    List<Gene> genes = tssParser.genes(file);
+
+    assertEquals(this.genes.size(), genes.size());
+    for (int i = 0; i < genes.size(); i++) {
+      Gene expected = this.genes.get(i);
+      Gene gene = genes.get(i);
+      assertEquals(expected.name, gene.name);
+      assertEquals(expected.chromosome, gene.chromosome);
+      assertEquals(expected.start, gene.start);
+      assertEquals(expected.end, gene.end);
+      assertEquals(expected.strand, gene.strand);
+    }
+  }
+
+  @Test(expected = IOException.class)
+  public void genes_Invalid() throws Throwable {
+    Path file = temporaryFolder.newFile("tss_invalid.txt").toPath();
+    Files.write(file, Arrays.asList("SEQ_NAME\tSTART\tEND\tSTRAND\tANNO_TAG", "chr1\t10\t20"));
+
+    tssParser.genes(file);
+  }
+}
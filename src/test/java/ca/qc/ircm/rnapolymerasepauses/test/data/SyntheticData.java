@@ -0,0 +1,301 @@
+package ca.qc.ircm.rnapolymerasepauses.test.data;
+
+import ca.qc.ircm.rnapolymerasepauses.Pause;
+import ca.qc.ircm.rnapolymerasepauses.io.PauseWriter;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Generates deterministic synthetic files at the scale of real genomes.
+ * <p>
+ * Chromosome sizes are those of sacCer3, dm6 and hg38. Like
+ * {@link ca.qc.ircm.rnapolymerasepauses.FakeGene}, genes are synthesized from chromosome sizes,
+ * at a spacing matching the gene density of the genome. The same genome and density always
+ * produce the same files, so files are generated once in the data directory and reused by later
+ * runs.
+ * </p>
+ */
+public class SyntheticData {
+  /**
+   * System property containing directory of generated files.
+   */
+  public static final String DIRECTORY_PROPERTY = "benchmark.data";
+  private static final String DEFAULT_DIRECTORY = "target/benchmark-data";
+  private static final Charset CHARSET = StandardCharsets.UTF_8;
+  private static final String LINE_SEPARATOR = "\n";
+  private static final String COLUMN_SEPARATOR = "\t";
+  private static final String PLUS_PATTERN = "%s-P%d";
+  private static final String MINUS_PATTERN = "%s-M%d";
+  private static final String BASES = "ACGT";
+  private static final int GENE_LENGTH = 1500;
+  private static final int MAX_PAUSES_PER_GENE = 20;
+  private static final int PAUSE_SEQUENCE_LENGTH = 50;
+  private static final int MAX_READS = 400;
+  private static final double PAUSE_MAX_NORMALIZED_READS = 5;
+  private static final double PAUSE_MAX_FOLDS_ABOVE_AVERAGE = 20;
+  private static final double PAUSE_MAX_BEGINNING_READS = 4;
+  private final Path directory;
+
+  /**
+   * Genomes, with their chromosome sizes and gene density.
+   */
+  public enum Genome {
+    YEAST(2000, "chrI", 230218, "chrII", 813184, "chrIII", 316620, "chrIV", 1531933, "chrV",
+        576874, "chrVI", 270161, "chrVII", 1090940, "chrVIII", 562643, "chrIX", 439888, "chrX",
+        745751, "chrXI", 666816, "chrXII", 1078177, "chrXIII", 924431, "chrXIV", 784333,
+        "chrXV", 1091291, "chrXVI", 948066, "chrM", 85779),
+    FLY(10000, "chr2L", 23513712, "chr2R", 25286936, "chr3L", 28110227, "chr3R", 32079331,
+        "chr4", 1348131, "chrX", 23542271, "chrY", 3667352, "chrM", 19524),
+    HUMAN(150000, "chr1", 248956422, "chr2", 242193529, "chr3", 198295559, "chr4", 190214555,
+        "chr5", 181538259, "chr6", 170805979, "chr7", 159345973, "chr8", 145138636, "chr9",
+        138394717, "chr10", 133797422, "chr11", 135086622, "chr12", 133275309, "chr13",
+        114364328, "chr14", 107043718, "chr15", 101991189, "chr16", 90338345, "chr17", 83257441,
+        "chr18", 80373285, "chr19", 58617616, "chr20", 64444167, "chr21", 46709983, "chr22",
+        50818468, "chrX", 156040895, "chrY", 57227415, "chrM", 16569);
+
+    private final int geneSpacing;
+    private final Map<String, Long> sizes = new LinkedHashMap<>();
+
+    private Genome(int geneSpacing, Object... sizes) {
+      this.geneSpacing = geneSpacing;
+      for (int i = 0; i < sizes.length; i += 2) {
+        this.sizes.put((String) sizes[i], ((Number) sizes[i + 1]).longValue());
+      }
+    }
+
+    /**
+     * Returns chromosome sizes, in genome order.
+     *
+     * @return chromosome sizes, in genome order
+     */
+    public Map<String, Long> sizes() {
+      return sizes;
+    }
+  }
+
+  /**
+   * Density of reads.
+   */
+  public enum Density {
+    /**
+     * Isolated reads, like NET-seq of a lowly transcribed genome.
+     */
+    SPARSE(200, 1),
+    /**
+     * Long runs of reads covering most positions.
+     */
+    DENSE(5, 20);
+
+    private final int meanGap;
+    private final int meanLength;
+
+    private Density(int meanGap, int meanLength) {
+      this.meanGap = meanGap;
+      this.meanLength = meanLength;
+    }
+  }
+
+  @FunctionalInterface
+  private interface Generator {
+    void generate(Writer writer, Random random) throws IOException;
+  }
+
+  /**
+   * Creates generator using directory from system property {@value #DIRECTORY_PROPERTY}.
+   */
+  public SyntheticData() {
+    this(Paths.get(System.getProperty(DIRECTORY_PROPERTY, DEFAULT_DIRECTORY)));
+  }
+
+  /**
+   * Creates generator.
+   *
+   * @param directory
+   *          directory of generated files
+   */
+  public SyntheticData(Path directory) {
+    this.directory = directory;
+  }
+
+  private Path file(String name, long seed, Generator generator) throws IOException {
+    Path file = directory.resolve(name);
+    if (Files.exists(file)) {
+      return file;
+    }
+    Files.createDirectories(directory);
+    Path temporary = Files.createTempFile(directory, name, ".tmp");
+    try {
+      try (BufferedWriter writer = Files.newBufferedWriter(temporary, CHARSET)) {
+        generator.generate(writer, new Random(seed));
+      }
+      Files.move(temporary, file, StandardCopyOption.ATOMIC_MOVE);
+    } finally {
+      Files.deleteIfExists(temporary);
+    }
+    return file;
+  }
+
+  private String name(Enum<?>... values) {
+    StringBuilder builder = new StringBuilder();
+    for (Enum<?> value : values) {
+      builder.append(value.name().toLowerCase());
+      builder.append("-");
+    }
+    return builder.toString();
+  }
+
+  private long seed(Enum<?>... values) {
+    long seed = 17;
+    for (Enum<?> value : values) {
+      seed = seed * 31 + value.getDeclaringClass().getSimpleName().hashCode();
+      seed = seed * 31 + value.ordinal();
+    }
+    return seed;
+  }
+
+  /**
+   * Returns chromosome sizes file of genome.
+   *
+   * @param genome
+   *          genome
+   * @return chromosome sizes file of genome
+   * @throws IOException
+   *           could not write file
+   */
+  public Path chromosomeSizes(Genome genome) throws IOException {
+    return file(name(genome) + "sizes.txt", seed(genome), (writer, random) -> {
+      for (Map.Entry<String, Long> entry : genome.sizes.entrySet()) {
+        writer.write(entry.getKey());
+        writer.write(COLUMN_SEPARATOR);
+        writer.write(String.valueOf(entry.getValue()));
+        writer.write(LINE_SEPARATOR);
+      }
+    });
+  }
+
+  /**
+   * Returns BED file of genome with reads of density.
+   *
+   * @param genome
+   *          genome
+   * @param density
+   *          density of reads
+   * @return BED file of genome
+   * @throws IOException
+   *           could not write file
+   */
+  public Path bed(Genome genome, Density density) throws IOException {
+    return file(name(genome, density) + "reads.bed", seed(genome, density), (writer, random) -> {
+      for (Map.Entry<String, Long> entry : genome.sizes.entrySet()) {
+        String chromosome = entry.getKey();
+        long size = entry.getValue();
+        long position = random.nextInt(density.meanGap * 2 + 1);
+        while (position < size) {
+          long end = Math.min(position + 1 + random.nextInt(density.meanLength * 2), size);
+          writer.write(chromosome);
+          writer.write(COLUMN_SEPARATOR);
+          writer.write(String.valueOf(position));
+          writer.write(COLUMN_SEPARATOR);
+          writer.write(String.valueOf(end));
+          writer.write(COLUMN_SEPARATOR);
+          writer.write(String.valueOf(reads(random)));
+          writer.write(LINE_SEPARATOR);
+          position = end + 1 + random.nextInt(density.meanGap * 2);
+        }
+      }
+    });
+  }
+
+  /**
+   * Returns WIG file of genome with reads of density.
+   *
+   * @param genome
+   *          genome
+   * @param density
+   *          density of reads
+   * @return WIG file of genome
+   * @throws IOException
+   *           could not write file
+   */
+  public Path wig(Genome genome, Density density) throws IOException {
+    return file(name(genome, density) + "reads.wig", seed(genome, density), (writer, random) -> {
+      for (Map.Entry<String, Long> entry : genome.sizes.entrySet()) {
+        String chromosome = entry.getKey();
+        long size = entry.getValue();
+        writer.write("variableStep chrom=");
+        writer.write(chromosome);
+        writer.write(LINE_SEPARATOR);
+        long position = random.nextInt(density.meanGap * 2 + 1);
+        while (position < size) {
+          long end = Math.min(position + 1 + random.nextInt(density.meanLength * 2), size);
+          for (; position < end; position++) {
+            writer.write(String.valueOf(position));
+            writer.write(COLUMN_SEPARATOR);
+            writer.write(String.valueOf(reads(random)));
+            writer.write(LINE_SEPARATOR);
+          }
+          position = end + 1 + random.nextInt(density.meanGap * 2);
+        }
+      }
+    });
+  }
+
+  private double reads(Random random) {
+    return (random.nextInt(MAX_READS) + 1) / 4.0;
+  }
+
+  /**
+   * Returns pauses file of genome.
+   * <p>
+   * Genes are {@value #GENE_LENGTH} bases long and are placed on both strands of every
+   * chromosome, like {@link ca.qc.ircm.rnapolymerasepauses.FakeGene} does for whole
+   * chromosomes. Each gene contains up to {@value #MAX_PAUSES_PER_GENE} pauses, sorted by
+   * position.
+   * </p>
+   *
+   * @param genome
+   *          genome
+   * @return pauses file of genome
+   * @throws IOException
+   *           could not write file
+   */
+  public Path pauses(Genome genome) throws IOException {
+    return file(name(genome) + "pauses.txt", seed(genome), (writer, random) -> {
+      PauseWriter pauseWriter = new PauseWriter(writer);
+      Pause pause = new Pause();
+      char[] sequence = new char[PAUSE_SEQUENCE_LENGTH];
+      for (Map.Entry<String, Long> entry : genome.sizes.entrySet()) {
+        pause.chromosome = entry.getKey();
+        long genes = (entry.getValue() - GENE_LENGTH) / genome.geneSpacing;
+        for (int gene = 0; gene < genes * 2; gene++) {
+          pause.name = String.format(gene % 2 == 0 ? PLUS_PATTERN : MINUS_PATTERN,
+              pause.chromosome, gene / 2);
+          int pauses = random.nextInt(MAX_PAUSES_PER_GENE + 1);
+          int position = 0;
+          for (int i = 0; i < pauses; i++) {
+            position += 1 + random.nextInt(GENE_LENGTH / MAX_PAUSES_PER_GENE);
+            pause.position = position;
+            pause.normalizedReads = random.nextDouble() * PAUSE_MAX_NORMALIZED_READS;
+            pause.foldsAboveAverage = random.nextDouble() * PAUSE_MAX_FOLDS_ABOVE_AVERAGE;
+            pause.beginningReads = random.nextDouble() * PAUSE_MAX_BEGINNING_READS;
+            for (int j = 0; j < sequence.length; j++) {
+              sequence[j] = BASES.charAt(random.nextInt(BASES.length()));
+            }
+            pause.sequence = new String(sequence);
+            pauseWriter.writePause(pause);
+          }
+        }
+      }
+    });
+  }
+}
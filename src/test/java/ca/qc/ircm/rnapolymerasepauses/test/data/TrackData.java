@@ -0,0 +1,122 @@
+package ca.qc.ircm.rnapolymerasepauses.test.data;
+
+import ca.qc.ircm.rnapolymerasepauses.Gene;
+import ca.qc.ircm.rnapolymerasepauses.io.BinaryTrackWriter;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Tracks, genes and tab-delimited output of tests of commands reading reads of genes.
+ */
+public class TrackData {
+  private static final String LINE_SEPARATOR = "\n";
+  private static final String COLUMN_SEPARATOR = "\t";
+  private static final String CHROMOSOME = "chr1";
+
+  private TrackData() {
+  }
+
+  /**
+   * Returns a reader of a text track containing values for each chromosome.
+   *
+   * @param values
+   *          values of each chromosome
+   * @param chromosomes
+   *          chromosomes, defaults to chr1
+   * @return reader of a text track containing values for each chromosome
+   */
+  public static BufferedReader reader(double[] values, String... chromosomes) {
+    if (chromosomes.length == 0) {
+      chromosomes = new String[] { CHROMOSOME };
+    }
+    StringBuilder builder = new StringBuilder();
+    for (String chromosome : chromosomes) {
+      builder.append("chrom=" + chromosome + LINE_SEPARATOR);
+      for (double value : values) {
+        builder.append(value);
+        builder.append(LINE_SEPARATOR);
+      }
+    }
+    return new BufferedReader(new StringReader(builder.toString()));
+  }
+
+  /**
+   * Writes a binary track containing values for chr1.
+   *
+   * @param temporaryFolder
+   *          folder where to write track
+   * @param name
+   *          file name of track
+   * @param values
+   *          values of chr1
+   * @return binary track
+   * @throws IOException
+   *           could not write track
+   */
+  public static Path binaryTrack(TemporaryFolder temporaryFolder, String name, double[] values)
+      throws IOException {
+    Path file = temporaryFolder.getRoot().toPath().resolve(name);
+    try (BinaryTrackWriter writer = new BinaryTrackWriter(Files.newOutputStream(file))) {
+      writer.startChromosome(CHROMOSOME);
+      for (double value : values) {
+        writer.write(value, 1);
+      }
+    }
+    return file;
+  }
+
+  /**
+   * Creates a gene and adds it to genes.
+   *
+   * @param genes
+   *          genes
+   * @param name
+   *          name
+   * @param chromosome
+   *          chromosome
+   * @param start
+   *          start
+   * @param end
+   *          end
+   * @param strand
+   *          strand
+   * @return gene
+   */
+  public static Gene gene(List<Gene> genes, String name, String chromosome, long start, long end,
+      String strand) {
+    Gene gene = new Gene();
+    gene.name = name;
+    gene.chromosome = chromosome;
+    gene.start = start;
+    gene.end = end;
+    gene.strand = strand;
+    genes.add(gene);
+    return gene;
+  }
+
+  /**
+   * Returns columns of each line of output.
+   *
+   * @param output
+   *          tab-delimited output
+   * @return columns of each line of output
+   */
+  public static String[][] lines(StringWriter output) {
+    String content = output.toString();
+    if (content.isEmpty()) {
+      return new String[0][];
+    }
+    String[] lines = content.split(LINE_SEPARATOR);
+    String[][] columns = new String[lines.length][];
+    for (int i = 0; i < lines.length; i++) {
+      columns[i] = lines[i].split(COLUMN_SEPARATOR, -1);
+    }
+    return columns;
+  }
+}
@@ -0,0 +1,55 @@
+package ca.qc.ircm.rnapolymerasepauses.validation;
+
+import static org.junit.Assert.fail;
+
+import ca.qc.ircm.rnapolymerasepauses.test.config.NonTransactionalTestAnnotations;
+import com.beust.jcommander.ParameterException;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+
+@RunWith(SpringJUnit4ClassRunner.class)
+@NonTransactionalTestAnnotations
+public class StrandValidationTest {
+  private StrandValidation strandValidation = new StrandValidation();
+
+  @Test
+  public void validate_Plus() throws Throwable {
+    try {
+      strandValidation.validate("my-name", "+");
+      // Success
+    } catch (ParameterException e) {
+      fail("ParameterException not expected");
+    }
+  }
+
+  @Test
+  public void validate_Minus() throws Throwable {
+    try {
+      strandValidation.validate("my-name", "-");
+      // Success
+    } catch (ParameterException e) {
+      fail("ParameterException not expected");
+    }
+  }
+
+  @Test
+  public void validate_Invalid() {
+    try {
+      strandValidation.validate("my-name", "a");
+      fail("Expected ParameterException");
+    } catch (ParameterException e) {
+      // Success
+    }
+  }
+
+  @Test
+  public void validate_Empty() {
+    try {
+      strandValidation.validate("my-name", "");
+      fail("Expected ParameterException");
+    } catch (ParameterException e) {
+      // Success
+    }
+  }
+}